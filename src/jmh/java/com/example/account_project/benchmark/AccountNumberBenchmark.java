@@ -0,0 +1,47 @@
+package com.example.account_project.benchmark;
+
+import com.example.account_project.repository.AccountRepository;
+import com.example.account_project.service.AccountNumberGenerator;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.concurrent.TimeUnit;
+
+/*
+ * 계좌번호 발급 비교
+ * - latestAccountPlusOne : 기존 방식 (마지막 계좌 조회 후 +1)
+ * - blockAllocator       : 블록 예약 + AtomicLong
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Threads(8)
+public class AccountNumberBenchmark {
+    private ConfigurableApplicationContext context;
+    private AccountNumberGenerator accountNumberGenerator;
+    private AccountRepository accountRepository;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkContext.start();
+        accountNumberGenerator = context.getBean(AccountNumberGenerator.class);
+        accountRepository = context.getBean(AccountRepository.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public String latestAccountPlusOne() {
+        return accountRepository.findFirstByOrderByIdDesc()
+                .map(account -> Long.parseLong(account.getAccountNumber()) + 1 + "")
+                .orElse("1000000000");
+    }
+
+    @Benchmark
+    public String blockAllocator() {
+        return accountNumberGenerator.nextAccountNumber();
+    }
+}
@@ -0,0 +1,70 @@
+package com.example.account_project.benchmark;
+
+import com.example.account_project.AccountProjectApplication;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/*
+ * 벤치마크용 애플리케이션 컨텍스트
+ * 내장 H2 와 내장 Redis 를 그대로 띄우고, SQL 로그처럼 측정에 방해되는 출력만 끈다.
+ * 설정은 커맨드라인 인자로 넘겨서 application.yml 보다 우선한다. (같은 키는 나중 값이 이긴다)
+ * 실패 거래 스필 파일은 컨텍스트마다 임시 디렉터리에 따로 둔다. (이전 실행의 DB 에 쓰던 줄을 복구하지 않게)
+ */
+public final class BenchmarkContext {
+
+    private BenchmarkContext() {
+    }
+
+    public static ConfigurableApplicationContext start(String... properties) {
+        Map<String, String> args = new LinkedHashMap<>();
+        put(args, "spring.jpa.properties.hibernate.show_sql=false");
+        put(args, "logging.level.root=WARN");
+        put(args, "account.failed-transaction.spill-file=" + tempSpillFile());
+        for (String property : properties) {
+            put(args, property);
+        }
+        return run(args);
+    }
+
+    /* 프로파일 설정(SQL 로그 포함)을 그대로 사용한다. */
+    public static ConfigurableApplicationContext startProfile(String profile, String... properties) {
+        Map<String, String> args = new LinkedHashMap<>();
+        put(args, "spring.profiles.active=" + profile);
+        put(args, "logging.level.root=WARN");
+        put(args, "account.failed-transaction.spill-file=" + tempSpillFile());
+        for (String property : properties) {
+            put(args, property);
+        }
+        return run(args);
+    }
+
+    private static Path tempSpillFile() {
+        try {
+            return Files.createTempDirectory("failed-transactions").resolve("failed-transactions.log");
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static void put(Map<String, String> args, String property) {
+        int separator = property.indexOf('=');
+        args.put(property.substring(0, separator), property.substring(separator + 1));
+    }
+
+    private static ConfigurableApplicationContext run(Map<String, String> args) {
+        return new SpringApplicationBuilder(AccountProjectApplication.class)
+                .web(WebApplicationType.NONE)
+                .logStartupInfo(false)
+                .run(args.entrySet().stream()
+                        .map(arg -> "--" + arg.getKey() + "=" + arg.getValue())
+                        .toArray(String[]::new));
+    }
+}
@@ -0,0 +1,92 @@
+package com.example.account_project.benchmark;
+
+import com.example.account_project.dto.TransactionDto;
+import com.example.account_project.service.AccountService;
+import com.example.account_project.service.LockService;
+import com.example.account_project.service.TransactionService;
+import com.example.account_project.type.TransactionMode;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.concurrent.TimeUnit;
+
+/*
+ * 잔액 사용 방식 비교 (LOCK / ATOMIC / JOURNAL / LEDGER)
+ * - LOCK    : /transaction/use 와 같이 redis 락 -> useBalance -> 락 해제
+ * - ATOMIC  : 락 없이 useBalance (조건부 UPDATE)
+ * - JOURNAL : LOCK 과 같이 락을 잡고, 저널 그룹 fsync 후 응답 (DB 반영은 백그라운드)
+ * - LEDGER  : 락 없이 메모리 원장 샤드에서 차감, 저널 그룹 fsync 후 응답
+ * hotAccount 는 모든 스레드가 한 계좌를, ownAccount 는 스레드마다 다른 계좌를 사용한다.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Threads(8)
+public class DebitModeBenchmark {
+    private static final long USER_ID = 1L;
+    private static final long AMOUNT = 10L;
+
+    @Param({"LOCK", "ATOMIC", "JOURNAL", "LEDGER"})
+    public TransactionMode mode;
+
+    private ConfigurableApplicationContext context;
+    private LockService lockService;
+    private TransactionService transactionService;
+    private AccountService accountService;
+    private String hotAccountNumber;
+
+    @State(Scope.Thread)
+    public static class OwnAccount {
+        String accountNumber;
+
+        @Setup(Level.Trial)
+        public void setUp(DebitModeBenchmark benchmark) {
+            accountNumber = benchmark.createAccount();
+        }
+    }
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        // JOURNAL, LEDGER 는 노드 하나로만 띄울 수 있다 (account.lock.backend=local)
+        context = BenchmarkContext.start("account.transaction.mode=" + mode,
+                "account.journal.directory=" + Files.createTempDirectory("journal"),
+                "account.lock.backend=" + (mode == TransactionMode.JOURNAL || mode == TransactionMode.LEDGER ? "local" : "redis"));
+        lockService = context.getBean(LockService.class);
+        transactionService = context.getBean(TransactionService.class);
+        accountService = context.getBean(AccountService.class);
+        hotAccountNumber = createAccount();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    synchronized String createAccount() {
+        return accountService.createAccount(USER_ID, Long.MAX_VALUE / 2).getAccountNumber();
+    }
+
+    @Benchmark
+    public TransactionDto hotAccount() {
+        return useBalance(hotAccountNumber);
+    }
+
+    @Benchmark
+    public TransactionDto ownAccount(OwnAccount ownAccount) {
+        return useBalance(ownAccount.accountNumber);
+    }
+
+    private TransactionDto useBalance(String accountNumber) {
+        if (mode == TransactionMode.ATOMIC || mode == TransactionMode.LEDGER) {
+            return transactionService.useBalance(USER_ID, accountNumber, AMOUNT);
+        }
+        lockService.lock(accountNumber);
+        try {
+            return transactionService.useBalance(USER_ID, accountNumber, AMOUNT);
+        } finally {
+            lockService.unlock(accountNumber);
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package com.example.account_project.benchmark;
+
+import com.example.account_project.dto.TransactionDto;
+import com.example.account_project.service.AccountService;
+import com.example.account_project.service.BalanceSlotService;
+import com.example.account_project.service.LockService;
+import com.example.account_project.service.TransactionService;
+import com.example.account_project.type.TransactionMode;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.concurrent.TimeUnit;
+
+/*
+ * 몰리는 계좌 하나에 잔액 슬롯 수별 처리량 (slots=0 은 나누지 않은 계좌)
+ * LockAopAspect 와 같이, LOCK 모드는 나누지 않은 계좌만 redis 락을 잡고 나눈 계좌는 슬롯 행 잠금만 잡는다.
+ * 처리량이 슬롯 수에 따라 늘어나는지 본다.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Threads(16)
+public class HotAccountSlotBenchmark {
+    private static final long USER_ID = 1L;
+    private static final long AMOUNT = 10L;
+
+    @Param({"LOCK", "ATOMIC"})
+    public TransactionMode mode;
+
+    @Param({"0", "4", "16"})
+    public int slots;
+
+    private ConfigurableApplicationContext context;
+    private LockService lockService;
+    private TransactionService transactionService;
+    private BalanceSlotService balanceSlotService;
+    private String hotAccountNumber;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkContext.start("account.transaction.mode=" + mode);
+        lockService = context.getBean(LockService.class);
+        transactionService = context.getBean(TransactionService.class);
+        balanceSlotService = context.getBean(BalanceSlotService.class);
+        hotAccountNumber = context.getBean(AccountService.class)
+                .createAccount(USER_ID, Long.MAX_VALUE / 2).getAccountNumber();
+        if (slots > 0) {
+            balanceSlotService.shard(hotAccountNumber, slots);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public TransactionDto hotAccount() {
+        if (mode == TransactionMode.ATOMIC || balanceSlotService.isSharded(hotAccountNumber)) {
+            return transactionService.useBalance(USER_ID, hotAccountNumber, AMOUNT);
+        }
+        lockService.lock(hotAccountNumber);
+        try {
+            return transactionService.useBalance(USER_ID, hotAccountNumber, AMOUNT);
+        } finally {
+            lockService.unlock(hotAccountNumber);
+        }
+    }
+}
@@ -0,0 +1,147 @@
+package com.example.account_project.benchmark;
+
+import com.example.account_project.dto.AccountDto;
+import com.example.account_project.dto.TransactionDto;
+import com.example.account_project.service.AccountService;
+import com.example.account_project.service.AccountSummaryCache;
+import com.example.account_project.service.LockService;
+import com.example.account_project.service.TransactionService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/*
+ * 거래 주요 경로 기준 측정 (내장 H2 + 내장 Redis)
+ * 처리량과 p50/p99/p999 지연 시간(SampleTime)을 같이 측정한다.
+ * 스레드 수는 @Threads 대신 실행할 때 정한다. (./gradlew jmhHotPath -> 스레드 수별 JSON)
+ * - useBalance / cancelBalance : 컨트롤러와 같이 락 -> 서비스 -> 락 해제, 스레드마다 다른 계좌
+ * - queryTransaction           : 모든 스레드가 같은 거래를 조회
+ * - lockUnlock                 : 계좌 락만
+ * - createAccount              : 사용자당 10개 제한 때문에 미리 만든 사용자를 돌아가며 사용하고 반복마다 지운다
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 5, time = 5)
+public class HotPathBenchmark {
+    private static final long AMOUNT = 10L;
+    private static final long INITIAL_BALANCE = Long.MAX_VALUE / 2;
+    private static final int ACCOUNT_PER_USER = 10;
+    private static final long THREAD_USER_ID_BASE = 1_000_000L;
+    private static final int MAX_THREAD_COUNT = 1_000;
+    private static final long CREATE_USER_ID_BASE = THREAD_USER_ID_BASE + MAX_THREAD_COUNT;
+    private static final int CREATE_USER_COUNT = 50_000;
+
+    private ConfigurableApplicationContext context;
+    private AccountService accountService;
+    private TransactionService transactionService;
+    private LockService lockService;
+    private AccountSummaryCache accountSummaryCache;
+    private JdbcTemplate jdbcTemplate;
+
+    private final AtomicInteger threadSequence = new AtomicInteger();
+    private final AtomicLong createdAccounts = new AtomicLong();
+    private String sharedTransactionId;
+
+    @State(Scope.Thread)
+    public static class ThreadAccount {
+        Long userId;
+        String accountNumber;
+        String transactionId;
+
+        @Setup(Level.Trial)
+        public void setUp(HotPathBenchmark benchmark) {
+            userId = THREAD_USER_ID_BASE + benchmark.threadSequence.getAndIncrement();
+            accountNumber = benchmark.accountService.createAccount(userId, INITIAL_BALANCE).getAccountNumber();
+            transactionId = benchmark.transactionService
+                    .useBalance(userId, accountNumber, AMOUNT).getTransactionId();
+        }
+    }
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkContext.start();
+        accountService = context.getBean(AccountService.class);
+        transactionService = context.getBean(TransactionService.class);
+        lockService = context.getBean(LockService.class);
+        accountSummaryCache = context.getBean(AccountSummaryCache.class);
+        jdbcTemplate = context.getBean(JdbcTemplate.class);
+
+        insertUsers(THREAD_USER_ID_BASE, MAX_THREAD_COUNT + CREATE_USER_COUNT);
+        AccountDto account = accountService.createAccount(1L, INITIAL_BALANCE);
+        sharedTransactionId = transactionService
+                .useBalance(1L, account.getAccountNumber(), AMOUNT).getTransactionId();
+    }
+
+    /* JDBC 로 지운 계좌는 계좌 요약 캐시와 사용자 계좌 수에 남아 있으므로 같이 지운다. (안 지우면 계좌 10개 제한에 걸림) */
+    @Setup(Level.Iteration)
+    public void resetCreatedAccounts() {
+        jdbcTemplate.update("delete from account where account_user_id >= ?", CREATE_USER_ID_BASE);
+        jdbcTemplate.update("update account_user set account_count = 0 where id >= ?", CREATE_USER_ID_BASE);
+        long lastUserId = CREATE_USER_ID_BASE + createdAccounts.get() / ACCOUNT_PER_USER;
+        for (long userId = CREATE_USER_ID_BASE; userId <= lastUserId; userId++) {
+            accountSummaryCache.evictAfterCommit(userId);
+        }
+        createdAccounts.set(0);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    private void insertUsers(long firstId, int count) {
+        List<Object[]> users = new ArrayList<>(count);
+        for (long id = firstId; id < firstId + count; id++) {
+            users.add(new Object[]{id, "benchmark" + id});
+        }
+        jdbcTemplate.batchUpdate(
+                "insert into account_user(id, name, created_at, updated_at) values (?, ?, now(), now())", users);
+    }
+
+    @Benchmark
+    public TransactionDto useBalance(ThreadAccount threadAccount) {
+        lockService.lock(threadAccount.accountNumber);
+        try {
+            return transactionService.useBalance(
+                    threadAccount.userId, threadAccount.accountNumber, AMOUNT);
+        } finally {
+            lockService.unlock(threadAccount.accountNumber);
+        }
+    }
+
+    @Benchmark
+    public TransactionDto cancelBalance(ThreadAccount threadAccount) {
+        lockService.lock(threadAccount.accountNumber);
+        try {
+            return transactionService.cancelBalance(
+                    threadAccount.transactionId, threadAccount.accountNumber, AMOUNT);
+        } finally {
+            lockService.unlock(threadAccount.accountNumber);
+        }
+    }
+
+    @Benchmark
+    public TransactionDto queryTransaction() {
+        return transactionService.queryTransaction(sharedTransactionId);
+    }
+
+    @Benchmark
+    public void lockUnlock(ThreadAccount threadAccount) {
+        lockService.lock(threadAccount.accountNumber);
+        lockService.unlock(threadAccount.accountNumber);
+    }
+
+    @Benchmark
+    public AccountDto createAccount() {
+        long userId = CREATE_USER_ID_BASE + createdAccounts.getAndIncrement() / ACCOUNT_PER_USER;
+        return accountService.createAccount(userId, INITIAL_BALANCE);
+    }
+}
@@ -0,0 +1,82 @@
+package com.example.account_project.benchmark;
+
+import com.example.account_project.service.LocalLockBackend;
+import com.example.account_project.service.LockBackend;
+import com.example.account_project.service.RedissonLockBackend;
+import org.openjdk.jmh.annotations.*;
+import org.redisson.Redisson;
+import org.redisson.api.RedissonClient;
+import org.redisson.config.Config;
+import redis.embedded.RedisServer;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/*
+ * 락 저장소 비교 (local / redis)
+ * - uncontended : 스레드마다 다른 계좌 -> lock/unlock 자체의 지연 시간
+ * - contended   : 모든 스레드가 같은 계좌 -> 경합 시 처리량
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Threads(8)
+public class LockBackendBenchmark {
+    private static final int REDIS_PORT = 6390;
+    private static final String HOT_KEY = "ACLK1000000000";
+
+    @Param({"local", "redis"})
+    public String backend;
+
+    private RedisServer redisServer;
+    private RedissonClient redissonClient;
+    private LockBackend lockBackend;
+
+    @State(Scope.Thread)
+    public static class ThreadKey {
+        private static final AtomicInteger SEQUENCE = new AtomicInteger();
+        final String key = "ACLK" + (2000000000L + SEQUENCE.getAndIncrement());
+    }
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        if ("redis".equals(backend)) {
+            redisServer = new RedisServer(REDIS_PORT);
+            redisServer.start();
+            Config config = new Config();
+            config.useSingleServer().setAddress("redis://127.0.0.1:" + REDIS_PORT);
+            redissonClient = Redisson.create(config);
+            lockBackend = new RedissonLockBackend(redissonClient, 10000, false);
+        } else {
+            lockBackend = new LocalLockBackend();
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        if (redissonClient != null) {
+            redissonClient.shutdown();
+        }
+        if (redisServer != null) {
+            redisServer.stop();
+        }
+    }
+
+    @Benchmark
+    public boolean uncontended(ThreadKey threadKey) throws InterruptedException {
+        return lockAndUnlock(threadKey.key);
+    }
+
+    @Benchmark
+    public boolean contended() throws InterruptedException {
+        return lockAndUnlock(HOT_KEY);
+    }
+
+    private boolean lockAndUnlock(String key) throws InterruptedException {
+        boolean isLock = lockBackend.tryLock(key, 1, 15, TimeUnit.SECONDS);
+        if (isLock) {
+            lockBackend.unlock(key);
+        }
+        return isLock;
+    }
+}
@@ -0,0 +1,92 @@
+package com.example.account_project.benchmark;
+
+import com.example.account_project.Exception.AccountException;
+import com.example.account_project.metrics.LockMetrics;
+import com.example.account_project.service.LocalLockBackend;
+import com.example.account_project.service.LockService;
+import com.example.account_project.service.RedissonLockBackend;
+import com.example.account_project.type.LockMode;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.redisson.Redisson;
+import org.redisson.api.RedissonClient;
+import org.redisson.config.Config;
+import redis.embedded.RedisServer;
+
+import java.util.concurrent.TimeUnit;
+
+/*
+ * 락 방식별 경합 비교 (WAIT / FAIL_FAST / FAIR)
+ * 모든 스레드가 한 계좌 락을 잡고 짧은 작업(workTokens)을 한 뒤 푼다.
+ * SampleTime 의 p99/p999 로 꼬리 지연을, failed 카운터로 FAIL_FAST 가 돌려보낸 요청 수를 본다.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Threads(16)
+public class LockModeBenchmark {
+    private static final int REDIS_PORT = 6389;
+    private static final String HOT_ACCOUNT = "1000000000";
+
+    @Param({"WAIT", "FAIL_FAST", "FAIR"})
+    public LockMode mode;
+
+    @Param({"local", "redis"})
+    public String backend;
+
+    @Param({"1000"})
+    public long workTokens;
+
+    private RedisServer redisServer;
+    private RedissonClient redissonClient;
+    private LockService lockService;
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Outcome {
+        public long acquired;
+        public long failed;
+    }
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        LockMetrics lockMetrics = new LockMetrics(new SimpleMeterRegistry(), 5L, 100L);
+        if ("redis".equals(backend)) {
+            redisServer = new RedisServer(REDIS_PORT);
+            redisServer.start();
+            Config config = new Config();
+            config.useSingleServer().setAddress("redis://127.0.0.1:" + REDIS_PORT);
+            redissonClient = Redisson.create(config);
+            lockService = new LockService(new RedissonLockBackend(redissonClient, 10000, false), lockMetrics);
+        } else {
+            lockService = new LockService(new LocalLockBackend(), lockMetrics);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        if (redissonClient != null) {
+            redissonClient.shutdown();
+        }
+        if (redisServer != null) {
+            redisServer.stop();
+        }
+    }
+
+    @Benchmark
+    public void hotAccount(Outcome outcome) {
+        try {
+            lockService.lock(HOT_ACCOUNT, mode, 1000L, 15000L);
+        } catch (AccountException e) {
+            outcome.failed++;
+            return;
+        }
+        try {
+            Blackhole.consumeCPU(workTokens);
+            outcome.acquired++;
+        } finally {
+            lockService.unlock(HOT_ACCOUNT, mode);
+        }
+    }
+}
@@ -0,0 +1,110 @@
+package com.example.account_project.benchmark;
+
+import com.example.account_project.Exception.AccountException;
+import com.example.account_project.domain.Account;
+import com.example.account_project.repository.AccountRepository;
+import com.example.account_project.repository.AccountUserRepository;
+import com.example.account_project.service.AccountNumberGenerator;
+import com.example.account_project.service.LockService;
+import com.example.account_project.service.OptimisticRetry;
+import com.example.account_project.service.TransactionService;
+import com.example.account_project.type.AccountStatus;
+import com.example.account_project.type.TransactionMode;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/*
+ * 계좌당 동시 사용자 수(1 / 8 / 64)에 따른 LOCK / OPTIMISTIC 비교
+ * 64개 스레드를 writersPerAccount 개씩 묶어서 같은 계좌를 쓰게 한다.
+ * 락 취득 실패나 재시도 초과로 실패한 요청은 failed 카운터로 따로 센다.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Threads(OptimisticLockBenchmark.THREAD_COUNT)
+public class OptimisticLockBenchmark {
+    static final int THREAD_COUNT = 64;
+    private static final long USER_ID = 1L;
+    private static final long AMOUNT = 10L;
+
+    @Param({"LOCK", "OPTIMISTIC"})
+    public TransactionMode mode;
+
+    @Param({"1", "8", "64"})
+    public int writersPerAccount;
+
+    private ConfigurableApplicationContext context;
+    private LockService lockService;
+    private OptimisticRetry optimisticRetry;
+    private TransactionService transactionService;
+    private final List<String> accountNumbers = new ArrayList<>();
+    private final AtomicInteger threadSequence = new AtomicInteger();
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    public static class Result {
+        public long succeeded;
+        public long failed;
+        String accountNumber;
+
+        @Setup(Level.Trial)
+        public void setUp(OptimisticLockBenchmark benchmark) {
+            accountNumber = benchmark.accountNumbers.get(
+                    benchmark.threadSequence.getAndIncrement() / benchmark.writersPerAccount);
+        }
+    }
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkContext.start("account.transaction.mode=" + mode);
+        lockService = context.getBean(LockService.class);
+        optimisticRetry = context.getBean(OptimisticRetry.class);
+        transactionService = context.getBean(TransactionService.class);
+
+        // 사용자당 계좌 10개 제한을 넘기 때문에 AccountService 를 거치지 않고 바로 저장한다
+        AccountRepository accountRepository = context.getBean(AccountRepository.class);
+        AccountNumberGenerator accountNumberGenerator = context.getBean(AccountNumberGenerator.class);
+        AccountUserRepository accountUserRepository = context.getBean(AccountUserRepository.class);
+        for (int i = 0; i < THREAD_COUNT / writersPerAccount; i++) {
+            accountNumbers.add(accountRepository.save(Account.builder()
+                    .accountUser(accountUserRepository.findById(USER_ID).orElseThrow())
+                    .accountNumber(accountNumberGenerator.nextAccountNumber())
+                    .accountStatus(AccountStatus.IN_USE)
+                    .balance(Long.MAX_VALUE / 2)
+                    .registeredAt(LocalDateTime.now())
+                    .build()).getAccountNumber());
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public void useBalance(Result result) throws Throwable {
+        String accountNumber = result.accountNumber;
+        try {
+            if (mode == TransactionMode.OPTIMISTIC) {
+                optimisticRetry.execute(accountNumber,
+                        () -> transactionService.useBalance(USER_ID, accountNumber, AMOUNT));
+            } else {
+                lockService.lock(accountNumber);
+                try {
+                    transactionService.useBalance(USER_ID, accountNumber, AMOUNT);
+                } finally {
+                    lockService.unlock(accountNumber);
+                }
+            }
+            result.succeeded++;
+        } catch (AccountException e) {
+            result.failed++;
+        }
+    }
+}
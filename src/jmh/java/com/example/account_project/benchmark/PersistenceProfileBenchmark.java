@@ -0,0 +1,86 @@
+package com.example.account_project.benchmark;
+
+import com.example.account_project.dto.TransactionDto;
+import com.example.account_project.service.AccountService;
+import com.example.account_project.service.LockService;
+import com.example.account_project.service.TransactionService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.concurrent.TimeUnit;
+
+/*
+ * 기본 설정과 운영 프로파일(application-prod.yml) 비교 - 잔액 사용 후 취소
+ * - dev  : 메모리 H2, SQL 로그 출력
+ * - prod : 파일 H2 (임시 디렉터리), 고정 크기 커넥션 풀, SQL 로그 끔
+ * 두 프로파일 모두 내장 Redis 로 락을 잡고, 초기 데이터(db/seed)를 넣는다.
+ * 스레드마다 다른 계좌를 사용한다.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Threads(8)
+public class PersistenceProfileBenchmark {
+    private static final long USER_ID = 1L;
+    private static final long AMOUNT = 10L;
+
+    @Param({"dev", "prod"})
+    public String profile;
+
+    private ConfigurableApplicationContext context;
+    private LockService lockService;
+    private TransactionService transactionService;
+    private AccountService accountService;
+
+    @State(Scope.Thread)
+    public static class ThreadAccount {
+        String accountNumber;
+
+        @Setup(Level.Trial)
+        public void setUp(PersistenceProfileBenchmark benchmark) {
+            accountNumber = benchmark.createAccount();
+        }
+    }
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        context = BenchmarkContext.startProfile(profile,
+                "spring.datasource.url=" + datasourceUrl(),
+                "spring.flyway.locations=classpath:db/migration,classpath:db/seed",
+                "account.redis.embedded=true",
+                "account.transaction-id.node-id=1");
+        lockService = context.getBean(LockService.class);
+        transactionService = context.getBean(TransactionService.class);
+        accountService = context.getBean(AccountService.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    private String datasourceUrl() throws IOException {
+        if ("prod".equals(profile)) {
+            return "jdbc:h2:file:" + Files.createTempDirectory("account-db").resolve("account")
+                    + ";DB_CLOSE_ON_EXIT=FALSE;CACHE_SIZE=131072";
+        }
+        return "jdbc:h2:mem:profile-benchmark";
+    }
+
+    synchronized String createAccount() {
+        return accountService.createAccount(USER_ID, Long.MAX_VALUE / 2).getAccountNumber();
+    }
+
+    @Benchmark
+    public TransactionDto useAndCancel(ThreadAccount threadAccount) {
+        lockService.lock(threadAccount.accountNumber);
+        try {
+            TransactionDto used = transactionService.useBalance(USER_ID, threadAccount.accountNumber, AMOUNT);
+            return transactionService.cancelBalance(used.getTransactionId(), threadAccount.accountNumber, AMOUNT);
+        } finally {
+            lockService.unlock(threadAccount.accountNumber);
+        }
+    }
+}
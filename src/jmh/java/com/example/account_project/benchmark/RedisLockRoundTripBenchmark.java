@@ -0,0 +1,101 @@
+package com.example.account_project.benchmark;
+
+import com.example.account_project.config.RedisClientSettings;
+import com.example.account_project.service.LockBackend;
+import com.example.account_project.service.RedissonLockBackend;
+import org.openjdk.jmh.annotations.*;
+import org.redisson.Redisson;
+import org.redisson.api.RedissonClient;
+import redis.embedded.RedisServer;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/*
+ * Redis 락 왕복 시간 (내장 Redis)
+ * - default : Redisson 기본 설정, 요청마다 getLock, 해제 결과를 기다림
+ * - tuned   : application.yml 의 account.redis.* / account.lock.redis.* 값
+ *             (최소 유휴 커넥션 = 풀 크기, StringCodec, RLock 캐시, 비동기 해제)
+ * SampleTime 의 p99 를 비교한다.
+ * - lockUnlock : 스레드마다 다른 계좌 하나
+ * - batch      : 스레드마다 계좌 10개를 잡고 한 번에 해제 (배치 잔액 사용)
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Threads(16)
+public class RedisLockRoundTripBenchmark {
+    private static final int REDIS_PORT = 6388;
+    private static final int BATCH_SIZE = 10;
+
+    @Param({"default", "tuned"})
+    public String client;
+
+    private RedisServer redisServer;
+    private RedissonClient redissonClient;
+    private LockBackend lockBackend;
+
+    @State(Scope.Thread)
+    public static class ThreadKeys {
+        private static final AtomicInteger SEQUENCE = new AtomicInteger();
+        final String key;
+        final List<String> batchKeys = new ArrayList<>(BATCH_SIZE);
+
+        public ThreadKeys() {
+            int sequence = SEQUENCE.getAndIncrement();
+            key = "ACLK" + (3000000000L + sequence);
+            for (int i = 0; i < BATCH_SIZE; i++) {
+                batchKeys.add("ACLK" + (4000000000L + sequence * BATCH_SIZE + i));
+            }
+        }
+    }
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        redisServer = new RedisServer(REDIS_PORT);
+        redisServer.start();
+        String address = "redis://127.0.0.1:" + REDIS_PORT;
+        if ("tuned".equals(client)) {
+            redissonClient = Redisson.create(RedisClientSettings.builder()
+                    .connectionMinimumIdleSize(64)
+                    .lightweightCodec(true)
+                    .build()
+                    .toConfig(address));
+            lockBackend = new RedissonLockBackend(redissonClient, 10000, true);
+        } else {
+            redissonClient = Redisson.create(RedisClientSettings.builder().build().toConfig(address));
+            lockBackend = new RedissonLockBackend(redissonClient, 0, false);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        redissonClient.shutdown();
+        redisServer.stop();
+    }
+
+    @Benchmark
+    public boolean lockUnlock(ThreadKeys threadKeys) throws InterruptedException {
+        boolean isLock = lockBackend.tryLock(threadKeys.key, 1, 15, TimeUnit.SECONDS);
+        if (isLock) {
+            lockBackend.unlock(threadKeys.key);
+        }
+        return isLock;
+    }
+
+    @Benchmark
+    public void batch(ThreadKeys threadKeys) throws InterruptedException {
+        for (String key : threadKeys.batchKeys) {
+            lockBackend.tryLock(key, 1, 15, TimeUnit.SECONDS);
+        }
+        if ("tuned".equals(client)) {
+            lockBackend.unlockAll(threadKeys.batchKeys, false);
+        } else {
+            for (String key : threadKeys.batchKeys) {
+                lockBackend.unlock(key);
+            }
+        }
+    }
+}
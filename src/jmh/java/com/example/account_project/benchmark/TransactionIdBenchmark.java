@@ -0,0 +1,31 @@
+package com.example.account_project.benchmark;
+
+import com.example.account_project.service.TransactionIdGenerator;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/*
+ * 거래 id 발급 비교
+ * - uuid      : 기존 방식 UUID.randomUUID().toString().replace("-", "")
+ * - generator : TransactionIdGenerator (시각 + 노드 + 카운터)
+ * 할당량은 -prof gc 로 같이 본다.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Threads(8)
+public class TransactionIdBenchmark {
+    private final TransactionIdGenerator generator = new TransactionIdGenerator(1);
+
+    @Benchmark
+    public String uuid() {
+        return UUID.randomUUID().toString().replace("-", "");
+    }
+
+    @Benchmark
+    public String generator() {
+        return generator.nextId();
+    }
+}
@@ -0,0 +1,79 @@
+package com.example.account_project.benchmark;
+
+import com.example.account_project.dto.TransactionDto;
+import com.example.account_project.dto.UseBalance;
+import com.example.account_project.service.AccountService;
+import com.example.account_project.service.LockService;
+import com.example.account_project.service.TransactionBatchService;
+import com.example.account_project.service.TransactionService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/*
+ * 잔액 사용 100건 처리 비교
+ * - loop  : 건마다 락 -> useBalance -> 락 해제 (기존 /transaction/use 와 같은 경로)
+ * - batch : /transaction/use/batch 와 같은 경로
+ * 점수는 잔액 사용 1건 기준 처리량이다.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@OperationsPerInvocation(UseBalanceBatchBenchmark.ITEM_COUNT)
+public class UseBalanceBatchBenchmark {
+    static final int ITEM_COUNT = 100;
+    private static final int ACCOUNT_COUNT = 5;
+    private static final long USER_ID = 1L;
+
+    private ConfigurableApplicationContext context;
+    private LockService lockService;
+    private TransactionService transactionService;
+    private TransactionBatchService transactionBatchService;
+    private List<UseBalance.Request> requests;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkContext.start();
+        lockService = context.getBean(LockService.class);
+        transactionService = context.getBean(TransactionService.class);
+        transactionBatchService = context.getBean(TransactionBatchService.class);
+
+        AccountService accountService = context.getBean(AccountService.class);
+        List<String> accountNumbers = new ArrayList<>();
+        for (int i = 0; i < ACCOUNT_COUNT; i++) {
+            accountNumbers.add(accountService.createAccount(USER_ID, Long.MAX_VALUE / 2).getAccountNumber());
+        }
+        requests = new ArrayList<>();
+        for (int i = 0; i < ITEM_COUNT; i++) {
+            requests.add(new UseBalance.Request(USER_ID, accountNumbers.get(i % ACCOUNT_COUNT), 10L));
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<TransactionDto> loop() {
+        List<TransactionDto> results = new ArrayList<>(ITEM_COUNT);
+        for (UseBalance.Request request : requests) {
+            lockService.lock(request.getAccountNumber());
+            try {
+                results.add(transactionService.useBalance(
+                        request.getUserId(), request.getAccountNumber(), request.getAmount()));
+            } finally {
+                lockService.unlock(request.getAccountNumber());
+            }
+        }
+        return results;
+    }
+
+    @Benchmark
+    public List<TransactionDto> batch() {
+        return transactionBatchService.useBalanceBatch(requests);
+    }
+}
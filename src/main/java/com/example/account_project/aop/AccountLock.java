@@ -1,5 +1,7 @@
 package com.example.account_project.aop;
 
+import com.example.account_project.type.LockMode;
+
 import java.lang.annotation.*;
 
 @Target(ElementType.METHOD)
@@ -7,5 +9,11 @@ import java.lang.annotation.*;
 @Documented
 @Inherited
 public @interface AccountLock {
-    long tryLockTime() default 5000L;
+    // 락을 기다릴 최대 시간(ms) - FAIL_FAST 이면 기다리지 않는다
+    long tryLockTime() default 1000L;
+
+    // 해제하지 않아도 이 시간(ms)이 지나면 락이 풀린다
+    long leaseTime() default 15000L;
+
+    LockMode mode() default LockMode.WAIT;
 }
@@ -0,0 +1,13 @@
+package com.example.account_project.aop;
+
+import java.lang.annotation.*;
+
+/*
+ * Idempotency-Key 헤더가 있으면 같은 키의 재요청에 처음 응답을 그대로 돌려준다. (IdempotencyAspect)
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+@Inherited
+public @interface Idempotent {
+}
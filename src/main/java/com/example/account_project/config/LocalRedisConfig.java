@@ -3,10 +3,13 @@ package com.example.account_project.config;
 import jakarta.annotation.PostConstruct;
 import jakarta.annotation.PreDestroy;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.Configuration;
 import redis.embedded.RedisServer;
 
+/* 내장 Redis - 운영(prod 프로파일)에서는 account.redis.embedded=false 로 외부 Redis 를 사용한다 */
 @Configuration
+@ConditionalOnProperty(name = "account.redis.embedded", havingValue = "true", matchIfMissing = true)
 public class LocalRedisConfig {
     @Value("${spring.redis.port}")
     private int redisPort;
@@ -0,0 +1,32 @@
+package com.example.account_project.config;
+
+import com.example.account_project.metrics.TimedJpaTransactionManager;
+import io.micrometer.core.aop.TimedAspect;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.transaction.TransactionManagerCustomizers;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.transaction.PlatformTransactionManager;
+
+@Configuration
+public class MetricsConfiguration {
+
+    // @Timed 사용
+    @Bean
+    public TimedAspect timedAspect(MeterRegistry meterRegistry) {
+        return new TimedAspect(meterRegistry);
+    }
+
+    // 기본 JpaTransactionManager 대신 커밋 시간을 재는 트랜잭션 매니저를 등록한다.
+    @Bean
+    public PlatformTransactionManager transactionManager(EntityManagerFactory entityManagerFactory,
+                                                         MeterRegistry meterRegistry,
+                                                         ObjectProvider<TransactionManagerCustomizers> customizers) {
+        TimedJpaTransactionManager transactionManager =
+                new TimedJpaTransactionManager(entityManagerFactory, meterRegistry);
+        customizers.ifAvailable(transactionManagerCustomizers -> transactionManagerCustomizers.customize(transactionManager));
+        return transactionManager;
+    }
+}
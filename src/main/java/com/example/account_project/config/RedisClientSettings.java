@@ -0,0 +1,61 @@
+package com.example.account_project.config;
+
+import lombok.Builder;
+import lombok.Getter;
+import org.redisson.client.codec.StringCodec;
+import org.redisson.config.Config;
+
+/*
+ * Redisson 클라이언트 설정 (account.redis.*)
+ * 기본값은 Redisson 기본값과 같다. RedisRepositoryConfig 와 벤치마크가 같은 방식으로 클라이언트를 만든다.
+ * - 코덱 : 락은 Lua 스크립트로 숫자만 주고받고, 멱등 키는 StringCodec 을 직접 쓰므로 기본 코덱(Kryo5)이 필요 없다.
+ *          모든 객체의 기본 코덱을 StringCodec 으로 둔다.
+ * - 커넥션 : 요청마다 락/해제 두 번을 보내므로 최소 유휴 커넥션을 풀 크기와 같게 두면 몰릴 때 새로 연결하지 않는다.
+ */
+@Getter
+@Builder
+public class RedisClientSettings {
+    @Builder.Default
+    private int connectionPoolSize = 64;
+    @Builder.Default
+    private int connectionMinimumIdleSize = 24;
+    // 락을 기다리는 요청은 해제 알림을 pub/sub 으로 받는다
+    @Builder.Default
+    private int subscriptionConnectionPoolSize = 50;
+    @Builder.Default
+    private int nettyThreads = 32;
+    @Builder.Default
+    private int threads = 16;
+    @Builder.Default
+    private int timeoutMillis = 3000;
+    @Builder.Default
+    private int retryAttempts = 3;
+    @Builder.Default
+    private int retryIntervalMillis = 1500;
+    // 0 이면 ping 하지 않는다
+    @Builder.Default
+    private int pingConnectionIntervalMillis = 30000;
+    @Builder.Default
+    private boolean lightweightCodec = false;
+
+    public Config toConfig(String address) {
+        Config config = new Config();
+        config.setNettyThreads(nettyThreads);
+        config.setThreads(threads);
+        if (lightweightCodec) {
+            config.setCodec(StringCodec.INSTANCE);
+        }
+        config.useSingleServer()
+                .setAddress(address)
+                .setConnectionPoolSize(connectionPoolSize)
+                .setConnectionMinimumIdleSize(connectionMinimumIdleSize)
+                .setSubscriptionConnectionPoolSize(subscriptionConnectionPoolSize)
+                .setTimeout(timeoutMillis)
+                .setRetryAttempts(retryAttempts)
+                .setRetryInterval(retryIntervalMillis)
+                .setPingConnectionInterval(pingConnectionIntervalMillis)
+                .setKeepAlive(true)
+                .setTcpNoDelay(true);
+        return config;
+    }
+}
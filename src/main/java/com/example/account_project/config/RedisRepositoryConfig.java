@@ -2,7 +2,6 @@ package com.example.account_project.config;
 
 import org.redisson.Redisson;
 import org.redisson.api.RedissonClient;
-import org.redisson.config.Config;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -15,11 +14,38 @@ public class RedisRepositoryConfig {
     @Value("${spring.redis.port}")
     private int redisPort;
 
-    @Bean
+    @Value("${account.redis.connection-pool-size:64}")
+    private int connectionPoolSize;
+
+    @Value("${account.redis.connection-minimum-idle-size:24}")
+    private int connectionMinimumIdleSize;
+
+    @Value("${account.redis.subscription-connection-pool-size:50}")
+    private int subscriptionConnectionPoolSize;
+
+    @Value("${account.redis.netty-threads:32}")
+    private int nettyThreads;
+
+    @Value("${account.redis.threads:16}")
+    private int threads;
+
+    @Value("${account.redis.timeout-ms:3000}")
+    private int timeoutMillis;
+
+    @Value("${account.redis.lightweight-codec:true}")
+    private boolean lightweightCodec;
+
+    @Bean(destroyMethod = "shutdown")
     public RedissonClient redissonClient(){
-        Config config = new Config();
-        config.useSingleServer().setAddress("redis://"+redisHost+":"+redisPort);
-        return Redisson.create(config);
+        return Redisson.create(RedisClientSettings.builder()
+                .connectionPoolSize(connectionPoolSize)
+                .connectionMinimumIdleSize(connectionMinimumIdleSize)
+                .subscriptionConnectionPoolSize(subscriptionConnectionPoolSize)
+                .nettyThreads(nettyThreads)
+                .threads(threads)
+                .timeoutMillis(timeoutMillis)
+                .lightweightCodec(lightweightCodec)
+                .build()
+                .toConfig("redis://"+redisHost+":"+redisPort));
     }
 }
-
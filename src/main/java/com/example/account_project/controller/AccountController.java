@@ -1,10 +1,13 @@
 package com.example.account_project.controller;
 
+import com.example.account_project.aop.AccountLock;
 import com.example.account_project.domain.Account;
 import com.example.account_project.dto.AccountInfo;
 import com.example.account_project.dto.CreateAccount;
 import com.example.account_project.dto.DeleteAccount;
+import com.example.account_project.dto.ShardAccountBalance;
 import com.example.account_project.service.AccountService;
+import com.example.account_project.service.BalanceSlotService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.web.bind.annotation.*;
@@ -16,6 +19,7 @@ import java.util.stream.Collectors;
 @RequiredArgsConstructor
 public class AccountController {
     private final AccountService accountService;
+    private final BalanceSlotService balanceSlotService;
 
     @PostMapping("/account")
     public CreateAccount.Response creatAccount(@RequestBody @Valid CreateAccount.Request request) {
@@ -32,6 +36,17 @@ public class AccountController {
         );
     }
 
+    /* 몰리는 계좌의 잔액을 슬롯으로 나눈다. (되돌릴 수 없음) */
+    @AccountLock
+    @PostMapping("/account/balance-slots")
+    public ShardAccountBalance.Response shardAccountBalance(@RequestBody @Valid ShardAccountBalance.Request request) {
+        return ShardAccountBalance.Response.builder()
+                .accountNumber(request.getAccountNumber())
+                .slotCount(request.getSlotCount())
+                .balance(balanceSlotService.shard(request.getAccountNumber(), request.getSlotCount()))
+                .build();
+    }
+
     @GetMapping("/account")
     public List<AccountInfo> getAccountByUserId(@RequestParam("user_id") Long userId) {
         return accountService.getAccountByUserId(userId).
@@ -2,33 +2,52 @@ package com.example.account_project.controller;
 
 import com.example.account_project.Exception.AccountException;
 import com.example.account_project.aop.AccountLock;
+import com.example.account_project.aop.Idempotent;
 import com.example.account_project.dto.CancelBalance;
 import com.example.account_project.dto.QueryTransactionResponse;
+import com.example.account_project.dto.TransactionHistoryResponse;
 import com.example.account_project.dto.UseBalance;
+import com.example.account_project.dto.UseBalanceBatch;
+import com.example.account_project.service.FailedTransactionWriter;
+import com.example.account_project.service.TransactionBatchService;
+import com.example.account_project.service.TransactionExportService;
 import com.example.account_project.service.TransactionService;
+import com.example.account_project.type.ExportFormat;
+import com.example.account_project.type.TransactionResultType;
+import com.example.account_project.type.TransactionType;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.IOException;
+import java.time.LocalDateTime;
 
 
 /*
  * 잔액 관련 컨트롤러
  * 1. 잔액 사용
- * 2. 잔액 사용 취소
- * 3. 거래 확인*/
+ * 2. 배치 잔액 사용
+ * 3. 잔액 사용 취소
+ * 4. 거래 확인
+ * 5. 계좌 거래내역
+ * 6. 거래 내보내기 (정산)*/
 @Slf4j
 @RequiredArgsConstructor
 @RestController
 public class TransactionController {
     private final TransactionService transactionService;
+    private final TransactionBatchService transactionBatchService;
+    private final TransactionExportService transactionExportService;
+    private final FailedTransactionWriter failedTransactionWriter;
 
     @PostMapping("transaction/use")
+    @Idempotent
     @AccountLock
-    public UseBalance.Response useBalance(@Valid @RequestBody UseBalance.Request request) throws InterruptedException {
+    public UseBalance.Response useBalance(@Valid @RequestBody UseBalance.Request request) {
         try {
-            Thread.sleep(3000L);
             return UseBalance.Response.from(
                     transactionService.useBalance(request.getUserId(),
                             request.getAccountNumber(), request.getAmount())
@@ -36,7 +55,7 @@ public class TransactionController {
         } catch (AccountException e) {
             log.error("잔액 사용 실패");
 
-            transactionService.saveFailedUseTransaction(
+            failedTransactionWriter.enqueue(TransactionType.USE,
                     request.getAccountNumber(),
                     request.getAmount()
             );
@@ -44,6 +63,14 @@ public class TransactionController {
         }
     }
 
+    @PostMapping("transaction/use/batch")
+    public UseBalanceBatch.Response useBalanceBatch(@Valid @RequestBody UseBalanceBatch.Request request) {
+        return UseBalanceBatch.Response.from(
+                transactionBatchService.useBalanceBatch(request.getItems())
+        );
+    }
+
+    @Idempotent
     @AccountLock
     @PostMapping("transaction/cancel")
     public CancelBalance.Response cancelBalance(@Valid @RequestBody CancelBalance.Request request) {
@@ -54,13 +81,39 @@ public class TransactionController {
             );
         } catch (AccountException e) {
             log.error("잔액 사용 실패");
-            transactionService.saveFailedCancelTransaction(request.getAccountNumber(), request.getAmount());
+            failedTransactionWriter.enqueue(TransactionType.CANCEL, request.getAccountNumber(), request.getAmount());
             throw e;
         }
     }
 
+    @GetMapping("/transaction/export")
+    public void exportTransactions(
+            @RequestParam("from") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam("to") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(value = "format", defaultValue = "NDJSON") ExportFormat format,
+            HttpServletResponse response) throws IOException {
+        response.setContentType(format.getContentType());
+        response.setCharacterEncoding("UTF-8");
+        transactionExportService.export(from, to, format, response.getOutputStream());
+    }
+
     @GetMapping("/transaction/{transactionId}")
     public QueryTransactionResponse queryTransaction(@PathVariable String transactionId){
       return QueryTransactionResponse.from(transactionService.queryTransaction(transactionId));
     }
+
+    @GetMapping("/account/{accountNumber}/transactions")
+    public TransactionHistoryResponse getTransactionHistory(
+            @PathVariable String accountNumber,
+            @RequestParam(value = "transaction_type", required = false) TransactionType transactionType,
+            @RequestParam(value = "result_type", required = false) TransactionResultType transactionResultType,
+            @RequestParam(value = "from", required = false)
+            @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(value = "to", required = false)
+            @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(value = "cursor", required = false) String cursor,
+            @RequestParam(value = "size", defaultValue = "20") int size) {
+        return TransactionHistoryResponse.from(transactionService.getTransactionHistory(
+                accountNumber, transactionType, transactionResultType, from, to, cursor, size));
+    }
 }
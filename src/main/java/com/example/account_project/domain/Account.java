@@ -17,6 +17,7 @@ import java.time.LocalDateTime;
 @AllArgsConstructor
 @Builder
 @Entity //설정 파일이다 라는 뜻
+@Table(indexes = @Index(name = "ux_account_account_number", columnList = "account_number", unique = true))
 @EntityListeners(AuditingEntityListener.class) //@createDate 와 @LastModifiedDate 를 사용 하기 위해 씀
 public class Account {
     // 하나의 테이블을 생성한것
@@ -25,8 +26,9 @@ public class Account {
     @GeneratedValue
     Long id;
 
-    @ManyToOne  //한명의 사람이 여러 계좌를 가질 수 있기 때문에 ManyToOne 이다.
+    @ManyToOne(fetch = FetchType.LAZY)  //한명의 사람이 여러 계좌를 가질 수 있기 때문에 ManyToOne 이다.
     private AccountUser accountUser;
+    @Column(name = "account_number")
     private String accountNumber;
 
     @Enumerated(EnumType.STRING)
@@ -34,6 +36,11 @@ public class Account {
 
     private Long balance;
 
+    private Integer balanceSlots; //잔액 슬롯 수 (BalanceSlotService), null 이면 나누지 않은 계좌
+
+    @Version //낙관적 락 (OPTIMISTIC 모드), 조건부 UPDATE 에서도 같이 올린다
+    private Long version;
+
     private LocalDateTime registeredAt;
     private LocalDateTime unregisteredAt;
 
@@ -42,6 +49,11 @@ public class Account {
     @LastModifiedDate
     private LocalDateTime updatedAt;
 
+    /* 나눈 계좌는 balance 가 0 이고 잔액은 슬롯 합계다. */
+    public boolean isBalanceSharded() {
+        return balanceSlots != null && balanceSlots > 0;
+    }
+
     public void useBalance(Long amount) {
         if (amount > balance) {
             throw new AccountException(ErrorCode.AMOUNT_EXCEED_BALANCE);
@@ -0,0 +1,39 @@
+package com.example.account_project.domain;
+
+import jakarta.persistence.*;
+import lombok.*;
+import org.springframework.data.annotation.CreatedDate;
+import org.springframework.data.annotation.LastModifiedDate;
+import org.springframework.data.jpa.domain.support.AuditingEntityListener;
+
+import java.time.LocalDateTime;
+
+/*
+ * 잔액 슬롯 - 나눈 계좌(Account.balanceSlots)의 잔액 한 조각
+ * 차감/적립은 슬롯 행 하나만 바꾸므로, 같은 계좌라도 다른 슬롯을 쓰는 거래끼리는 서로 기다리지 않는다.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Entity
+@Table(indexes = @Index(name = "ux_account_balance_slot_account_slot", columnList = "account_id, slot_no", unique = true))
+@EntityListeners(AuditingEntityListener.class)
+public class AccountBalanceSlot {
+    @Id
+    @GeneratedValue
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "account_id")
+    private Account account;
+    @Column(name = "slot_no")
+    private Integer slotNo;
+    private Long balance;
+
+    @CreatedDate
+    private LocalDateTime createdAt;
+    @LastModifiedDate
+    private LocalDateTime updatedAt;
+}
@@ -0,0 +1,23 @@
+package com.example.account_project.domain;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import lombok.*;
+
+/*
+ * 계좌번호 발급 상한선(high-water mark)
+ * 각 노드는 이 값을 블록 단위로 가져가서 메모리에서 번호를 나눠준다.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Entity
+public class AccountNumberSequence {
+    @Id
+    private String name;
+
+    // 아직 어떤 노드에도 할당되지 않은 첫 번째 계좌번호
+    private Long nextValue;
+}
@@ -1,5 +1,6 @@
 package com.example.account_project.domain;
 
+import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.EntityListeners;
 import jakarta.persistence.GeneratedValue;
@@ -17,12 +18,15 @@ import java.time.LocalDateTime;
 @NoArgsConstructor
 @Builder
 @Entity
-@EntityListeners(AuditingEntityListener.class)
+@EntityListeners({AuditingEntityListener.class, AccountUserCacheListener.class})
 public class AccountUser {
     @Id
     @GeneratedValue
     private Long id;
     private String name;
+    /* 해지한 계좌를 포함한 계좌 수 - AccountUserRepository.incrementAccountCount 로만 바꾼다. */
+    @Column(insertable = false, updatable = false)
+    private Integer accountCount;
     @CreatedDate
     private LocalDateTime createdAt;
     @LastModifiedDate
@@ -0,0 +1,34 @@
+package com.example.account_project.domain;
+
+import com.example.account_project.service.AccountUserCache;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+
+/*
+ * AccountUser 엔티티 리스너 - 사용자를 저장/삭제하면 AccountUserCache 에 반영한다.
+ * Hibernate 가 스프링 빈으로 만든다. (SpringBeanContainer)
+ * EntityManagerFactory 를 만드는 중에 생성되므로 캐시(-> 리포지토리 -> EntityManagerFactory)는 쓸 때 찾는다.
+ * 저장은 커밋된 뒤에 넣는다. (롤백된 사용자가 캐시에 남지 않도록)
+ * 삭제는 바로 지우고 커밋된 뒤에 한 번 더 지운다. (커밋 전에 다른 요청이 다시 넣은 것까지)
+ * 다른 노드나 DB 에서 직접 바꾼 것은 알 수 없으므로 캐시 항목은 expire-after-write 뒤에 만료된다.
+ */
+@Component
+@RequiredArgsConstructor
+public class AccountUserCacheListener {
+    private final ObjectProvider<AccountUserCache> accountUserCache;
+
+    @PostPersist
+    @PostUpdate
+    public void postWrite(AccountUser accountUser) {
+        accountUserCache.getObject().putAfterCommit(accountUser.getId());
+    }
+
+    @PostRemove
+    public void postRemove(AccountUser accountUser) {
+        accountUserCache.getObject().invalidateAfterCommit(accountUser.getId());
+    }
+}
@@ -18,6 +18,10 @@ import java.time.LocalDateTime;
 @AllArgsConstructor
 @Builder
 @Entity
+@Table(indexes = {
+        @Index(name = "ix_transaction_account_transacted_at", columnList = "account_id, transacted_at, id"),
+        @Index(name = "ix_transaction_transacted_at", columnList = "transacted_at, id"),
+        @Index(name = "ux_transaction_transaction_id", columnList = "transaction_id", unique = true)})
 @EntityListeners(AuditingEntityListener.class)
 public class Transaction {
     @Id
@@ -29,12 +33,15 @@ public class Transaction {
     @Enumerated(EnumType.STRING)
     private TransactionResultType transactionResultType;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "account_id")
     private Account account;
     private Long amount;
     private Long balanceSnapshot;
 
+    @Column(name = "transaction_id")
     private String transactionId;
+    @Column(name = "transacted_at")
     private LocalDateTime transactedAt;
 
     @CreatedDate
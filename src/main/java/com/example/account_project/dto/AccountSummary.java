@@ -0,0 +1,53 @@
+package com.example.account_project.dto;
+
+import lombok.Getter;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+/*
+ * 사용자별 계좌 요약 (계좌 수, 계좌번호별 잔액/상태)
+ * 바꾸지 않고, merge 로 새 요약을 만든다.
+ */
+@Getter
+public class AccountSummary {
+    private final Long userId;
+    private final List<AccountSummaryItem> accounts;
+
+    public AccountSummary(Long userId, List<AccountSummaryItem> accounts) {
+        this.userId = userId;
+        this.accounts = List.copyOf(accounts);
+    }
+
+    public int count() {
+        return accounts.size();
+    }
+
+    public List<AccountDto> toAccountDtos() {
+        return accounts.stream().map(account -> account.toAccountDto(userId)).toList();
+    }
+
+    /* 같은 계좌번호는 version 이 더 큰 쪽을 남기고, 없는 계좌는 뒤에 붙인다. */
+    public AccountSummary merge(List<AccountSummaryItem> items) {
+        List<AccountSummaryItem> merged = new ArrayList<>(accounts);
+        for (AccountSummaryItem item : items) {
+            int index = indexOf(merged, item.getAccountNumber());
+            if (index < 0) {
+                merged.add(item);
+            } else if (item.isNewerThan(merged.get(index))) {
+                merged.set(index, item);
+            }
+        }
+        return new AccountSummary(userId, merged);
+    }
+
+    private static int indexOf(List<AccountSummaryItem> items, String accountNumber) {
+        for (int i = 0; i < items.size(); i++) {
+            if (Objects.equals(items.get(i).getAccountNumber(), accountNumber)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+}
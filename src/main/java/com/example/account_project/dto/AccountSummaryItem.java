@@ -0,0 +1,51 @@
+package com.example.account_project.dto;
+
+import com.example.account_project.domain.Account;
+import com.example.account_project.type.AccountStatus;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+
+import java.time.LocalDateTime;
+
+/* 사용자 계좌 요약의 계좌 한 건 - version 은 Account 의 @Version 값 */
+@Getter
+@AllArgsConstructor
+@Builder
+public class AccountSummaryItem {
+    private String accountNumber;
+    private Long balance;
+    private AccountStatus accountStatus;
+    private LocalDateTime registeredAt;
+    private LocalDateTime unregisteredAt;
+    private Long version;
+
+    public static AccountSummaryItem fromEntity(Account account) {
+        return AccountSummaryItem.builder()
+                .accountNumber(account.getAccountNumber())
+                .balance(account.getBalance())
+                .accountStatus(account.getAccountStatus())
+                .registeredAt(account.getRegisteredAt())
+                .unregisteredAt(account.getUnregisteredAt())
+                .version(account.getVersion())
+                .build();
+    }
+
+    public AccountDto toAccountDto(Long userId) {
+        return AccountDto.builder()
+                .userId(userId)
+                .accountNumber(accountNumber)
+                .balance(balance)
+                .registeredAt(registeredAt)
+                .unregisteredAt(unregisteredAt)
+                .build();
+    }
+
+    public boolean isNewerThan(AccountSummaryItem other) {
+        return versionOrZero() > other.versionOrZero();
+    }
+
+    private long versionOrZero() {
+        return version != null ? version : -1L;
+    }
+}
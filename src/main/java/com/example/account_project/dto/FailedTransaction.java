@@ -0,0 +1,37 @@
+package com.example.account_project.dto;
+
+import com.example.account_project.type.TransactionType;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/*
+ * 실패 거래 기록 요청 (FailedTransactionWriter)
+ * 거래 id 는 요청을 받을 때 정해서, 스필 파일을 다시 읽어도 같은 거래가 두 번 저장되지 않게 한다.
+ * 스필 파일에는 한 줄에 하나씩 "transactionId,transactionType,accountNumber,amount,transactedAt" 으로 쓴다.
+ */
+@Getter
+@AllArgsConstructor
+@Builder
+public class FailedTransaction {
+    private String transactionId;
+    private TransactionType transactionType;
+    private String accountNumber;
+    private Long amount;
+    private LocalDateTime transactedAt;
+
+    public String toLine() {
+        return transactionId + "," + transactionType + "," + accountNumber + "," + amount + "," + transactedAt;
+    }
+
+    public static FailedTransaction fromLine(String line) {
+        String[] values = line.split(",");
+        return FailedTransaction.builder()
+                .transactionId(values[0])
+                .transactionType(TransactionType.valueOf(values[1]))
+                .accountNumber(values[2])
+                .amount(Long.valueOf(values[3]))
+                .transactedAt(LocalDateTime.parse(values[4]))
+                .build();
+    }
+}
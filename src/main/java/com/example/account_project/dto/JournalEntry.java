@@ -0,0 +1,103 @@
+package com.example.account_project.dto;
+
+import com.example.account_project.type.TransactionResultType;
+import com.example.account_project.type.TransactionType;
+import lombok.*;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+
+/*
+ * 잔액 변경 저널 한 건 (BalanceJournal)
+ * delta 는 계좌 잔액에 더할 값이다. (사용 -amount, 취소 +amount, 실패 0)
+ * 파일에는 고정 길이 숫자 필드 + 거래 id 순서로 쓴다.
+ */
+@Getter
+@AllArgsConstructor
+@Builder
+public class JournalEntry {
+    private String transactionId;
+    private Long accountId;
+    private String accountNumber;
+    private TransactionType transactionType;
+    private TransactionResultType transactionResultType;
+    private Long amount;
+    private Long delta;
+    private Long balanceSnapshot;
+    private LocalDateTime transactedAt;
+
+    public static JournalEntry of(String transactionId, TransactionType transactionType, TransactionResultType transactionResultType,
+                                  Long accountId, String accountNumber, Long amount, Long delta, Long balanceSnapshot) {
+        return JournalEntry.builder()
+                .transactionId(transactionId)
+                .accountId(accountId)
+                .accountNumber(accountNumber)
+                .transactionType(transactionType)
+                .transactionResultType(transactionResultType)
+                .amount(amount)
+                .delta(delta)
+                .balanceSnapshot(balanceSnapshot)
+                .transactedAt(LocalDateTime.now())
+                .build();
+    }
+
+    public byte[] encode() {
+        byte[] transactionIdBytes = transactionId.getBytes(StandardCharsets.US_ASCII);
+        byte[] accountNumberBytes = accountNumber.getBytes(StandardCharsets.US_ASCII);
+        ByteBuffer buffer = ByteBuffer.allocate(8 * 5 + 4 + 2 + 2 + transactionIdBytes.length + accountNumberBytes.length);
+        buffer.putLong(accountId)
+                .putLong(amount)
+                .putLong(delta)
+                .putLong(balanceSnapshot)
+                .putLong(transactedAt.toEpochSecond(ZoneOffset.UTC))
+                .putInt(transactedAt.getNano())
+                .put((byte) transactionType.ordinal())
+                .put((byte) transactionResultType.ordinal())
+                .put((byte) transactionIdBytes.length)
+                .put(transactionIdBytes)
+                .put((byte) accountNumberBytes.length)
+                .put(accountNumberBytes);
+        return buffer.array();
+    }
+
+    public static JournalEntry decode(ByteBuffer buffer) {
+        long accountId = buffer.getLong();
+        long amount = buffer.getLong();
+        long delta = buffer.getLong();
+        long balanceSnapshot = buffer.getLong();
+        LocalDateTime transactedAt = LocalDateTime.ofEpochSecond(buffer.getLong(), buffer.getInt(), ZoneOffset.UTC);
+        TransactionType transactionType = TransactionType.values()[buffer.get()];
+        TransactionResultType transactionResultType = TransactionResultType.values()[buffer.get()];
+        return JournalEntry.builder()
+                .accountId(accountId)
+                .amount(amount)
+                .delta(delta)
+                .balanceSnapshot(balanceSnapshot)
+                .transactedAt(transactedAt)
+                .transactionType(transactionType)
+                .transactionResultType(transactionResultType)
+                .transactionId(readString(buffer))
+                .accountNumber(readString(buffer))
+                .build();
+    }
+
+    private static String readString(ByteBuffer buffer) {
+        byte[] bytes = new byte[buffer.get()];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.US_ASCII);
+    }
+
+    public TransactionDto toTransactionDto() {
+        return TransactionDto.builder()
+                .accountNumber(accountNumber)
+                .transactionType(transactionType)
+                .transactionResultType(transactionResultType)
+                .amount(amount)
+                .balanceSnapshot(balanceSnapshot)
+                .transactionId(transactionId)
+                .transactedAt(transactedAt)
+                .build();
+    }
+}
@@ -0,0 +1,25 @@
+package com.example.account_project.dto;
+
+import com.example.account_project.type.AccountStatus;
+import lombok.*;
+
+/*
+ * LedgerEngine 이 메모리에 들고 있는 계좌 상태
+ * 한 계좌는 한 샤드 스레드만 읽고 바꾼다.
+ */
+@Getter
+@Setter
+public class LedgerAccount {
+    private Long id;
+    private Long accountUserId;
+    private AccountStatus accountStatus;
+    private Long balance;
+    private boolean unregistering; // 해지 트랜잭션이 끝나기를 기다리는 중 (LedgerEngine.unregister)
+
+    public LedgerAccount(Long id, Long accountUserId, AccountStatus accountStatus, Long balance) {
+        this.id = id;
+        this.accountUserId = accountUserId;
+        this.accountStatus = accountStatus;
+        this.balance = balance;
+    }
+}
@@ -0,0 +1,33 @@
+package com.example.account_project.dto;
+
+import com.example.account_project.aop.AccountLockIdInterface;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Size;
+import lombok.*;
+
+public class ShardAccountBalance {
+    @Getter
+    @Setter
+    @AllArgsConstructor
+    @NoArgsConstructor
+    public static class Request implements AccountLockIdInterface {
+        @NotBlank
+        @Size(min = 10, max = 10)
+        private String accountNumber;
+
+        @Min(2) // 최대 슬롯 수는 설정값(account.balance-slot.max-slots)으로 BalanceSlotService 에서 확인
+        private int slotCount;
+    }
+
+    @Getter
+    @Setter
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @Builder
+    public static class Response {
+        private String accountNumber;
+        private int slotCount;
+        private Long balance;
+    }
+}
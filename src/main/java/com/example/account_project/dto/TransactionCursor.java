@@ -0,0 +1,52 @@
+package com.example.account_project.dto;
+
+import com.example.account_project.Exception.AccountException;
+import com.example.account_project.domain.Transaction;
+import com.example.account_project.type.ErrorCode;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+
+/*
+ * 거래내역 페이지 커서
+ * 이전 페이지 마지막 거래의 (transactedAt, id) 를 base64 문자열로 주고받는다.
+ */
+@Getter
+@AllArgsConstructor
+public class TransactionCursor {
+    private static final LocalDateTime LATEST = LocalDateTime.of(9999, 12, 31, 23, 59, 59);
+
+    private LocalDateTime transactedAt;
+    private Long id;
+
+    // 첫 페이지 : to 가 있으면 to 이전(to 미포함), 없으면 가장 최근 거래부터
+    public static TransactionCursor first(LocalDateTime to) {
+        return to != null
+                ? new TransactionCursor(to, Long.MIN_VALUE)
+                : new TransactionCursor(LATEST, Long.MAX_VALUE);
+    }
+
+    public static TransactionCursor after(Transaction transaction) {
+        return new TransactionCursor(transaction.getTransactedAt(), transaction.getId());
+    }
+
+    public static TransactionCursor decode(String cursor) {
+        try {
+            String decoded = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separator = decoded.lastIndexOf('|');
+            return new TransactionCursor(
+                    LocalDateTime.parse(decoded.substring(0, separator)),
+                    Long.parseLong(decoded.substring(separator + 1)));
+        } catch (RuntimeException e) {
+            throw new AccountException(ErrorCode.INVALID_REQUEST);
+        }
+    }
+
+    public String encode() {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString((transactedAt + "|" + id).getBytes(StandardCharsets.UTF_8));
+    }
+}
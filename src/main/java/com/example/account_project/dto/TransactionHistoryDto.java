@@ -0,0 +1,15 @@
+package com.example.account_project.dto;
+
+import lombok.*;
+
+import java.util.List;
+
+@Getter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class TransactionHistoryDto {
+    private List<TransactionDto> transactions;
+    // 다음 페이지가 없으면 null
+    private String nextCursor;
+}
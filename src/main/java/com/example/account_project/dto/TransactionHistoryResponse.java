@@ -0,0 +1,25 @@
+package com.example.account_project.dto;
+
+import lombok.*;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+@Setter
+@Getter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class TransactionHistoryResponse {
+    private List<QueryTransactionResponse> transactions;
+    private String nextCursor;
+
+    public static TransactionHistoryResponse from(TransactionHistoryDto transactionHistoryDto) {
+        return TransactionHistoryResponse.builder()
+                .transactions(transactionHistoryDto.getTransactions().stream()
+                        .map(QueryTransactionResponse::from)
+                        .collect(Collectors.toList()))
+                .nextCursor(transactionHistoryDto.getNextCursor())
+                .build();
+    }
+}
@@ -0,0 +1,39 @@
+package com.example.account_project.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.*;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+public class UseBalanceBatch {
+    @Setter
+    @Getter
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Request {
+        @NotEmpty
+        @Size(max = 1000)
+        private List<@Valid UseBalance.Request> items;
+    }
+
+    @Getter
+    @Setter
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @Builder
+    public static class Response {
+        // 요청 items 와 같은 순서
+        private List<UseBalance.Response> results;
+
+        public static Response from(List<TransactionDto> transactionDtos) {
+            return Response.builder()
+                    .results(transactionDtos.stream()
+                            .map(UseBalance.Response::from)
+                            .collect(Collectors.toList()))
+                    .build();
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package com.example.account_project.metrics;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/*
+ * GET /actuator/lockcontention?limit=20
+ * 락 경합/실패가 많은 계좌 (핫 계좌) 목록
+ */
+@Component
+@Endpoint(id = "lockcontention")
+@RequiredArgsConstructor
+public class LockContentionEndpoint {
+    private static final int DEFAULT_LIMIT = 20;
+
+    private final LockMetrics lockMetrics;
+
+    @ReadOperation
+    public List<LockMetrics.AccountContention> hotAccounts(@Nullable Integer limit) {
+        return lockMetrics.topContended(limit != null ? limit : DEFAULT_LIMIT);
+    }
+}
@@ -0,0 +1,136 @@
+package com.example.account_project.metrics;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/*
+ * 계좌 락 메트릭
+ * - account.lock.wait (result=acquired|failed) : 락 취득까지 기다린 시간
+ * - account.lock.hold                          : 락을 잡고 있던 시간
+ * - account.lock.failures                      : 락 취득 실패 수
+ * - account.lock.contended                     : contention-threshold 이상 기다린 취득 수
+ * 계좌번호를 태그로 붙이면 메트릭 수가 계좌 수만큼 늘어나므로,
+ * 계좌별 경합/실패 수는 최근에 경합이 있었던 계좌만 따로 들고 있다가 lockcontention 엔드포인트로 보여준다.
+ *
+ * 보유 시간은 (계좌번호, 스레드)별로 잰다. 락은 잡은 스레드가 푼다. (LockAopAspect, TransactionBatchService)
+ * - 같은 스레드가 다시 잡으면 (재진입) 맨 바깥 해제 때 한 번만 기록한다.
+ * - 임대 시간이 지나서 다른 스레드가 같은 계좌 락을 잡아도 서로의 시작 시각을 덮어쓰지 않는다.
+ * - 해제가 기록되지 않은 보유는 STALE_HOLD_EXPIRY 가 지나면 버린다. (보유 시간에는 넣지 않음)
+ */
+@Component
+public class LockMetrics {
+    private static final Duration STALE_HOLD_EXPIRY = Duration.ofMinutes(10);
+
+    private final Timer acquiredWait;
+    private final Timer failedWait;
+    private final Timer hold;
+    private final Counter failures;
+    private final Counter contended;
+    private final long contentionThresholdNanos;
+    private final Cache<Holder, Hold> heldSince;
+    private final Cache<String, Contention> contentions;
+
+    public LockMetrics(MeterRegistry meterRegistry,
+                       @Value("${account.metrics.lock.contention-threshold-ms:5}") long contentionThresholdMillis,
+                       @Value("${account.metrics.lock.tracked-accounts:10000}") long trackedAccounts) {
+        this.acquiredWait = Timer.builder("account.lock.wait").tag("result", "acquired").register(meterRegistry);
+        this.failedWait = Timer.builder("account.lock.wait").tag("result", "failed").register(meterRegistry);
+        this.hold = Timer.builder("account.lock.hold").register(meterRegistry);
+        this.failures = Counter.builder("account.lock.failures").register(meterRegistry);
+        this.contended = Counter.builder("account.lock.contended").register(meterRegistry);
+        this.contentionThresholdNanos = TimeUnit.MILLISECONDS.toNanos(contentionThresholdMillis);
+        this.contentions = Caffeine.newBuilder()
+                .maximumSize(trackedAccounts)
+                .build();
+        this.heldSince = Caffeine.newBuilder()
+                .expireAfterWrite(STALE_HOLD_EXPIRY)
+                .build();
+    }
+
+    public void recordAcquired(String accountNumber, long waitNanos) {
+        acquiredWait.record(waitNanos, TimeUnit.NANOSECONDS);
+        heldSince.asMap().compute(new Holder(accountNumber, Thread.currentThread().getId()), (holder, held) -> {
+            if (held == null) {
+                return new Hold(System.nanoTime());
+            }
+            held.depth++;
+            return held;
+        });
+        if (waitNanos >= contentionThresholdNanos) {
+            contended.increment();
+            contention(accountNumber).contended.increment();
+        }
+    }
+
+    public void recordFailed(String accountNumber, long waitNanos) {
+        failedWait.record(waitNanos, TimeUnit.NANOSECONDS);
+        failures.increment();
+        contention(accountNumber).failed.increment();
+    }
+
+    public void recordReleased(String accountNumber) {
+        heldSince.asMap().computeIfPresent(new Holder(accountNumber, Thread.currentThread().getId()), (holder, held) -> {
+            if (--held.depth > 0) {
+                return held;
+            }
+            hold.record(Duration.ofNanos(System.nanoTime() - held.startedAt));
+            return null;
+        });
+    }
+
+    /* 경합 + 실패 수가 많은 순서 */
+    public List<AccountContention> topContended(int limit) {
+        return contentions.asMap().entrySet().stream()
+                .map(entry -> new AccountContention(entry.getKey(),
+                        entry.getValue().contended.sum(), entry.getValue().failed.sum()))
+                .sorted(Comparator.comparingLong(AccountContention::getTotal).reversed())
+                .limit(limit)
+                .toList();
+    }
+
+    private Contention contention(String accountNumber) {
+        return contentions.get(accountNumber, key -> new Contention());
+    }
+
+    private record Holder(String accountNumber, long threadId) {
+    }
+
+    private static class Hold {
+        private final long startedAt;
+        private int depth = 1;
+
+        private Hold(long startedAt) {
+            this.startedAt = startedAt;
+        }
+    }
+
+    private static class Contention {
+        private final LongAdder contended = new LongAdder();
+        private final LongAdder failed = new LongAdder();
+    }
+
+    @Getter
+    @AllArgsConstructor
+    public static class AccountContention {
+        private String accountNumber;
+        private long contended;
+        private long failed;
+
+        public long getTotal() {
+            return contended + failed;
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package com.example.account_project.metrics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.persistence.EntityManagerFactory;
+import org.springframework.orm.jpa.JpaTransactionManager;
+import org.springframework.transaction.support.DefaultTransactionStatus;
+
+/*
+ * 커밋 시간 측정 (account.transaction.commit)
+ * JPA 는 커밋할 때 flush 하므로 dirty checking UPDATE 와 INSERT 시간도 여기에 들어간다.
+ */
+public class TimedJpaTransactionManager extends JpaTransactionManager {
+    private final Timer commitTimer;
+
+    public TimedJpaTransactionManager(EntityManagerFactory entityManagerFactory, MeterRegistry meterRegistry) {
+        super(entityManagerFactory);
+        this.commitTimer = Timer.builder("account.transaction.commit").register(meterRegistry);
+    }
+
+    @Override
+    protected void doCommit(DefaultTransactionStatus status) {
+        Timer.Sample sample = Timer.start();
+        try {
+            super.doCommit(status);
+        } finally {
+            sample.stop(commitTimer);
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package com.example.account_project.repository;
+
+import com.example.account_project.domain.AccountBalanceSlot;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface AccountBalanceSlotRepository extends JpaRepository<AccountBalanceSlot, Long> {
+
+    /* 슬롯 잔액이 충분할 때만 차감한다. 바뀐 행 수(0 또는 1)를 돌려준다. */
+    @Modifying(flushAutomatically = true)
+    @Query("update AccountBalanceSlot s set s.balance = s.balance - :amount, s.updatedAt = :now " +
+            "where s.account.id = :accountId and s.slotNo = :slotNo and s.balance >= :amount")
+    int debitIfSufficient(@Param("accountId") Long accountId,
+                          @Param("slotNo") Integer slotNo,
+                          @Param("amount") Long amount,
+                          @Param("now") LocalDateTime now);
+
+    @Modifying(flushAutomatically = true)
+    @Query("update AccountBalanceSlot s set s.balance = s.balance + :amount, s.updatedAt = :now " +
+            "where s.account.id = :accountId and s.slotNo = :slotNo")
+    int credit(@Param("accountId") Long accountId,
+               @Param("slotNo") Integer slotNo,
+               @Param("amount") Long amount,
+               @Param("now") LocalDateTime now);
+
+    @Query("select coalesce(sum(s.balance), 0) from AccountBalanceSlot s where s.account.id = :accountId")
+    Long sumBalance(@Param("accountId") Long accountId);
+
+    /* 한 슬롯으로 모자랄 때 여러 슬롯에서 나눠 차감 - 계좌의 슬롯 행을 모두 잠근다.
+     * 인덱스(account_id, slot_no) 순서로 잠그므로 같은 방식으로 잠그는 거래끼리 교착하지 않는다.
+     * 엔티티를 읽지 않으므로 같은 트랜잭션에서 먼저 읽은 슬롯 값이 덮어쓰지 않는다. */
+    @Modifying(flushAutomatically = true)
+    @Query("update AccountBalanceSlot s set s.updatedAt = :now where s.account.id = :accountId")
+    int lockAll(@Param("accountId") Long accountId, @Param("now") LocalDateTime now);
+
+    @Query("select s.balance from AccountBalanceSlot s where s.account.id = :accountId order by s.slotNo")
+    List<Long> findBalancesByAccountId(@Param("accountId") Long accountId);
+}
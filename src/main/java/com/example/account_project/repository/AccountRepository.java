@@ -2,9 +2,19 @@ package com.example.account_project.repository;
 
 import com.example.account_project.domain.Account;
 import com.example.account_project.domain.AccountUser;
+import com.example.account_project.dto.AccountSummaryItem;
+import com.example.account_project.dto.LedgerAccount;
+import com.example.account_project.type.AccountStatus;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
@@ -17,4 +27,55 @@ public interface AccountRepository extends JpaRepository<Account, Long> {
 
     Optional<Account> findByAccountNumber(String AccountNumber);
     List<Account> findByAccountUser(AccountUser accountUser);
+
+    /* 계좌 조회 응답에 사용자까지 같이 내려가므로 한 번에 조인해서 읽는다. */
+    @EntityGraph(attributePaths = "accountUser")
+    Optional<Account> findWithAccountUserById(Long id);
+
+    /* 사용자별 계좌 요약 (AccountSummaryCache) - 사용자 엔티티를 읽지 않고 외래키로만 찾는다.
+     * 나눈 계좌는 슬롯 합계를 더한다. */
+    @Query("select new com.example.account_project.dto.AccountSummaryItem(" +
+            "a.accountNumber, " +
+            "a.balance + coalesce((select sum(s.balance) from AccountBalanceSlot s where s.account = a), 0L), " +
+            "a.accountStatus, a.registeredAt, a.unregisteredAt, a.version) " +
+            "from Account a where a.accountUser.id = :userId order by a.id")
+    List<AccountSummaryItem> findSummaryItemsByAccountUserId(@Param("userId") Long userId);
+
+    /* 잔액이 충분하고 사용중인 계좌일 때만 차감한다. 바뀐 행 수(0 또는 1)를 돌려준다.
+     * 영속성 컨텍스트의 Account 는 갱신되지 않으므로 차감 후 잔액은 findBalanceById 로 읽는다.*/
+    @Modifying(flushAutomatically = true)
+    @Query("update Account a set a.balance = a.balance - :amount, a.version = a.version + 1, a.updatedAt = :now " +
+            "where a.id = :id and a.balance >= :amount and a.accountStatus = :accountStatus")
+    int debitIfSufficient(@Param("id") Long id,
+                          @Param("amount") Long amount,
+                          @Param("accountStatus") AccountStatus accountStatus,
+                          @Param("now") LocalDateTime now);
+
+    @Modifying(flushAutomatically = true)
+    @Query("update Account a set a.balance = a.balance + :amount, a.version = a.version + 1, a.updatedAt = :now " +
+            "where a.id = :id")
+    int credit(@Param("id") Long id, @Param("amount") Long amount, @Param("now") LocalDateTime now);
+
+    /* 저널 반영 - 여러 거래의 delta 합계를 한 번에 더한다. */
+    @Modifying(flushAutomatically = true)
+    @Query("update Account a set a.balance = a.balance + :delta, a.version = a.version + 1, a.updatedAt = :now " +
+            "where a.id = :id")
+    int adjustBalance(@Param("id") Long id, @Param("delta") Long delta, @Param("now") LocalDateTime now);
+
+    /* LedgerEngine 이 처음 보는 계좌를 읽을 때 사용 */
+    @Query("select new com.example.account_project.dto.LedgerAccount(a.id, a.accountUser.id, a.accountStatus, a.balance) " +
+            "from Account a where a.accountNumber = :accountNumber")
+    Optional<LedgerAccount> findLedgerAccount(@Param("accountNumber") String accountNumber);
+
+    @Query("select a.balance from Account a where a.id = :id")
+    Long findBalanceById(@Param("id") Long id);
+
+    /* 계좌 락을 건너뛸지 (BalanceSlotService.isSharded) */
+    @Query("select a.balanceSlots from Account a where a.accountNumber = :accountNumber")
+    Optional<Integer> findBalanceSlotsByAccountNumber(@Param("accountNumber") String accountNumber);
+
+    /* 잔액을 슬롯으로 나누는 동안 조건부 UPDATE(ATOMIC 모드)까지 막는다. */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select a from Account a where a.accountNumber = :accountNumber")
+    Optional<Account> findForUpdateByAccountNumber(@Param("accountNumber") String accountNumber);
 }
@@ -1,7 +1,22 @@
 package com.example.account_project.repository;
 
 import com.example.account_project.domain.AccountUser;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.List;
 
 public interface AccountUserRepository extends JpaRepository<AccountUser ,Long> {
+    // 사용자 캐시 미리 채우기 (AccountUserCache)
+    @Query("select u.id from AccountUser u order by u.id")
+    List<Long> findIds(Pageable pageable);
+
+    /* 계좌 수가 max 보다 적을 때만 하나 늘린다. 바뀐 행 수(0 또는 1)를 돌려준다.
+     * 사용자 행 잠금을 커밋까지 들고 있으므로 동시에 만들어도 max 를 넘지 않는다. */
+    @Modifying(flushAutomatically = true)
+    @Query("update AccountUser u set u.accountCount = u.accountCount + 1 where u.id = :id and u.accountCount < :max")
+    int incrementAccountCount(@Param("id") Long id, @Param("max") int max);
 }
@@ -1,11 +1,75 @@
 package com.example.account_project.repository;
 
 import com.example.account_project.domain.Transaction;
+import com.example.account_project.dto.TransactionDto;
+import com.example.account_project.type.TransactionResultType;
+import com.example.account_project.type.TransactionType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Stream;
 
 public interface TransactionRepository extends JpaRepository<Transaction,Long> {
 
     Optional<Transaction> findByTransactionId(String transactionId);
+
+    /* 거래 확인 - 계좌번호만 필요하므로 엔티티 대신 DTO 로 한 번에 읽는다. */
+    @Query("select new com.example.account_project.dto.TransactionDto(" +
+            "a.accountNumber, t.transactionType, t.transactionResultType, " +
+            "t.amount, t.balanceSnapshot, t.transactionId, t.transactedAt) " +
+            "from Transaction t join t.account a " +
+            "where t.transactionId = :transactionId")
+    Optional<TransactionDto> findDtoByTransactionId(@Param("transactionId") String transactionId);
+
+    @Query("select t.transactionId from Transaction t where t.transactionId in :transactionIds")
+    Set<String> findExistingTransactionIds(@Param("transactionIds") Collection<String> transactionIds);
+
+    /*
+     * 계좌 거래내역 (keyset pagination)
+     * (account_id, transacted_at, id) 인덱스에서 커서 바로 앞부터 최신순으로 읽기 때문에
+     * 몇 번째 페이지든 읽는 양이 페이지 크기만큼으로 일정하다.
+     */
+    @Query("select t from Transaction t " +
+            "where t.account.id = :accountId " +
+            "and t.transactedAt >= :from " +
+            "and t.transactedAt <= :cursorTransactedAt " +
+            "and (t.transactedAt < :cursorTransactedAt or t.id < :cursorId) " +
+            "and (:transactionType is null or t.transactionType = :transactionType) " +
+            "and (:transactionResultType is null or t.transactionResultType = :transactionResultType) " +
+            "order by t.transactedAt desc, t.id desc")
+    List<Transaction> findHistory(@Param("accountId") Long accountId,
+                                  @Param("transactionType") TransactionType transactionType,
+                                  @Param("transactionResultType") TransactionResultType transactionResultType,
+                                  @Param("from") LocalDateTime from,
+                                  @Param("cursorTransactedAt") LocalDateTime cursorTransactedAt,
+                                  @Param("cursorId") Long cursorId,
+                                  Pageable pageable);
+
+    /*
+     * 기간별 거래 내보내기
+     * 엔티티 대신 TransactionDto 로 바로 꺼내서 영속성 컨텍스트에 아무것도 쌓이지 않게 하고,
+     * fetch size 단위로 커서를 앞으로만 읽는다.
+     * 트랜잭션 안에서 사용하고, 다 쓴 Stream 은 반드시 close 해야 한다.
+     */
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "false")})
+    @Query("select new com.example.account_project.dto.TransactionDto(" +
+            "a.accountNumber, t.transactionType, t.transactionResultType, " +
+            "t.amount, t.balanceSnapshot, t.transactionId, t.transactedAt) " +
+            "from Transaction t join t.account a " +
+            "where t.transactedAt >= :from and t.transactedAt < :to " +
+            "order by t.transactedAt, t.id")
+    Stream<TransactionDto> streamForExport(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
 }
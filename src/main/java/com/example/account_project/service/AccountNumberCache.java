@@ -0,0 +1,75 @@
+package com.example.account_project.service;
+
+import com.example.account_project.domain.Account;
+import com.example.account_project.repository.AccountRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Optional;
+
+/*
+ * 계좌번호 -> 계좌 id 캐시
+ * 계좌번호로 찾는 대신 PK 로 찾게 해서 자주 쓰는 계좌는 PK 조회 한 번(영속성 컨텍스트에 있으면 0번)으로 끝낸다.
+ * id 만 들고 있으므로 잔액/상태는 항상 DB 에서 새로 읽는다.
+ * Caffeine(W-TinyLFU) 으로 크기를 제한하고, hit/miss 는 cache.* 메트릭(name=accountNumberCache)으로 나간다.
+ */
+@Component
+public class AccountNumberCache {
+    private final AccountRepository accountRepository;
+    private final Cache<String, Long> accountIds;
+
+    public AccountNumberCache(AccountRepository accountRepository,
+                              MeterRegistry meterRegistry,
+                              @Value("${account.cache.account-number.maximum-size:100000}") long maximumSize) {
+        this.accountRepository = accountRepository;
+        this.accountIds = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, accountIds, "accountNumberCache");
+    }
+
+    public Optional<Account> findByAccountNumber(String accountNumber) {
+        Long accountId = accountIds.getIfPresent(accountNumber);
+        if (accountId != null) {
+            Optional<Account> account = accountRepository.findById(accountId);
+            if (account.isPresent()) {
+                return account;
+            }
+            accountIds.invalidate(accountNumber);
+        }
+
+        Optional<Account> account = accountRepository.findByAccountNumber(accountNumber);
+        account.ifPresent(found -> accountIds.put(accountNumber, found.getId()));
+        return account;
+    }
+
+    public void invalidate(String accountNumber) {
+        accountIds.invalidate(accountNumber);
+    }
+
+    /* 트랜잭션이 롤백되면 계좌는 그대로이므로 커밋된 뒤에 지운다. */
+    public void invalidateAfterCommit(String accountNumber) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            invalidate(accountNumber);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                invalidate(accountNumber);
+            }
+        });
+    }
+
+    public CacheStats stats() {
+        return accountIds.stats();
+    }
+}
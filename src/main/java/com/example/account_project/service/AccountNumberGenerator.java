@@ -0,0 +1,76 @@
+package com.example.account_project.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/*
+ * 계좌번호 발급기
+ * DB 의 상한선에서 blockSize 개씩 구간을 예약해 두고, 구간 안에서는 AtomicLong 으로만 번호를 나눠준다.
+ * 구간을 다 쓴 경우에만 DB 에 다녀오므로 대부분의 계좌 생성은 번호 발급에 DB 를 쓰지 않는다.
+ */
+@Component
+public class AccountNumberGenerator {
+    private final AccountNumberSequenceService accountNumberSequenceService;
+    private final int blockSize;
+    private final ReentrantLock refillLock = new ReentrantLock();
+
+    private volatile Block block = Block.EMPTY;
+
+    public AccountNumberGenerator(AccountNumberSequenceService accountNumberSequenceService,
+                                  @Value("${account.number.block-size:1000}") int blockSize) {
+        if (blockSize < 1) {
+            throw new IllegalArgumentException("account.number.block-size must be positive");
+        }
+        this.accountNumberSequenceService = accountNumberSequenceService;
+        this.blockSize = blockSize;
+    }
+
+    public String nextAccountNumber() {
+        while (true) {
+            Block current = block;
+            long accountNumber = current.next();
+            if (accountNumber != Block.EXHAUSTED) {
+                return String.valueOf(accountNumber);
+            }
+            refill(current);
+        }
+    }
+
+    private void refill(Block exhausted) {
+        refillLock.lock();
+        try {
+            // 기다리는 동안 다른 스레드가 이미 새 구간을 받아왔다면 그 구간을 그대로 쓴다.
+            if (block == exhausted) {
+                long blockStart = accountNumberSequenceService.reserveBlock(blockSize);
+                block = new Block(blockStart, blockStart + blockSize);
+            }
+        } finally {
+            refillLock.unlock();
+        }
+    }
+
+    private static final class Block {
+        static final long EXHAUSTED = -1L;
+        static final Block EMPTY = new Block(0L, 0L);
+
+        private final AtomicLong cursor;
+        private final long end;
+
+        Block(long start, long end) {
+            this.cursor = new AtomicLong(start);
+            this.end = end;
+        }
+
+        long next() {
+            // 다 쓴 구간에서 계속 증가시키지 않도록 먼저 확인한다.
+            if (cursor.get() >= end) {
+                return EXHAUSTED;
+            }
+            long value = cursor.getAndIncrement();
+            return value < end ? value : EXHAUSTED;
+        }
+    }
+}
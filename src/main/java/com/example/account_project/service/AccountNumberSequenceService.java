@@ -0,0 +1,57 @@
+package com.example.account_project.service;
+
+import com.example.account_project.Exception.AccountException;
+import com.example.account_project.domain.AccountNumberSequence;
+import com.example.account_project.repository.AccountNumberSequenceRepository;
+import com.example.account_project.repository.AccountRepository;
+import com.example.account_project.type.ErrorCode;
+import jakarta.transaction.Transactional;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class AccountNumberSequenceService {
+    public static final String ACCOUNT_NUMBER = "ACCOUNT_NUMBER";
+    public static final long FIRST_ACCOUNT_NUMBER = 1_000_000_000L;
+    public static final long LAST_ACCOUNT_NUMBER = 9_999_999_999L;
+
+    private final AccountNumberSequenceRepository accountNumberSequenceRepository;
+    private final AccountRepository accountRepository;
+
+    /*
+     * 계좌번호 블록 예약
+     * 1. 상한선 row 를 비관적 락으로 읽고
+     * 2. blockSize 만큼 올려서 저장한 뒤
+     * 3. 예약한 구간의 시작 번호를 돌려준다.
+     * 계좌 생성 트랜잭션이 롤백되더라도 예약한 구간은 돌려받지 않도록 별도 트랜잭션으로 커밋한다.
+     */
+    @Transactional(Transactional.TxType.REQUIRES_NEW)
+    public long reserveBlock(int blockSize) {
+        AccountNumberSequence sequence = accountNumberSequenceRepository.findByName(ACCOUNT_NUMBER)
+                .orElseGet(this::createSequence);
+
+        long blockStart = sequence.getNextValue();
+        if (blockStart + blockSize - 1 > LAST_ACCOUNT_NUMBER) {
+            throw new AccountException(ErrorCode.ACCOUNT_NUMBER_EXHAUSTED);
+        }
+        sequence.setNextValue(blockStart + blockSize);
+        log.debug("Reserved account number block [{}, {})", blockStart, blockStart + blockSize);
+
+        return blockStart;
+    }
+
+    // 상한선 row 가 없으면 기존 마지막 계좌번호 다음부터 시작한다.
+    private AccountNumberSequence createSequence() {
+        long nextValue = accountRepository.findFirstByOrderByIdDesc()
+                .map(account -> Long.parseLong(account.getAccountNumber()) + 1)
+                .orElse(FIRST_ACCOUNT_NUMBER);
+
+        return accountNumberSequenceRepository.save(AccountNumberSequence.builder()
+                .name(ACCOUNT_NUMBER)
+                .nextValue(nextValue)
+                .build());
+    }
+}
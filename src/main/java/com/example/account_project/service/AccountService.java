@@ -16,15 +16,23 @@ import org.springframework.stereotype.Service;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Objects;
-import java.util.stream.Collectors;
 
 import static com.example.account_project.type.ErrorCode.USER_NOT_FOUND;
 
 @Service
 @RequiredArgsConstructor
 public class AccountService {
+    private static final int MAX_ACCOUNT_PER_USER = 10;
+
     private final AccountRepository accountRepository;
     private final AccountUserRepository accountUserRepository;
+    private final AccountUserCache accountUserCache;
+    private final AccountNumberGenerator accountNumberGenerator;
+    private final AccountNumberCache accountNumberCache;
+    private final AccountSummaryCache accountSummaryCache;
+    private final BalanceJournal balanceJournal;
+    private final LedgerEngine ledgerEngine;
+    private final BalanceSlotService balanceSlotService;
 
     /* 사용자가 있는지 조회
        계좌의 번호 생성하고
@@ -40,27 +48,31 @@ public class AccountService {
 
         validateCreateAccount(accountUser); // 계좌수가 10개가 넘어가면 예외발생시키는 메소드
 
-        String newAccountNumber = accountRepository.findFirstByOrderByIdDesc()
-                .map(account -> (Integer.parseInt(account.getAccountNumber())) + 1 + "")
-                .orElse("1000000000");
+        String newAccountNumber = accountNumberGenerator.nextAccountNumber();
 
-        return AccountDto.fromEntity(accountRepository.save(
+        Account account = accountRepository.save(
                 Account.builder().accountUser(accountUser)
                         .accountNumber(newAccountNumber)
                         .accountStatus(AccountStatus.IN_USE)
                         .balance(initialBalance)
                         .registeredAt(LocalDateTime.now())
-                        .build())
-        );
+                        .build());
+        accountSummaryCache.applyAfterCommit(account);
+
+        return AccountDto.fromEntity(account);
     }
 
     private AccountUser getAccountUser(Long userId) {
-        return accountUserRepository.findById(userId)
+        return accountUserCache.findById(userId)
                 .orElseThrow(() -> new AccountException(USER_NOT_FOUND));
     }
 
+    /* 해지한 계좌를 포함해서 센다.
+       계좌 수는 줄지 않으므로 요약 캐시가 10개 이상이면 쿼리 없이 거절하고,
+       그보다 적으면 사용자 계좌 수를 조건부 UPDATE 로 늘린다. (다른 노드에서 만든 계좌까지 커밋 시점에 원자적으로 확인) */
     private void validateCreateAccount(AccountUser accountUser) {
-        if (accountRepository.countByAccountUser(accountUser) >= 10) {
+        if (accountSummaryCache.count(accountUser.getId()) >= MAX_ACCOUNT_PER_USER
+                || accountUserRepository.incrementAccountCount(accountUser.getId(), MAX_ACCOUNT_PER_USER) == 0) {
             throw new AccountException(ErrorCode.MAX_ACCOUNT_PER_USER_10);
         }
     }
@@ -70,21 +82,25 @@ public class AccountService {
         if (id < 0) {
             throw new RuntimeException("Minus");
         }
-        return accountRepository.findById(id).get();
+        return accountRepository.findWithAccountUserById(id).get();
     }
 
     @Transactional
     public AccountDto deleteAccount(Long userId, String accountNumber) {
         AccountUser accountUser = getAccountUser(userId);
-        Account account = accountRepository.findByAccountNumber(accountNumber)
+        Account account = accountNumberCache.findByAccountNumber(accountNumber)
                 .orElseThrow(() -> new AccountException(ErrorCode.ACCOUNT_NOT_FOUND));
 
         validateDeleteAccount(accountUser, account);
+        // LEDGER 모드는 메모리 원장에서도 잔액을 확인하고, 커밋되면 해지 상태로 바꾼다
+        ledgerEngine.unregister(accountNumber);
 
         //상태를 업데이트하고
         account.setAccountStatus(AccountStatus.UNREGISTERED);
         account.setUnregisteredAt(LocalDateTime.now());
         accountRepository.save(account);
+        accountNumberCache.invalidateAfterCommit(accountNumber);
+        accountSummaryCache.applyAfterCommit(account);
 
         return AccountDto.fromEntity(account);
     }
@@ -96,17 +112,20 @@ public class AccountService {
         if (account.getAccountStatus() == AccountStatus.UNREGISTERED) {
             throw new AccountException(ErrorCode.ACCOUNT_ALREADY_UNREGISTERED);
         }
-        if (account.getBalance() > 0) {
+        // JOURNAL 모드에서 아직 DB 에 반영되지 않은 잔액 변경까지 포함, 나눈 계좌는 슬롯 합계
+        Long balance = account.isBalanceSharded() ? balanceSlotService.balanceOf(account) : account.getBalance();
+        if (balance + balanceJournal.pendingDelta(account.getId()) > 0) {
             throw new AccountException(ErrorCode.BALANCE_NOT_EMPTY);
         }
     }
+    /* 계좌가 없을 때만 사용자가 있는지 확인한다. (계좌가 있으면 사용자도 있다)
+       계좌 목록은 사용자 계좌 요약 캐시에서 읽는다. */
     @Transactional
     public List<AccountDto> getAccountByUserId(Long userId) {
-        AccountUser accountUser = getAccountUser(userId);
-
-        List<Account> accounts = accountRepository.findByAccountUser(accountUser);
-        return accounts.stream()
-                .map(AccountDto::fromEntity)
-                .collect(Collectors.toList());
+        List<AccountDto> accounts = accountSummaryCache.getAccounts(userId);
+        if (accounts.isEmpty()) {
+            getAccountUser(userId);
+        }
+        return accounts;
     }
 }
\ No newline at end of file
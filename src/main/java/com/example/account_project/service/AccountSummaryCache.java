@@ -0,0 +1,135 @@
+package com.example.account_project.service;
+
+import com.example.account_project.domain.Account;
+import com.example.account_project.dto.AccountDto;
+import com.example.account_project.dto.AccountSummary;
+import com.example.account_project.dto.AccountSummaryItem;
+import com.example.account_project.repository.AccountRepository;
+import com.example.account_project.type.TransactionMode;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/*
+ * 사용자별 계좌 요약 캐시 - 계좌 10개 제한 확인과 사용자 계좌 목록을 쿼리 없이 처리한다.
+ * 계좌 생성/해지, 잔액 사용/취소가 커밋되면 바뀐 계좌만 요약에 반영한다. (캐시에 있는 사용자만)
+ *
+ * - 순서 : 반영은 계좌 @Version 이 더 큰 쪽만 남기므로 같은 변경이 두 번 오거나 늦게 와도 된다.
+ * - 적재 : 요약을 읽는 동안 같은 사용자 계좌가 커밋되면 읽은 요약이 이미 낡았을 수 있다.
+ *          사용자 id 로 나눈 변경 번호(stamp)를 읽기 전후로 비교해서 바뀌었으면 캐시에 넣지 않는다.
+ * - ATOMIC : 조건부 UPDATE 는 엔티티 version 을 올리지 않으므로 커밋 후 요약을 지운다.
+ * - JOURNAL, LEDGER : DB 잔액이 나중에 바뀌므로 캐시하지 않고 항상 DB 에서 읽는다.
+ * - 계좌가 없는 사용자는 캐시하지 않는다. (없는 사용자 id 로 캐시가 차지 않도록)
+ * - 다른 노드 : 다른 노드의 커밋은 반영되지 않으므로 expire-after-write 가 지나면 DB 에서 다시 읽는다.
+ *              계좌 10개 제한은 이 캐시로 거절만 하고, 통과는 사용자 계좌 수 조건부 UPDATE 로 확인한다.
+ *              (AccountService.validateCreateAccount)
+ * Caffeine 으로 크기를 제한하고, hit/miss 는 cache.* 메트릭(name=accountSummaryCache)으로 나간다.
+ */
+@Component
+public class AccountSummaryCache {
+    private static final int STAMP_STRIPES = 1024;
+
+    private final AccountRepository accountRepository;
+    private final Cache<Long, AccountSummary> summaries;
+    private final AtomicLongArray stamps = new AtomicLongArray(STAMP_STRIPES);
+    private final boolean enabled;
+
+    public AccountSummaryCache(AccountRepository accountRepository,
+                               MeterRegistry meterRegistry,
+                               @Value("${account.transaction.mode:LOCK}") TransactionMode transactionMode,
+                               @Value("${account.cache.account-summary.maximum-size:100000}") long maximumSize,
+                               @Value("${account.cache.account-summary.expire-after-write:30s}") Duration expireAfterWrite) {
+        this.accountRepository = accountRepository;
+        this.enabled = transactionMode != TransactionMode.JOURNAL && transactionMode != TransactionMode.LEDGER;
+        this.summaries = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(expireAfterWrite)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, summaries, "accountSummaryCache");
+    }
+
+    public int count(Long userId) {
+        return get(userId).count();
+    }
+
+    public List<AccountDto> getAccounts(Long userId) {
+        return get(userId).toAccountDtos();
+    }
+
+    private AccountSummary get(Long userId) {
+        if (enabled) {
+            AccountSummary cached = summaries.getIfPresent(userId);
+            if (cached != null) {
+                return cached;
+            }
+        }
+        int stripe = stripe(userId);
+        long stamp = stamps.get(stripe);
+        AccountSummary loaded = new AccountSummary(userId, accountRepository.findSummaryItemsByAccountUserId(userId));
+        if (!enabled || loaded.count() == 0) {
+            return loaded;
+        }
+        AccountSummary summary = summaries.asMap().compute(userId, (id, current) -> {
+            if (current != null) {
+                return current.merge(loaded.getAccounts());
+            }
+            return stamps.get(stripe) == stamp ? loaded : null;
+        });
+        return summary != null ? summary : loaded;
+    }
+
+    /* 커밋 후 계좌의 현재 상태를 요약에 반영한다. (version 은 flush 때 올라간 값) */
+    public void applyAfterCommit(Account account) {
+        if (!enabled) {
+            return;
+        }
+        Long userId = account.getAccountUser().getId();
+        afterCommit(() -> {
+            stamps.incrementAndGet(stripe(userId));
+            AccountSummaryItem item = AccountSummaryItem.fromEntity(account);
+            summaries.asMap().computeIfPresent(userId, (id, summary) -> summary.merge(List.of(item)));
+        });
+    }
+
+    public void evictAfterCommit(Long userId) {
+        if (!enabled) {
+            return;
+        }
+        afterCommit(() -> {
+            stamps.incrementAndGet(stripe(userId));
+            summaries.invalidate(userId);
+        });
+    }
+
+    public CacheStats stats() {
+        return summaries.stats();
+    }
+
+    private static int stripe(Long userId) {
+        return Math.floorMod(Long.hashCode(userId), STAMP_STRIPES);
+    }
+
+    private static void afterCommit(Runnable runnable) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            runnable.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                runnable.run();
+            }
+        });
+    }
+}
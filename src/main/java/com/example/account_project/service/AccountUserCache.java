@@ -0,0 +1,121 @@
+package com.example.account_project.service;
+
+import com.example.account_project.domain.AccountUser;
+import com.example.account_project.repository.AccountUserRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+
+/*
+ * 있는 사용자 id 캐시
+ * 잔액 사용/계좌 생성마다 사용자가 있는지만 확인하면 되므로, 한 번 확인한 사용자는 SELECT 없이 참조(getReferenceById)만 돌려준다.
+ * 사용자 정보(이름 등)는 들고 있지 않다. 참조의 id 외 필드를 읽으면 그때 DB 에서 읽는다.
+ * 없는 사용자는 캐시하지 않는다. (나중에 생길 수 있으므로)
+ * 이 노드에서 사용자를 저장/삭제하면 AccountUserCacheListener 가 커밋 뒤에 넣거나 지운다.
+ * 다른 노드에서 지운 사용자는 expireAfterWrite 가 지나면 다시 DB 에서 확인한다.
+ * Caffeine(W-TinyLFU) 으로 크기를 제한하고, hit/miss 는 cache.* 메트릭(name=accountUserCache)으로 나간다.
+ */
+@Slf4j
+@Component
+public class AccountUserCache {
+    private final AccountUserRepository accountUserRepository;
+    private final Cache<Long, Boolean> userIds;
+    private final long maximumSize;
+    private final boolean warmUp;
+
+    public AccountUserCache(AccountUserRepository accountUserRepository,
+                            MeterRegistry meterRegistry,
+                            @Value("${account.cache.account-user.maximum-size:100000}") long maximumSize,
+                            @Value("${account.cache.account-user.warm-up:true}") boolean warmUp,
+                            @Value("${account.cache.account-user.expire-after-write:10m}") Duration expireAfterWrite) {
+        this.accountUserRepository = accountUserRepository;
+        this.maximumSize = maximumSize;
+        this.warmUp = warmUp;
+        this.userIds = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(expireAfterWrite)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, userIds, "accountUserCache");
+    }
+
+    /* 시작할 때 id 순으로 최대 크기만큼 채운다. */
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        if (!warmUp) {
+            return;
+        }
+        List<Long> ids = accountUserRepository.findIds(PageRequest.of(0, (int) Math.min(maximumSize, Integer.MAX_VALUE)));
+        ids.forEach(this::put);
+        log.info("사용자 캐시 채움 : {}명", ids.size());
+    }
+
+    /* 트랜잭션 안에서 호출해야 한다. (캐시에 있으면 참조를 돌려준다) */
+    public Optional<AccountUser> findById(Long userId) {
+        if (userIds.getIfPresent(userId) != null) {
+            return Optional.of(accountUserRepository.getReferenceById(userId));
+        }
+        Optional<AccountUser> accountUser = accountUserRepository.findById(userId);
+        accountUser.ifPresent(found -> put(found.getId()));
+        return accountUser;
+    }
+
+    public boolean exists(Long userId) {
+        if (userIds.getIfPresent(userId) != null) {
+            return true;
+        }
+        boolean exists = accountUserRepository.existsById(userId);
+        if (exists) {
+            put(userId);
+        }
+        return exists;
+    }
+
+    public void put(Long userId) {
+        userIds.put(userId, Boolean.TRUE);
+    }
+
+    public void invalidate(Long userId) {
+        userIds.invalidate(userId);
+    }
+
+    public void putAfterCommit(Long userId) {
+        afterCommit(() -> put(userId));
+    }
+
+    public void invalidateAfterCommit(Long userId) {
+        invalidate(userId);
+        afterCommit(() -> invalidate(userId));
+    }
+
+    public CacheStats stats() {
+        return userIds.stats();
+    }
+
+    private static void afterCommit(Runnable runnable) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            runnable.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                runnable.run();
+            }
+        });
+    }
+}
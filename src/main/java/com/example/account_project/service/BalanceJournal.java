@@ -0,0 +1,476 @@
+package com.example.account_project.service;
+
+import com.example.account_project.dto.JournalEntry;
+import com.example.account_project.repository.AccountRepository;
+import com.example.account_project.type.TransactionMode;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+/*
+ * 잔액 변경 저널 (account.transaction.mode=JOURNAL, LEDGER)
+ * 요청 스레드는 계좌 락을 잡은 상태에서 저널에 한 건을 쓰고, fsync 될 때까지 기다렸다가 응답한다.
+ * DB 에는 백그라운드 스레드가 applyBatchSize 개씩 모아서 한 트랜잭션으로 반영한다. (JournalApplier)
+ *
+ * - 파일       : directory 아래 segmentSize 크기의 세그먼트 파일을 메모리 매핑해서 이어 쓴다.
+ *               한 건은 [길이][CRC32][내용] 이고, 세그먼트에 자리가 없으면 다음 세그먼트로 넘어간다.
+ *               위치(lsn)는 세그먼트 번호 * segmentSize + 세그먼트 안의 위치이다.
+ * - 그룹 커밋  : fsync 스레드가 groupCommit 마다 그 사이에 쓰인 구간을 한 번에 force 하고 기다리던 요청을 모두 깨운다.
+ * - 잔액       : 유효 잔액 = DB 잔액 + 아직 반영되지 않은 delta 합계 (pendingDeltas)
+ *               반영 스레드는 DB 커밋과 pendingDeltas 차감을 쓰기 락 안에서 같이 해서,
+ *               요청 스레드가 같은 거래를 두 번 세거나 빠뜨리지 않게 한다. (SQL 실행은 락 밖에서)
+ * - 복구       : 시작할 때 남아있는 세그먼트를 모두 다시 반영하고 지운다. 이미 저장된 거래 id 는 건너뛴다.
+ *               복구에 실패하면 잔액을 알 수 없으므로 시작하지 않는다.
+ * - 노드       : 반영되지 않은 delta 는 이 프로세스만 알고 있으므로 다른 노드가 같은 계좌를 바꾸면 초과 인출될 수 있다.
+ *               노드 하나로만 띄우는 설정(account.lock.backend=local)이 아니면 시작하지 않는다.
+ * - 반영 실패  : 세그먼트를 읽지 못해 반영 스레드가 멈추면 더 이상 쓰지 않는다. (쓴 건이 반영되지 않고 쌓이지 않게)
+ *               남은 세그먼트는 다음 시작 때 복구한다.
+ * 반영 전까지 거래 조회/취소에서는 그 거래가 보이지 않는다.
+ * LEDGER 모드에서는 LedgerEngine 이 메모리에서 검증한 건을 record 로 쓰고, 요청 스레드가 awaitDurable 로 기다린다.
+ */
+@Slf4j
+@Component
+public class BalanceJournal {
+    private static final String SEGMENT_PREFIX = "journal-";
+    private static final String SEGMENT_SUFFIX = ".seg";
+    private static final int ENTRY_HEADER_BYTES = 8;
+    private static final long RETRY_DELAY_MILLIS = 1000L;
+
+    private final AccountRepository accountRepository;
+    private final JournalApplier journalApplier;
+    private final boolean enabled;
+    private final Path directory;
+    private final int segmentSize;
+    private final long groupCommitNanos;
+    private final int applyBatchSize;
+
+    private final ReentrantLock appendLock = new ReentrantLock();
+    private final ReentrantLock flushLock = new ReentrantLock();
+    private final Condition flushedCondition = flushLock.newCondition();
+    private final ReentrantReadWriteLock balanceLock = new ReentrantReadWriteLock();
+    private final Map<Long, Long> pendingDeltas = new ConcurrentHashMap<>();
+
+    private long segmentNo;
+    private FileChannel segmentChannel;
+    private MappedByteBuffer segment;
+    private long writtenLsn;
+    private volatile long flushedLsn;
+    private volatile long appliedLsn;
+    private Thread flusherThread;
+    private Thread applierThread;
+    private volatile boolean running;
+    private volatile Throwable applyFailure;
+
+    public BalanceJournal(AccountRepository accountRepository,
+                          JournalApplier journalApplier,
+                          @Value("${account.transaction.mode:LOCK}") TransactionMode transactionMode,
+                          @Value("${account.lock.backend:redis}") String lockBackend,
+                          @Value("${account.journal.directory:journal}") String directory,
+                          @Value("${account.journal.segment-size:64MB}") DataSize segmentSize,
+                          @Value("${account.journal.group-commit-ms:2}") long groupCommitMillis,
+                          @Value("${account.journal.apply-batch-size:1000}") int applyBatchSize) {
+        this.accountRepository = accountRepository;
+        this.journalApplier = journalApplier;
+        this.enabled = transactionMode == TransactionMode.JOURNAL || transactionMode == TransactionMode.LEDGER;
+        if (enabled && !"local".equals(lockBackend)) {
+            throw new IllegalStateException("Journal modes keep unapplied balance changes in this process only; "
+                    + "run a single node with account.lock.backend=local");
+        }
+        this.directory = Path.of(directory);
+        this.segmentSize = Math.toIntExact(segmentSize.toBytes());
+        this.groupCommitNanos = TimeUnit.MILLISECONDS.toNanos(groupCommitMillis);
+        this.applyBatchSize = applyBatchSize;
+    }
+
+    /* 저널에 쓸 한 건을 만든다. 유효 잔액을 받아서 검증하고, 실패하면 예외를 던진다. */
+    @FunctionalInterface
+    public interface Mutation {
+        JournalEntry apply(long balance);
+    }
+
+    @PostConstruct
+    public void start() throws IOException {
+        if (!enabled) {
+            return;
+        }
+        Files.createDirectories(directory);
+        long nextSegmentNo = 0;
+        for (long recovering : listSegments()) {
+            recover(recovering);
+            nextSegmentNo = recovering + 1;
+        }
+        openSegment(nextSegmentNo);
+        flushedLsn = writtenLsn;
+        appliedLsn = writtenLsn;
+
+        running = true;
+        flusherThread = new Thread(this::flushLoop, "balance-journal-flusher");
+        flusherThread.setDaemon(true);
+        flusherThread.start();
+        applierThread = new Thread(this::applyLoop, "balance-journal-applier");
+        applierThread.setDaemon(true);
+        applierThread.start();
+    }
+
+    /* fsync 된 건은 반영하고 끝낸다. 반영하지 못한 건은 파일에 남아서 다음 시작 때 반영된다. */
+    @PreDestroy
+    public void stop() throws InterruptedException, IOException {
+        if (!enabled) {
+            return;
+        }
+        running = false;
+        flusherThread.join();
+        applierThread.join(TimeUnit.SECONDS.toMillis(30));
+        segmentChannel.close();
+    }
+
+    /*
+     * 계좌 락을 잡은 상태에서 호출한다.
+     * fsync 된 뒤에 돌려주므로, 돌려받은 건은 프로세스나 OS 가 죽어도 복구된다.
+     */
+    public JournalEntry append(Long accountId, Mutation mutation) {
+        checkRunning();
+        JournalEntry entry;
+        long lsn;
+        balanceLock.readLock().lock();
+        try {
+            entry = mutation.apply(accountRepository.findBalanceById(accountId) + pendingDelta(accountId));
+            lsn = write(entry.encode());
+            addPendingDelta(accountId, entry.getDelta());
+        } finally {
+            balanceLock.readLock().unlock();
+        }
+        awaitDurable(lsn);
+        return entry;
+    }
+
+    /* 이미 검증한 건을 쓰고 위치를 돌려준다. fsync 를 기다리지 않는다. */
+    public long record(JournalEntry entry) {
+        checkRunning();
+        balanceLock.readLock().lock();
+        try {
+            long lsn = write(entry.encode());
+            addPendingDelta(entry.getAccountId(), entry.getDelta());
+            return lsn;
+        } finally {
+            balanceLock.readLock().unlock();
+        }
+    }
+
+    private void checkRunning() {
+        if (!running) {
+            throw new IllegalStateException("Balance journal is not running");
+        }
+        if (applyFailure != null) {
+            throw new IllegalStateException("Balance journal applier has stopped", applyFailure);
+        }
+    }
+
+    /* 아직 DB 에 반영되지 않은 잔액 변경 합계 */
+    public long pendingDelta(Long accountId) {
+        return pendingDeltas.getOrDefault(accountId, 0L);
+    }
+
+    long appliedLsn() {
+        return appliedLsn;
+    }
+
+    long flushedLsn() {
+        return flushedLsn;
+    }
+
+    private void addPendingDelta(Long accountId, long delta) {
+        if (delta != 0) {
+            pendingDeltas.compute(accountId, (id, sum) -> {
+                long next = (sum == null ? 0 : sum) + delta;
+                return next == 0 ? null : next;
+            });
+        }
+    }
+
+    private long write(byte[] payload) {
+        CRC32 crc = new CRC32();
+        crc.update(payload);
+        int entrySize = ENTRY_HEADER_BYTES + payload.length;
+        appendLock.lock();
+        try {
+            int offset = (int) (writtenLsn - segmentStart(segmentNo));
+            if (offset + entrySize > segmentSize) {
+                rotate();
+                offset = 0;
+            }
+            segment.put(offset + ENTRY_HEADER_BYTES, payload);
+            segment.putInt(offset + 4, (int) crc.getValue());
+            segment.putInt(offset, payload.length);
+            writtenLsn += entrySize;
+            return writtenLsn;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            appendLock.unlock();
+        }
+    }
+
+    /* appendLock 안에서 호출한다. 지금 세그먼트를 모두 fsync 하고 다음 세그먼트를 연다. */
+    private void rotate() throws IOException {
+        segment.force();
+        segmentChannel.close();
+        openSegment(segmentNo + 1);
+        advanceFlushed(writtenLsn);
+    }
+
+    private void openSegment(long no) throws IOException {
+        segmentChannel = FileChannel.open(segmentPath(no),
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        segment = segmentChannel.map(FileChannel.MapMode.READ_WRITE, 0, segmentSize);
+        segmentNo = no;
+        writtenLsn = segmentStart(no);
+    }
+
+    private void flushLoop() {
+        while (running) {
+            LockSupport.parkNanos(groupCommitNanos);
+            flush();
+        }
+        flush();
+    }
+
+    private void flush() {
+        MappedByteBuffer buffer;
+        long start;
+        long target;
+        appendLock.lock();
+        try {
+            buffer = segment;
+            start = segmentStart(segmentNo);
+            target = writtenLsn;
+        } finally {
+            appendLock.unlock();
+        }
+        long from = Math.max(flushedLsn, start);
+        if (target <= from) {
+            return;
+        }
+        buffer.force((int) (from - start), (int) (target - from));
+        advanceFlushed(target);
+    }
+
+    private void advanceFlushed(long lsn) {
+        flushLock.lock();
+        try {
+            if (lsn > flushedLsn) {
+                flushedLsn = lsn;
+                flushedCondition.signalAll();
+            }
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    /* 종료 중이면 fsync 스레드가 이미 끝났을 수 있으므로 직접 fsync 한다. */
+    public void awaitDurable(long lsn) {
+        boolean interrupted = false;
+        while (flushedLsn < lsn) {
+            if (!running) {
+                flush();
+                continue;
+            }
+            flushLock.lock();
+            try {
+                if (flushedLsn < lsn) {
+                    flushedCondition.awaitNanos(TimeUnit.MILLISECONDS.toNanos(100));
+                }
+            } catch (InterruptedException e) {
+                interrupted = true;
+            } finally {
+                flushLock.unlock();
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /*
+     * fsync 된 구간만 읽어서 반영한다.
+     * 다 읽은 세그먼트는 다음 세그먼트가 fsync 되기 시작했으면 지운다.
+     */
+    private void applyLoop() {
+        long readingSegmentNo = -1;
+        ByteBuffer reading = null;
+        while (running || appliedLsn < flushedLsn) {
+            long flushed = flushedLsn;
+            if (appliedLsn >= flushed) {
+                LockSupport.parkNanos(groupCommitNanos);
+                continue;
+            }
+            long no = appliedLsn / segmentSize;
+            try {
+                if (no != readingSegmentNo) {
+                    reading = mapForRead(no);
+                    readingSegmentNo = no;
+                }
+            } catch (IOException e) {
+                log.error("Failed to read journal segment {}, rejecting further journal writes", no, e);
+                applyFailure = e;
+                return;
+            }
+
+            int offset = (int) (appliedLsn - segmentStart(no));
+            int limit = (int) Math.min(segmentSize, flushed - segmentStart(no));
+            List<JournalEntry> batch = new ArrayList<>(applyBatchSize);
+            while (batch.size() < applyBatchSize && offset < limit) {
+                int next = readEntry(reading, offset, batch);
+                if (next < 0) {
+                    break;
+                }
+                offset = next;
+            }
+
+            if (!batch.isEmpty()) {
+                if (!applyWithRetry(batch)) {
+                    if (running) {
+                        log.error("Journal applier interrupted, rejecting further journal writes");
+                        applyFailure = new InterruptedException("Journal applier interrupted");
+                    }
+                    return;
+                }
+                appliedLsn = segmentStart(no) + offset;
+            } else if (flushed >= segmentStart(no + 1)) {
+                deleteSegment(no);
+                appliedLsn = segmentStart(no + 1);
+            }
+        }
+    }
+
+    /*
+     * DB 에 반영할 수 없으면 잠시 후 다시 시도한다. 종료 중이면 파일에 남겨두고 다음 시작 때 반영한다.
+     * 쓰기 락은 커넥션을 잡고 SQL 을 다 실행한 뒤 커밋과 pendingDeltas 차감 동안만 잡는다.
+     * (커넥션을 든 채 읽기 락을 기다리는 요청 스레드와 커넥션 풀을 두고 서로 기다리지 않게)
+     */
+    private boolean applyWithRetry(List<JournalEntry> batch) {
+        JournalApplier.CommitGuard commitGuard = new JournalApplier.CommitGuard() {
+            @Override
+            public void enter() {
+                balanceLock.writeLock().lock();
+            }
+
+            @Override
+            public void exit(boolean committed) {
+                try {
+                    if (committed) {
+                        batch.forEach(entry -> addPendingDelta(entry.getAccountId(), -entry.getDelta()));
+                    }
+                } finally {
+                    balanceLock.writeLock().unlock();
+                }
+            }
+        };
+        while (true) {
+            try {
+                journalApplier.apply(batch, commitGuard);
+                return true;
+            } catch (RuntimeException e) {
+                log.error("Failed to apply {} journal entries", batch.size(), e);
+            }
+            if (!running) {
+                return false;
+            }
+            try {
+                Thread.sleep(RETRY_DELAY_MILLIS);
+            } catch (InterruptedException interrupted) {
+                return false;
+            }
+        }
+    }
+
+    private void recover(long no) throws IOException {
+        ByteBuffer buffer = mapForRead(no);
+        List<JournalEntry> entries = new ArrayList<>();
+        int offset = 0;
+        while (offset >= 0) {
+            offset = readEntry(buffer, offset, entries);
+        }
+        log.info("Recovering {} journal entries from {}", entries.size(), segmentPath(no));
+        for (int from = 0; from < entries.size(); from += applyBatchSize) {
+            journalApplier.apply(entries.subList(from, Math.min(from + applyBatchSize, entries.size())));
+        }
+        Files.delete(segmentPath(no));
+    }
+
+    /* 읽은 건을 entries 에 넣고 다음 위치를 돌려준다. 더 읽을 건이 없거나 깨진 건이면 -1 */
+    private int readEntry(ByteBuffer buffer, int offset, List<JournalEntry> entries) {
+        if (offset + ENTRY_HEADER_BYTES > buffer.capacity()) {
+            return -1;
+        }
+        int length = buffer.getInt(offset);
+        if (length <= 0 || offset + ENTRY_HEADER_BYTES + length > buffer.capacity()) {
+            return -1;
+        }
+        ByteBuffer payload = buffer.slice(offset + ENTRY_HEADER_BYTES, length);
+        CRC32 crc = new CRC32();
+        crc.update(payload.duplicate());
+        if ((int) crc.getValue() != buffer.getInt(offset + 4)) {
+            log.warn("Corrupted journal entry at {} in segment, skipping the rest", offset);
+            return -1;
+        }
+        entries.add(JournalEntry.decode(payload));
+        return offset + ENTRY_HEADER_BYTES + length;
+    }
+
+    private ByteBuffer mapForRead(long no) throws IOException {
+        try (FileChannel channel = FileChannel.open(segmentPath(no), StandardOpenOption.READ)) {
+            return channel.map(FileChannel.MapMode.READ_ONLY, 0, Math.min(channel.size(), segmentSize));
+        }
+    }
+
+    private void deleteSegment(long no) {
+        try {
+            Files.deleteIfExists(segmentPath(no));
+        } catch (IOException e) {
+            log.error("Failed to delete journal segment {}", segmentPath(no), e);
+        }
+    }
+
+    private List<Long> listSegments() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.map(path -> path.getFileName().toString())
+                    .filter(name -> name.startsWith(SEGMENT_PREFIX) && name.endsWith(SEGMENT_SUFFIX))
+                    .map(name -> Long.parseLong(name.substring(SEGMENT_PREFIX.length(),
+                            name.length() - SEGMENT_SUFFIX.length())))
+                    .sorted()
+                    .toList();
+        }
+    }
+
+    private long segmentStart(long no) {
+        return no * segmentSize;
+    }
+
+    private Path segmentPath(long no) {
+        return directory.resolve(String.format("%s%012d%s", SEGMENT_PREFIX, no, SEGMENT_SUFFIX));
+    }
+}
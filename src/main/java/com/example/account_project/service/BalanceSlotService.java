@@ -0,0 +1,244 @@
+package com.example.account_project.service;
+
+import com.example.account_project.Exception.AccountException;
+import com.example.account_project.domain.Account;
+import com.example.account_project.domain.AccountBalanceSlot;
+import com.example.account_project.repository.AccountBalanceSlotRepository;
+import com.example.account_project.repository.AccountRepository;
+import com.example.account_project.type.AccountStatus;
+import com.example.account_project.type.ErrorCode;
+import com.example.account_project.type.TransactionMode;
+import com.github.benmanes.caffeine.cache.CacheLoader;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.LoadingCache;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.transaction.Transactional;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.locks.ReentrantLock;
+
+/*
+ * 잔액 슬롯 (몰리는 계좌용, 계좌마다 선택)
+ * 계좌 하나의 잔액을 N 개의 슬롯 행으로 나누고, 거래는 슬롯 하나만 잠그고 바꾼다.
+ * 계좌 락(ACLK+계좌번호) 하나로 줄을 서던 거래가 슬롯 수만큼 동시에 진행된다.
+ *
+ * - 나누기 : 계좌 락 + 계좌 행 잠금 아래에서 잔액을 슬롯에 고르게 옮기고 account.balance 는 0 으로 둔다. 되돌리지 않는다.
+ * - 차감   : 임의의 슬롯부터 돌면서 잔액이 충분한 슬롯 하나를 조건부 UPDATE 로 차감한다.
+ *            슬롯 행 잠금이 슬롯별 락이다. (커밋까지 잡고 있음)
+ *            이 노드의 다른 거래가 잡고 있는 슬롯은 기다리지 않고 다음 슬롯으로 넘어간다. (슬롯별 tryLock, 커밋까지)
+ *            어느 슬롯도 혼자서는 모자라거나 모두 사용 중이면 모든 슬롯을 번호 순으로 잠그고 나눠서 차감한다.
+ *            배치는 같은 계좌를 여러 번 차감하므로 항상 모든 슬롯을 잠그고 차감한다.
+ * - 적립   : 사용 취소는 모든 슬롯을 잠근 뒤 슬롯 하나에 더한다. (같은 계좌의 차감/취소와 차례로 실행)
+ * - 잔액   : 저장하지 않고 필요할 때 슬롯 합계로 구한다. (거래 balanceSnapshot, 계좌 해지, 계좌 목록)
+ * - 계좌 락 : 나눈 계좌는 LockAopAspect 가 계좌 락을 잡지 않는다. (사용, 취소 모두 슬롯으로 보호)
+ *            나눴는지는 계좌번호별로 들고 있고, 나누면 바로 바꾼다. 나누지 않은 계좌는 다른 노드가 나눴을 수 있으므로
+ *            SHARDED_REFRESH 마다 백그라운드에서 다시 읽는다. (요청 스레드는 들고 있는 값을 쓴다)
+ *
+ * JOURNAL, LEDGER 모드는 메모리/저널 잔액이 account.balance 기준이라 나눌 수 없다.
+ */
+@Service
+public class BalanceSlotService {
+    private static final Duration SHARDED_REFRESH = Duration.ofMinutes(1);
+    private static final int SLOT_LOCK_STRIPES = 4096;
+
+    private final AccountRepository accountRepository;
+    private final AccountBalanceSlotRepository accountBalanceSlotRepository;
+    private final AccountSummaryCache accountSummaryCache;
+    private final TransactionMode transactionMode;
+    private final int maxSlots;
+    private final LoadingCache<String, Boolean> sharded;
+    private final ReentrantLock[] slotLocks = new ReentrantLock[SLOT_LOCK_STRIPES];
+
+    public BalanceSlotService(AccountRepository accountRepository,
+                              AccountBalanceSlotRepository accountBalanceSlotRepository,
+                              AccountSummaryCache accountSummaryCache,
+                              MeterRegistry meterRegistry,
+                              @Value("${account.transaction.mode:LOCK}") TransactionMode transactionMode,
+                              @Value("${account.balance-slot.max-slots:64}") int maxSlots,
+                              @Value("${account.balance-slot.cache.maximum-size:100000}") long maximumSize) {
+        this.accountRepository = accountRepository;
+        this.accountBalanceSlotRepository = accountBalanceSlotRepository;
+        this.accountSummaryCache = accountSummaryCache;
+        this.transactionMode = transactionMode;
+        this.maxSlots = maxSlots;
+        // 다른 노드가 나눈 계좌는 다시 읽을 때까지 계좌 락을 더 잡을 뿐이다. (거래는 계좌 행을 보고 슬롯으로 간다)
+        this.sharded = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .refreshAfterWrite(SHARDED_REFRESH)
+                .recordStats()
+                .build(new CacheLoader<>() {
+                    @Override
+                    public Boolean load(String accountNumber) {
+                        return accountRepository.findBalanceSlotsByAccountNumber(accountNumber)
+                                .map(slots -> slots > 0)
+                                .orElse(false);
+                    }
+
+                    // 나누면 되돌리지 않으므로 나눈 계좌는 다시 읽지 않는다
+                    @Override
+                    public Boolean reload(String accountNumber, Boolean oldValue) {
+                        return oldValue ? oldValue : load(accountNumber);
+                    }
+                });
+        CaffeineCacheMetrics.monitor(meterRegistry, sharded, "balanceSlotCache");
+        for (int i = 0; i < SLOT_LOCK_STRIPES; i++) {
+            slotLocks[i] = new ReentrantLock();
+        }
+    }
+
+    /*  ============ 잔액 나누기 ===========
+     * 1. JOURNAL, LEDGER 모드인 경우
+     * 2. 슬롯 수가 2 ~ max-slots 가 아닌 경우
+     * 3. 계좌가 없는 경우
+     * 4. 계좌가 이미 해지 상태인 경우
+     * 5. 이미 나눈 계좌인 경우
+     * 나눈 잔액 합계를 돌려준다.*/
+    @Transactional
+    public Long shard(String accountNumber, int slotCount) {
+        if (transactionMode == TransactionMode.JOURNAL || transactionMode == TransactionMode.LEDGER) {
+            throw new AccountException(ErrorCode.INVALID_REQUEST);
+        }
+        if (slotCount < 2 || slotCount > maxSlots) {
+            throw new AccountException(ErrorCode.INVALID_REQUEST);
+        }
+        Account account = accountRepository.findForUpdateByAccountNumber(accountNumber)
+                .orElseThrow(() -> new AccountException(ErrorCode.ACCOUNT_NOT_FOUND));
+        if (account.getAccountStatus() != AccountStatus.IN_USE) {
+            throw new AccountException(ErrorCode.ACCOUNT_ALREADY_UNREGISTERED);
+        }
+        if (account.isBalanceSharded()) {
+            throw new AccountException(ErrorCode.INVALID_REQUEST);
+        }
+
+        long balance = account.getBalance();
+        List<AccountBalanceSlot> slots = new ArrayList<>(slotCount);
+        for (int slotNo = 0; slotNo < slotCount; slotNo++) {
+            slots.add(AccountBalanceSlot.builder()
+                    .account(account)
+                    .slotNo(slotNo)
+                    .balance(balance / slotCount + (slotNo < balance % slotCount ? 1 : 0))
+                    .build());
+        }
+        accountBalanceSlotRepository.saveAll(slots);
+        account.setBalance(0L);
+        account.setBalanceSlots(slotCount);
+        accountRepository.save(account);
+
+        // 커밋 전에 계좌 락을 건너뛰면 아직 나누지 않은 잔액을 락 없이 바꿀 수 있다
+        afterCommit(() -> sharded.put(accountNumber, true));
+        accountSummaryCache.evictAfterCommit(account.getAccountUser().getId());
+        return balance;
+    }
+
+    /* 나눈 계좌인지 (LockAopAspect) - 계좌번호마다 처음 한 번만 DB 에서 읽는다. */
+    public boolean isSharded(String accountNumber) {
+        return sharded.get(accountNumber);
+    }
+
+    /* 잔액 차감 - 차감 후 잔액(슬롯 합계)을 돌려준다. 소유주/상태 검증은 호출하는 쪽에서 한다.
+     * 이 노드에서 다른 거래가 차감 중인 슬롯은 건너뛴다. 차감한 슬롯의 tryLock 은 트랜잭션이 끝날 때 푼다. */
+    public Long debit(Account account, Long amount) {
+        int slotCount = account.getBalanceSlots();
+        int start = ThreadLocalRandom.current().nextInt(slotCount);
+        LocalDateTime now = LocalDateTime.now();
+        for (int i = 0; i < slotCount; i++) {
+            int slotNo = (start + i) % slotCount;
+            ReentrantLock slotLock = slotLock(account.getId(), slotNo);
+            if (!slotLock.tryLock()) {
+                continue;
+            }
+            boolean debited = false;
+            try {
+                debited = accountBalanceSlotRepository.debitIfSufficient(account.getId(), slotNo, amount, now) == 1;
+            } finally {
+                if (debited) {
+                    unlockAfterCompletion(slotLock);
+                } else {
+                    slotLock.unlock();
+                }
+            }
+            if (debited) {
+                return accountBalanceSlotRepository.sumBalance(account.getId());
+            }
+        }
+        return debitLockingAllSlots(account, amount);
+    }
+
+    /* 잔액 차감 (배치) - 모든 슬롯을 잠그고 나눠서 차감한다.
+     * 배치는 한 트랜잭션에서 같은 계좌를 여러 번 차감한다. 슬롯 하나를 잡은 채로 나머지를 잠그러 가면
+     * 다른 거래의 나눠서 차감과 서로 기다릴 수 있으므로, 처음부터 모든 슬롯을 번호 순으로 잠근다.
+     * 잠근 뒤 읽은 슬롯 잔액만큼 조건부 UPDATE 로 차감한다. (잠겨 있으므로 모두 1 행씩 바뀐다) */
+    public Long debitLockingAllSlots(Account account, Long amount) {
+        LocalDateTime now = LocalDateTime.now();
+        accountBalanceSlotRepository.lockAll(account.getId(), now);
+        List<Long> balances = accountBalanceSlotRepository.findBalancesByAccountId(account.getId());
+        long total = balances.stream().mapToLong(Long::longValue).sum();
+        if (total < amount) {
+            throw new AccountException(ErrorCode.AMOUNT_EXCEED_BALANCE);
+        }
+        long remaining = amount;
+        for (int slotNo = 0; slotNo < balances.size() && remaining > 0; slotNo++) {
+            long taken = Math.min(balances.get(slotNo), remaining);
+            if (taken > 0) {
+                accountBalanceSlotRepository.debitIfSufficient(account.getId(), slotNo, taken, now);
+                remaining -= taken;
+            }
+        }
+        return total - amount;
+    }
+
+    /* 잔액 적립 (사용 취소) - 적립 후 잔액(슬롯 합계)을 돌려준다.
+     * 계좌 락을 잡지 않으므로 모든 슬롯을 잠가서 같은 계좌의 차감/취소와 차례로 실행한다. */
+    public Long credit(Account account, Long amount) {
+        LocalDateTime now = LocalDateTime.now();
+        accountBalanceSlotRepository.lockAll(account.getId(), now);
+        accountBalanceSlotRepository.credit(account.getId(),
+                ThreadLocalRandom.current().nextInt(account.getBalanceSlots()), amount, now);
+        return accountBalanceSlotRepository.sumBalance(account.getId());
+    }
+
+    /* 나눈 계좌의 현재 잔액 */
+    public Long balanceOf(Account account) {
+        return account.getBalance() + accountBalanceSlotRepository.sumBalance(account.getId());
+    }
+
+    private ReentrantLock slotLock(Long accountId, int slotNo) {
+        return slotLocks[Math.floorMod(Long.hashCode(accountId) * 31 + slotNo, SLOT_LOCK_STRIPES)];
+    }
+
+    /* 슬롯 행 잠금은 커밋/롤백까지 유지되므로 tryLock 도 그때 푼다. */
+    private static void unlockAfterCompletion(ReentrantLock lock) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            lock.unlock();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                lock.unlock();
+            }
+        });
+    }
+
+    private static void afterCommit(Runnable runnable) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            runnable.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                runnable.run();
+            }
+        });
+    }
+}
@@ -0,0 +1,316 @@
+package com.example.account_project.service;
+
+import com.example.account_project.dto.FailedTransaction;
+import com.example.account_project.type.TransactionType;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/*
+ * 실패 거래 기록 (write-behind)
+ * 잔액 사용/취소가 실패하면 요청 스레드는 스필 파일에 한 줄을 덧붙이고 큐에 넣기만 한다.
+ * 백그라운드 스레드가 큐에서 batchSize 개씩 꺼내서 saveAll 로 한 번에 저장한다.
+ *
+ * - 적어도 한 번 : 큐에 넣기 전에 스필 파일에 먼저 쓰고, 시작할 때 남아있는 줄을 다시 저장한다.
+ *                 이미 저장된 거래 id 는 건너뛰므로 다시 읽어도 중복 저장되지 않는다.
+ *                 시작할 때 저장하지 못한 줄은 백그라운드 스레드가 큐보다 먼저 다시 시도한다.
+ * - 파일 크기   : 저장되지 않은 가장 앞의 줄 앞까지는 모두 저장된 것이다. (확인된 위치)
+ *                 확인된 위치까지가 spillCompactSize 를 넘으면 뒷부분만 새 파일에 옮겨 쓰고 바꿔치기한다.
+ *                 모두 저장됐으면 그냥 비운다. 파일은 저장되지 않은 줄 + spillCompactSize 정도로 유지된다.
+ * - 인스턴스    : 스필 파일 옆의 .lock 파일을 잠그고 떠 있는 동안 들고 있는다.
+ *                 다른 인스턴스(다른 프로세스, 같은 JVM 의 다른 컨텍스트)가 잡고 있으면 다음 번호(.1, .2 ...)의 파일을 쓴다.
+ *                 다시 시작한 인스턴스는 비어있는 첫 번호를 잡고, 거기 남은 줄을 복구한다.
+ * - 배압       : 큐가 가득 차면 enqueueTimeout 만큼 기다리고, 그래도 자리가 없으면 요청 스레드에서 바로 저장한다.
+ * - 종료       : 새 요청은 바로 저장하고, 큐에 남은 요청을 모두 저장한 뒤 끝낸다.
+ * 스필 파일은 OS 에 쓰기만 하고 fsync 하지 않는다. (프로세스가 죽어도 남고, OS 가 죽으면 잃을 수 있다)
+ */
+@Slf4j
+@Component
+public class FailedTransactionWriter {
+    private static final long RETRY_DELAY_MILLIS = 1000L;
+
+    private final TransactionService transactionService;
+    private final TransactionIdGenerator transactionIdGenerator;
+    private final BlockingQueue<Spilled> queue;
+    private final int batchSize;
+    private final long enqueueTimeoutMillis;
+    private final Path configuredSpillFile;
+    private final long spillCompactBytes;
+    private final ReentrantLock spillLock = new ReentrantLock();
+    /* 아직 저장되지 않은 줄의 위치 (스필 파일을 처음 연 뒤로 쓴 바이트 수 기준) */
+    private final ConcurrentSkipListSet<Long> unsaved = new ConcurrentSkipListSet<>();
+    private Path spillFile;
+    private FileChannel lockChannel;
+    private FileChannel spillChannel;
+    private long spillBase;
+    private long spillEnd;
+    private List<Spilled> recovering = List.of();
+    private Thread writerThread;
+    private volatile boolean running;
+
+    public FailedTransactionWriter(TransactionService transactionService,
+                                   TransactionIdGenerator transactionIdGenerator,
+                                   @Value("${account.failed-transaction.queue-capacity:10000}") int queueCapacity,
+                                   @Value("${account.failed-transaction.batch-size:500}") int batchSize,
+                                   @Value("${account.failed-transaction.enqueue-timeout-ms:100}") long enqueueTimeoutMillis,
+                                   @Value("${account.failed-transaction.spill-file:failed-transactions.log}") String spillFile,
+                                   @Value("${account.failed-transaction.spill-compact-size:1MB}") DataSize spillCompactSize) {
+        this.transactionService = transactionService;
+        this.transactionIdGenerator = transactionIdGenerator;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.batchSize = batchSize;
+        this.enqueueTimeoutMillis = enqueueTimeoutMillis;
+        this.configuredSpillFile = Path.of(spillFile);
+        this.spillCompactBytes = spillCompactSize.toBytes();
+    }
+
+    @Getter
+    @AllArgsConstructor
+    private static class Spilled {
+        private final FailedTransaction failedTransaction;
+        private final long position;
+    }
+
+    @PostConstruct
+    public void start() throws IOException {
+        claimSpillFile();
+        List<Spilled> spilled = readSpillFile();
+        spillChannel = FileChannel.open(spillFile,
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        spillEnd = spillChannel.size();
+        if (!spilled.isEmpty()) {
+            log.info("Recovering {} failed transactions from {}", spilled.size(), spillFile);
+            spilled.forEach(line -> unsaved.add(line.getPosition()));
+            int from = 0;
+            try {
+                for (; from < spilled.size(); from += batchSize) {
+                    write(spilled.subList(from, Math.min(from + batchSize, spilled.size())));
+                }
+            } catch (RuntimeException e) {
+                // 파일에 그대로 남아있으므로 백그라운드 스레드가 다시 시도한다
+                log.error("Failed to recover failed transactions from {}", spillFile, e);
+                recovering = spilled.subList(from, spilled.size());
+            }
+        }
+
+        running = true;
+        writerThread = new Thread(this::drain, "failed-transaction-writer");
+        writerThread.setDaemon(true);
+        writerThread.start();
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException, IOException {
+        running = false;
+        writerThread.join(TimeUnit.SECONDS.toMillis(30));
+        spillChannel.close();
+        lockChannel.close();
+    }
+
+    public void enqueue(TransactionType transactionType, String accountNumber, Long amount) {
+        FailedTransaction failedTransaction = FailedTransaction.builder()
+                .transactionId(transactionIdGenerator.nextId())
+                .transactionType(transactionType)
+                .accountNumber(accountNumber)
+                .amount(amount)
+                .transactedAt(LocalDateTime.now())
+                .build();
+        Spilled spilled = append(failedTransaction);
+
+        boolean queued = false;
+        try {
+            queued = running && queue.offer(spilled, enqueueTimeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (!queued) {
+            log.warn("Failed transaction queue unavailable, writing synchronously : {}", accountNumber);
+            write(List.of(spilled));
+        }
+    }
+
+    int queueSize() {
+        return queue.size();
+    }
+
+    long pending() {
+        return unsaved.size();
+    }
+
+    Path spillFile() {
+        return spillFile;
+    }
+
+    private void drain() {
+        for (int from = 0; from < recovering.size() && running; from += batchSize) {
+            writeWithRetry(recovering.subList(from, Math.min(from + batchSize, recovering.size())));
+        }
+        while (running || !queue.isEmpty()) {
+            List<Spilled> batch = new ArrayList<>(batchSize);
+            try {
+                Spilled first = queue.poll(1, TimeUnit.SECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, batchSize - 1);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            writeWithRetry(batch);
+        }
+    }
+
+    /* DB 에 쓸 수 없으면 잠시 후 다시 시도한다. 종료 중이면 스필 파일에 남겨두고 다음 시작 때 저장한다. */
+    private void writeWithRetry(List<Spilled> batch) {
+        while (true) {
+            try {
+                write(batch);
+                return;
+            } catch (RuntimeException e) {
+                log.error("Failed to write {} failed transactions", batch.size(), e);
+                if (!running) {
+                    return;
+                }
+                try {
+                    Thread.sleep(RETRY_DELAY_MILLIS);
+                } catch (InterruptedException interrupted) {
+                    return;
+                }
+            }
+        }
+    }
+
+    private void write(List<Spilled> batch) {
+        transactionService.saveFailedTransactions(batch.stream().map(Spilled::getFailedTransaction).toList());
+        batch.forEach(spilled -> unsaved.remove(spilled.getPosition()));
+        compactSpillFile();
+    }
+
+    private Spilled append(FailedTransaction failedTransaction) {
+        byte[] line = (failedTransaction.toLine() + "\n").getBytes(StandardCharsets.UTF_8);
+        spillLock.lock();
+        try {
+            ByteBuffer buffer = ByteBuffer.wrap(line);
+            long position = spillEnd;
+            while (buffer.hasRemaining()) {
+                spillChannel.write(buffer, position - spillBase + buffer.position());
+            }
+            spillEnd += line.length;
+            unsaved.add(position);
+            return new Spilled(failedTransaction, position);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            spillLock.unlock();
+        }
+    }
+
+    /*
+     * 파일에 쓰는 중인 요청이 없도록 락 안에서 확인된 위치를 구한다.
+     * 모두 저장됐으면 비우고, 확인된 위치까지가 spillCompactBytes 를 넘으면 저장되지 않은 뒷부분만 남긴다.
+     * 옮겨 쓰는 동안에는 요청 스레드가 파일에 쓰지 못하지만, 옮기는 양은 저장되지 않은 줄뿐이다.
+     */
+    private void compactSpillFile() {
+        spillLock.lock();
+        try {
+            Long firstUnsaved = unsaved.ceiling(spillBase);
+            long acknowledged = firstUnsaved == null ? spillEnd : firstUnsaved;
+            if (acknowledged == spillEnd) {
+                if (spillEnd > spillBase) {
+                    spillChannel.truncate(0);
+                    spillBase = spillEnd;
+                }
+                return;
+            }
+            if (acknowledged - spillBase < spillCompactBytes) {
+                return;
+            }
+            Path compacting = spillFile.resolveSibling(spillFile.getFileName() + ".compact");
+            try (FileChannel target = FileChannel.open(compacting, StandardOpenOption.CREATE,
+                    StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+                long from = acknowledged - spillBase;
+                long count = spillEnd - acknowledged;
+                for (long copied = 0; copied < count; ) {
+                    copied += spillChannel.transferTo(from + copied, count - copied, target);
+                }
+            }
+            spillChannel.close();
+            try {
+                Files.move(compacting, spillFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+                spillBase = acknowledged;
+            } finally {
+                spillChannel = FileChannel.open(spillFile, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            }
+        } catch (IOException e) {
+            log.error("Failed to compact {}", spillFile, e);
+        } finally {
+            spillLock.unlock();
+        }
+    }
+
+    /* 비어있는 첫 번호의 스필 파일을 잡는다. 잠금은 stop 까지 들고 있는다. */
+    private void claimSpillFile() throws IOException {
+        Path directory = configuredSpillFile.toAbsolutePath().getParent();
+        Files.createDirectories(directory);
+        for (int instance = 0; ; instance++) {
+            Path candidate = instance == 0 ? configuredSpillFile
+                    : configuredSpillFile.resolveSibling(configuredSpillFile.getFileName() + "." + instance);
+            FileChannel channel = FileChannel.open(candidate.resolveSibling(candidate.getFileName() + ".lock"),
+                    StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+            try {
+                if (channel.tryLock() != null) {
+                    lockChannel = channel;
+                    spillFile = candidate;
+                    return;
+                }
+            } catch (OverlappingFileLockException e) {
+                // 같은 JVM 의 다른 컨텍스트가 잡고 있다
+            }
+            channel.close();
+        }
+    }
+
+    private List<Spilled> readSpillFile() throws IOException {
+        if (!Files.exists(spillFile)) {
+            return List.of();
+        }
+        List<Spilled> spilled = new ArrayList<>();
+        long position = 0;
+        try (BufferedReader reader = Files.newBufferedReader(spillFile, StandardCharsets.UTF_8)) {
+            for (String line = reader.readLine(); line != null; line = reader.readLine()) {
+                if (!line.isBlank()) {
+                    spilled.add(new Spilled(FailedTransaction.fromLine(line), position));
+                }
+                position += line.getBytes(StandardCharsets.UTF_8).length + 1;
+            }
+        }
+        return spilled;
+    }
+}
@@ -0,0 +1,55 @@
+package com.example.account_project.service;
+
+import com.example.account_project.Exception.AccountException;
+import com.example.account_project.aop.AccountLock;
+import com.example.account_project.type.ErrorCode;
+import com.example.account_project.type.LockMode;
+import lombok.RequiredArgsConstructor;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+/*
+ * Idempotency-Key 헤더 처리
+ * 계좌 락(LockAopAspect)보다 바깥에서 실행해서, 재요청은 락과 DB 를 건드리지 않고 저장된 응답을 돌려준다.
+ * 키는 메소드마다 따로 쓴다. (사용/취소에 같은 키를 써도 섞이지 않음)
+ */
+@Aspect
+@Component
+@Order(0)
+@RequiredArgsConstructor
+public class IdempotencyAspect {
+    public static final String HEADER = "Idempotency-Key";
+    private static final int MAX_KEY_LENGTH = 128;
+
+    private final IdempotencyStore idempotencyStore;
+
+    @Around("@annotation(com.example.account_project.aop.Idempotent) && args(request)")
+    public Object aroundMethod(ProceedingJoinPoint proceedingJoinPoint, Object request) throws Throwable {
+        String key = idempotencyKey();
+        if (key == null) {
+            return proceedingJoinPoint.proceed();
+        }
+        if (key.isBlank() || key.length() > MAX_KEY_LENGTH) {
+            throw new AccountException(ErrorCode.INVALID_REQUEST);
+        }
+        MethodSignature signature = (MethodSignature) proceedingJoinPoint.getSignature();
+        AccountLock accountLock = signature.getMethod().getAnnotation(AccountLock.class);
+        long lockWaitMillis = accountLock == null || accountLock.mode() == LockMode.FAIL_FAST
+                ? 0L : accountLock.tryLockTime();
+        return idempotencyStore.execute(signature.getMethod().getName() + ":" + key, request,
+                signature.getReturnType(), lockWaitMillis, proceedingJoinPoint::proceed);
+    }
+
+    private String idempotencyKey() {
+        if (RequestContextHolder.getRequestAttributes() instanceof ServletRequestAttributes attributes) {
+            return attributes.getRequest().getHeader(HEADER);
+        }
+        return null;
+    }
+}
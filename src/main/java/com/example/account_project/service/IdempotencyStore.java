@@ -0,0 +1,186 @@
+package com.example.account_project.service;
+
+import com.example.account_project.Exception.AccountException;
+import com.example.account_project.type.ErrorCode;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import lombok.extern.slf4j.Slf4j;
+import org.redisson.api.RBucket;
+import org.redisson.api.RScript;
+import org.redisson.api.RedissonClient;
+import org.redisson.client.codec.StringCodec;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.DigestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/*
+ * 멱등 키 저장소
+ * - 로컬 : Caffeine (크기 제한 + TTL). 같은 노드에 동시에 들어온 같은 키는 먼저 온 요청 하나만 실행하고 나머지는 그 결과를 기다린다.
+ *          먼저 온 요청이 끝날 수 있는 시간(계좌 락 대기 + 트랜잭션 제한 시간)까지만 기다리고, 넘으면 REQUEST_IN_PROGRESS
+ * - Redis : 노드 사이 공유. 먼저 "처리 중"을 trySet 한 노드만 실행하고, 다른 노드는 결과가 저장될 때까지 확인한다.
+ *           값은 "P|요청 지문|실행 id" (처리 중) 또는 "D|요청 지문|응답 JSON" (완료)
+ *           완료 저장과 실패 시 삭제는 값이 내가 쓴 "처리 중" 그대로일 때만 한다. (Lua 비교 후 변경)
+ *           "처리 중"은 ttl 동안 남아있어서, 오래 걸리는 요청이나 커밋 후 완료를 쓰기 전에 죽은 노드의 요청을
+ *           다른 노드가 다시 실행하지 않는다. 결과를 알 수 없는 키는 ttl 이 지날 때까지 REQUEST_IN_PROGRESS 로 거절한다.
+ * 성공한 응답만 저장한다. 실패하면 키를 지우므로 다시 보낸 요청은 새로 실행된다.
+ * 같은 키로 내용이 다른 요청이 오면 IDEMPOTENCY_KEY_REUSED
+ */
+@Slf4j
+@Component
+public class IdempotencyStore {
+    private static final String KEY_PREFIX = "IDEM:";
+    private static final String IN_PROGRESS = "P";
+    private static final String DONE = "D";
+    private static final String SEPARATOR = "|";
+    private static final long POLL_MILLIS = 10L;
+    private static final String COMPARE_AND_SET_SCRIPT =
+            "if redis.call('get', KEYS[1]) == ARGV[1] then "
+                    + "redis.call('set', KEYS[1], ARGV[2], 'px', ARGV[3]); return 1 end; return 0";
+    private static final String COMPARE_AND_DELETE_SCRIPT =
+            "if redis.call('get', KEYS[1]) == ARGV[1] then return redis.call('del', KEYS[1]) end; return 0";
+
+    private final RedissonClient redissonClient;
+    private final ObjectMapper objectMapper;
+    private final boolean redisEnabled;
+    private final long ttlMillis;
+    private final long inProgressTimeoutMillis;
+    private final long transactionTimeoutMillis;
+    private final Cache<String, Pending> local;
+
+    public IdempotencyStore(RedissonClient redissonClient,
+                            ObjectMapper objectMapper,
+                            @Value("${account.idempotency.redis-enabled:true}") boolean redisEnabled,
+                            @Value("${account.idempotency.ttl:24h}") Duration ttl,
+                            @Value("${account.idempotency.in-progress-timeout:10s}") Duration inProgressTimeout,
+                            @Value("${spring.transaction.default-timeout:10s}") Duration transactionTimeout,
+                            @Value("${account.idempotency.maximum-size:100000}") long maximumSize) {
+        this.redissonClient = redissonClient;
+        this.objectMapper = objectMapper;
+        this.redisEnabled = redisEnabled;
+        this.ttlMillis = ttl.toMillis();
+        this.inProgressTimeoutMillis = inProgressTimeout.toMillis();
+        this.transactionTimeoutMillis = transactionTimeout.toMillis();
+        this.local = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(ttl)
+                .build();
+    }
+
+    @FunctionalInterface
+    public interface Execution {
+        Object run() throws Throwable;
+    }
+
+    private static class Pending {
+        private final String fingerprint;
+        private final CompletableFuture<Object> response = new CompletableFuture<>();
+
+        private Pending(String fingerprint) {
+            this.fingerprint = fingerprint;
+        }
+    }
+
+    /* lockWaitMillis : 실행이 계좌 락을 기다릴 수 있는 최대 시간 (@AccountLock tryLockTime, 락이 없으면 0) */
+    public Object execute(String key, Object request, Class<?> responseType, long lockWaitMillis,
+                          Execution execution) throws Throwable {
+        String fingerprint = fingerprint(request);
+        Pending mine = new Pending(fingerprint);
+        Pending existing = local.asMap().putIfAbsent(key, mine);
+        if (existing != null) {
+            checkFingerprint(existing.fingerprint, fingerprint);
+            try {
+                return existing.response.get(lockWaitMillis + transactionTimeoutMillis, TimeUnit.MILLISECONDS);
+            } catch (ExecutionException e) {
+                throw e.getCause();
+            } catch (TimeoutException e) {
+                throw new AccountException(ErrorCode.REQUEST_IN_PROGRESS);
+            }
+        }
+
+        try {
+            Object response = redisEnabled
+                    ? executeShared(key, fingerprint, responseType, execution)
+                    : execution.run();
+            mine.response.complete(response);
+            return response;
+        } catch (Throwable e) {
+            local.asMap().remove(key, mine);
+            mine.response.completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    private Object executeShared(String key, String fingerprint, Class<?> responseType, Execution execution) throws Throwable {
+        String redisKey = KEY_PREFIX + key;
+        RBucket<String> bucket = redissonClient.getBucket(redisKey, StringCodec.INSTANCE);
+        String inProgress = IN_PROGRESS + SEPARATOR + fingerprint + SEPARATOR + UUID.randomUUID();
+        long deadline = System.currentTimeMillis() + inProgressTimeoutMillis;
+        while (true) {
+            if (bucket.trySet(inProgress, ttlMillis, TimeUnit.MILLISECONDS)) {
+                Object response;
+                try {
+                    response = execution.run();
+                } catch (Throwable e) {
+                    compareAndDelete(redisKey, inProgress);
+                    throw e;
+                }
+                String done = DONE + SEPARATOR + fingerprint + SEPARATOR + objectMapper.writeValueAsString(response);
+                if (!compareAndSet(redisKey, inProgress, done)) {
+                    log.warn("Idempotency key was taken over before the response was stored : {}", key);
+                }
+                return response;
+            }
+
+            String stored = bucket.get();
+            if (stored != null) {
+                String[] parts = stored.split("\\|", 3);
+                checkFingerprint(parts[1], fingerprint);
+                if (DONE.equals(parts[0])) {
+                    return objectMapper.readValue(parts[2], responseType);
+                }
+            }
+            if (System.currentTimeMillis() > deadline) {
+                throw new AccountException(ErrorCode.REQUEST_IN_PROGRESS);
+            }
+            Thread.sleep(POLL_MILLIS);
+        }
+    }
+
+    private boolean compareAndSet(String redisKey, String expected, String value) {
+        Long updated = redissonClient.getScript(StringCodec.INSTANCE).eval(RScript.Mode.READ_WRITE,
+                COMPARE_AND_SET_SCRIPT, RScript.ReturnType.INTEGER, List.of(redisKey),
+                expected, value, String.valueOf(ttlMillis));
+        return updated != null && updated == 1L;
+    }
+
+    /* 실패를 알리는 것이 우선이므로 지우지 못해도 원래 예외를 던진다. (키는 ttl 뒤에 지워짐) */
+    private void compareAndDelete(String redisKey, String expected) {
+        try {
+            redissonClient.getScript(StringCodec.INSTANCE).eval(RScript.Mode.READ_WRITE,
+                    COMPARE_AND_DELETE_SCRIPT, RScript.ReturnType.INTEGER, List.of(redisKey), expected);
+        } catch (RuntimeException e) {
+            log.error("Failed to release idempotency key {}", redisKey, e);
+        }
+    }
+
+    private void checkFingerprint(String stored, String fingerprint) {
+        if (!stored.equals(fingerprint)) {
+            throw new AccountException(ErrorCode.IDEMPOTENCY_KEY_REUSED);
+        }
+    }
+
+    private String fingerprint(Object request) throws JsonProcessingException {
+        return DigestUtils.md5DigestAsHex(objectMapper.writeValueAsString(request).getBytes(StandardCharsets.UTF_8));
+    }
+}
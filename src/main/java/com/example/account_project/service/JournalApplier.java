@@ -0,0 +1,95 @@
+package com.example.account_project.service;
+
+import com.example.account_project.domain.Transaction;
+import com.example.account_project.dto.JournalEntry;
+import com.example.account_project.repository.AccountRepository;
+import com.example.account_project.repository.TransactionRepository;
+import jakarta.transaction.Transactional;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.util.*;
+
+/*
+ * 저널 반영 (BalanceJournal 의 백그라운드 스레드)
+ * 한 트랜잭션에서 계좌마다 delta 합계로 UPDATE 한 번, 거래는 saveAll 로 한 번에 저장한다.
+ * 이미 저장된 거래 id 는 잔액 반영까지 같이 건너뛰므로, 같은 저널을 다시 반영해도 한 번만 반영된다.
+ * SQL 은 모두 flush 한 뒤에 커밋하므로, CommitGuard 는 커넥션을 잡고 SQL 을 다 실행한 다음 커밋하는 동안만 불린다.
+ */
+@Service
+@RequiredArgsConstructor
+public class JournalApplier {
+    private final AccountRepository accountRepository;
+    private final TransactionRepository transactionRepository;
+
+    /* 커밋 구간을 감싸는 콜백 (BalanceJournal 이 커밋과 pendingDeltas 차감을 잔액 쓰기 락 안에서 같이 한다) */
+    public interface CommitGuard {
+        void enter();
+
+        void exit(boolean committed);
+    }
+
+    @Transactional
+    public int apply(List<JournalEntry> entries) {
+        return apply(entries, null);
+    }
+
+    @Transactional
+    public int apply(List<JournalEntry> entries, CommitGuard commitGuard) {
+        Set<String> existingTransactionIds = transactionRepository.findExistingTransactionIds(
+                entries.stream().map(JournalEntry::getTransactionId).toList());
+        Map<Long, Long> deltas = new HashMap<>();
+        List<Transaction> transactions = new ArrayList<>(entries.size());
+
+        for (JournalEntry entry : entries) {
+            if (existingTransactionIds.contains(entry.getTransactionId())) {
+                continue;
+            }
+            deltas.merge(entry.getAccountId(), entry.getDelta(), Long::sum);
+            transactions.add(Transaction.builder()
+                    .transactionType(entry.getTransactionType())
+                    .transactionResultType(entry.getTransactionResultType())
+                    .account(accountRepository.getReferenceById(entry.getAccountId()))
+                    .amount(entry.getAmount())
+                    .balanceSnapshot(entry.getBalanceSnapshot())
+                    .transactionId(entry.getTransactionId())
+                    .transactedAt(entry.getTransactedAt())
+                    .build());
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        deltas.forEach((accountId, delta) -> {
+            if (delta != 0) {
+                accountRepository.adjustBalance(accountId, delta, now);
+            }
+        });
+        transactionRepository.saveAll(transactions);
+        transactionRepository.flush();
+        if (commitGuard != null) {
+            guardCommit(commitGuard);
+        }
+        return transactions.size();
+    }
+
+    private void guardCommit(CommitGuard commitGuard) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            commitGuard.enter();
+            commitGuard.exit(true);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void beforeCompletion() {
+                commitGuard.enter();
+            }
+
+            @Override
+            public void afterCompletion(int status) {
+                commitGuard.exit(status == STATUS_COMMITTED);
+            }
+        });
+    }
+}
@@ -0,0 +1,44 @@
+package com.example.account_project.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/*
+ * 지연 주입기 (테스트/장애 재현용)
+ * 락을 잡은 채로 오래 걸리는 요청을 흉내낼 때 쓴다.
+ * account.fault.lock-hold-delay-ms 가 0 보다 클 때만 빈으로 띄우고, prod 프로파일에서는 띄우지 않는다.
+ * 빈이 없으면 LockAopAspect 는 호출하지 않는다. (테스트는 직접 만들거나 @Bean 으로 등록해서 쓴다)
+ */
+@Slf4j
+@Component
+@Profile("!prod")
+@ConditionalOnExpression("${account.fault.lock-hold-delay-ms:0} > 0")
+public class LatencyInjector {
+    private volatile long lockHoldDelayMillis;
+
+    public LatencyInjector(@Value("${account.fault.lock-hold-delay-ms:0}") long lockHoldDelayMillis) {
+        this.lockHoldDelayMillis = lockHoldDelayMillis;
+    }
+
+    public void setLockHoldDelay(Duration delay) {
+        this.lockHoldDelayMillis = delay.toMillis();
+    }
+
+    public void reset() {
+        this.lockHoldDelayMillis = 0L;
+    }
+
+    // 계좌 락을 잡은 직후에 호출된다.
+    public void onLockHeld(String accountNumber) throws InterruptedException {
+        long delayMillis = lockHoldDelayMillis;
+        if (delayMillis > 0) {
+            log.warn("Injecting {}ms latency while holding lock for accountNumber : {}", delayMillis, accountNumber);
+            Thread.sleep(delayMillis);
+        }
+    }
+}
@@ -0,0 +1,335 @@
+package com.example.account_project.service;
+
+import com.example.account_project.Exception.AccountException;
+import com.example.account_project.dto.JournalEntry;
+import com.example.account_project.dto.LedgerAccount;
+import com.example.account_project.repository.AccountRepository;
+import com.example.account_project.type.AccountStatus;
+import com.example.account_project.type.ErrorCode;
+import com.example.account_project.type.TransactionMode;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+
+import static com.example.account_project.type.TransactionResultType.FAIL;
+import static com.example.account_project.type.TransactionResultType.SUCCESS;
+import static com.example.account_project.type.TransactionType.CANCEL;
+import static com.example.account_project.type.TransactionType.USE;
+
+/*
+ * 메모리 원장 (account.transaction.mode=LEDGER)
+ * 계좌번호로 샤드를 나누고, 샤드마다 스레드 하나가 계좌 상태(잔액, 상태, 소유주)를 들고 명령을 순서대로 처리한다.
+ * 한 계좌는 한 스레드만 바꾸므로 계좌 락이 필요 없다.
+ *
+ * - 명령 큐 : 샤드마다 LedgerRingBuffer 하나. 요청 스레드가 넣고 샤드 스레드가 꺼낸다.
+ * - 검증    : validateUseBalance 와 같은 순서로 소유주, 상태, 잔액을 확인한다.
+ * - 저장    : 샤드 스레드가 저널에 쓴 뒤 메모리 잔액을 바꾸고, 요청 스레드는 fsync 를 기다렸다가 응답한다.
+ *            DB 에는 BalanceJournal 이 모아서 반영한다.
+ * - 적재    : 처음 보는 계좌는 샤드 스레드가 DB 에서 읽는다. 이 프로세스에서 그 계좌를 바꾼 적이 없으므로 DB 잔액이 최신이다.
+ * - 노드    : 읽은 잔액을 다시 읽지 않으므로 이 프로세스만 잔액을 바꿔야 한다. (노드 하나, DB 를 직접 바꾸지 않음)
+ *            노드 하나로만 띄우는 설정(account.lock.backend=local)이 아니면 시작하지 않는다.
+ * - 종료    : 종료를 시작한 뒤에는 명령을 받지 않고, 이미 받은 명령은 모두 처리하거나 실패로 돌려준다.
+ * - 해지    : 해지 트랜잭션 안에서 잔액을 확인하고 해지 중으로 표시한 뒤(이 동안 사용/취소는 ACCOUNT_TRANSACTION_LOCK),
+ *            커밋되면 해지 상태로 바꾸고 롤백되면 표시만 지운다. (DB 와 메모리 상태가 어긋나지 않게)
+ */
+@Slf4j
+@Component
+public class LedgerEngine {
+    private static final int SPINS_BEFORE_PARK = 1000;
+    private static final long PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    private final AccountRepository accountRepository;
+    private final BalanceJournal balanceJournal;
+    private final TransactionIdGenerator transactionIdGenerator;
+    private final boolean enabled;
+    private final Shard[] shards;
+    private final ReadWriteLock lifecycle = new ReentrantReadWriteLock();
+    private volatile boolean running;
+
+    public LedgerEngine(AccountRepository accountRepository,
+                        BalanceJournal balanceJournal,
+                        TransactionIdGenerator transactionIdGenerator,
+                        @Value("${account.transaction.mode:LOCK}") TransactionMode transactionMode,
+                        @Value("${account.lock.backend:redis}") String lockBackend,
+                        @Value("${account.ledger.shards:0}") int shardCount,
+                        @Value("${account.ledger.ring-capacity:4096}") int ringCapacity) {
+        this.accountRepository = accountRepository;
+        this.balanceJournal = balanceJournal;
+        this.transactionIdGenerator = transactionIdGenerator;
+        this.enabled = transactionMode == TransactionMode.LEDGER;
+        if (enabled && !"local".equals(lockBackend)) {
+            throw new IllegalStateException("LEDGER mode keeps balances in this process only; "
+                    + "run a single node with account.lock.backend=local");
+        }
+        this.shards = new Shard[shardCount > 0 ? shardCount : Runtime.getRuntime().availableProcessors()];
+        for (int i = 0; i < shards.length; i++) {
+            shards[i] = new Shard(i, ringCapacity);
+        }
+    }
+
+    @PostConstruct
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        running = true;
+        for (Shard shard : shards) {
+            shard.thread.start();
+        }
+    }
+
+    /* 큐에 남은 명령은 처리하고 끝낸다. */
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        if (!enabled) {
+            return;
+        }
+        // 명령을 넣는 중인 스레드가 끝날 때까지 기다린 뒤 멈춘다. 이후 들어온 명령은 execute 에서 거절한다.
+        lifecycle.writeLock().lock();
+        try {
+            running = false;
+        } finally {
+            lifecycle.writeLock().unlock();
+        }
+        for (Shard shard : shards) {
+            LockSupport.unpark(shard.thread);
+            shard.thread.join(TimeUnit.SECONDS.toMillis(30));
+            if (shard.thread.isAlive()) {
+                // 처리 중인 명령이 끝나면 샤드 스레드가 남은 명령을 마저 처리한다 (소비자는 샤드 스레드 하나)
+                log.warn("ledger shard did not stop in 30s : {}", shard.thread.getName());
+                continue;
+            }
+            shard.failRemaining();
+        }
+    }
+
+    /*
+     * 잔액 사용
+     * recordFailure 이면 검증 실패도 FAIL 거래로 저널에 남기고 돌려준다. (계좌가 없으면 예외)
+     */
+    public JournalEntry use(Long userId, String accountNumber, Long amount, boolean recordFailure) {
+        return execute(new Command(accountNumber) {
+            @Override
+            JournalEntry apply(LedgerAccount account) {
+                try {
+                    checkNotUnregistering(account);
+                    if (!Objects.equals(userId, account.getAccountUserId())) {
+                        throw new AccountException(ErrorCode.USER_ACCOUNT_UN_MATCH);
+                    }
+                    if (account.getAccountStatus() != AccountStatus.IN_USE) {
+                        throw new AccountException(ErrorCode.ACCOUNT_ALREADY_UNREGISTERED);
+                    }
+                    if (account.getBalance() < amount) {
+                        throw new AccountException(ErrorCode.AMOUNT_EXCEED_BALANCE);
+                    }
+                    return JournalEntry.of(transactionIdGenerator.nextId(), USE, SUCCESS, account.getId(), accountNumber,
+                            amount, -amount, account.getBalance() - amount);
+                } catch (AccountException e) {
+                    if (!recordFailure) {
+                        throw e;
+                    }
+                    return JournalEntry.of(transactionIdGenerator.nextId(), USE, FAIL, account.getId(), accountNumber,
+                            amount, 0L, account.getBalance());
+                }
+            }
+        });
+    }
+
+    /* 잔액 사용 취소 - 원 거래 검증(validateCancelBalance)은 호출하는 쪽에서 한다. */
+    public JournalEntry cancel(String accountNumber, Long amount) {
+        return execute(new Command(accountNumber) {
+            @Override
+            JournalEntry apply(LedgerAccount account) {
+                checkNotUnregistering(account);
+                return JournalEntry.of(transactionIdGenerator.nextId(), CANCEL, SUCCESS, account.getId(), accountNumber,
+                        amount, amount, account.getBalance() + amount);
+            }
+        });
+    }
+
+    /*
+     * 계좌 해지 - 메모리 잔액이 남아있으면 해지할 수 없다. LEDGER 모드가 아니면 아무것도 하지 않는다.
+     * 해지 트랜잭션 안에서 호출한다. 해지 상태는 트랜잭션이 커밋된 뒤에 바꾼다.
+     */
+    public void unregister(String accountNumber) {
+        if (!enabled) {
+            return;
+        }
+        execute(new Command(accountNumber) {
+            @Override
+            JournalEntry apply(LedgerAccount account) {
+                checkNotUnregistering(account);
+                if (account.getBalance() > 0) {
+                    throw new AccountException(ErrorCode.BALANCE_NOT_EMPTY);
+                }
+                account.setUnregistering(true);
+                return null;
+            }
+        });
+        afterCompletion(committed -> execute(new Command(accountNumber) {
+            @Override
+            JournalEntry apply(LedgerAccount account) {
+                account.setUnregistering(false);
+                if (committed) {
+                    account.setAccountStatus(AccountStatus.UNREGISTERED);
+                }
+                return null;
+            }
+        }));
+    }
+
+    /* 메모리 잔액 (실패 거래의 balanceSnapshot) */
+    public Long balanceOf(String accountNumber) {
+        long[] balance = new long[1];
+        execute(new Command(accountNumber) {
+            @Override
+            JournalEntry apply(LedgerAccount account) {
+                balance[0] = account.getBalance();
+                return null;
+            }
+        });
+        return balance[0];
+    }
+
+    private static void checkNotUnregistering(LedgerAccount account) {
+        if (account.isUnregistering()) {
+            throw new AccountException(ErrorCode.ACCOUNT_TRANSACTION_LOCK);
+        }
+    }
+
+    private static void afterCompletion(Consumer<Boolean> callback) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            callback.accept(true);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                callback.accept(status == STATUS_COMMITTED);
+            }
+        });
+    }
+
+    private JournalEntry execute(Command command) {
+        lifecycle.readLock().lock();
+        try {
+            if (!running) {
+                throw new IllegalStateException("Ledger engine is not running");
+            }
+            shards[Math.floorMod(command.accountNumber.hashCode(), shards.length)].submit(command);
+        } finally {
+            lifecycle.readLock().unlock();
+        }
+        JournalEntry entry;
+        try {
+            entry = command.future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+        if (entry != null) {
+            balanceJournal.awaitDurable(command.lsn);
+        }
+        return entry;
+    }
+
+    /*
+     * 샤드 스레드에서 실행한다.
+     * 저널에 쓸 건을 돌려주면 샤드가 저널에 쓴 뒤 delta 만큼 잔액을 바꾼다.
+     * 저널에 쓸 게 없으면 null 을 돌려주고 여기서 직접 상태를 바꾼다.
+     */
+    private abstract static class Command {
+        final String accountNumber;
+        final CompletableFuture<JournalEntry> future = new CompletableFuture<>();
+        long lsn;
+
+        Command(String accountNumber) {
+            this.accountNumber = accountNumber;
+        }
+
+        abstract JournalEntry apply(LedgerAccount account);
+    }
+
+    private class Shard implements Runnable {
+        private final LedgerRingBuffer<Command> commands;
+        private final Map<String, LedgerAccount> accounts = new HashMap<>();
+        private final Thread thread;
+
+        Shard(int index, int ringCapacity) {
+            this.commands = new LedgerRingBuffer<>(ringCapacity);
+            this.thread = new Thread(this, "ledger-shard-" + index);
+            this.thread.setDaemon(true);
+        }
+
+        void submit(Command command) {
+            while (!commands.offer(command)) {
+                Thread.yield();
+            }
+            LockSupport.unpark(thread);
+        }
+
+        @Override
+        public void run() {
+            int idle = 0;
+            while (running) {
+                Command command = commands.poll();
+                if (command == null) {
+                    if (++idle < SPINS_BEFORE_PARK) {
+                        Thread.onSpinWait();
+                    } else {
+                        LockSupport.parkNanos(PARK_NANOS);
+                    }
+                    continue;
+                }
+                idle = 0;
+                process(command);
+            }
+            for (Command command = commands.poll(); command != null; command = commands.poll()) {
+                process(command);
+            }
+        }
+
+        /* 스레드가 끝난 뒤 남은 명령은 실패로 돌려준다. (stop 에서 샤드 스레드가 끝난 뒤에만 호출) */
+        void failRemaining() {
+            for (Command command = commands.poll(); command != null; command = commands.poll()) {
+                command.future.completeExceptionally(new IllegalStateException("Ledger engine is not running"));
+            }
+        }
+
+        private void process(Command command) {
+            try {
+                LedgerAccount account = accounts.get(command.accountNumber);
+                if (account == null) {
+                    account = accountRepository.findLedgerAccount(command.accountNumber)
+                            .orElseThrow(() -> new AccountException(ErrorCode.ACCOUNT_NOT_FOUND));
+                    accounts.put(command.accountNumber, account);
+                }
+                JournalEntry entry = command.apply(account);
+                if (entry != null) {
+                    command.lsn = balanceJournal.record(entry);
+                    account.setBalance(account.getBalance() + entry.getDelta());
+                }
+                command.future.complete(entry);
+            } catch (RuntimeException e) {
+                command.future.completeExceptionally(e);
+            }
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package com.example.account_project.service;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/*
+ * LedgerEngine 샤드 명령 큐 (여러 생산자, 소비자 하나)
+ * 고정 크기 배열에 칸마다 순번을 두고, 생산자는 tail 을 CAS 로 한 칸씩 가져간다. (락 없음)
+ * 칸의 순번이 pos 이면 비어있고, pos + 1 이면 값이 들어있다.
+ * 소비자가 꺼낸 칸은 순번을 pos + capacity 로 바꿔서 한 바퀴 뒤의 생산자에게 넘긴다.
+ */
+class LedgerRingBuffer<E> {
+    private final int mask;
+    private final AtomicReferenceArray<E> elements;
+    private final AtomicLongArray sequences;
+    private final AtomicLong tail = new AtomicLong();
+    private long head;
+
+    LedgerRingBuffer(int capacity) {
+        if (Integer.bitCount(capacity) != 1) {
+            throw new IllegalArgumentException("capacity must be a power of two : " + capacity);
+        }
+        this.mask = capacity - 1;
+        this.elements = new AtomicReferenceArray<>(capacity);
+        this.sequences = new AtomicLongArray(capacity);
+        for (int i = 0; i < capacity; i++) {
+            sequences.set(i, i);
+        }
+    }
+
+    /* 가득 차 있으면 false */
+    boolean offer(E element) {
+        long pos = tail.get();
+        while (true) {
+            long diff = sequences.get((int) pos & mask) - pos;
+            if (diff == 0) {
+                if (tail.compareAndSet(pos, pos + 1)) {
+                    break;
+                }
+                pos = tail.get();
+            } else if (diff < 0) {
+                return false;
+            } else {
+                pos = tail.get();
+            }
+        }
+        int index = (int) pos & mask;
+        elements.lazySet(index, element);
+        sequences.lazySet(index, pos + 1);
+        return true;
+    }
+
+    /* 소비자 스레드에서만 호출한다. 비어있으면 null */
+    E poll() {
+        int index = (int) head & mask;
+        if (sequences.get(index) != head + 1) {
+            return null;
+        }
+        E element = elements.get(index);
+        elements.lazySet(index, null);
+        sequences.lazySet(index, head + mask + 1);
+        head++;
+        return element;
+    }
+}
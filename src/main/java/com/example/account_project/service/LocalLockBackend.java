@@ -0,0 +1,133 @@
+package com.example.account_project.service;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayDeque;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/*
+ * 단일 노드용 락 저장소
+ * Redisson RLock 과 같은 의미를 가진다.
+ * - 같은 스레드는 재진입 가능
+ * - waitTime 동안만 기다리고, leaseTime 이 지나면 해제하지 않아도 다른 스레드가 가져갈 수 있다.
+ * - fair 이면 기다리는 순서(waiters)의 맨 앞일 때만 가져간다. fair 가 아닌 요청은 순서를 무시한다.
+ * 키별 락 객체는 사용 중인 스레드 수(users)를 세어서 아무도 쓰지 않으면 map 에서 바로 지운다.
+ */
+@Component
+@ConditionalOnProperty(name = "account.lock.backend", havingValue = "local")
+public class LocalLockBackend implements LockBackend {
+    private final ConcurrentHashMap<String, LocalLock> locks = new ConcurrentHashMap<>();
+
+    @Override
+    public boolean tryLock(String key, long waitTime, long leaseTime, TimeUnit unit, boolean fair) throws InterruptedException {
+        LocalLock lock = retain(key);
+        boolean acquired = false;
+        try {
+            acquired = lock.tryAcquire(unit.toNanos(waitTime), unit.toNanos(leaseTime), fair);
+            return acquired;
+        } finally {
+            if (!acquired) {
+                release(key, lock);
+            }
+        }
+    }
+
+    @Override
+    public void unlock(String key, boolean fair) {
+        LocalLock lock = locks.get(key);
+        if (lock == null) {
+            throw new IllegalMonitorStateException("attempt to unlock lock, not locked by current thread : " + key);
+        }
+        try {
+            lock.release();
+        } finally {
+            release(key, lock);
+        }
+    }
+
+    int size() {
+        return locks.size();
+    }
+
+    private LocalLock retain(String key) {
+        return locks.compute(key, (k, lock) -> {
+            LocalLock retained = lock == null ? new LocalLock() : lock;
+            retained.users++;
+            return retained;
+        });
+    }
+
+    private void release(String key, LocalLock lock) {
+        locks.computeIfPresent(key, (k, current) ->
+                current == lock && --current.users == 0 ? null : current);
+    }
+
+    private static final class LocalLock {
+        private final ReentrantLock guard = new ReentrantLock();
+        private final Condition released = guard.newCondition();
+        private final ArrayDeque<Thread> waiters = new ArrayDeque<>();
+
+        private Thread owner;
+        private int holdCount;
+        private long leaseDeadline;
+
+        // locks.compute 안에서만 읽고 쓴다.
+        private int users;
+
+        boolean tryAcquire(long waitNanos, long leaseNanos, boolean fair) throws InterruptedException {
+            Thread current = Thread.currentThread();
+            guard.lockInterruptibly();
+            boolean queued = fair && owner != current;
+            if (queued) {
+                waiters.addLast(current);
+            }
+            try {
+                long deadline = System.nanoTime() + waitNanos;
+                while (true) {
+                    long now = System.nanoTime();
+                    if (owner != null && now - leaseDeadline >= 0) {
+                        // 임대 시간이 지난 락은 해제된 것으로 본다.
+                        owner = null;
+                        holdCount = 0;
+                    }
+                    if ((owner == null && (!queued || waiters.peekFirst() == current)) || owner == current) {
+                        owner = current;
+                        holdCount++;
+                        leaseDeadline = now + leaseNanos;
+                        return true;
+                    }
+                    long remaining = deadline - now;
+                    if (remaining <= 0) {
+                        return false;
+                    }
+                    released.awaitNanos(owner != null ? Math.min(remaining, leaseDeadline - now) : remaining);
+                }
+            } finally {
+                if (queued && waiters.remove(current)) {
+                    // 맨 앞이 빠지면 다음 순서가 확인할 수 있도록 깨운다.
+                    released.signalAll();
+                }
+                guard.unlock();
+            }
+        }
+
+        void release() {
+            guard.lock();
+            try {
+                if (owner != Thread.currentThread()) {
+                    throw new IllegalMonitorStateException("attempt to unlock lock, not locked by current thread");
+                }
+                if (--holdCount == 0) {
+                    owner = null;
+                    released.signalAll();
+                }
+            } finally {
+                guard.unlock();
+            }
+        }
+    }
+}
@@ -1,11 +1,15 @@
 package com.example.account_project.service;
 
+import com.example.account_project.aop.AccountLock;
 import com.example.account_project.aop.AccountLockIdInterface;
+import com.example.account_project.type.TransactionMode;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.aspectj.lang.ProceedingJoinPoint;
 import org.aspectj.lang.annotation.Around;
 import org.aspectj.lang.annotation.Aspect;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.lang.Nullable;
 import org.springframework.stereotype.Component;
 
 @Aspect
@@ -14,17 +18,40 @@ import org.springframework.stereotype.Component;
 @RequiredArgsConstructor
 public class LockAopAspect {
     private final LockService lockService;
+    @Nullable
+    private final LatencyInjector latencyInjector; // 테스트/장애 재현용, 운영에서는 없음
+    private final OptimisticRetry optimisticRetry;
+    private final BalanceSlotService balanceSlotService;
 
-    @Around("@annotation(com.example.account_project.aop.AccountLock) && args(request)")
-    public Object arrounMethod(ProceedingJoinPoint proceedingJoinPoint
+    @Value("${account.transaction.mode:LOCK}")
+    private TransactionMode transactionMode = TransactionMode.LOCK;
+
+    @Around("@annotation(accountLock) && args(request)")
+    public Object arrounMethod(ProceedingJoinPoint proceedingJoinPoint, AccountLock accountLock
             , AccountLockIdInterface request) throws Throwable {
-        //lock 취득 시도
-        lockService.lock(request.getAccountNumber());
+        //ATOMIC 모드는 조건부 UPDATE 가, LEDGER 모드는 계좌 샤드 스레드가 동시성을 보장하므로 락을 잡지 않는다
+        if (transactionMode == TransactionMode.ATOMIC || transactionMode == TransactionMode.LEDGER) {
+            return proceedingJoinPoint.proceed();
+        }
+        //OPTIMISTIC 모드는 락 없이 실행하고, 버전 충돌이면 트랜잭션 전체를 다시 실행한다
+        if (transactionMode == TransactionMode.OPTIMISTIC) {
+            return optimisticRetry.execute(request.getAccountNumber(), proceedingJoinPoint::proceed);
+        }
+        //잔액을 슬롯으로 나눈 계좌는 슬롯 행 잠금만 잡는다 (BalanceSlotService, JOURNAL 모드는 나눌 수 없음)
+        if (transactionMode == TransactionMode.LOCK && balanceSlotService.isSharded(request.getAccountNumber())) {
+            return proceedingJoinPoint.proceed();
+        }
+        //lock 취득 시도 (메소드별 대기/임대 시간과 방식)
+        lockService.lock(request.getAccountNumber(), accountLock.mode(),
+                accountLock.tryLockTime(), accountLock.leaseTime());
         try {
+            if (latencyInjector != null) {
+                latencyInjector.onLockHeld(request.getAccountNumber());
+            }
             return proceedingJoinPoint.proceed();
         } finally {
             //lock 해제
-            lockService.unlock(request.getAccountNumber());
+            lockService.unlock(request.getAccountNumber(), accountLock.mode());
         }
     }
 }
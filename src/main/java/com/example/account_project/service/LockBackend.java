@@ -0,0 +1,41 @@
+package com.example.account_project.service;
+
+import java.util.Collection;
+import java.util.concurrent.TimeUnit;
+
+/*
+ * 계좌 락 저장소
+ * account.lock.backend 값으로 구현체를 고른다.
+ * - redis : Redisson 분산 락 (기본값, 여러 노드)
+ * - local : 프로세스 내부 락 (단일 노드)
+ * fair 이면 기다린 순서대로 락을 준다. 공정 락으로 잡은 락은 공정 락으로 풀어야 한다.
+ */
+public interface LockBackend {
+
+    boolean tryLock(String key, long waitTime, long leaseTime, TimeUnit unit, boolean fair) throws InterruptedException;
+
+    void unlock(String key, boolean fair);
+
+    /* 여러 락을 한 번에 해제한다. 하나라도 실패하면 나머지를 해제한 뒤 예외를 던진다. */
+    default void unlockAll(Collection<String> keys, boolean fair) {
+        RuntimeException failure = null;
+        for (String key : keys) {
+            try {
+                unlock(key, fair);
+            } catch (RuntimeException e) {
+                failure = failure == null ? e : failure;
+            }
+        }
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    default boolean tryLock(String key, long waitTime, long leaseTime, TimeUnit unit) throws InterruptedException {
+        return tryLock(key, waitTime, leaseTime, unit, false);
+    }
+
+    default void unlock(String key) {
+        unlock(key, false);
+    }
+}
@@ -1,40 +1,77 @@
 package com.example.account_project.service;
 
 import com.example.account_project.Exception.AccountException;
+import com.example.account_project.metrics.LockMetrics;
 import com.example.account_project.type.ErrorCode;
+import com.example.account_project.type.LockMode;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.redisson.api.RLock;
-import org.redisson.api.RedissonClient;
 import org.springframework.stereotype.Service;
 
+import java.util.Collection;
 import java.util.concurrent.TimeUnit;
 
 @Service
 @Slf4j
 @RequiredArgsConstructor
 public class LockService {
-    private final RedissonClient redissonClient;
+    private static final long DEFAULT_WAIT_MILLIS = 1000L;
+    private static final long DEFAULT_LEASE_MILLIS = 15000L;
+
+    private final LockBackend lockBackend;
+    private final LockMetrics lockMetrics;
 
     public void lock(String accountNumber) {
-        RLock lock = redissonClient.getLock("ACLK" + accountNumber); //lock에 쓰는 키로 쓰겠다.
-        log.debug("Trying Lock for accountNumber : {}", accountNumber);
+        lock(accountNumber, LockMode.WAIT, DEFAULT_WAIT_MILLIS, DEFAULT_LEASE_MILLIS);
+    }
+
+    /* 락을 잡지 못하면(저장소 오류 포함) ACCOUNT_TRANSACTION_LOCK - 락 없이 진행하지 않는다. */
+    public void lock(String accountNumber, LockMode lockMode, long waitMillis, long leaseMillis) {
+        log.debug("Trying Lock for accountNumber : {} ({})", accountNumber, lockMode);
+        long startedAt = System.nanoTime();
+        boolean isLock;
         try {
-            boolean isLock = lock.tryLock(1, 15, TimeUnit.SECONDS);
-            if (!isLock) {
-                log.error("================Lock acquisition failed================");
-                throw new AccountException(ErrorCode.ACCOUNT_TRANSACTION_LOCK);
-            }
-        } catch (AccountException e) {
-            throw e;
-        }catch (Exception e){
-            log.error("Redis lock failed",e);
+            isLock = lockBackend.tryLock(getLockKey(accountNumber),
+                    lockMode == LockMode.FAIL_FAST ? 0L : waitMillis, leaseMillis,
+                    TimeUnit.MILLISECONDS, lockMode == LockMode.FAIR);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            lockMetrics.recordFailed(accountNumber, System.nanoTime() - startedAt);
+            throw new AccountException(ErrorCode.ACCOUNT_TRANSACTION_LOCK);
+        } catch (RuntimeException e) {
+            lockMetrics.recordFailed(accountNumber, System.nanoTime() - startedAt);
+            log.error("Account lock failed", e);
+            throw new AccountException(ErrorCode.ACCOUNT_TRANSACTION_LOCK);
         }
+        if (!isLock) {
+            lockMetrics.recordFailed(accountNumber, System.nanoTime() - startedAt);
+            log.error("================Lock acquisition failed================");
+            throw new AccountException(ErrorCode.ACCOUNT_TRANSACTION_LOCK);
+        }
+        lockMetrics.recordAcquired(accountNumber, System.nanoTime() - startedAt);
+    }
+
+    public void unlock(String accountNumber) {
+        unlock(accountNumber, LockMode.WAIT);
     }
 
-    public void unlock(String accountNumber){
+    public void unlock(String accountNumber, LockMode lockMode) {
         log.debug("Unlock for accountNumber : {} ",accountNumber);
-        redissonClient.getLock(getLockKey(accountNumber)).unlock();
+        try {
+            lockBackend.unlock(getLockKey(accountNumber), lockMode == LockMode.FAIR);
+        } finally {
+            lockMetrics.recordReleased(accountNumber);
+        }
+    }
+
+    /* 여러 계좌 락을 한 번에 해제한다. (배치 잔액 사용) */
+    public void unlockAll(Collection<String> accountNumbers) {
+        log.debug("Unlock for accountNumbers : {} ", accountNumbers);
+        try {
+            lockBackend.unlockAll(accountNumbers.stream().map(this::getLockKey).toList(), false);
+        } finally {
+            accountNumbers.forEach(lockMetrics::recordReleased);
+        }
     }
 
     private String getLockKey(String accountNumber) {
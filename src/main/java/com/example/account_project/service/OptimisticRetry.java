@@ -0,0 +1,66 @@
+package com.example.account_project.service;
+
+import com.example.account_project.Exception.AccountException;
+import com.example.account_project.type.ErrorCode;
+import jakarta.persistence.OptimisticLockException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/*
+ * 낙관적 락 재시도 (OPTIMISTIC 모드)
+ * 버전 충돌이 나면 트랜잭션 밖에서 작업 전체를 다시 실행한다.
+ * 대기 시간은 시도마다 두 배로 늘어나는 상한 안에서 랜덤으로 정해서(full jitter) 충돌한 요청끼리 다시 부딪히지 않게 한다.
+ * maxAttempts 번 모두 충돌하면 락 취득 실패와 같은 ACCOUNT_TRANSACTION_LOCK 으로 응답한다.
+ */
+@Slf4j
+@Component
+public class OptimisticRetry {
+    private final int maxAttempts;
+    private final long backoffMillis;
+    private final long maxBackoffMillis;
+
+    public OptimisticRetry(@Value("${account.optimistic.max-attempts:5}") int maxAttempts,
+                           @Value("${account.optimistic.backoff-ms:5}") long backoffMillis,
+                           @Value("${account.optimistic.max-backoff-ms:100}") long maxBackoffMillis) {
+        this.maxAttempts = maxAttempts;
+        this.backoffMillis = backoffMillis;
+        this.maxBackoffMillis = maxBackoffMillis;
+    }
+
+    public <T> T execute(String accountNumber, Attempt<T> attempt) throws Throwable {
+        for (int attemptCount = 1; ; attemptCount++) {
+            try {
+                return attempt.run();
+            } catch (OptimisticLockingFailureException | OptimisticLockException e) {
+                if (attemptCount >= maxAttempts) {
+                    log.error("Optimistic lock failed {} times for accountNumber : {}", attemptCount, accountNumber);
+                    throw new AccountException(ErrorCode.ACCOUNT_TRANSACTION_LOCK);
+                }
+                log.debug("Optimistic lock conflict for accountNumber : {} (attempt {})", accountNumber, attemptCount);
+                backoff(attemptCount);
+            }
+        }
+    }
+
+    private void backoff(int attemptCount) {
+        long ceiling = Math.min(maxBackoffMillis, backoffMillis << Math.min(attemptCount - 1, 20));
+        if (ceiling <= 0) {
+            return;
+        }
+        try {
+            Thread.sleep(ThreadLocalRandom.current().nextLong(ceiling + 1));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new AccountException(ErrorCode.ACCOUNT_TRANSACTION_LOCK);
+        }
+    }
+
+    @FunctionalInterface
+    public interface Attempt<T> {
+        T run() throws Throwable;
+    }
+}
@@ -0,0 +1,104 @@
+package com.example.account_project.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import lombok.extern.slf4j.Slf4j;
+import org.redisson.api.RLock;
+import org.redisson.api.RedissonClient;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+
+/*
+ * Redisson 분산 락 저장소
+ * - 락 객체 캐시 : RLock 은 이름만 들고 있는 객체라 스레드 사이에 같이 써도 된다.
+ *                 자주 쓰는 계좌의 RLock 을 들고 있어서 요청마다 getLock 으로 새로 만들지 않는다. (cached-locks=0 이면 끔)
+ * - 비동기 해제   : 해제는 커밋이 끝난 뒤이므로 응답을 해제 결과까지 기다리게 하지 않는다. (async-unlock, 기본은 끔)
+ *                 해제가 실패하면 MAX_UNLOCK_ATTEMPTS 번까지 다시 보내고, 그래도 실패하면 락은 임대 시간이 지나야 풀린다.
+ *                 이미 풀린 락(임대 시간 초과)은 다시 보내지 않는다.
+ * - 여러 개 해제 : 해제 명령을 한꺼번에 보내고 모두 끝날 때까지 기다린다. (한 커넥션으로 파이프라인 된다)
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "account.lock.backend", havingValue = "redis", matchIfMissing = true)
+public class RedissonLockBackend implements LockBackend {
+    private static final int MAX_UNLOCK_ATTEMPTS = 3;
+
+    private final RedissonClient redissonClient;
+    private final Cache<String, RLock> locks;
+    private final Cache<String, RLock> fairLocks;
+    private final boolean asyncUnlock;
+
+    public RedissonLockBackend(RedissonClient redissonClient,
+                               @Value("${account.lock.redis.cached-locks:10000}") long cachedLocks,
+                               @Value("${account.lock.redis.async-unlock:false}") boolean asyncUnlock) {
+        this.redissonClient = redissonClient;
+        this.locks = cachedLocks > 0 ? Caffeine.newBuilder().maximumSize(cachedLocks).build() : null;
+        this.fairLocks = cachedLocks > 0 ? Caffeine.newBuilder().maximumSize(cachedLocks).build() : null;
+        this.asyncUnlock = asyncUnlock;
+    }
+
+    @Override
+    public boolean tryLock(String key, long waitTime, long leaseTime, TimeUnit unit, boolean fair) throws InterruptedException {
+        return getLock(key, fair).tryLock(waitTime, leaseTime, unit);
+    }
+
+    @Override
+    public void unlock(String key, boolean fair) {
+        RLock lock = getLock(key, fair);
+        if (!asyncUnlock) {
+            lock.unlock();
+            return;
+        }
+        // 락을 잡은 스레드 id 로 해제한다 (응답 스레드가 아닌 곳에서 끝나도 같은 락)
+        unlockAsync(lock, key, Thread.currentThread().getId(), 1);
+    }
+
+    private void unlockAsync(RLock lock, String key, long threadId, int attempt) {
+        lock.unlockAsync(threadId).whenComplete((result, e) -> {
+            if (e == null) {
+                return;
+            }
+            Throwable cause = e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+            if (attempt < MAX_UNLOCK_ATTEMPTS && !(cause instanceof IllegalMonitorStateException)) {
+                log.warn("Account unlock failed, retrying ({}/{}) : {}", attempt, MAX_UNLOCK_ATTEMPTS, key, cause);
+                unlockAsync(lock, key, threadId, attempt + 1);
+                return;
+            }
+            log.error("Account unlock failed, held until the lease expires : {}", key, cause);
+        });
+    }
+
+    @Override
+    public void unlockAll(Collection<String> keys, boolean fair) {
+        long threadId = Thread.currentThread().getId();
+        List<CompletableFuture<Void>> unlocks = new ArrayList<>(keys.size());
+        for (String key : keys) {
+            unlocks.add(getLock(key, fair).unlockAsync(threadId).toCompletableFuture());
+        }
+        try {
+            CompletableFuture.allOf(unlocks.toArray(CompletableFuture[]::new)).join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    // 공정 락은 대기 순서를 Redis 리스트(redisson_lock_queue:{key})에 둔다
+    private RLock getLock(String key, boolean fair) {
+        Cache<String, RLock> cache = fair ? fairLocks : locks;
+        if (cache == null) {
+            return fair ? redissonClient.getFairLock(key) : redissonClient.getLock(key);
+        }
+        return cache.get(key, k -> fair ? redissonClient.getFairLock(k) : redissonClient.getLock(k));
+    }
+}
@@ -0,0 +1,86 @@
+package com.example.account_project.service;
+
+import com.example.account_project.Exception.AccountException;
+import com.example.account_project.dto.TransactionDto;
+import com.example.account_project.dto.UseBalance;
+import com.example.account_project.type.TransactionMode;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.*;
+
+/*
+ * 배치 잔액 사용
+ * 1. 요청에 나온 계좌들의 락을 계좌번호 순서로 한 번씩만 잡고
+ * 2. 하나의 트랜잭션에서 요청 순서대로 검증/차감한 뒤
+ * 3. 커밋이 끝나면 락을 한 번에 모두 푼다.
+ * 계좌번호 순서로 잡기 때문에 겹치는 계좌를 가진 배치끼리 서로를 기다리며 멈추지 않는다.
+ *
+ * 락은 LockAopAspect 와 같은 기준으로 잡는다.
+ * - ATOMIC, LEDGER : 조건부 UPDATE / 계좌 샤드 스레드가 동시성을 보장하므로 락을 잡지 않는다.
+ * - OPTIMISTIC     : 요청마다 따로 트랜잭션을 실행하고, 버전 충돌이면 그 요청만 다시 실행한다. (OptimisticRetry)
+ *                    다시 실행해도 충돌하면 그 요청만 실패로 돌려준다.
+ * - 나눈 계좌      : 계좌 락 대신 슬롯 행을 모두 잠그고 차감한다. (BalanceSlotService.debitLockingAllSlots)
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class TransactionBatchService {
+    private final LockService lockService;
+    private final TransactionService transactionService;
+    private final OptimisticRetry optimisticRetry;
+    private final BalanceSlotService balanceSlotService;
+
+    @Value("${account.transaction.mode:LOCK}")
+    private TransactionMode transactionMode = TransactionMode.LOCK;
+
+    public List<TransactionDto> useBalanceBatch(List<UseBalance.Request> requests) {
+        Set<String> accountNumbers = new TreeSet<>();
+        requests.forEach(request -> accountNumbers.add(request.getAccountNumber()));
+
+        if (transactionMode == TransactionMode.ATOMIC || transactionMode == TransactionMode.LEDGER) {
+            return transactionService.useBalanceBatch(requests, accountNumbers);
+        }
+        if (transactionMode == TransactionMode.OPTIMISTIC) {
+            return requests.stream().map(this::useBalanceOptimistically).toList();
+        }
+
+        Set<String> processableAccountNumbers = new HashSet<>();
+        Set<String> lockedAccountNumbers = new HashSet<>();
+        try {
+            for (String accountNumber : accountNumbers) {
+                if (transactionMode == TransactionMode.LOCK && balanceSlotService.isSharded(accountNumber)) {
+                    processableAccountNumbers.add(accountNumber);
+                    continue;
+                }
+                try {
+                    lockService.lock(accountNumber);
+                    lockedAccountNumbers.add(accountNumber);
+                    processableAccountNumbers.add(accountNumber);
+                } catch (AccountException e) {
+                    log.error("배치 잔액 사용 - 계좌 락 획득 실패 : {}", accountNumber);
+                }
+            }
+            return transactionService.useBalanceBatch(requests, processableAccountNumbers);
+        } finally {
+            lockService.unlockAll(lockedAccountNumbers);
+        }
+    }
+
+    /* 요청 하나를 트랜잭션 하나로 실행한다. 버전 충돌이 계속되면 그 요청만 실패로 돌려준다. */
+    private TransactionDto useBalanceOptimistically(UseBalance.Request request) {
+        try {
+            return optimisticRetry.execute(request.getAccountNumber(), () -> transactionService
+                    .useBalanceBatch(List.of(request), Set.of(request.getAccountNumber())).get(0));
+        } catch (AccountException e) {
+            log.error("배치 잔액 사용 실패 : {} {}", request.getAccountNumber(), e.getErrorCode());
+            return TransactionService.failedBatchTransaction(request);
+        } catch (RuntimeException | Error e) {
+            throw e;
+        } catch (Throwable e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
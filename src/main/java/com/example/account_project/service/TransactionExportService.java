@@ -0,0 +1,111 @@
+package com.example.account_project.service;
+
+import com.example.account_project.Exception.AccountException;
+import com.example.account_project.dto.TransactionDto;
+import com.example.account_project.repository.TransactionRepository;
+import com.example.account_project.type.ErrorCode;
+import com.example.account_project.type.ExportFormat;
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import jakarta.transaction.Transactional;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+/*
+ * 정산용 거래 내보내기
+ * DB 커서에서 한 건씩 읽어서 바로 응답에 쓰기 때문에 건수와 상관없이 메모리 사용량이 일정하다.
+ * 출력 버퍼가 찰 때만 응답으로 내보낸다.
+ */
+@Slf4j
+@Service
+public class TransactionExportService {
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final String CSV_HEADER =
+            "accountNumber,transactionType,transactionResultType,amount,balanceSnapshot,transactionId,transactedAt";
+
+    private final TransactionRepository transactionRepository;
+    private final ObjectMapper objectMapper;
+    private final ObjectWriter rowWriter;
+
+    public TransactionExportService(TransactionRepository transactionRepository, ObjectMapper objectMapper) {
+        this.transactionRepository = transactionRepository;
+        this.objectMapper = objectMapper;
+        // 건마다 flush 하지 않도록
+        this.rowWriter = objectMapper.writerFor(TransactionDto.class)
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+    }
+
+    @Transactional
+    public long export(LocalDateTime from, LocalDateTime to, ExportFormat format, OutputStream outputStream)
+            throws IOException {
+        if (!from.isBefore(to)) {
+            throw new AccountException(ErrorCode.INVALID_REQUEST);
+        }
+
+        long count;
+        try (Stream<TransactionDto> transactions = transactionRepository.streamForExport(from, to)) {
+            count = format == ExportFormat.CSV
+                    ? writeCsv(transactions.iterator(), outputStream)
+                    : writeNdjson(transactions.iterator(), outputStream);
+        }
+        log.info("Exported {} transactions [{}, {}) as {}", count, from, to, format);
+        return count;
+    }
+
+    private long writeNdjson(Iterator<TransactionDto> transactions, OutputStream outputStream) throws IOException {
+        JsonGenerator generator = objectMapper.getFactory()
+                .createGenerator(new BufferedOutputStream(outputStream, BUFFER_SIZE), JsonEncoding.UTF8);
+        generator.setRootValueSeparator(null);
+
+        long count = 0;
+        while (transactions.hasNext()) {
+            rowWriter.writeValue(generator, transactions.next());
+            generator.writeRaw('\n');
+            count++;
+        }
+        generator.flush();
+        return count;
+    }
+
+    private long writeCsv(Iterator<TransactionDto> transactions, OutputStream outputStream) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8), BUFFER_SIZE);
+        writer.write(CSV_HEADER);
+        writer.write('\n');
+
+        long count = 0;
+        while (transactions.hasNext()) {
+            TransactionDto transaction = transactions.next();
+            writer.write(csvValue(transaction.getAccountNumber()));
+            writer.write(',');
+            writer.write(csvValue(transaction.getTransactionType()));
+            writer.write(',');
+            writer.write(csvValue(transaction.getTransactionResultType()));
+            writer.write(',');
+            writer.write(csvValue(transaction.getAmount()));
+            writer.write(',');
+            writer.write(csvValue(transaction.getBalanceSnapshot()));
+            writer.write(',');
+            writer.write(csvValue(transaction.getTransactionId()));
+            writer.write(',');
+            writer.write(csvValue(transaction.getTransactedAt()));
+            writer.write('\n');
+            count++;
+        }
+        writer.flush();
+        return count;
+    }
+
+    // 계좌번호, enum, 숫자, 거래 id, 시간만 쓰기 때문에 따옴표 처리가 필요 없다.
+    private String csvValue(Object value) {
+        return value == null ? "" : value.toString();
+    }
+}
@@ -0,0 +1,79 @@
+package com.example.account_project.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/*
+ * 거래 id 발급 (32자리 소문자 16진수, 128bit)
+ * [48bit 밀리초 시각][16bit 노드 id][8bit 스트라이프][56bit 카운터]
+ * - 시각이 맨 앞이므로 문자열 정렬이 시간 순서와 같고, transaction_id 인덱스에는 뒤쪽으로만 추가된다.
+ * - 카운터는 스레드 id 로 고른 스트라이프마다 따로 두고, 스트라이프 번호를 id 에 넣어서 스트라이프끼리 겹치지 않는다.
+ *   (스레드들이 카운터 하나를 두고 경쟁하지 않음, 스트라이프는 캐시 라인을 같이 쓰지 않게 떨어뜨려 둔다)
+ * - 카운터는 시작할 때 스트라이프마다 임의의 값에서 출발해서 하나씩 올린다. (락 없음, SecureRandom 없음)
+ * - 노드가 여러 개면 account.transaction-id.node-id 로 겹치지 않게 준다.
+ *   주지 않으면 local/test 프로파일(또는 프로파일 없음)에서는 시작할 때 임의로 정하고, 그 밖의 프로파일에서는 시작하지 않는다.
+ * 16진수는 스레드별 버퍼에 쓰고 결과 문자열 하나만 만든다.
+ */
+@Slf4j
+@Component
+public class TransactionIdGenerator {
+    private static final byte[] HEX = "0123456789abcdef".getBytes(StandardCharsets.US_ASCII);
+    private static final Set<String> RANDOM_NODE_ID_PROFILES = Set.of("local", "test");
+    private static final int STRIPES = 64;
+    private static final int STRIPE_PADDING = 16; // long 16개 = 128 byte
+    private static final long COUNTER_MASK = (1L << 56) - 1;
+    private static final ThreadLocal<byte[]> BUFFER = ThreadLocal.withInitial(() -> new byte[32]);
+
+    private final long nodeId;
+    private final AtomicLongArray counters = new AtomicLongArray(STRIPES * STRIPE_PADDING);
+
+    @Autowired
+    public TransactionIdGenerator(@Value("${account.transaction-id.node-id:-1}") int nodeId,
+                                  Environment environment) {
+        this(nodeId >= 0 ? nodeId : randomNodeId(environment.getActiveProfiles()));
+    }
+
+    public TransactionIdGenerator(int nodeId) {
+        this.nodeId = nodeId & 0xFFFF;
+        for (int stripe = 0; stripe < STRIPES; stripe++) {
+            counters.set(stripe * STRIPE_PADDING, ThreadLocalRandom.current().nextLong());
+        }
+    }
+
+    public String nextId() {
+        int stripe = (int) Thread.currentThread().getId() & (STRIPES - 1);
+        long counter = counters.getAndIncrement(stripe * STRIPE_PADDING) & COUNTER_MASK;
+        byte[] id = BUFFER.get();
+        writeHex(id, 0, System.currentTimeMillis() << 16 | nodeId);
+        writeHex(id, 16, (long) stripe << 56 | counter);
+        return new String(id, 0, 32, StandardCharsets.ISO_8859_1);
+    }
+
+    /* 노드가 하나뿐인 로컬/테스트 실행에서만 노드 id 를 임의로 정한다. (운영에서 노드끼리 겹치면 거래 id 가 중복될 수 있음) */
+    private static int randomNodeId(String[] activeProfiles) {
+        for (String profile : activeProfiles) {
+            if (!RANDOM_NODE_ID_PROFILES.contains(profile)) {
+                throw new IllegalStateException("account.transaction-id.node-id must be set for profile " + profile
+                        + "; give each node a distinct id between 0 and 65535");
+            }
+        }
+        int nodeId = ThreadLocalRandom.current().nextInt(1 << 16);
+        log.warn("account.transaction-id.node-id is not set, using random node id {}", nodeId);
+        return nodeId;
+    }
+
+    private static void writeHex(byte[] target, int offset, long value) {
+        for (int i = offset + 15; i >= offset; i--) {
+            target[i] = HEX[(int) (value & 0xF)];
+            value >>>= 4;
+        }
+    }
+}
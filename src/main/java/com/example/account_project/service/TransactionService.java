@@ -4,22 +4,29 @@ import com.example.account_project.Exception.AccountException;
 import com.example.account_project.domain.Account;
 import com.example.account_project.domain.AccountUser;
 import com.example.account_project.domain.Transaction;
+import com.example.account_project.dto.FailedTransaction;
+import com.example.account_project.dto.JournalEntry;
+import com.example.account_project.dto.TransactionCursor;
 import com.example.account_project.dto.TransactionDto;
+import com.example.account_project.dto.TransactionHistoryDto;
+import com.example.account_project.dto.UseBalance;
 import com.example.account_project.repository.AccountRepository;
-import com.example.account_project.repository.AccountUserRepository;
 import com.example.account_project.repository.TransactionRepository;
 import com.example.account_project.type.AccountStatus;
 import com.example.account_project.type.ErrorCode;
+import com.example.account_project.type.TransactionMode;
 import com.example.account_project.type.TransactionResultType;
 import com.example.account_project.type.TransactionType;
+import io.micrometer.core.annotation.Timed;
 import jakarta.transaction.Transactional;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDateTime;
-import java.util.Objects;
-import java.util.UUID;
+import java.util.*;
 
 import static com.example.account_project.type.TransactionResultType.*;
 import static com.example.account_project.type.TransactionType.*;
@@ -29,9 +36,21 @@ import static com.example.account_project.type.TransactionType.*;
 @RequiredArgsConstructor
 
 public class TransactionService {
+    private static final LocalDateTime HISTORY_FROM = LocalDateTime.of(1970, 1, 1, 0, 0);
+    private static final int MAX_HISTORY_PAGE_SIZE = 100;
+
     private final TransactionRepository transactionRepository;
-    private final AccountUserRepository accountUserRepository;
+    private final AccountUserCache accountUserCache;
     private final AccountRepository accountRepository;
+    private final AccountNumberCache accountNumberCache;
+    private final AccountSummaryCache accountSummaryCache;
+    private final BalanceJournal balanceJournal;
+    private final LedgerEngine ledgerEngine;
+    private final TransactionIdGenerator transactionIdGenerator;
+    private final BalanceSlotService balanceSlotService;
+
+    @Value("${account.transaction.mode:LOCK}")
+    private TransactionMode transactionMode = TransactionMode.LOCK;
     /*  ============ 실패 응답 validateUseBalance 메소드 ===========
      * 1. 사용자가 없는 경우
      * 2. 계좌가 없는 경우
@@ -40,66 +59,322 @@ public class TransactionService {
      * 5. 거래금액이 잔액보다 큰 경우
      * 6. 거래금액이 너무 작거나 큰 경우*/
 
+    @Timed(value = "account.transaction.service", extraTags = {"operation", "useBalance"})
     @Transactional
     public TransactionDto useBalance(Long userId, String accountNumber, Long amount) {
-        AccountUser user = accountUserRepository.findById(userId)
+        if (transactionMode == TransactionMode.LEDGER) {
+            return useBalanceInLedger(userId, accountNumber, amount);
+        }
+        AccountUser user = accountUserCache.findById(userId)
                 .orElseThrow(() -> new AccountException(ErrorCode.USER_NOT_FOUND));
-        Account account = accountRepository.findByAccountNumber(accountNumber)
+        Account account = accountNumberCache.findByAccountNumber(accountNumber)
                 .orElseThrow(() -> new AccountException(ErrorCode.ACCOUNT_NOT_FOUND));
+        if (account.isBalanceSharded()) {
+            validateUseAccount(user, account);
+            Transaction transaction = saveAndGetTransaction(USE, SUCCESS, account, amount,
+                    balanceSlotService.debit(account, amount));
+            accountSummaryCache.evictAfterCommit(user.getId());
+            return TransactionDto.fromEntity(transaction);
+        }
+        if (transactionMode == TransactionMode.ATOMIC) {
+            Transaction transaction = saveAndGetTransaction(USE, SUCCESS, account, amount,
+                    debitAtomically(user, account, amount));
+            accountSummaryCache.evictAfterCommit(user.getId());
+            return TransactionDto.fromEntity(transaction);
+        }
+        if (transactionMode == TransactionMode.JOURNAL) {
+            validateUseAccount(user, account);
+            return debitJournaled(account, amount).toTransactionDto();
+        }
         validateUseBalance(user, account, amount);
 
         account.useBalance(amount);
+        accountSummaryCache.applyAfterCommit(account);
 
         return TransactionDto.fromEntity(saveAndGetTransaction(USE, SUCCESS, account, amount));
     }
 
-    private void validateUseBalance(AccountUser user, Account account, Long amount) {
+    /*  ============ ATOMIC 모드 잔액 차감 ===========
+     * 조건부 UPDATE 한 번으로 잔액 확인과 차감을 같이 해서, 계좌 락 없이도 동시 차감이 잔액을 넘지 않는다.
+     * UPDATE 가 행을 바꾸지 못했으면 읽어둔 계좌 상태로 실패 사유를 정한다.
+     * UPDATE 한 행은 커밋까지 이 트랜잭션이 잡고 있으므로 바로 다시 읽은 잔액이 이 거래의 잔액이다.
+     * 차감 후 잔액을 돌려준다.*/
+    private Long debitAtomically(AccountUser user, Account account, Long amount) {
         if (!Objects.equals(user.getId(), account.getAccountUser().getId())) {
             throw new AccountException(ErrorCode.USER_ACCOUNT_UN_MATCH);
         }
-        if (account.getAccountStatus() != AccountStatus.IN_USE) {
-            throw new AccountException(ErrorCode.ACCOUNT_ALREADY_UNREGISTERED);
+        if (accountRepository.debitIfSufficient(account.getId(), amount,
+                AccountStatus.IN_USE, LocalDateTime.now()) == 0) {
+            throw new AccountException(account.getAccountStatus() != AccountStatus.IN_USE
+                    ? ErrorCode.ACCOUNT_ALREADY_UNREGISTERED
+                    : ErrorCode.AMOUNT_EXCEED_BALANCE);
         }
+        return accountRepository.findBalanceById(account.getId());
+    }
+
+    /*  ============ LEDGER 모드 잔액 차감 ===========
+     * 사용자/계좌를 DB 에서 읽지 않고 LedgerEngine 샤드에서 검증과 차감을 한다.
+     * 계좌 없음/소유주 다름으로 실패하면, 기존과 같은 실패 사유를 주기 위해 그때만 사용자가 있는지 확인한다.*/
+    private TransactionDto useBalanceInLedger(Long userId, String accountNumber, Long amount) {
+        try {
+            return ledgerEngine.use(userId, accountNumber, amount, false).toTransactionDto();
+        } catch (AccountException e) {
+            if ((e.getErrorCode() == ErrorCode.ACCOUNT_NOT_FOUND || e.getErrorCode() == ErrorCode.USER_ACCOUNT_UN_MATCH)
+                    && !accountUserCache.exists(userId)) {
+                throw new AccountException(ErrorCode.USER_NOT_FOUND);
+            }
+            throw e;
+        }
+    }
+
+    /*  ============ JOURNAL 모드 잔액 차감 ===========
+     * DB 잔액에 아직 반영되지 않은 저널 변경분을 더한 잔액으로 검증하고, 저널이 fsync 된 뒤 돌려준다.
+     * 계좌와 거래 테이블에는 BalanceJournal 이 나중에 모아서 반영한다.*/
+    private JournalEntry debitJournaled(Account account, Long amount) {
+        return balanceJournal.append(account.getId(), balance -> {
+            if (balance < amount) {
+                throw new AccountException(ErrorCode.AMOUNT_EXCEED_BALANCE);
+            }
+            return buildJournalEntry(USE, SUCCESS, account, amount, -amount, balance - amount);
+        });
+    }
+
+    private JournalEntry buildJournalEntry(TransactionType transactionType, TransactionResultType transactionResultType,
+                                           Account account, Long amount, Long delta, Long balanceSnapshot) {
+        return JournalEntry.of(transactionIdGenerator.nextId(), transactionType, transactionResultType,
+                account.getId(), account.getAccountNumber(), amount, delta, balanceSnapshot);
+    }
+
+    private void validateUseBalance(AccountUser user, Account account, Long amount) {
+        validateUseAccount(user, account);
         if (account.getBalance() < amount) {
             throw new AccountException(ErrorCode.AMOUNT_EXCEED_BALANCE);
         }
     }
 
+    private void validateUseAccount(AccountUser user, Account account) {
+        if (!Objects.equals(user.getId(), account.getAccountUser().getId())) {
+            throw new AccountException(ErrorCode.USER_ACCOUNT_UN_MATCH);
+        }
+        if (account.getAccountStatus() != AccountStatus.IN_USE) {
+            throw new AccountException(ErrorCode.ACCOUNT_ALREADY_UNREGISTERED);
+        }
+    }
+
+    /*  ============ 실패 거래 일괄 저장 (FailedTransactionWriter) ===========
+     * 이미 저장된 거래 id 는 건너뛴다. (스필 파일을 다시 읽은 경우)
+     * 계좌가 없는 요청은 남길 계좌가 없으므로 건너뛴다.
+     * 저장한 건수를 돌려준다.*/
     @Transactional
-    public void saveFailedUseTransaction(String accountNumber, Long amount) {
-        Account account = accountRepository.findByAccountNumber(accountNumber)
-                .orElseThrow(() -> new AccountException(ErrorCode.ACCOUNT_NOT_FOUND));
+    public int saveFailedTransactions(List<FailedTransaction> failedTransactions) {
+        Set<String> existingTransactionIds = transactionRepository.findExistingTransactionIds(
+                failedTransactions.stream().map(FailedTransaction::getTransactionId).toList());
+        Map<String, Optional<Account>> accounts = new HashMap<>();
+        List<Transaction> transactions = new ArrayList<>(failedTransactions.size());
 
-        saveAndGetTransaction(USE, FAIL, account, amount);
+        for (FailedTransaction failedTransaction : failedTransactions) {
+            if (existingTransactionIds.contains(failedTransaction.getTransactionId())) {
+                continue;
+            }
+            Optional<Account> account = accounts.computeIfAbsent(
+                    failedTransaction.getAccountNumber(), accountNumberCache::findByAccountNumber);
+            if (account.isEmpty()) {
+                log.warn("실패 거래 저장 생략 - 계좌 없음 : {}", failedTransaction.getAccountNumber());
+                continue;
+            }
+            transactions.add(Transaction.builder()
+                    .transactionType(failedTransaction.getTransactionType())
+                    .transactionResultType(FAIL)
+                    .account(account.get())
+                    .amount(failedTransaction.getAmount())
+                    .balanceSnapshot(failedBalanceSnapshot(account.get()))
+                    .transactionId(failedTransaction.getTransactionId())
+                    .transactedAt(failedTransaction.getTransactedAt())
+                    .build());
+        }
+        transactionRepository.saveAll(transactions);
+        return transactions.size();
+    }
+
+    /* DB 잔액이 늦게 바뀌는 모드는 그 모드의 잔액을 쓴다.
+     * LEDGER 는 메모리 원장 잔액, JOURNAL 은 아직 DB 에 반영되지 않은 저널 변경분까지 더한 잔액 */
+    private Long failedBalanceSnapshot(Account account) {
+        if (transactionMode == TransactionMode.LEDGER) {
+            return ledgerEngine.balanceOf(account.getAccountNumber());
+        }
+        return currentBalance(account) + balanceJournal.pendingDelta(account.getId());
     }
 
     private Transaction saveAndGetTransaction(TransactionType transactionType, TransactionResultType transactionResultType, Account account, Long amount) {
+        return saveAndGetTransaction(transactionType, transactionResultType, account, amount, currentBalance(account));
+    }
+
+    private Transaction saveAndGetTransaction(TransactionType transactionType, TransactionResultType transactionResultType, Account account, Long amount, Long balanceSnapshot) {
+        return transactionRepository.save(buildTransaction(transactionType, transactionResultType, account, amount, balanceSnapshot));
+    }
+
+    private Transaction buildTransaction(TransactionType transactionType, TransactionResultType transactionResultType, Account account, Long amount) {
+        return buildTransaction(transactionType, transactionResultType, account, amount, currentBalance(account));
+    }
 
+    /* 나눈 계좌는 account.balance 가 0 이므로 슬롯 합계를 읽는다. */
+    private Long currentBalance(Account account) {
+        return account.isBalanceSharded() ? balanceSlotService.balanceOf(account) : account.getBalance();
+    }
+
+    private Transaction buildTransaction(TransactionType transactionType, TransactionResultType transactionResultType, Account account, Long amount, Long balanceSnapshot) {
+        return Transaction.builder()
+                .transactionType(transactionType)
+                .transactionResultType(transactionResultType)
+                .account(account)
+                .amount(amount)
+                .balanceSnapshot(balanceSnapshot)
+                .transactionId(transactionIdGenerator.nextId())
+                .transactedAt(LocalDateTime.now())
+                .build();
+    }
+
+    /*  ============ 배치 잔액 사용 ===========
+     * lockedAccountNumbers(락을 잡았거나 락이 필요 없는 계좌)의 요청만 처리하고, 나머지는 거래 기록 없이 실패로 돌려준다.
+     * 사용자/계좌는 배치 안에서 한 번씩만 조회하고,
+     * 성공/실패 거래는 모아서 saveAll 로 한 번에 저장한다. (hibernate.jdbc.batch_size)
+     * 결과는 요청과 같은 순서로 돌려준다.
+     * JOURNAL, LEDGER 모드에서는 성공/실패 거래를 한 건씩 저널에 쓴다.*/
+    @Transactional
+    public List<TransactionDto> useBalanceBatch(List<UseBalance.Request> requests, Set<String> lockedAccountNumbers) {
+        Map<Long, Optional<AccountUser>> users = new HashMap<>();
+        Map<String, Optional<Account>> accounts = new HashMap<>();
+        if (transactionMode == TransactionMode.LEDGER) {
+            return requests.stream()
+                    .map(request -> lockedAccountNumbers.contains(request.getAccountNumber())
+                            ? useBalanceInLedgerBatch(request)
+                            : failedBatchTransaction(request))
+                    .toList();
+        }
+        if (transactionMode == TransactionMode.JOURNAL) {
+            return requests.stream()
+                    .map(request -> (lockedAccountNumbers.contains(request.getAccountNumber())
+                            ? accounts.computeIfAbsent(request.getAccountNumber(), accountNumberCache::findByAccountNumber)
+                            : Optional.<Account>empty())
+                            .map(account -> useBalanceJournaledInBatch(users, account, request))
+                            .orElseGet(() -> failedBatchTransaction(request)))
+                    .toList();
+        }
+        List<Transaction> transactions = new ArrayList<>(requests.size());
 
-        return transactionRepository.save(
-                Transaction.builder()
-                        .transactionType(transactionType)
-                        .transactionResultType(transactionResultType)
-                        .account(account)
-                        .amount(amount)
-                        .balanceSnapshot(account.getBalance())
-                        .transactionId(UUID.randomUUID().toString().replace("-", ""))
-                        .transactedAt(LocalDateTime.now())
-                        .build()
-        );
+        for (UseBalance.Request request : requests) {
+            Account account = lockedAccountNumbers.contains(request.getAccountNumber())
+                    ? accounts.computeIfAbsent(request.getAccountNumber(), accountNumberCache::findByAccountNumber)
+                    .orElse(null)
+                    : null;
+            transactions.add(account == null ? null : useBalanceInBatch(users, account, request));
+        }
+        transactionRepository.saveAll(transactions.stream().filter(Objects::nonNull).toList());
+
+        List<TransactionDto> results = new ArrayList<>(requests.size());
+        for (int i = 0; i < requests.size(); i++) {
+            Transaction transaction = transactions.get(i);
+            results.add(transaction != null
+                    ? TransactionDto.fromEntity(transaction)
+                    : failedBatchTransaction(requests.get(i)));
+        }
+        return results;
+    }
+
+    private Transaction useBalanceInBatch(Map<Long, Optional<AccountUser>> users, Account account, UseBalance.Request request) {
+        try {
+            AccountUser user = users.computeIfAbsent(request.getUserId(), accountUserCache::findById)
+                    .orElseThrow(() -> new AccountException(ErrorCode.USER_NOT_FOUND));
+            if (account.isBalanceSharded()) {
+                validateUseAccount(user, account);
+                Transaction transaction = buildTransaction(USE, SUCCESS, account, request.getAmount(),
+                        balanceSlotService.debitLockingAllSlots(account, request.getAmount()));
+                accountSummaryCache.evictAfterCommit(user.getId());
+                return transaction;
+            }
+            if (transactionMode == TransactionMode.ATOMIC) {
+                Transaction transaction = buildTransaction(USE, SUCCESS, account, request.getAmount(),
+                        debitAtomically(user, account, request.getAmount()));
+                accountSummaryCache.evictAfterCommit(user.getId());
+                return transaction;
+            }
+            validateUseBalance(user, account, request.getAmount());
+
+            account.useBalance(request.getAmount());
+            accountSummaryCache.applyAfterCommit(account);
+
+            return buildTransaction(USE, SUCCESS, account, request.getAmount());
+        } catch (AccountException e) {
+            log.error("배치 잔액 사용 실패 : {} {}", request.getAccountNumber(), e.getErrorCode());
+            return buildTransaction(USE, FAIL, account, request.getAmount());
+        }
+    }
+
+    private TransactionDto useBalanceJournaledInBatch(Map<Long, Optional<AccountUser>> users, Account account, UseBalance.Request request) {
+        try {
+            AccountUser user = users.computeIfAbsent(request.getUserId(), accountUserCache::findById)
+                    .orElseThrow(() -> new AccountException(ErrorCode.USER_NOT_FOUND));
+            validateUseAccount(user, account);
+
+            return debitJournaled(account, request.getAmount()).toTransactionDto();
+        } catch (AccountException e) {
+            log.error("배치 잔액 사용 실패 : {} {}", request.getAccountNumber(), e.getErrorCode());
+            return balanceJournal.append(account.getId(), balance ->
+                    buildJournalEntry(USE, FAIL, account, request.getAmount(), 0L, balance)).toTransactionDto();
+        }
     }
 
+    private TransactionDto useBalanceInLedgerBatch(UseBalance.Request request) {
+        try {
+            return ledgerEngine.use(request.getUserId(), request.getAccountNumber(), request.getAmount(), true)
+                    .toTransactionDto();
+        } catch (AccountException e) {
+            log.error("배치 잔액 사용 실패 : {} {}", request.getAccountNumber(), e.getErrorCode());
+            return failedBatchTransaction(request);
+        }
+    }
+
+    static TransactionDto failedBatchTransaction(UseBalance.Request request) {
+        return TransactionDto.builder()
+                .accountNumber(request.getAccountNumber())
+                .transactionType(USE)
+                .transactionResultType(FAIL)
+                .amount(request.getAmount())
+                .build();
+    }
+
+    @Timed(value = "account.transaction.service", extraTags = {"operation", "cancelBalance"})
+    @Transactional
     public TransactionDto cancelBalance(String transactionId, String accountNumber, Long amount) {
         Transaction transaction = transactionRepository.findByTransactionId(transactionId)
                 .orElseThrow(() -> new AccountException(ErrorCode.TRANSACTION_NOT_FOUND));
 
-        Account account = accountRepository.findByAccountNumber(accountNumber)
+        Account account = accountNumberCache.findByAccountNumber(accountNumber)
                 .orElseThrow(() -> new AccountException(ErrorCode.ACCOUNT_NOT_FOUND));
 
         validateCancelBalance(transaction, account, amount);
 
+        if (account.isBalanceSharded()) {
+            Long balanceSnapshot = balanceSlotService.credit(account, amount);
+            accountSummaryCache.evictAfterCommit(account.getAccountUser().getId());
+            return TransactionDto.fromEntity(saveAndGetTransaction(CANCEL, SUCCESS, account, amount, balanceSnapshot));
+        }
+        if (transactionMode == TransactionMode.ATOMIC) {
+            accountRepository.credit(account.getId(), amount, LocalDateTime.now());
+            accountSummaryCache.evictAfterCommit(account.getAccountUser().getId());
+            return TransactionDto.fromEntity(saveAndGetTransaction(CANCEL, SUCCESS, account, amount,
+                    accountRepository.findBalanceById(account.getId())));
+        }
+        if (transactionMode == TransactionMode.LEDGER) {
+            return ledgerEngine.cancel(accountNumber, amount).toTransactionDto();
+        }
+        if (transactionMode == TransactionMode.JOURNAL) {
+            return balanceJournal.append(account.getId(), balance ->
+                    buildJournalEntry(CANCEL, SUCCESS, account, amount, amount, balance + amount)).toTransactionDto();
+        }
         account.setBalance(account.getBalance()+amount);
         accountRepository.save(account);
+        accountSummaryCache.applyAfterCommit(account);
 
         return TransactionDto.fromEntity(saveAndGetTransaction(CANCEL, SUCCESS, account, amount));
     }
@@ -117,16 +392,41 @@ public class TransactionService {
         }
     }
 
+    public TransactionDto queryTransaction(String transactionId) {
+
+        return transactionRepository.findDtoByTransactionId(transactionId)
+                .orElseThrow(()->new AccountException(ErrorCode.TRANSACTION_NOT_FOUND));
+    }
+
+    /*  ============ 계좌 거래내역 조회 ===========
+     * 최신순, 페이지 크기만큼 돌려주고 다음 페이지가 있으면 nextCursor 를 같이 준다.
+     * 다음 페이지가 있는지 알기 위해 size + 1 개를 읽는다.
+     * from 포함, to 미포함*/
     @Transactional
-    public void saveFailedCancelTransaction(String accountNumber, Long amount) {
-        Account account = accountRepository.findByAccountNumber(accountNumber)
+    public TransactionHistoryDto getTransactionHistory(String accountNumber,
+                                                       TransactionType transactionType,
+                                                       TransactionResultType transactionResultType,
+                                                       LocalDateTime from, LocalDateTime to,
+                                                       String cursor, int size) {
+        if (size < 1 || size > MAX_HISTORY_PAGE_SIZE) {
+            throw new AccountException(ErrorCode.INVALID_REQUEST);
+        }
+        Account account = accountNumberCache.findByAccountNumber(accountNumber)
                 .orElseThrow(() -> new AccountException(ErrorCode.ACCOUNT_NOT_FOUND));
-        saveAndGetTransaction(CANCEL, FAIL, account, amount);
-    }
+        TransactionCursor start = cursor != null ? TransactionCursor.decode(cursor) : TransactionCursor.first(to);
 
-    public TransactionDto queryTransaction(String transactionId) {
+        List<Transaction> transactions = transactionRepository.findHistory(account.getId(),
+                transactionType, transactionResultType,
+                from != null ? from : HISTORY_FROM,
+                start.getTransactedAt(), start.getId(),
+                PageRequest.of(0, size + 1));
+
+        boolean hasNext = transactions.size() > size;
+        List<Transaction> page = hasNext ? transactions.subList(0, size) : transactions;
 
-        return TransactionDto.fromEntity(transactionRepository.findByTransactionId(transactionId)
-                .orElseThrow(()->new AccountException(ErrorCode.TRANSACTION_NOT_FOUND)));
+        return TransactionHistoryDto.builder()
+                .transactions(page.stream().map(TransactionDto::fromEntity).toList())
+                .nextCursor(hasNext ? TransactionCursor.after(page.get(size - 1)).encode() : null)
+                .build();
     }
 }
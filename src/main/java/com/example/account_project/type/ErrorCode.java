@@ -19,7 +19,10 @@ public enum ErrorCode {
     ACCOUNT_ALREADY_UNREGISTERED("해당 계좌는 이미 해지되었습니다."),
     BALANCE_NOT_EMPTY("잔액이 있는 계좌는 해지할 수 없습니다."),
     MAX_ACCOUNT_PER_USER_10("사용자 최대 계좌는 10개입니다."),
-    ACCOUNT_NOT_FOUND("계좌가 없습니다.");
+    ACCOUNT_NUMBER_EXHAUSTED("발급 가능한 계좌번호가 없습니다."),
+    ACCOUNT_NOT_FOUND("계좌가 없습니다."),
+    IDEMPOTENCY_KEY_REUSED("같은 멱등 키로 다른 요청을 보냈습니다."),
+    REQUEST_IN_PROGRESS("같은 요청을 처리하고 있습니다. 잠시 후 다시 시도해주세요.");
 
     private final String description;
 }
@@ -0,0 +1,13 @@
+package com.example.account_project.type;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@Getter
+@AllArgsConstructor
+public enum ExportFormat {
+    NDJSON("application/x-ndjson"), //한 줄에 거래 하나 (JSON)
+    CSV("text/csv");
+
+    private final String contentType;
+}
@@ -0,0 +1,12 @@
+package com.example.account_project.type;
+
+/*
+ * 계좌 락을 잡는 방식 (@AccountLock mode)
+ * WAIT      : tryLockTime 동안 기다린다. 풀리면 먼저 시도한 쪽이 아니라 먼저 닿은 쪽이 가져간다.
+ * FAIL_FAST : 기다리지 않는다. 락이 잡혀 있으면 바로 ACCOUNT_TRANSACTION_LOCK
+ * FAIR      : tryLockTime 동안 기다리고, 기다린 순서(FIFO)대로 가져간다. 요청이 몰리는 계좌의 꼬리 지연을 줄인다.*/
+public enum LockMode {
+    WAIT,
+    FAIL_FAST,
+    FAIR
+}
@@ -0,0 +1,16 @@
+package com.example.account_project.type;
+
+/*
+ * 잔액 변경 방식 (account.transaction.mode)
+ * LOCK       : 계좌 분산 락을 잡고, 계좌를 읽어서 검증 후 dirty checking 으로 저장
+ * ATOMIC     : 락 없이 조건부 UPDATE 한 번으로 잔액을 바꾸고, 바뀐 행 수로 성공/실패를 판단
+ * OPTIMISTIC : 락 없이 LOCK 과 같은 방식으로 저장하고, 버전 충돌이 나면 다시 시도
+ * JOURNAL    : 계좌 락을 잡고, 잔액 변경을 로컬 저널에 fsync 한 뒤 응답하고 DB 에는 나중에 모아서 반영
+ * LEDGER     : 락 없이 계좌 샤드를 맡은 스레드가 메모리에서 잔액을 바꾸고, 저널은 JOURNAL 과 같이 쓴다*/
+public enum TransactionMode {
+    LOCK,
+    ATOMIC,
+    OPTIMISTIC,
+    JOURNAL,
+    LEDGER
+}
@@ -0,0 +1,58 @@
+package com.example.account_project.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.embedded.tomcat.TomcatProtocolHandlerCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.concurrent.Executors;
+
+/*
+ * 가상 스레드 실행 모드 (-Pjava21 빌드 + account.threads.virtual=true)
+ * Tomcat 요청마다 가상 스레드를 만들어서, 락 대기(RLock.tryLock 최대 1초) 중에
+ * 플랫폼 스레드 풀(기본 200개)이 바닥나지 않게 한다.
+ * LockAopAspect 가 감싸는 컨트롤러 메소드도 요청 스레드에서 실행되므로 같이 가상 스레드에서 돈다.
+ *
+ * - 락 대기   : Redisson 세마포어/CompletableFuture, LocalLockBackend 의 ReentrantLock/Condition 이라
+ *              synchronized 블록이 없어서 캐리어 스레드가 고정되지 않는다.
+ * - JDBC     : H2 2.1 은 JDBC 호출을 synchronized (session) 안에서 실행하므로, DB 호출과 행 잠금 대기 동안
+ *              캐리어 스레드가 고정된다. (JDK 21) 커넥션 풀 크기가 동시에 고정되는 캐리어 수의 상한이므로
+ *              풀 크기를 캐리어 수 - 1 이하로 줄여서 DB 를 기다리지 않는 요청이 돌 캐리어를 남긴다.
+ *              DB 를 오래 기다리는 요청이 많으면 가상 스레드로 바꿔도 처리량은 풀 크기에서 막힌다.
+ */
+@Slf4j
+@Configuration
+@ConditionalOnProperty(name = "account.threads.virtual", havingValue = "true")
+public class VirtualThreadConfiguration {
+    private static final int MIN_POOL_SIZE = 2;
+
+    @Bean
+    public TomcatProtocolHandlerCustomizer<?> virtualThreadExecutorCustomizer() {
+        return protocolHandler -> protocolHandler.setExecutor(
+                Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("http-vt-", 0).factory()));
+    }
+
+    /* 풀은 처음 커넥션을 빌릴 때 만들어지므로, 설정이 바인딩된 뒤(초기화 후)에 크기를 줄인다. */
+    @Bean
+    public static BeanPostProcessor virtualThreadConnectionPoolLimiter() {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof HikariDataSource dataSource) {
+                    int carriers = Integer.getInteger("jdk.virtualThreadScheduler.parallelism",
+                            Runtime.getRuntime().availableProcessors());
+                    int limit = Math.max(MIN_POOL_SIZE, carriers - 1);
+                    if (dataSource.getMaximumPoolSize() < 1 || dataSource.getMaximumPoolSize() > limit) {
+                        log.info("Limiting connection pool to {} for {} virtual thread carriers (JDBC pins carriers)",
+                                limit, carriers);
+                        dataSource.setMaximumPoolSize(limit);
+                    }
+                }
+                return bean;
+            }
+        };
+    }
+}
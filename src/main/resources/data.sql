@@ -1,7 +0,0 @@
-INSERT INTO  account_user(id,name,created_at,updated_at)
-VALUES (1,'pororo',now(),now());
-
-INSERT INTO  account_user(id,name,created_at,updated_at)
-VALUES (2,'luffy',now(),now());
-INSERT INTO  account_user(id,name,created_at,updated_at)
-VALUES (3,'원피스',now(),now());
\ No newline at end of file
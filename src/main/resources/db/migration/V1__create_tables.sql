@@ -0,0 +1,54 @@
+-- 엔티티와 같은 구조 (spring.jpa.hibernate.ddl-auto=validate 로 확인)
+-- id 는 Hibernate 기본 시퀀스 (<테이블>_seq, allocationSize 50)
+
+create sequence account_user_seq start with 1 increment by 50;
+create sequence account_seq start with 1 increment by 50;
+create sequence transaction_seq start with 1 increment by 50;
+
+create table account_user
+(
+    id         bigint       not null,
+    name       varchar(255),
+    created_at timestamp(6),
+    updated_at timestamp(6),
+    primary key (id)
+);
+
+create table account
+(
+    id               bigint       not null,
+    account_user_id  bigint,
+    account_number   varchar(255),
+    account_status   varchar(20),
+    balance          bigint,
+    version          bigint,
+    registered_at    timestamp(6),
+    unregistered_at  timestamp(6),
+    created_at       timestamp(6),
+    updated_at       timestamp(6),
+    primary key (id),
+    constraint fk_account_account_user foreign key (account_user_id) references account_user (id)
+);
+
+create table transaction
+(
+    id                      bigint       not null,
+    transaction_type        varchar(20),
+    transaction_result_type varchar(20),
+    account_id              bigint,
+    amount                  bigint,
+    balance_snapshot        bigint,
+    transaction_id          varchar(255),
+    transacted_at           timestamp(6),
+    created_at              timestamp(6),
+    updated_at              timestamp(6),
+    primary key (id),
+    constraint fk_transaction_account foreign key (account_id) references account (id)
+);
+
+create table account_number_sequence
+(
+    name       varchar(255) not null,
+    next_value bigint,
+    primary key (name)
+);
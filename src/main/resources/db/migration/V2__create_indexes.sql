@@ -0,0 +1,11 @@
+-- 계좌번호로 계좌 찾기 (잔액 사용/취소, 계좌 해지)
+create unique index ux_account_account_number on account (account_number);
+
+-- 거래 id 로 거래 찾기 (잔액 사용 취소, 거래 확인), 거래 id 중복 방지
+create unique index ux_transaction_transaction_id on transaction (transaction_id);
+
+-- 계좌 거래내역 (최신순 커서 페이지)
+create index ix_transaction_account_transacted_at on transaction (account_id, transacted_at, id);
+
+-- 기간별 거래 내보내기
+create index ix_transaction_transacted_at on transaction (transacted_at, id);
@@ -0,0 +1,24 @@
+-- 잔액 슬롯 (몰리는 계좌의 잔액을 여러 행으로 나눠서, 슬롯마다 따로 잠기게 한다)
+-- balance_slots 가 null 이면 나누지 않은 계좌, 나눈 계좌는 account.balance 가 0 이고 잔액은 슬롯 합계다
+
+alter table account add column balance_slots integer;
+
+create sequence account_balance_slot_seq start with 1 increment by 50;
+
+create table account_balance_slot
+(
+    id         bigint       not null,
+    account_id bigint,
+    slot_no    integer,
+    balance    bigint,
+    created_at timestamp(6),
+    updated_at timestamp(6),
+    primary key (id)
+);
+
+-- 계좌 + 슬롯 번호로 차감/적립, 계좌별 합계
+-- 외래키는 인덱스를 만든 뒤에 걸어서 이 인덱스를 같이 쓰게 한다
+create unique index ux_account_balance_slot_account_slot on account_balance_slot (account_id, slot_no);
+
+alter table account_balance_slot
+    add constraint fk_account_balance_slot_account foreign key (account_id) references account (id);
@@ -0,0 +1,7 @@
+-- 사용자별 계좌 수 (해지한 계좌 포함, 계좌 10개 제한)
+-- 계좌를 만들 때 10개보다 적을 때만 조건부 UPDATE 로 늘리고, 그 행 잠금을 커밋까지 들고 있는다
+
+alter table account_user add column account_count integer default 0 not null;
+
+update account_user u
+set account_count = (select count(*) from account a where a.account_user_id = u.id);
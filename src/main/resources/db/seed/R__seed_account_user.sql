@@ -0,0 +1,12 @@
+-- 로컬/테스트용 초기 데이터 (spring.flyway.locations 에 classpath:db/seed 가 있을 때만)
+merge into account_user (id, name, created_at, updated_at) key (id)
+values (1, 'pororo', now(), now());
+
+merge into account_user (id, name, created_at, updated_at) key (id)
+values (2, 'luffy', now(), now());
+
+merge into account_user (id, name, created_at, updated_at) key (id)
+values (3, '원피스', now(), now());
+
+merge into account_number_sequence (name, next_value) key (name)
+values ('ACCOUNT_NUMBER', 1000000000);
@@ -3,7 +3,7 @@ package com.example.account_project;
 import org.junit.jupiter.api.Test;
 import org.springframework.boot.test.context.SpringBootTest;
 
-@SpringBootTest
+@SpringBootTest(properties = "account.failed-transaction.spill-file=build/failed-transactions/context-loads.log")
 class AccountProjectApplicationTests {
 
     @Test
@@ -0,0 +1,159 @@
+package com.example.account_project;
+
+import com.example.account_project.service.AccountService;
+import com.example.account_project.service.LatencyInjector;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/*
+ * 동시에 처리 중인 잔액 사용 요청 수 측정 (./gradlew loadTest, 가상 스레드는 gradle loadTest -Pjava21)
+ * 계좌마다 하나씩 DEBIT_COUNT 개의 요청을 한 번에 보내고, 요청마다 락을 잡은 채로 HOLD_MILLIS 동안 기다리게 한다.
+ * 플랫폼 스레드 풀이면 동시에 처리되는 요청 수가 스레드 수(200)를 넘지 못하고,
+ * 가상 스레드면 요청 수만큼 동시에 처리된다.
+ */
+@Tag("load")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "server.tomcat.threads.max=" + InFlightDebitLoadTest.PLATFORM_THREADS,
+        "spring.redis.port=6394",
+        "spring.datasource.url=jdbc:h2:mem:load-test",
+        "account.failed-transaction.spill-file=build/failed-transactions/load-test.log",
+        "spring.jpa.properties.hibernate.show_sql=false",
+        "logging.level.root=WARN",
+        "logging.level.com.example.account_project.InFlightDebitLoadTest=INFO"
+})
+class InFlightDebitLoadTest {
+    private static final Logger log = LoggerFactory.getLogger(InFlightDebitLoadTest.class);
+    static final int PLATFORM_THREADS = 200;
+    private static final int DEBIT_COUNT = 1_000;
+    private static final long HOLD_MILLIS = 500L;
+    private static final long USER_ID_BASE = 1_000_000L;
+
+    @LocalServerPort
+    private int port;
+    @Value("${account.threads.virtual:false}")
+    private boolean virtualThreads;
+    @Autowired
+    private AccountService accountService;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private InFlightCounter inFlightCounter;
+
+    @TestConfiguration
+    static class LoadTestConfiguration {
+        @Bean
+        @Primary
+        InFlightCounter inFlightCounter() {
+            return new InFlightCounter();
+        }
+    }
+
+    /* 락을 잡은 채로 기다리는 동안 동시에 몇 개의 요청이 들어와 있는지 센다 */
+    static class InFlightCounter extends LatencyInjector {
+        private final AtomicInteger inFlight = new AtomicInteger();
+        private final AtomicInteger peak = new AtomicInteger();
+
+        InFlightCounter() {
+            super(HOLD_MILLIS);
+        }
+
+        @Override
+        public void onLockHeld(String accountNumber) throws InterruptedException {
+            peak.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+            try {
+                super.onLockHeld(accountNumber);
+            } finally {
+                inFlight.decrementAndGet();
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("동시에 처리 중인 잔액 사용 요청 수")
+    void inFlightDebits() throws Exception {
+        //given
+        List<String> accountNumbers = createAccounts();
+        ExecutorService clientExecutor = Executors.newFixedThreadPool(16);
+        HttpClient httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .executor(clientExecutor)
+                .build();
+
+        //when
+        long startedAt = System.nanoTime();
+        List<CompletableFuture<HttpResponse<String>>> responses = new ArrayList<>(DEBIT_COUNT);
+        for (int i = 0; i < DEBIT_COUNT; i++) {
+            responses.add(httpClient.sendAsync(useBalanceRequest(USER_ID_BASE + i, accountNumbers.get(i)),
+                    HttpResponse.BodyHandlers.ofString()));
+        }
+        CompletableFuture.allOf(responses.toArray(CompletableFuture[]::new)).get(2, TimeUnit.MINUTES);
+        long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startedAt);
+        clientExecutor.shutdownNow();
+
+        //then
+        long succeeded = responses.stream()
+                .map(CompletableFuture::join)
+                .filter(response -> response.statusCode() == 200 && !response.body().contains("errorCode"))
+                .count();
+        int peak = inFlightCounter.peak.get();
+        log.info("[{}] debits={} succeeded={} peakInFlight={} elapsed={}ms",
+                virtualThreads ? "virtual threads" : PLATFORM_THREADS + " platform threads",
+                DEBIT_COUNT, succeeded, peak, elapsedMillis);
+
+        assertEquals(DEBIT_COUNT, succeeded);
+        if (virtualThreads) {
+            assertTrue(peak > PLATFORM_THREADS);
+        } else {
+            assertTrue(peak <= PLATFORM_THREADS);
+        }
+    }
+
+    private List<String> createAccounts() {
+        List<Object[]> users = new ArrayList<>(DEBIT_COUNT);
+        for (long id = USER_ID_BASE; id < USER_ID_BASE + DEBIT_COUNT; id++) {
+            users.add(new Object[]{id, "load" + id});
+        }
+        jdbcTemplate.batchUpdate(
+                "insert into account_user(id, name, created_at, updated_at) values (?, ?, now(), now())", users);
+
+        List<String> accountNumbers = new ArrayList<>(DEBIT_COUNT);
+        for (int i = 0; i < DEBIT_COUNT; i++) {
+            accountNumbers.add(accountService.createAccount(USER_ID_BASE + i, 10_000L).getAccountNumber());
+        }
+        return accountNumbers;
+    }
+
+    private HttpRequest useBalanceRequest(long userId, String accountNumber) {
+        return HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/transaction/use"))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(
+                        "{\"userId\":" + userId + ",\"accountNumber\":\"" + accountNumber + "\",\"amount\":100}"))
+                .build();
+    }
+}
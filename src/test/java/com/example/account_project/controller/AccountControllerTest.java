@@ -7,6 +7,7 @@ import com.example.account_project.dto.CreateAccount;
 import com.example.account_project.dto.DeleteAccount;
 import com.example.account_project.type.AccountStatus;
 import com.example.account_project.service.AccountService;
+import com.example.account_project.service.BalanceSlotService;
 import com.example.account_project.type.ErrorCode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.Test;
@@ -32,6 +33,8 @@ import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.
 class AccountControllerTest {
     @MockBean
     private AccountService accountService;
+    @MockBean
+    private BalanceSlotService balanceSlotService;
     @Autowired
     private MockMvc mockMvc;
     @Autowired
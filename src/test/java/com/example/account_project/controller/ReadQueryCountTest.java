@@ -0,0 +1,111 @@
+package com.example.account_project.controller;
+
+import com.example.account_project.dto.AccountDto;
+import com.example.account_project.repository.AccountRepository;
+import com.example.account_project.service.AccountService;
+import com.example.account_project.service.TransactionService;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/* 조회 API 마다 실행되는 SQL 수 확인 (연관관계 지연 로딩 + DTO 조회) */
+@SpringBootTest(properties = {
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "spring.jpa.properties.hibernate.show_sql=false",
+        "spring.redis.port=6393",
+        "spring.datasource.url=jdbc:h2:mem:read-query-count",
+        "account.failed-transaction.spill-file=build/failed-transactions/read-query-count.log"
+})
+@AutoConfigureMockMvc
+class ReadQueryCountTest {
+    private static final long USER_ID = 2L;
+
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private AccountService accountService;
+    @Autowired
+    private TransactionService transactionService;
+    @Autowired
+    private AccountRepository accountRepository;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+    private AccountDto account;
+    private String transactionId;
+    private Long accountId;
+
+    @BeforeEach
+    void setUp() {
+        account = accountService.createAccount(USER_ID, 10000L);
+        transactionId = transactionService.useBalance(USER_ID, account.getAccountNumber(), 1000L)
+                .getTransactionId();
+        accountId = accountRepository.findByAccountNumber(account.getAccountNumber()).orElseThrow().getId();
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @Test
+    @DisplayName("거래 확인 - SELECT 1번")
+    void queryTransaction() throws Exception {
+        //when
+        mockMvc.perform(get("/transaction/" + transactionId))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.accountNumber").value(account.getAccountNumber()));
+        //then
+        assertEquals(1, statistics.getPrepareStatementCount());
+        assertEquals(0, statistics.getEntityLoadCount());
+    }
+
+    @Test
+    @DisplayName("사용자 계좌 목록 - 요약 캐시에 있으면 SELECT 0번")
+    void getAccountByUserId() throws Exception {
+        //given
+        accountService.getAccountByUserId(USER_ID);
+        statistics.clear();
+        //when
+        mockMvc.perform(get("/account?user_id=" + USER_ID))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].accountNumber").exists());
+        //then
+        assertEquals(0, statistics.getPrepareStatementCount());
+        assertEquals(0, statistics.getEntityLoadCount());
+    }
+
+    @Test
+    @DisplayName("계좌 생성 - 요약 캐시에 있으면 계좌 수를 세지 않고 계좌 수 UPDATE 1번 + 계좌 INSERT 1번")
+    void createAccount() {
+        //given
+        accountService.getAccountByUserId(USER_ID);
+        statistics.clear();
+        //when
+        accountService.createAccount(USER_ID, 0L);
+        //then
+        assertEquals(2, statistics.getPrepareStatementCount());
+        assertEquals(0, statistics.getEntityLoadCount());
+    }
+
+    @Test
+    @DisplayName("계좌 조회 - 사용자까지 조인해서 SELECT 1번")
+    void getAccount() throws Exception {
+        //when
+        mockMvc.perform(get("/account/" + accountId))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.accountUser.id").value(USER_ID));
+        //then
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+}
@@ -1,9 +1,17 @@
 package com.example.account_project.controller;
 
+import com.example.account_project.Exception.AccountException;
 import com.example.account_project.dto.CancelBalance;
 import com.example.account_project.dto.TransactionDto;
+import com.example.account_project.dto.TransactionHistoryDto;
 import com.example.account_project.dto.UseBalance;
+import com.example.account_project.dto.UseBalanceBatch;
+import com.example.account_project.service.FailedTransactionWriter;
+import com.example.account_project.service.TransactionBatchService;
+import com.example.account_project.service.TransactionExportService;
 import com.example.account_project.service.TransactionService;
+import com.example.account_project.type.ErrorCode;
+import com.example.account_project.type.ExportFormat;
 import com.example.account_project.type.TransactionResultType;
 import com.example.account_project.type.TransactionType;
 import com.fasterxml.jackson.core.JsonProcessingException;
@@ -16,12 +24,15 @@ import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 
 import java.time.LocalDateTime;
+import java.util.Arrays;
 
 import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.verify;
 
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultHandlers.print;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
@@ -30,6 +41,15 @@ class TransactionControllerTest {
     @MockBean
     private TransactionService transactionService;
 
+    @MockBean
+    private TransactionBatchService transactionBatchService;
+
+    @MockBean
+    private TransactionExportService transactionExportService;
+
+    @MockBean
+    private FailedTransactionWriter failedTransactionWriter;
+
     @Autowired
     private MockMvc mockMvc;
 
@@ -62,6 +82,57 @@ class TransactionControllerTest {
                 .andExpect(jsonPath("$.amount").value(12345));
     }
 
+    @Test
+    void failUseBalance_enqueueFailedTransaction() throws Exception {
+        //given
+        given(transactionService.useBalance(anyLong(), anyString(), anyLong()))
+                .willThrow(new AccountException(ErrorCode.AMOUNT_EXCEED_BALANCE));
+        //when
+        //then
+        mockMvc.perform(post("/transaction/use")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(
+                                new UseBalance.Request(1L, "2000000000", 3000L)
+                        ))
+                ).andDo(print())
+                .andExpect(jsonPath("$.errorCode").value("AMOUNT_EXCEED_BALANCE"));
+        verify(failedTransactionWriter).enqueue(TransactionType.USE, "2000000000", 3000L);
+    }
+
+    @Test
+    void successUseBalanceBatch() throws Exception {
+        //given
+        given(transactionBatchService.useBalanceBatch(anyList()))
+                .willReturn(Arrays.asList(
+                        TransactionDto.builder()
+                                .accountNumber("1000000000")
+                                .transactedAt(LocalDateTime.now())
+                                .amount(1000L)
+                                .transactionId("transactionId1")
+                                .transactionResultType(TransactionResultType.SUCCESS)
+                                .build(),
+                        TransactionDto.builder()
+                                .accountNumber("1000000001")
+                                .amount(2000L)
+                                .transactionResultType(TransactionResultType.FAIL)
+                                .build()));
+        //when
+        //then
+        mockMvc.perform(post("/transaction/use/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(
+                                new UseBalanceBatch.Request(Arrays.asList(
+                                        new UseBalance.Request(1L, "1000000000", 1000L),
+                                        new UseBalance.Request(1L, "1000000001", 2000L)))
+                        ))
+                ).andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.results[0].transactionResultType").value("SUCCESS"))
+                .andExpect(jsonPath("$.results[0].transactionId").value("transactionId1"))
+                .andExpect(jsonPath("$.results[1].accountNumber").value("1000000001"))
+                .andExpect(jsonPath("$.results[1].transactionResultType").value("FAIL"));
+    }
+
     @Test
     void successCancelBalance() throws Exception {
         //given
@@ -111,4 +182,52 @@ class TransactionControllerTest {
                 .andExpect(jsonPath("$.transactionId").value("transactionForCancel"))
                 .andExpect(jsonPath("$.amount").value(54321));
     }
-}
\ No newline at end of file
+
+    @Test
+    void successGetTransactionHistory() throws Exception {
+        //given
+        given(transactionService.getTransactionHistory(anyString(), any(), any(), any(), any(), any(), anyInt()))
+                .willReturn(TransactionHistoryDto.builder()
+                        .transactions(Arrays.asList(
+                                TransactionDto.builder()
+                                        .accountNumber("1234567890")
+                                        .transactionType(TransactionType.USE)
+                                        .transactionResultType(TransactionResultType.SUCCESS)
+                                        .transactionId("transactionId2")
+                                        .amount(2000L)
+                                        .transactedAt(LocalDateTime.now())
+                                        .build(),
+                                TransactionDto.builder()
+                                        .accountNumber("1234567890")
+                                        .transactionType(TransactionType.CANCEL)
+                                        .transactionResultType(TransactionResultType.SUCCESS)
+                                        .transactionId("transactionId1")
+                                        .amount(1000L)
+                                        .transactedAt(LocalDateTime.now())
+                                        .build()))
+                        .nextCursor("nextCursor")
+                        .build());
+        //when
+        //then
+        mockMvc.perform(get("/account/1234567890/transactions?transaction_type=USE&size=2"))
+                .andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.transactions[0].transactionId").value("transactionId2"))
+                .andExpect(jsonPath("$.transactions[1].transactionType").value("CANCEL"))
+                .andExpect(jsonPath("$.nextCursor").value("nextCursor"));
+    }
+
+    @Test
+    void successExportTransactions() throws Exception {
+        //given
+        //when
+        //then
+        mockMvc.perform(get("/transaction/export?from=2023-08-01T00:00:00&to=2023-08-02T00:00:00&format=CSV"))
+                .andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith("text/csv"));
+        verify(transactionExportService).export(
+                eq(LocalDateTime.of(2023, 8, 1, 0, 0)), eq(LocalDateTime.of(2023, 8, 2, 0, 0)),
+                eq(ExportFormat.CSV), any());
+    }
+}
@@ -0,0 +1,111 @@
+package com.example.account_project.metrics;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class LockMetricsTest {
+    private static final long THRESHOLD_NANOS = TimeUnit.MILLISECONDS.toNanos(5);
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final LockMetrics lockMetrics = new LockMetrics(meterRegistry, 5L, 100L);
+
+    @Test
+    @DisplayName("락 대기/보유 시간 기록")
+    void recordWaitAndHold() {
+        //when
+        lockMetrics.recordAcquired("1000000000", 1_000L);
+        lockMetrics.recordReleased("1000000000");
+        lockMetrics.recordFailed("1000000000", THRESHOLD_NANOS);
+
+        //then
+        assertEquals(1, meterRegistry.get("account.lock.wait").tag("result", "acquired").timer().count());
+        assertEquals(1, meterRegistry.get("account.lock.wait").tag("result", "failed").timer().count());
+        assertEquals(1, meterRegistry.get("account.lock.hold").timer().count());
+        assertEquals(1.0, meterRegistry.get("account.lock.failures").counter().count());
+        assertEquals(0.0, meterRegistry.get("account.lock.contended").counter().count());
+    }
+
+    @Test
+    @DisplayName("락을 잡지 않은 계좌의 해제는 보유 시간에 넣지 않음")
+    void recordReleased_withoutAcquired() {
+        //when
+        lockMetrics.recordReleased("1000000000");
+
+        //then
+        assertEquals(0, meterRegistry.get("account.lock.hold").timer().count());
+    }
+
+    @Test
+    @DisplayName("같은 계좌 락을 다른 스레드가 겹쳐서 잡아도 (임대 시간 초과) 보유 시간을 각각 기록")
+    void recordReleased_overlappingHolders() throws Exception {
+        //given
+        CountDownLatch acquired = new CountDownLatch(1);
+        CountDownLatch released = new CountDownLatch(1);
+        lockMetrics.recordAcquired("1000000000", 1_000L);
+        CompletableFuture<Void> otherHolder = CompletableFuture.runAsync(() -> {
+            lockMetrics.recordAcquired("1000000000", 1_000L);
+            acquired.countDown();
+            try {
+                released.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            lockMetrics.recordReleased("1000000000");
+        });
+        acquired.await();
+
+        //when
+        lockMetrics.recordReleased("1000000000");
+        released.countDown();
+        otherHolder.get();
+
+        //then
+        assertEquals(2, meterRegistry.get("account.lock.hold").timer().count());
+    }
+
+    @Test
+    @DisplayName("같은 스레드가 다시 잡은 락은 맨 바깥 해제 때 한 번만 기록")
+    void recordReleased_reentrant() {
+        //given
+        lockMetrics.recordAcquired("1000000000", 1_000L);
+        lockMetrics.recordAcquired("1000000000", 1_000L);
+
+        //when
+        lockMetrics.recordReleased("1000000000");
+        long afterInner = meterRegistry.get("account.lock.hold").timer().count();
+        lockMetrics.recordReleased("1000000000");
+
+        //then
+        assertEquals(0, afterInner);
+        assertEquals(1, meterRegistry.get("account.lock.hold").timer().count());
+    }
+
+    @Test
+    @DisplayName("경합/실패가 많은 계좌 순서로 조회")
+    void topContended() {
+        //given
+        lockMetrics.recordAcquired("1000000000", THRESHOLD_NANOS);
+        lockMetrics.recordAcquired("2000000000", THRESHOLD_NANOS);
+        lockMetrics.recordFailed("2000000000", THRESHOLD_NANOS);
+        lockMetrics.recordFailed("2000000000", THRESHOLD_NANOS);
+        lockMetrics.recordAcquired("3000000000", 1_000L);
+
+        //when
+        List<LockMetrics.AccountContention> hotAccounts = lockMetrics.topContended(1);
+
+        //then
+        assertEquals(1, hotAccounts.size());
+        assertEquals("2000000000", hotAccounts.get(0).getAccountNumber());
+        assertEquals(1, hotAccounts.get(0).getContended());
+        assertEquals(2, hotAccounts.get(0).getFailed());
+        assertEquals(2.0, meterRegistry.get("account.lock.contended").counter().count());
+    }
+}
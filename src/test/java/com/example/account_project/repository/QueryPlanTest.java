@@ -0,0 +1,169 @@
+package com.example.account_project.repository;
+
+import com.example.account_project.dto.TransactionDto;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.ParameterMetaData;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/*
+ * 조회마다 마이그레이션(V2__create_indexes.sql)에서 만든 인덱스를 타는지 H2 EXPLAIN 으로 확인
+ * 리포지토리 메소드를 실제로 호출해서 Hibernate 가 만든 SQL 을 StatementInspector 로 받아 EXPLAIN 한다.
+ */
+@SpringBootTest(properties = {
+        "spring.redis.port=6395",
+        "spring.datasource.url=jdbc:h2:mem:query-plan",
+        "account.failed-transaction.spill-file=build/failed-transactions/query-plan.log",
+        "spring.jpa.properties.hibernate.session_factory.statement_inspector="
+                + "com.example.account_project.repository.QueryPlanTest$CapturingStatementInspector"
+})
+class QueryPlanTest {
+    private static final LocalDateTime FROM = LocalDateTime.of(2023, 8, 1, 0, 0);
+    private static final LocalDateTime TO = LocalDateTime.of(2023, 8, 2, 0, 0);
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+    @Autowired
+    private TransactionRepository transactionRepository;
+    @Autowired
+    private AccountRepository accountRepository;
+    @Autowired
+    private AccountBalanceSlotRepository accountBalanceSlotRepository;
+
+    /* Hibernate 가 실행하는 SQL 을 모아둔다 (컨텍스트마다 하나의 SessionFactory) */
+    public static class CapturingStatementInspector implements StatementInspector {
+        private static final List<String> statements = new CopyOnWriteArrayList<>();
+
+        @Override
+        public String inspect(String sql) {
+            statements.add(sql);
+            return sql;
+        }
+    }
+
+    @Test
+    @DisplayName("거래 id 로 거래 찾기 (엔티티, 잔액 사용 취소) - ux_transaction_transaction_id")
+    void findByTransactionId() {
+        //when
+        String plan = explain(captured(() -> transactionRepository.findByTransactionId("transactionId")));
+
+        //then
+        assertUsesIndex(plan, "ux_transaction_transaction_id");
+    }
+
+    @Test
+    @DisplayName("거래 id 로 거래 조회 (DTO, 거래 확인) - ux_transaction_transaction_id")
+    void findDtoByTransactionId() {
+        //when
+        String plan = explain(captured(() -> transactionRepository.findDtoByTransactionId("transactionId")));
+
+        //then
+        assertUsesIndex(plan, "ux_transaction_transaction_id");
+    }
+
+    @Test
+    @DisplayName("계좌 거래내역 - ix_transaction_account_transacted_at")
+    void findHistoryByAccount() {
+        //when
+        String plan = explain(captured(() -> transactionRepository.findHistory(1L, null, null,
+                FROM, TO, Long.MAX_VALUE, PageRequest.of(0, 21))));
+
+        //then
+        assertUsesIndex(plan, "ix_transaction_account_transacted_at");
+    }
+
+    @Test
+    @DisplayName("계좌번호로 계좌 찾기 - ux_account_account_number")
+    void findByAccountNumber() {
+        //when
+        String plan = explain(captured(() -> accountRepository.findByAccountNumber("1000000012")));
+
+        //then
+        assertUsesIndex(plan, "ux_account_account_number");
+    }
+
+    @Test
+    @DisplayName("기간별 거래 내보내기 - ix_transaction_transacted_at")
+    void findByTransactedAtBetween() {
+        //when
+        String plan = explain(captured(() -> transactionTemplate.executeWithoutResult(status -> {
+            try (Stream<TransactionDto> transactions = transactionRepository.streamForExport(FROM, TO)) {
+                transactions.forEach(transaction -> {
+                });
+            }
+        })));
+
+        //then
+        assertUsesIndex(plan, "ix_transaction_transacted_at");
+    }
+
+    @Test
+    @DisplayName("슬롯 차감과 슬롯 합계 - ux_account_balance_slot_account_slot")
+    void balanceSlot() {
+        //when
+        String debitPlan = explain(captured(() -> transactionTemplate.execute(status ->
+                accountBalanceSlotRepository.debitIfSufficient(1L, 3, 100L, FROM))));
+        String sumPlan = explain(captured(() -> accountBalanceSlotRepository.sumBalance(1L)));
+
+        //then
+        assertUsesIndex(debitPlan, "ux_account_balance_slot_account_slot");
+        assertUsesIndex(sumPlan, "ux_account_balance_slot_account_slot");
+    }
+
+    /* 실행하는 동안 Hibernate 가 만든 마지막 SQL */
+    private String captured(Runnable query) {
+        CapturingStatementInspector.statements.clear();
+        query.run();
+        List<String> statements = CapturingStatementInspector.statements;
+        assertTrue(!statements.isEmpty(), "no SQL captured");
+        return statements.get(statements.size() - 1);
+    }
+
+    /* 파라미터는 값과 상관없이 같은 계획이 나오므로 타입에 맞는 아무 값이나 넣는다. */
+    private String explain(String sql) {
+        return jdbcTemplate.execute((ConnectionCallback<String>) connection -> {
+            try (PreparedStatement statement = connection.prepareStatement("explain " + sql)) {
+                ParameterMetaData parameters = statement.getParameterMetaData();
+                for (int i = 1; i <= parameters.getParameterCount(); i++) {
+                    statement.setObject(i, sampleValue(parameters.getParameterType(i)));
+                }
+                try (ResultSet resultSet = statement.executeQuery()) {
+                    resultSet.next();
+                    return resultSet.getString(1);
+                }
+            }
+        });
+    }
+
+    private Object sampleValue(int sqlType) {
+        return switch (sqlType) {
+            case Types.BIGINT, Types.INTEGER, Types.SMALLINT, Types.TINYINT, Types.NUMERIC, Types.DECIMAL -> 1L;
+            case Types.TIMESTAMP, Types.TIMESTAMP_WITH_TIMEZONE -> Timestamp.valueOf(FROM);
+            case Types.BOOLEAN -> true;
+            default -> "1";
+        };
+    }
+
+    private void assertUsesIndex(String plan, String index) {
+        assertTrue(plan.toUpperCase().contains(index.toUpperCase()), plan);
+    }
+}
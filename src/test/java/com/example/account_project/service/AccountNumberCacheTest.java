@@ -0,0 +1,100 @@
+package com.example.account_project.service;
+
+import com.example.account_project.domain.Account;
+import com.example.account_project.repository.AccountRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+class AccountNumberCacheTest {
+    @Mock
+    private AccountRepository accountRepository;
+
+    private AccountNumberCache accountNumberCache;
+
+    private final Account account = Account.builder()
+            .id(7L)
+            .accountNumber("1000000007")
+            .balance(1000L)
+            .build();
+
+    @BeforeEach
+    void setUp() {
+        accountNumberCache = new AccountNumberCache(accountRepository, new SimpleMeterRegistry(), 100);
+    }
+
+    @Test
+    @DisplayName("두 번째 조회부터는 PK 로 조회")
+    void findByAccountNumber_hit() {
+        //given
+        given(accountRepository.findByAccountNumber("1000000007"))
+                .willReturn(Optional.of(account));
+        given(accountRepository.findById(7L))
+                .willReturn(Optional.of(account));
+        //when
+        accountNumberCache.findByAccountNumber("1000000007");
+        Optional<Account> found = accountNumberCache.findByAccountNumber("1000000007");
+        //then
+        assertSame(account, found.get());
+        verify(accountRepository, times(1)).findByAccountNumber("1000000007");
+        verify(accountRepository, times(1)).findById(7L);
+        assertEquals(1L, accountNumberCache.stats().hitCount());
+        assertEquals(1L, accountNumberCache.stats().missCount());
+    }
+
+    @Test
+    @DisplayName("없는 계좌는 캐시하지 않음")
+    void findByAccountNumber_notFound() {
+        //given
+        given(accountRepository.findByAccountNumber("1000000008"))
+                .willReturn(Optional.empty());
+        //when
+        accountNumberCache.findByAccountNumber("1000000008");
+        Optional<Account> found = accountNumberCache.findByAccountNumber("1000000008");
+        //then
+        assertFalse(found.isPresent());
+        verify(accountRepository, times(2)).findByAccountNumber("1000000008");
+    }
+
+    @Test
+    @DisplayName("무효화하면 다시 계좌번호로 조회")
+    void invalidate() {
+        //given
+        given(accountRepository.findByAccountNumber("1000000007"))
+                .willReturn(Optional.of(account));
+        accountNumberCache.findByAccountNumber("1000000007");
+        //when
+        accountNumberCache.invalidate("1000000007");
+        accountNumberCache.findByAccountNumber("1000000007");
+        //then
+        verify(accountRepository, times(2)).findByAccountNumber("1000000007");
+    }
+
+    @Test
+    @DisplayName("캐시된 id 의 계좌가 없으면 계좌번호로 다시 조회")
+    void findByAccountNumber_staleId() {
+        //given
+        given(accountRepository.findByAccountNumber("1000000007"))
+                .willReturn(Optional.of(account), Optional.empty());
+        given(accountRepository.findById(7L))
+                .willReturn(Optional.empty());
+        accountNumberCache.findByAccountNumber("1000000007");
+        //when
+        Optional<Account> found = accountNumberCache.findByAccountNumber("1000000007");
+        //then
+        assertFalse(found.isPresent());
+        verify(accountRepository, times(2)).findByAccountNumber("1000000007");
+    }
+}
@@ -0,0 +1,109 @@
+package com.example.account_project.service;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+class AccountNumberGeneratorTest {
+    private static final int ACCOUNT_COUNT = 100_000;
+    private static final int THREAD_COUNT = 32;
+    private static final int BLOCK_SIZE = 1000;
+
+    @Mock
+    private AccountNumberSequenceService accountNumberSequenceService;
+
+    @Test
+    @DisplayName("계좌번호 발급 - 블록 안에서는 DB 를 다시 조회하지 않음")
+    void nextAccountNumber_withinBlock() {
+        //given
+        given(accountNumberSequenceService.reserveBlock(anyInt()))
+                .willReturn(1000000000L, 1000000002L);
+        AccountNumberGenerator generator = new AccountNumberGenerator(accountNumberSequenceService, 2);
+        //when
+        //then
+        assertEquals("1000000000", generator.nextAccountNumber());
+        assertEquals("1000000001", generator.nextAccountNumber());
+        assertEquals("1000000002", generator.nextAccountNumber());
+        verify(accountNumberSequenceService, times(2)).reserveBlock(2);
+    }
+
+    @Test
+    @DisplayName("계좌번호 발급 - 여러 스레드에서 10만개를 발급해도 중복 없음")
+    void nextAccountNumber_concurrentlyUnique() throws Exception {
+        //given
+        AtomicLong highWaterMark = new AtomicLong(AccountNumberSequenceService.FIRST_ACCOUNT_NUMBER);
+        given(accountNumberSequenceService.reserveBlock(anyInt()))
+                .willAnswer(invocation -> highWaterMark.getAndAdd(invocation.getArgument(0, Integer.class)));
+        AccountNumberGenerator generator = new AccountNumberGenerator(accountNumberSequenceService, BLOCK_SIZE);
+
+        //when
+        Set<String> accountNumbers = generateConcurrently(List.of(generator));
+
+        //then
+        assertEquals(ACCOUNT_COUNT, accountNumbers.size());
+        verify(accountNumberSequenceService, times(ACCOUNT_COUNT / BLOCK_SIZE)).reserveBlock(BLOCK_SIZE);
+    }
+
+    @Test
+    @DisplayName("계좌번호 발급 - 여러 노드가 같은 상한선을 공유해도 중복 없음")
+    void nextAccountNumber_acrossNodesUnique() throws Exception {
+        //given
+        AtomicLong highWaterMark = new AtomicLong(AccountNumberSequenceService.FIRST_ACCOUNT_NUMBER);
+        given(accountNumberSequenceService.reserveBlock(anyInt()))
+                .willAnswer(invocation -> highWaterMark.getAndAdd(invocation.getArgument(0, Integer.class)));
+        List<AccountNumberGenerator> nodes = List.of(
+                new AccountNumberGenerator(accountNumberSequenceService, BLOCK_SIZE),
+                new AccountNumberGenerator(accountNumberSequenceService, BLOCK_SIZE),
+                new AccountNumberGenerator(accountNumberSequenceService, BLOCK_SIZE),
+                new AccountNumberGenerator(accountNumberSequenceService, BLOCK_SIZE));
+
+        //when
+        Set<String> accountNumbers = generateConcurrently(nodes);
+
+        //then
+        assertEquals(ACCOUNT_COUNT, accountNumbers.size());
+        assertTrue(accountNumbers.stream().allMatch(accountNumber -> accountNumber.length() == 10));
+    }
+
+    private Set<String> generateConcurrently(List<AccountNumberGenerator> generators) throws Exception {
+        Set<String> accountNumbers = ConcurrentHashMap.newKeySet();
+        ExecutorService executorService = Executors.newFixedThreadPool(THREAD_COUNT);
+        CountDownLatch startLatch = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+        try {
+            for (int i = 0; i < THREAD_COUNT; i++) {
+                AccountNumberGenerator generator = generators.get(i % generators.size());
+                futures.add(executorService.submit(() -> {
+                    startLatch.await();
+                    for (int j = 0; j < ACCOUNT_COUNT / THREAD_COUNT; j++) {
+                        accountNumbers.add(generator.nextAccountNumber());
+                    }
+                    return null;
+                }));
+            }
+            startLatch.countDown();
+            for (Future<?> future : futures) {
+                future.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            executorService.shutdownNow();
+        }
+        return accountNumbers;
+    }
+}
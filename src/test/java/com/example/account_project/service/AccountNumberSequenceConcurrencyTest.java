@@ -0,0 +1,133 @@
+package com.example.account_project.service;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.*;
+
+import static com.example.account_project.service.AccountNumberSequenceService.ACCOUNT_NUMBER;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/* 계좌번호 블록 예약을 H2 에서 실제로 동시에 실행 (PESSIMISTIC_WRITE + REQUIRES_NEW) */
+@SpringBootTest(properties = {
+        "account.lock.backend=local",
+        "spring.redis.port=6397",
+        "spring.datasource.url=jdbc:h2:mem:account-number-sequence;LOCK_TIMEOUT=10000",
+        "account.failed-transaction.spill-file=build/failed-transactions/account-number-sequence.log",
+        "spring.jpa.properties.hibernate.show_sql=false"
+})
+class AccountNumberSequenceConcurrencyTest {
+    private static final int THREAD_COUNT = 16;
+    private static final int BLOCK_PER_THREAD = 10;
+    private static final int BLOCK_SIZE = 100;
+    private static final int NODE_COUNT = 4;
+    private static final int NUMBER_PER_THREAD = 250;
+
+    @Autowired
+    private AccountNumberSequenceService accountNumberSequenceService;
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    @DisplayName("여러 스레드가 동시에 블록을 예약해도 블록이 겹치지 않고 빈틈 없이 이어짐")
+    void reserveBlock_concurrentlyNoOverlap() throws Exception {
+        //given
+        long before = nextValue();
+
+        //when
+        List<Long> blockStarts = runConcurrently(() -> {
+            List<Long> starts = new ArrayList<>();
+            for (int i = 0; i < BLOCK_PER_THREAD; i++) {
+                starts.add(accountNumberSequenceService.reserveBlock(BLOCK_SIZE));
+            }
+            return starts;
+        });
+
+        //then
+        int blockCount = THREAD_COUNT * BLOCK_PER_THREAD;
+        assertEquals(blockCount, new HashSet<>(blockStarts).size());
+        assertTrue(blockStarts.stream().allMatch(start -> start >= before && (start - before) % BLOCK_SIZE == 0));
+        assertEquals(before + (long) blockCount * BLOCK_SIZE, nextValue());
+    }
+
+    @Test
+    @DisplayName("바깥 트랜잭션이 롤백돼도 예약한 블록은 돌려받지 않음")
+    void reserveBlock_survivesOuterRollback() {
+        //given
+        long before = nextValue();
+
+        //when
+        long blockStart = transactionTemplate.execute(status -> {
+            long start = accountNumberSequenceService.reserveBlock(BLOCK_SIZE);
+            status.setRollbackOnly();
+            return start;
+        });
+
+        //then
+        assertEquals(before, blockStart);
+        assertEquals(before + BLOCK_SIZE, nextValue());
+    }
+
+    @Test
+    @DisplayName("노드마다 발급기가 따로 있어도 발급한 계좌번호가 겹치지 않음")
+    void nextAccountNumber_severalNodesNoDuplicate() throws Exception {
+        //given
+        List<AccountNumberGenerator> nodes = new ArrayList<>();
+        for (int i = 0; i < NODE_COUNT; i++) {
+            nodes.add(new AccountNumberGenerator(accountNumberSequenceService, BLOCK_SIZE));
+        }
+
+        //when
+        List<String> accountNumbers = runConcurrently(() -> {
+            AccountNumberGenerator node = nodes.get(ThreadLocalRandom.current().nextInt(NODE_COUNT));
+            List<String> issued = new ArrayList<>();
+            for (int i = 0; i < NUMBER_PER_THREAD; i++) {
+                issued.add(node.nextAccountNumber());
+            }
+            return issued;
+        });
+
+        //then
+        Set<String> distinct = new HashSet<>(accountNumbers);
+        assertEquals(THREAD_COUNT * NUMBER_PER_THREAD, distinct.size());
+        assertTrue(distinct.stream().allMatch(accountNumber -> accountNumber.length() == 10));
+    }
+
+    private <T> List<T> runConcurrently(Callable<List<T>> task) throws Exception {
+        ExecutorService executorService = Executors.newFixedThreadPool(THREAD_COUNT);
+        CountDownLatch startLatch = new CountDownLatch(1);
+        List<Future<List<T>>> futures = new ArrayList<>();
+        List<T> results = new ArrayList<>();
+        try {
+            for (int i = 0; i < THREAD_COUNT; i++) {
+                futures.add(executorService.submit(() -> {
+                    startLatch.await();
+                    return task.call();
+                }));
+            }
+            startLatch.countDown();
+            for (Future<List<T>> future : futures) {
+                results.addAll(future.get(60, TimeUnit.SECONDS));
+            }
+        } finally {
+            executorService.shutdownNow();
+        }
+        return results;
+    }
+
+    private long nextValue() {
+        return jdbcTemplate.queryForObject("select next_value from account_number_sequence where name = ?",
+                Long.class, ACCOUNT_NUMBER);
+    }
+}
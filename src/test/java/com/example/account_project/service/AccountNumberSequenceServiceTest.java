@@ -0,0 +1,96 @@
+package com.example.account_project.service;
+
+import com.example.account_project.Exception.AccountException;
+import com.example.account_project.domain.Account;
+import com.example.account_project.domain.AccountNumberSequence;
+import com.example.account_project.repository.AccountNumberSequenceRepository;
+import com.example.account_project.repository.AccountRepository;
+import com.example.account_project.type.ErrorCode;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.BDDMockito.given;
+
+@ExtendWith(MockitoExtension.class)
+class AccountNumberSequenceServiceTest {
+    @Mock
+    private AccountNumberSequenceRepository accountNumberSequenceRepository;
+    @Mock
+    private AccountRepository accountRepository;
+    @InjectMocks
+    private AccountNumberSequenceService accountNumberSequenceService;
+
+    @Test
+    @DisplayName("계좌번호 블록 예약 성공")
+    void reserveBlock() {
+        //given
+        AccountNumberSequence sequence = AccountNumberSequence.builder()
+                .name(AccountNumberSequenceService.ACCOUNT_NUMBER)
+                .nextValue(1000001000L).build();
+        given(accountNumberSequenceRepository.findByName(anyString()))
+                .willReturn(Optional.of(sequence));
+        //when
+        long blockStart = accountNumberSequenceService.reserveBlock(1000);
+        //then
+        assertEquals(1000001000L, blockStart);
+        assertEquals(1000002000L, sequence.getNextValue());
+    }
+
+    @Test
+    @DisplayName("계좌번호 블록 예약 성공 - 계좌가 존재하지 않을시")
+    void reserveFirstBlock() {
+        //given
+        given(accountNumberSequenceRepository.findByName(anyString()))
+                .willReturn(Optional.empty());
+        given(accountRepository.findFirstByOrderByIdDesc())
+                .willReturn(Optional.empty()); // 아무계좌도 없는 상황일떄
+        given(accountNumberSequenceRepository.save(any()))
+                .willAnswer(invocation -> invocation.getArgument(0));
+        //when
+        long blockStart = accountNumberSequenceService.reserveBlock(1000);
+        //then
+        assertEquals(1000000000L, blockStart);
+    }
+
+    @Test
+    @DisplayName("계좌번호 블록 예약 성공 - 기존 마지막 계좌번호 다음부터 시작")
+    void reserveFirstBlock_afterLatestAccount() {
+        //given
+        given(accountNumberSequenceRepository.findByName(anyString()))
+                .willReturn(Optional.empty());
+        given(accountRepository.findFirstByOrderByIdDesc())
+                .willReturn(Optional.of(Account.builder()
+                        .accountNumber("1000000012").build()));
+        given(accountNumberSequenceRepository.save(any()))
+                .willAnswer(invocation -> invocation.getArgument(0));
+        //when
+        long blockStart = accountNumberSequenceService.reserveBlock(1000);
+        //then
+        assertEquals(1000000013L, blockStart);
+    }
+
+    @Test
+    @DisplayName("계좌번호 블록 예약 실패 - 발급 가능한 번호 없음")
+    void reserveBlockFailed_exhausted() {
+        //given
+        given(accountNumberSequenceRepository.findByName(anyString()))
+                .willReturn(Optional.of(AccountNumberSequence.builder()
+                        .name(AccountNumberSequenceService.ACCOUNT_NUMBER)
+                        .nextValue(9999999500L).build()));
+        //when
+        AccountException accountException = assertThrows(AccountException.class,
+                () -> accountNumberSequenceService.reserveBlock(1000));
+        //then
+        assertEquals(ErrorCode.ACCOUNT_NUMBER_EXHAUSTED, accountException.getErrorCode());
+    }
+}
@@ -25,6 +25,7 @@ import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 
@@ -35,6 +36,20 @@ class AccountServiceTest {
     private AccountRepository accountRepository;
     @Mock
     private AccountUserRepository accountUserRepository;
+    @Mock
+    private AccountUserCache accountUserCache;
+    @Mock
+    private AccountNumberGenerator accountNumberGenerator;
+    @Mock
+    private AccountNumberCache accountNumberCache;
+    @Mock
+    private AccountSummaryCache accountSummaryCache;
+    @Mock
+    private BalanceJournal balanceJournal;
+    @Mock
+    private LedgerEngine ledgerEngine;
+    @Mock
+    private BalanceSlotService balanceSlotService;
     @InjectMocks
     private AccountService accountService;
 
@@ -44,12 +59,13 @@ class AccountServiceTest {
 
         AccountUser user = AccountUser.builder().id(12L).name("Pobi").build();
         //given
-        given(accountUserRepository.findById(anyLong()))
+        given(accountUserCache.findById(anyLong()))
                 .willReturn(Optional.of(user)); // 계좌 찾기
 
-        given(accountRepository.findFirstByOrderByIdDesc())
-                .willReturn(Optional.of(Account.builder()
-                        .accountNumber("1000000012").build()));
+        given(accountUserRepository.incrementAccountCount(12L, 10))
+                .willReturn(1);
+        given(accountNumberGenerator.nextAccountNumber())
+                .willReturn("1000000013");
 
         given(accountRepository.save(any()))
                 .willReturn(Account.builder()
@@ -64,40 +80,15 @@ class AccountServiceTest {
         verify(accountRepository, times(1)).save(captor.capture());
         assertEquals(12L, accountDto.getUserId());
         assertEquals("1000000013", captor.getValue().getAccountNumber());
+        verify(accountRepository, never()).countByAccountUser(any());
 
     }
 
-    @Test
-    @DisplayName("계좌 생성 성공 - 계좌가 존재하지 않을시")
-    void createFirstAccount() {
-        //given
-        AccountUser user = AccountUser.builder().id(15L).name("Pobi").build();
-        given(accountUserRepository.findById(anyLong()))
-                .willReturn(Optional.of(user));
-
-        given(accountRepository.findFirstByOrderByIdDesc())
-                .willReturn(Optional.empty()); // 아무계좌도 없는 상황일떄
-
-        given(accountRepository.save(any()))
-                .willReturn(Account.builder()
-                        .accountUser(user)
-                        .accountNumber("1000000015").build());
-
-        ArgumentCaptor<Account> captor = ArgumentCaptor.forClass(Account.class);
-        //when
-        AccountDto accountDto = accountService.createAccount(1L, 1000L);
-
-        //then
-        verify(accountRepository, times(1)).save(captor.capture());
-        assertEquals(15L, accountDto.getUserId());
-        assertEquals("1000000000", captor.getValue().getAccountNumber());
-    }
-
     @Test
     @DisplayName("계좌 생성 실패 - 해당 유저 없음")
     void createAccountFailed_UserNotFound() {
         //given
-        given(accountUserRepository.findById(anyLong()))
+        given(accountUserCache.findById(anyLong()))
                 .willReturn(Optional.empty());
         //when
         AccountException accountException = assertThrows(AccountException.class,
@@ -111,15 +102,35 @@ class AccountServiceTest {
     void createAccountFailed_maxAccountIs10() {
         //given
         AccountUser user = AccountUser.builder().id(15L).name("Pobi").build();
-        given(accountUserRepository.findById(anyLong()))
+        given(accountUserCache.findById(anyLong()))
                 .willReturn(Optional.of(user));
-        given(accountRepository.countByAccountUser(any()))
+        given(accountSummaryCache.count(15L))
                 .willReturn(10);
         //when
         AccountException accountException = assertThrows(AccountException.class,
                 () -> accountService.createAccount(1L, 1000L));
         //then
         assertEquals(ErrorCode.MAX_ACCOUNT_PER_USER_10, accountException.getErrorCode());
+        verify(accountUserRepository, never()).incrementAccountCount(anyLong(), anyInt());
+    }
+
+    @Test
+    @DisplayName("계좌 생성 실패 - 캐시에는 10개 미만이어도 DB 의 계좌 수가 10개면 실패")
+    void createAccountFailed_maxAccountIs10InDb() {
+        //given
+        AccountUser user = AccountUser.builder().id(15L).name("Pobi").build();
+        given(accountUserCache.findById(anyLong()))
+                .willReturn(Optional.of(user));
+        given(accountSummaryCache.count(15L))
+                .willReturn(3);
+        given(accountUserRepository.incrementAccountCount(15L, 10))
+                .willReturn(0);
+        //when
+        AccountException accountException = assertThrows(AccountException.class,
+                () -> accountService.createAccount(1L, 1000L));
+        //then
+        assertEquals(ErrorCode.MAX_ACCOUNT_PER_USER_10, accountException.getErrorCode());
+        verify(accountRepository, never()).save(any());
     }
 
     @Test
@@ -127,10 +138,10 @@ class AccountServiceTest {
     void deleteAccountSuccess() {
         //given
         AccountUser user = AccountUser.builder().id(12L).name("Pobi").build();
-        given(accountUserRepository.findById(anyLong()))
+        given(accountUserCache.findById(anyLong()))
                 .willReturn(Optional.of(user));
 
-        given(accountRepository.findByAccountNumber(anyString()))
+        given(accountNumberCache.findByAccountNumber(anyString()))
                 .willReturn(Optional.of(Account.builder()
                         .accountUser(user)
                         .balance(0L)
@@ -144,6 +155,7 @@ class AccountServiceTest {
         assertEquals(12L, accountDto.getUserId());
         assertEquals("1000000002", captor.getValue().getAccountNumber());
         assertEquals(AccountStatus.UNREGISTERED, captor.getValue().getAccountStatus());
+        verify(accountNumberCache, times(1)).invalidateAfterCommit("1234567890");
 
     }
 
@@ -151,7 +163,7 @@ class AccountServiceTest {
     @DisplayName("계좌 해지 실패 - 유저를 찾을수 없음")
     void deleteAccountFailed_UserNotFound() {
         //given
-        given(accountUserRepository.findById(anyLong()))
+        given(accountUserCache.findById(anyLong()))
                 .willReturn(Optional.empty());
         //when
         AccountException accountException = assertThrows(AccountException.class,
@@ -165,9 +177,9 @@ class AccountServiceTest {
     void deleteAccountFailed_AccountNotFound() {
         //given
         AccountUser user = AccountUser.builder().id(12L).name("Pobi").build();
-        given(accountUserRepository.findById(anyLong()))
+        given(accountUserCache.findById(anyLong()))
                 .willReturn(Optional.of(user));
-        given(accountRepository.findByAccountNumber(anyString()))
+        given(accountNumberCache.findByAccountNumber(anyString()))
                 .willReturn(Optional.empty());
         //when
         AccountException accountException = assertThrows(AccountException.class,
@@ -183,10 +195,10 @@ class AccountServiceTest {
         AccountUser messi = AccountUser.builder().id(1L).name("messi").build();
         AccountUser ronaldo = AccountUser.builder().id(2L).name("ronaldo").build();
 
-        given(accountUserRepository.findById(anyLong()))
+        given(accountUserCache.findById(anyLong()))
                 .willReturn(Optional.of(messi));
 
-        given(accountRepository.findByAccountNumber(anyString()))
+        given(accountNumberCache.findByAccountNumber(anyString()))
                 .willReturn(Optional.of(Account.builder()
                         .accountUser(ronaldo)
                         .balance(0L)
@@ -203,9 +215,9 @@ class AccountServiceTest {
     void deleteAccountFailed_balanceNotEmpty() {
         //given
         AccountUser user = AccountUser.builder().id(1L).name("messi").build();
-        given(accountUserRepository.findById(anyLong()))
+        given(accountUserCache.findById(anyLong()))
                 .willReturn(Optional.of(user));
-        given(accountRepository.findByAccountNumber(anyString()))
+        given(accountNumberCache.findByAccountNumber(anyString()))
                 .willReturn(Optional.of(Account.builder()
                         .accountUser(user)
                         .balance(100L)
@@ -217,14 +229,38 @@ class AccountServiceTest {
         assertEquals(ErrorCode.BALANCE_NOT_EMPTY, accountException.getErrorCode());
     }
 
+    @Test
+    @DisplayName("계좌 해지 실패 - 잔액을 슬롯으로 나눈 계좌는 슬롯 합계로 확인")
+    void deleteAccountFailed_shardedBalanceNotEmpty() {
+        //given
+        AccountUser user = AccountUser.builder().id(1L).name("messi").build();
+        Account account = Account.builder()
+                .accountUser(user)
+                .accountStatus(AccountStatus.IN_USE)
+                .balance(0L)
+                .balanceSlots(4)
+                .accountNumber("1234567890").build();
+        given(accountUserCache.findById(anyLong()))
+                .willReturn(Optional.of(user));
+        given(accountNumberCache.findByAccountNumber(anyString()))
+                .willReturn(Optional.of(account));
+        given(balanceSlotService.balanceOf(account))
+                .willReturn(100L);
+        //when
+        AccountException accountException = assertThrows(AccountException.class,
+                () -> accountService.deleteAccount(1L, "1234567890"));
+        //then
+        assertEquals(ErrorCode.BALANCE_NOT_EMPTY, accountException.getErrorCode());
+    }
+
     @Test
     @DisplayName("계좌 해지 실패 - 이미 해지된 계좌")
     void deleteAccountFailed_alreadyUnregistered() {
         //given
         AccountUser user = AccountUser.builder().id(1L).name("messi").build();
-        given(accountUserRepository.findById(anyLong()))
+        given(accountUserCache.findById(anyLong()))
                 .willReturn(Optional.of(user));
-        given(accountRepository.findByAccountNumber(anyString()))
+        given(accountNumberCache.findByAccountNumber(anyString()))
                 .willReturn(Optional.of(Account.builder()
                         .accountUser(user)
                         .accountNumber("1234567890")
@@ -241,32 +277,30 @@ class AccountServiceTest {
     @DisplayName("계좌 찾기 성공 - 유저 아이디로 찾기")
     void successGetAccountByUserId() {
         //given
-        AccountUser user = AccountUser.builder().id(1L).name("messi").build();
-        List<Account> accounts = Arrays.asList(
-                Account.builder()
-                        .accountUser(user)
+        List<AccountDto> accounts = Arrays.asList(
+                AccountDto.builder()
+                        .userId(1L)
                         .accountNumber("1234567890")
                         .balance(1000L)
                         .build(),
-                Account.builder()
-                        .accountUser(user)
+                AccountDto.builder()
+                        .userId(1L)
                         .accountNumber("1237894560")
                         .balance(2000L)
                         .build(),
-                Account.builder()
-                        .accountUser(user)
+                AccountDto.builder()
+                        .userId(1L)
                         .accountNumber("4567891230")
                         .balance(3000L)
                         .build()
         );
-        given(accountUserRepository.findById(anyLong()))
-                .willReturn(Optional.of(user));
-        given(accountRepository.findByAccountUser(any()))
+        given(accountSummaryCache.getAccounts(anyLong()))
                 .willReturn(accounts);
         //when
         List<AccountDto> accountDtoList = accountService.getAccountByUserId(1L);
 
         //then
+        verify(accountUserCache, never()).findById(anyLong());
         assertEquals(3, accountDtoList.size());
         assertEquals("1234567890", accountDtoList.get(0).getAccountNumber());
         assertEquals(1000, accountDtoList.get(0).getBalance());
@@ -280,7 +314,9 @@ class AccountServiceTest {
     @DisplayName("계좌 찾기 실패 - 해당 유저 없음")
     void failToGetAccounts() {
         //given
-        given(accountUserRepository.findById(anyLong()))
+        given(accountSummaryCache.getAccounts(anyLong()))
+                .willReturn(List.of());
+        given(accountUserCache.findById(anyLong()))
                 .willReturn(Optional.empty());
         //when
         AccountException accountException = assertThrows(AccountException.class,
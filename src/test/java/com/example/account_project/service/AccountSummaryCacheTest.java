@@ -0,0 +1,126 @@
+package com.example.account_project.service;
+
+import com.example.account_project.domain.Account;
+import com.example.account_project.domain.AccountUser;
+import com.example.account_project.dto.AccountDto;
+import com.example.account_project.dto.AccountSummaryItem;
+import com.example.account_project.repository.AccountRepository;
+import com.example.account_project.type.AccountStatus;
+import com.example.account_project.type.TransactionMode;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+class AccountSummaryCacheTest {
+    private static final Long USER_ID = 12L;
+
+    @Mock
+    private AccountRepository accountRepository;
+
+    @Test
+    @DisplayName("두 번째 조회부터는 쿼리 없이 캐시에서 계좌 수와 목록을 돌려줌")
+    void getAccounts_hit() {
+        //given
+        AccountSummaryCache cache = cache(TransactionMode.LOCK);
+        given(accountRepository.findSummaryItemsByAccountUserId(USER_ID))
+                .willReturn(List.of(item("1000000012", 1000L, 0L)));
+        //when
+        cache.count(USER_ID);
+        List<AccountDto> accounts = cache.getAccounts(USER_ID);
+        //then
+        assertEquals(1, accounts.size());
+        assertEquals(1000L, accounts.get(0).getBalance());
+        verify(accountRepository, times(1)).findSummaryItemsByAccountUserId(USER_ID);
+        assertEquals(1L, cache.stats().hitCount());
+    }
+
+    @Test
+    @DisplayName("커밋된 계좌 변경은 캐시된 요약에 반영하고, version 이 낮은 변경은 무시")
+    void applyAfterCommit() {
+        //given
+        AccountSummaryCache cache = cache(TransactionMode.LOCK);
+        given(accountRepository.findSummaryItemsByAccountUserId(USER_ID))
+                .willReturn(List.of(item("1000000012", 1000L, 3L)));
+        cache.count(USER_ID);
+        //when
+        cache.applyAfterCommit(account("1000000012", 500L, 4L));
+        cache.applyAfterCommit(account("1000000012", 900L, 2L));
+        cache.applyAfterCommit(account("1000000013", 100L, 0L));
+        //then
+        List<AccountDto> accounts = cache.getAccounts(USER_ID);
+        assertEquals(2, cache.count(USER_ID));
+        assertEquals(500L, accounts.get(0).getBalance());
+        assertEquals("1000000013", accounts.get(1).getAccountNumber());
+        verify(accountRepository, times(1)).findSummaryItemsByAccountUserId(USER_ID);
+    }
+
+    @Test
+    @DisplayName("읽는 동안 같은 사용자 계좌가 바뀌면 읽은 요약은 캐시하지 않음")
+    void get_changedWhileLoading() {
+        //given
+        AccountSummaryCache cache = cache(TransactionMode.LOCK);
+        given(accountRepository.findSummaryItemsByAccountUserId(USER_ID))
+                .willAnswer(invocation -> {
+                    cache.applyAfterCommit(account("1000000012", 500L, 1L));
+                    return List.of(item("1000000012", 1000L, 0L));
+                })
+                .willReturn(List.of(item("1000000012", 500L, 1L)));
+        //when
+        List<AccountDto> stale = cache.getAccounts(USER_ID);
+        List<AccountDto> reloaded = cache.getAccounts(USER_ID);
+        //then
+        assertEquals(1000L, stale.get(0).getBalance());
+        assertEquals(500L, reloaded.get(0).getBalance());
+        verify(accountRepository, times(2)).findSummaryItemsByAccountUserId(USER_ID);
+    }
+
+    @Test
+    @DisplayName("JOURNAL 모드는 캐시하지 않음")
+    void get_journalMode() {
+        //given
+        AccountSummaryCache cache = cache(TransactionMode.JOURNAL);
+        given(accountRepository.findSummaryItemsByAccountUserId(USER_ID))
+                .willReturn(List.of(item("1000000012", 1000L, 0L)));
+        //when
+        cache.count(USER_ID);
+        cache.count(USER_ID);
+        //then
+        verify(accountRepository, times(2)).findSummaryItemsByAccountUserId(USER_ID);
+    }
+
+    private AccountSummaryCache cache(TransactionMode transactionMode) {
+        return new AccountSummaryCache(accountRepository, new SimpleMeterRegistry(), transactionMode, 100,
+                Duration.ofMinutes(1));
+    }
+
+    private AccountSummaryItem item(String accountNumber, Long balance, Long version) {
+        return AccountSummaryItem.builder()
+                .accountNumber(accountNumber)
+                .balance(balance)
+                .accountStatus(AccountStatus.IN_USE)
+                .version(version)
+                .build();
+    }
+
+    private Account account(String accountNumber, Long balance, Long version) {
+        return Account.builder()
+                .accountUser(AccountUser.builder().id(USER_ID).build())
+                .accountNumber(accountNumber)
+                .accountStatus(AccountStatus.IN_USE)
+                .balance(balance)
+                .version(version)
+                .build();
+    }
+}
@@ -0,0 +1,142 @@
+package com.example.account_project.service;
+
+import com.example.account_project.domain.AccountUser;
+import com.example.account_project.repository.AccountUserRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Pageable;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionSynchronizationUtils;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class AccountUserCacheTest {
+    @Mock
+    private AccountUserRepository accountUserRepository;
+
+    private AccountUserCache accountUserCache;
+
+    private final AccountUser pobi = AccountUser.builder()
+            .id(12L)
+            .name("Pobi")
+            .build();
+
+    @BeforeEach
+    void setUp() {
+        accountUserCache = new AccountUserCache(accountUserRepository, new SimpleMeterRegistry(), 100, true,
+                Duration.ofMinutes(10));
+    }
+
+    @Test
+    @DisplayName("두 번째 조회부터는 SELECT 없이 참조를 돌려줌")
+    void findById_hit() {
+        //given
+        given(accountUserRepository.findById(12L))
+                .willReturn(Optional.of(pobi));
+        given(accountUserRepository.getReferenceById(12L))
+                .willReturn(pobi);
+        //when
+        accountUserCache.findById(12L);
+        Optional<AccountUser> found = accountUserCache.findById(12L);
+        //then
+        assertEquals(12L, found.get().getId());
+        verify(accountUserRepository, times(1)).findById(12L);
+        assertEquals(1L, accountUserCache.stats().hitCount());
+        assertEquals(1L, accountUserCache.stats().missCount());
+    }
+
+    @Test
+    @DisplayName("없는 사용자는 캐시하지 않음")
+    void findById_notFound() {
+        //given
+        given(accountUserRepository.findById(13L))
+                .willReturn(Optional.empty());
+        //when
+        accountUserCache.findById(13L);
+        Optional<AccountUser> found = accountUserCache.findById(13L);
+        //then
+        assertFalse(found.isPresent());
+        verify(accountUserRepository, times(2)).findById(13L);
+        verify(accountUserRepository, never()).getReferenceById(any());
+    }
+
+    @Test
+    @DisplayName("시작할 때 채운 사용자는 조회 없이 있음")
+    void warmUp() {
+        //given
+        given(accountUserRepository.findIds(any(Pageable.class)))
+                .willReturn(List.of(1L, 2L, 3L));
+        //when
+        accountUserCache.warmUp();
+        //then
+        assertTrue(accountUserCache.exists(2L));
+        verify(accountUserRepository, never()).existsById(any());
+    }
+
+    @Test
+    @DisplayName("무효화하면 다시 DB 에서 확인")
+    void invalidate() {
+        //given
+        given(accountUserRepository.existsById(12L))
+                .willReturn(true, false);
+        accountUserCache.exists(12L);
+        //when
+        accountUserCache.invalidate(12L);
+        boolean exists = accountUserCache.exists(12L);
+        //then
+        assertFalse(exists);
+        verify(accountUserRepository, times(2)).existsById(12L);
+    }
+
+    @Test
+    @DisplayName("저장한 사용자는 커밋 뒤에 캐시에 넣음")
+    void putAfterCommit() {
+        //given
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            //when
+            accountUserCache.putAfterCommit(12L);
+            TransactionSynchronizationUtils.invokeAfterCommit(TransactionSynchronizationManager.getSynchronizations());
+            //then
+            assertTrue(accountUserCache.exists(12L));
+            verify(accountUserRepository, never()).existsById(any());
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    @DisplayName("삭제한 사용자는 바로 지우고, 커밋 전에 다시 들어온 것도 커밋 뒤에 지움")
+    void invalidateAfterCommit() {
+        //given
+        given(accountUserRepository.existsById(12L))
+                .willReturn(false);
+        accountUserCache.put(12L);
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            //when
+            accountUserCache.invalidateAfterCommit(12L);
+            accountUserCache.put(12L);
+            TransactionSynchronizationUtils.invokeAfterCommit(TransactionSynchronizationManager.getSynchronizations());
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        boolean exists = accountUserCache.exists(12L);
+        //then
+        assertFalse(exists);
+        verify(accountUserRepository).existsById(12L);
+    }
+}
@@ -0,0 +1,105 @@
+package com.example.account_project.service;
+
+import com.example.account_project.Exception.AccountException;
+import com.example.account_project.repository.AccountRepository;
+import com.example.account_project.type.ErrorCode;
+import com.example.account_project.type.TransactionResultType;
+import com.example.account_project.type.TransactionType;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest(properties = {
+        "account.transaction.mode=ATOMIC",
+        "account.lock.backend=local",
+        "spring.redis.port=6391",
+        "spring.datasource.url=jdbc:h2:mem:atomic-debit;LOCK_TIMEOUT=10000",
+        "account.failed-transaction.spill-file=build/failed-transactions/atomic-debit.log",
+        "spring.jpa.properties.hibernate.show_sql=false"
+})
+class AtomicDebitConcurrencyTest {
+    private static final int THREAD_COUNT = 64;
+    private static final int REQUEST_PER_THREAD = 5;
+    private static final long INITIAL_BALANCE = 10_000L;
+    private static final long AMOUNT = 100L;
+    private static final long USER_ID = 1L;
+
+    @Autowired
+    private AccountService accountService;
+    @Autowired
+    private TransactionService transactionService;
+    @Autowired
+    private AccountRepository accountRepository;
+    @Autowired
+    private EntityManager entityManager;
+
+    @Test
+    @DisplayName("ATOMIC 모드 - 64개 스레드가 한 계좌에서 동시에 사용해도 잔액이 음수가 되지 않음")
+    void useBalance_concurrentlyNoOverdraft() throws Exception {
+        //given
+        String accountNumber = accountService.createAccount(USER_ID, INITIAL_BALANCE).getAccountNumber();
+        AtomicInteger successCount = new AtomicInteger();
+        AtomicInteger exceedCount = new AtomicInteger();
+
+        //when
+        ExecutorService executorService = Executors.newFixedThreadPool(THREAD_COUNT);
+        CountDownLatch startLatch = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+        try {
+            for (int i = 0; i < THREAD_COUNT; i++) {
+                futures.add(executorService.submit(() -> {
+                    startLatch.await();
+                    for (int j = 0; j < REQUEST_PER_THREAD; j++) {
+                        try {
+                            transactionService.useBalance(USER_ID, accountNumber, AMOUNT);
+                            successCount.incrementAndGet();
+                        } catch (AccountException e) {
+                            assertEquals(ErrorCode.AMOUNT_EXCEED_BALANCE, e.getErrorCode());
+                            exceedCount.incrementAndGet();
+                        }
+                    }
+                    return null;
+                }));
+            }
+            startLatch.countDown();
+            for (Future<?> future : futures) {
+                future.get(60, TimeUnit.SECONDS);
+            }
+        } finally {
+            executorService.shutdownNow();
+        }
+
+        //then
+        long expectedSuccess = INITIAL_BALANCE / AMOUNT;
+        assertEquals(expectedSuccess, successCount.get());
+        assertEquals(THREAD_COUNT * REQUEST_PER_THREAD - expectedSuccess, exceedCount.get());
+        assertEquals(0L, accountRepository.findByAccountNumber(accountNumber).orElseThrow().getBalance());
+        //거래마다 잔액 스냅샷이 달라야 한다 (9900, 9800, ... , 0)
+        Set<Long> balanceSnapshots = new HashSet<>(successBalanceSnapshots(accountNumber));
+        assertEquals(expectedSuccess, balanceSnapshots.size());
+        assertTrue(balanceSnapshots.contains(0L));
+    }
+
+    private List<Long> successBalanceSnapshots(String accountNumber) {
+        return entityManager.createQuery("select t.balanceSnapshot from Transaction t " +
+                        "where t.account.accountNumber = :accountNumber " +
+                        "and t.transactionType = :transactionType " +
+                        "and t.transactionResultType = :transactionResultType", Long.class)
+                .setParameter("accountNumber", accountNumber)
+                .setParameter("transactionType", TransactionType.USE)
+                .setParameter("transactionResultType", TransactionResultType.SUCCESS)
+                .getResultList();
+    }
+}
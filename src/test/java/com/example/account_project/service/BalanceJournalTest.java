@@ -0,0 +1,267 @@
+package com.example.account_project.service;
+
+import com.example.account_project.Exception.AccountException;
+import com.example.account_project.dto.JournalEntry;
+import com.example.account_project.repository.AccountRepository;
+import com.example.account_project.type.ErrorCode;
+import com.example.account_project.type.TransactionMode;
+import com.example.account_project.type.TransactionResultType;
+import com.example.account_project.type.TransactionType;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Captor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.util.unit.DataSize;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class BalanceJournalTest {
+
+    @Mock
+    private AccountRepository accountRepository;
+    @Mock
+    private JournalApplier journalApplier;
+
+    @Captor
+    private ArgumentCaptor<List<JournalEntry>> journalEntriesCaptor;
+
+    @TempDir
+    Path tempDir;
+
+    private BalanceJournal journal;
+
+    @AfterEach
+    void tearDown() throws Exception {
+        if (journal != null) {
+            journal.stop();
+        }
+    }
+
+    @Test
+    @DisplayName("DB 잔액에 아직 반영되지 않은 저널 변경분을 더한 잔액으로 검증")
+    void append_pendingDeltaIncluded() throws Exception {
+        //given
+        AtomicLong dbBalance = new AtomicLong(1000L);
+        given(accountRepository.findBalanceById(1L)).willAnswer(invocation -> dbBalance.get());
+        given(journalApplier.apply(anyList(), any())).willAnswer(invocation -> {
+            List<JournalEntry> entries = invocation.getArgument(0);
+            entries.forEach(entry -> dbBalance.addAndGet(entry.getDelta()));
+            return commit(invocation.getArgument(1), entries.size());
+        });
+        journal = start(DataSize.ofMegabytes(1));
+
+        //when
+        List<Long> snapshots = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            snapshots.add(journal.append(1L, balance -> debit(balance, 100L)).getBalanceSnapshot());
+        }
+        AccountException exceed = assertThrows(AccountException.class,
+                () -> journal.append(1L, balance -> debit(balance, 100L)));
+
+        //then
+        assertEquals(List.of(900L, 800L, 700L, 600L, 500L, 400L, 300L, 200L, 100L, 0L), snapshots);
+        assertEquals(ErrorCode.AMOUNT_EXCEED_BALANCE, exceed.getErrorCode());
+        awaitApplied();
+        assertEquals(0L, dbBalance.get());
+        assertEquals(0L, journal.pendingDelta(1L));
+    }
+
+    @Test
+    @DisplayName("세그먼트가 가득 차면 다음 세그먼트로 넘어가고, 반영이 끝난 세그먼트는 지움")
+    void append_rotateSegment() throws Exception {
+        //given
+        given(accountRepository.findBalanceById(1L)).willReturn(1_000_000L);
+        List<JournalEntry> applied = new ArrayList<>();
+        given(journalApplier.apply(anyList(), any())).willAnswer(invocation -> {
+            List<JournalEntry> entries = invocation.getArgument(0);
+            synchronized (applied) {
+                applied.addAll(entries);
+            }
+            return commit(invocation.getArgument(1), entries.size());
+        });
+        journal = start(DataSize.ofKilobytes(1));
+
+        //when
+        for (int i = 0; i < 30; i++) {
+            journal.append(1L, balance -> debit(balance, 10L));
+        }
+
+        //then
+        awaitApplied();
+        assertEquals(30, applied.size());
+        assertEquals(30, applied.stream().map(JournalEntry::getTransactionId).distinct().count());
+        assertEquals(1, segmentFiles());
+    }
+
+    @Test
+    @DisplayName("반영되지 않은 저널은 다음 시작 때 다시 반영")
+    void start_recoverUnapplied() throws Exception {
+        //given
+        given(accountRepository.findBalanceById(1L)).willReturn(1000L);
+        given(journalApplier.apply(anyList(), any())).willThrow(new IllegalStateException("db down"));
+        journal = start(DataSize.ofMegabytes(1));
+        JournalEntry first = journal.append(1L, balance -> debit(balance, 100L));
+        JournalEntry second = journal.append(1L, balance -> debit(balance, 200L));
+        journal.stop();
+        journal = null;
+        reset(journalApplier);
+
+        //when
+        journal = start(DataSize.ofMegabytes(1));
+
+        //then
+        verify(journalApplier).apply(journalEntriesCaptor.capture());
+        List<JournalEntry> recovered = journalEntriesCaptor.getValue();
+        assertEquals(2, recovered.size());
+        assertEquals(first.getTransactionId(), recovered.get(0).getTransactionId());
+        assertEquals(-100L, recovered.get(0).getDelta());
+        assertEquals(700L, recovered.get(1).getBalanceSnapshot());
+        assertEquals(second.getTransactedAt(), recovered.get(1).getTransactedAt());
+        assertEquals("1000000012", recovered.get(1).getAccountNumber());
+        assertEquals(1, segmentFiles());
+    }
+
+    @Test
+    @DisplayName("반영 스레드가 세그먼트를 읽지 못해 멈추면 이후 저널 쓰기를 거절")
+    void append_rejectedAfterApplierFailure() throws Exception {
+        //given
+        given(accountRepository.findBalanceById(1L)).willReturn(1000L);
+        journal = start(DataSize.ofMegabytes(1));
+        try (Stream<Path> files = Files.list(tempDir)) {
+            for (Path file : files.toList()) {
+                Files.delete(file);
+            }
+        }
+        journal.append(1L, balance -> debit(balance, 100L));
+
+        //when
+        IllegalStateException exception = null;
+        long deadline = System.currentTimeMillis() + 5000;
+        while (exception == null && System.currentTimeMillis() < deadline) {
+            try {
+                journal.append(1L, balance -> debit(balance, 100L));
+                Thread.sleep(10);
+            } catch (IllegalStateException e) {
+                exception = e;
+            }
+        }
+
+        //then
+        assertNotNull(exception);
+        assertEquals("Balance journal applier has stopped", exception.getMessage());
+        verify(journalApplier, never()).apply(anyList(), any());
+    }
+
+    @Test
+    @DisplayName("반영 SQL 을 실행하는 동안에는 잔액 쓰기 락을 잡지 않아서 요청이 기다리지 않음")
+    void apply_writeLockOnlyWhileCommitting() throws Exception {
+        //given
+        given(accountRepository.findBalanceById(1L)).willReturn(1000L);
+        ExecutorService executorService = Executors.newSingleThreadExecutor();
+        List<Long> snapshotsWhileApplying = new CopyOnWriteArrayList<>();
+        given(journalApplier.apply(anyList(), any())).willAnswer(invocation -> {
+            List<JournalEntry> entries = invocation.getArgument(0);
+            if (snapshotsWhileApplying.isEmpty()) {
+                snapshotsWhileApplying.add(executorService
+                        .submit(() -> journal.append(1L, balance -> debit(balance, 100L)))
+                        .get(1, TimeUnit.SECONDS)
+                        .getBalanceSnapshot());
+            }
+            return commit(invocation.getArgument(1), entries.size());
+        });
+        journal = start(DataSize.ofMegabytes(1));
+
+        //when
+        try {
+            journal.append(1L, balance -> debit(balance, 100L));
+            awaitApplied();
+        } finally {
+            executorService.shutdownNow();
+        }
+
+        //then
+        assertEquals(List.of(800L), snapshotsWhileApplying);
+        assertEquals(0L, journal.pendingDelta(1L));
+    }
+
+    @Test
+    @DisplayName("노드 하나로만 띄우는 설정(account.lock.backend=local)이 아니면 JOURNAL 모드로 시작하지 않음")
+    void create_requiresSingleNode() {
+        //given
+        //when
+        IllegalStateException exception = assertThrows(IllegalStateException.class,
+                () -> new BalanceJournal(accountRepository, journalApplier, TransactionMode.JOURNAL,
+                        "redis", tempDir.toString(), DataSize.ofMegabytes(1), 1L, 100));
+
+        //then
+        assertTrue(exception.getMessage().contains("account.lock.backend=local"));
+    }
+
+    private BalanceJournal start(DataSize segmentSize) throws Exception {
+        BalanceJournal balanceJournal = new BalanceJournal(accountRepository, journalApplier, TransactionMode.JOURNAL,
+                "local", tempDir.toString(), segmentSize, 1L, 100);
+        balanceJournal.start();
+        return balanceJournal;
+    }
+
+    private JournalEntry debit(long balance, long amount) {
+        if (balance < amount) {
+            throw new AccountException(ErrorCode.AMOUNT_EXCEED_BALANCE);
+        }
+        return JournalEntry.builder()
+                .transactionId(UUID.randomUUID().toString().replace("-", ""))
+                .accountId(1L)
+                .accountNumber("1000000012")
+                .transactionType(TransactionType.USE)
+                .transactionResultType(TransactionResultType.SUCCESS)
+                .amount(amount)
+                .delta(-amount)
+                .balanceSnapshot(balance - amount)
+                .transactedAt(LocalDateTime.now())
+                .build();
+    }
+
+    /* 반영 트랜잭션이 커밋된 것처럼 커밋 구간 콜백을 부른다. */
+    private int commit(JournalApplier.CommitGuard commitGuard, int applied) {
+        commitGuard.enter();
+        commitGuard.exit(true);
+        return applied;
+    }
+
+    private void awaitApplied() throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (journal.appliedLsn() < journal.flushedLsn() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(journal.flushedLsn(), journal.appliedLsn());
+    }
+
+    private long segmentFiles() throws Exception {
+        try (Stream<Path> files = Files.list(tempDir)) {
+            return files.count();
+        }
+    }
+}
@@ -0,0 +1,153 @@
+package com.example.account_project.service;
+
+import com.example.account_project.Exception.AccountException;
+import com.example.account_project.domain.Account;
+import com.example.account_project.dto.TransactionDto;
+import com.example.account_project.dto.UseBalance;
+import com.example.account_project.repository.AccountRepository;
+import com.example.account_project.type.ErrorCode;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static com.example.account_project.type.TransactionResultType.FAIL;
+import static com.example.account_project.type.TransactionResultType.SUCCESS;
+
+@SpringBootTest(properties = {
+        "account.transaction.mode=LOCK",
+        "account.lock.backend=local",
+        "spring.redis.port=6396",
+        "spring.datasource.url=jdbc:h2:mem:balance-slot;LOCK_TIMEOUT=10000",
+        "account.failed-transaction.spill-file=build/failed-transactions/balance-slot.log",
+        "spring.jpa.properties.hibernate.show_sql=false"
+})
+class BalanceSlotConcurrencyTest {
+    private static final int THREAD_COUNT = 64;
+    private static final int REQUEST_PER_THREAD = 5;
+    private static final int SLOT_COUNT = 8;
+    private static final long INITIAL_BALANCE = 10_000L;
+    private static final long AMOUNT = 100L;
+    private static final long USER_ID = 1L;
+
+    @Autowired
+    private AccountService accountService;
+    @Autowired
+    private TransactionService transactionService;
+    @Autowired
+    private BalanceSlotService balanceSlotService;
+    @Autowired
+    private AccountRepository accountRepository;
+    @Autowired
+    private EntityManager entityManager;
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Test
+    @DisplayName("잔액을 슬롯으로 나눈 계좌 - 계좌 락 없이 64개 스레드가 동시에 사용해도 슬롯 잔액이 음수가 되지 않음")
+    void useBalance_concurrentlyNoOverdraft() throws Exception {
+        //given
+        String accountNumber = accountService.createAccount(USER_ID, INITIAL_BALANCE).getAccountNumber();
+        balanceSlotService.shard(accountNumber, SLOT_COUNT);
+        AtomicInteger successCount = new AtomicInteger();
+        AtomicInteger exceedCount = new AtomicInteger();
+
+        //when
+        ExecutorService executorService = Executors.newFixedThreadPool(THREAD_COUNT);
+        CountDownLatch startLatch = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+        try {
+            for (int i = 0; i < THREAD_COUNT; i++) {
+                futures.add(executorService.submit(() -> {
+                    startLatch.await();
+                    for (int j = 0; j < REQUEST_PER_THREAD; j++) {
+                        try {
+                            transactionService.useBalance(USER_ID, accountNumber, AMOUNT);
+                            successCount.incrementAndGet();
+                        } catch (AccountException e) {
+                            assertEquals(ErrorCode.AMOUNT_EXCEED_BALANCE, e.getErrorCode());
+                            exceedCount.incrementAndGet();
+                        }
+                    }
+                    return null;
+                }));
+            }
+            startLatch.countDown();
+            for (Future<?> future : futures) {
+                future.get(60, TimeUnit.SECONDS);
+            }
+        } finally {
+            executorService.shutdownNow();
+        }
+
+        //then
+        long expectedSuccess = INITIAL_BALANCE / AMOUNT;
+        assertEquals(expectedSuccess, successCount.get());
+        assertEquals(THREAD_COUNT * REQUEST_PER_THREAD - expectedSuccess, exceedCount.get());
+        assertTrue(balanceSlotService.isSharded(accountNumber));
+        assertEquals(0L, accountRepository.findByAccountNumber(accountNumber).orElseThrow().getBalance());
+        List<Long> slotBalances = slotBalances(accountNumber);
+        assertEquals(SLOT_COUNT, slotBalances.size());
+        assertTrue(slotBalances.stream().allMatch(balance -> balance == 0L));
+    }
+
+    @Test
+    @DisplayName("한 트랜잭션에서 나눠서 차감 - 슬롯 하나 차감 - 나눠서 차감을 해도 앞의 차감이 덮어써지지 않음")
+    void debitAcrossSlots_twiceInOneTransaction() {
+        //given
+        String accountNumber = accountService.createAccount(USER_ID, 1000L).getAccountNumber();
+        balanceSlotService.shard(accountNumber, 4);
+
+        //when
+        List<Long> balanceSnapshots = transactionTemplate.execute(status -> {
+            Account account = accountRepository.findByAccountNumber(accountNumber).orElseThrow();
+            return List.of(balanceSlotService.debitLockingAllSlots(account, 600L),
+                    balanceSlotService.debit(account, 100L),
+                    balanceSlotService.debitLockingAllSlots(account, 300L));
+        });
+
+        //then
+        assertEquals(List.of(400L, 300L, 0L), balanceSnapshots);
+        assertTrue(slotBalances(accountNumber).stream().allMatch(balance -> balance == 0L));
+    }
+
+    @Test
+    @DisplayName("나눈 계좌 배치 사용 - 나눠서 차감, 슬롯 하나로 되는 차감, 나눠서 차감 순서로 모두 성공하고 잔액이 맞음")
+    void useBalanceBatch_sharded() {
+        //given
+        String accountNumber = accountService.createAccount(USER_ID, 1000L).getAccountNumber();
+        balanceSlotService.shard(accountNumber, 4);
+        List<UseBalance.Request> requests = List.of(
+                new UseBalance.Request(USER_ID, accountNumber, 600L),
+                new UseBalance.Request(USER_ID, accountNumber, 100L),
+                new UseBalance.Request(USER_ID, accountNumber, 300L),
+                new UseBalance.Request(USER_ID, accountNumber, 10L));
+
+        //when
+        List<TransactionDto> results = transactionService.useBalanceBatch(requests, Set.of(accountNumber));
+
+        //then
+        assertEquals(List.of(SUCCESS, SUCCESS, SUCCESS, FAIL),
+                results.stream().map(TransactionDto::getTransactionResultType).toList());
+        assertEquals(List.of(400L, 300L, 0L, 0L),
+                results.stream().map(TransactionDto::getBalanceSnapshot).toList());
+        assertTrue(slotBalances(accountNumber).stream().allMatch(balance -> balance == 0L));
+    }
+
+    private List<Long> slotBalances(String accountNumber) {
+        return entityManager.createQuery("select s.balance from AccountBalanceSlot s " +
+                        "where s.account.accountNumber = :accountNumber order by s.slotNo", Long.class)
+                .setParameter("accountNumber", accountNumber)
+                .getResultList();
+    }
+}
@@ -0,0 +1,224 @@
+package com.example.account_project.service;
+
+import com.example.account_project.Exception.AccountException;
+import com.example.account_project.domain.Account;
+import com.example.account_project.domain.AccountBalanceSlot;
+import com.example.account_project.domain.AccountUser;
+import com.example.account_project.repository.AccountBalanceSlotRepository;
+import com.example.account_project.repository.AccountRepository;
+import com.example.account_project.type.AccountStatus;
+import com.example.account_project.type.ErrorCode;
+import com.example.account_project.type.TransactionMode;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Captor;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionSynchronizationUtils;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class BalanceSlotServiceTest {
+    @Mock
+    private AccountRepository accountRepository;
+    @Mock
+    private AccountBalanceSlotRepository accountBalanceSlotRepository;
+    @Mock
+    private AccountSummaryCache accountSummaryCache;
+    @Captor
+    private ArgumentCaptor<List<AccountBalanceSlot>> slotsCaptor;
+
+    @Test
+    @DisplayName("잔액을 슬롯에 고르게 나누고, 나눈 뒤에는 계좌 락을 건너뛸 계좌로 기억")
+    void shard() {
+        //given
+        BalanceSlotService service = service(TransactionMode.LOCK);
+        Account account = account(1003L, null);
+        given(accountRepository.findForUpdateByAccountNumber("1000000012"))
+                .willReturn(Optional.of(account));
+
+        //when
+        Long balance = service.shard("1000000012", 4);
+
+        //then
+        verify(accountBalanceSlotRepository).saveAll(slotsCaptor.capture());
+        assertEquals(1003L, balance);
+        assertEquals(List.of(251L, 251L, 251L, 250L),
+                slotsCaptor.getValue().stream().map(AccountBalanceSlot::getBalance).toList());
+        assertEquals(List.of(0, 1, 2, 3),
+                slotsCaptor.getValue().stream().map(AccountBalanceSlot::getSlotNo).toList());
+        assertEquals(0L, account.getBalance());
+        assertEquals(4, account.getBalanceSlots());
+        verify(accountSummaryCache).evictAfterCommit(1L);
+        assertTrue(service.isSharded("1000000012"));
+        verify(accountRepository, never()).findBalanceSlotsByAccountNumber(anyString());
+    }
+
+    @Test
+    @DisplayName("JOURNAL 모드이거나 이미 나눈 계좌는 나눌 수 없음")
+    void shard_invalid() {
+        //given
+        given(accountRepository.findForUpdateByAccountNumber("1000000012"))
+                .willReturn(Optional.of(account(0L, 4)));
+
+        //when
+        AccountException journal = assertThrows(AccountException.class,
+                () -> service(TransactionMode.JOURNAL).shard("1000000012", 4));
+        AccountException sharded = assertThrows(AccountException.class,
+                () -> service(TransactionMode.LOCK).shard("1000000012", 4));
+
+        //then
+        assertEquals(ErrorCode.INVALID_REQUEST, journal.getErrorCode());
+        assertEquals(ErrorCode.INVALID_REQUEST, sharded.getErrorCode());
+        verify(accountBalanceSlotRepository, never()).saveAll(any());
+    }
+
+    @Test
+    @DisplayName("잔액이 충분한 슬롯 하나만 차감하고 슬롯 합계를 돌려줌")
+    void debit_singleSlot() {
+        //given
+        BalanceSlotService service = service(TransactionMode.LOCK);
+        given(accountBalanceSlotRepository.debitIfSufficient(eq(10L), anyInt(), eq(100L), any()))
+                .willReturn(0, 1);
+        given(accountBalanceSlotRepository.sumBalance(10L))
+                .willReturn(900L);
+
+        //when
+        Long balanceSnapshot = service.debit(account(0L, 4), 100L);
+
+        //then
+        assertEquals(900L, balanceSnapshot);
+        verify(accountBalanceSlotRepository, times(2)).debitIfSufficient(eq(10L), anyInt(), eq(100L), any());
+        verify(accountBalanceSlotRepository, never()).lockAll(anyLong(), any());
+    }
+
+    @Test
+    @DisplayName("다른 거래가 차감 중인 슬롯은 기다리지 않고 다음 슬롯에서 차감, 슬롯은 트랜잭션이 끝나면 풀림")
+    void debit_skipBusySlot() throws Exception {
+        //given
+        BalanceSlotService service = service(TransactionMode.LOCK);
+        given(accountBalanceSlotRepository.debitIfSufficient(eq(10L), anyInt(), eq(100L), any()))
+                .willReturn(1);
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            service.debit(account(0L, 2), 100L);
+
+            //when
+            CompletableFuture.supplyAsync(() -> service.debit(account(0L, 2), 100L)).get();
+        } finally {
+            completeTransaction();
+        }
+        // 풀렸으면 다른 트랜잭션이 두 슬롯을 모두 잡을 수 있다
+        CompletableFuture.runAsync(() -> {
+            TransactionSynchronizationManager.initSynchronization();
+            try {
+                service.debit(account(0L, 2), 100L);
+                service.debit(account(0L, 2), 100L);
+            } finally {
+                completeTransaction();
+            }
+        }).get();
+
+        //then
+        ArgumentCaptor<Integer> slotNos = ArgumentCaptor.forClass(Integer.class);
+        verify(accountBalanceSlotRepository, times(4)).debitIfSufficient(eq(10L), slotNos.capture(), eq(100L), any());
+        assertNotEquals(slotNos.getAllValues().get(0), slotNos.getAllValues().get(1));
+        assertNotEquals(slotNos.getAllValues().get(2), slotNos.getAllValues().get(3));
+        verify(accountBalanceSlotRepository, never()).lockAll(anyLong(), any());
+    }
+
+    @Test
+    @DisplayName("사용 취소는 계좌 락 대신 모든 슬롯을 잠근 뒤 슬롯 하나에 적립")
+    void credit_locksAllSlots() {
+        //given
+        BalanceSlotService service = service(TransactionMode.LOCK);
+        given(accountBalanceSlotRepository.sumBalance(10L))
+                .willReturn(1100L);
+
+        //when
+        Long balanceSnapshot = service.credit(account(0L, 4), 100L);
+
+        //then
+        assertEquals(1100L, balanceSnapshot);
+        InOrder inOrder = inOrder(accountBalanceSlotRepository);
+        inOrder.verify(accountBalanceSlotRepository).lockAll(eq(10L), any());
+        inOrder.verify(accountBalanceSlotRepository).credit(eq(10L), anyInt(), eq(100L), any());
+    }
+
+    @Test
+    @DisplayName("혼자서 충분한 슬롯이 없으면 슬롯을 모두 잠그고 슬롯마다 조건부 UPDATE 로 나눠서 차감, 합계가 모자라면 잔액 부족")
+    void debit_acrossSlots() {
+        //given
+        BalanceSlotService service = service(TransactionMode.LOCK);
+        given(accountBalanceSlotRepository.debitIfSufficient(eq(10L), anyInt(), anyLong(), any()))
+                .willReturn(0);
+        given(accountBalanceSlotRepository.findBalancesByAccountId(10L))
+                .willReturn(List.of(60L, 50L), List.of(0L, 10L));
+
+        //when
+        Long balanceSnapshot = service.debit(account(0L, 2), 100L);
+        AccountException exceed = assertThrows(AccountException.class,
+                () -> service.debit(account(0L, 2), 100L));
+
+        //then
+        assertEquals(10L, balanceSnapshot);
+        verify(accountBalanceSlotRepository, times(2)).lockAll(eq(10L), any());
+        verify(accountBalanceSlotRepository).debitIfSufficient(eq(10L), eq(0), eq(60L), any());
+        verify(accountBalanceSlotRepository).debitIfSufficient(eq(10L), eq(1), eq(40L), any());
+        assertEquals(ErrorCode.AMOUNT_EXCEED_BALANCE, exceed.getErrorCode());
+    }
+
+    @Test
+    @DisplayName("나눴는지는 계좌번호별로 한 번만 조회")
+    void isSharded_cached() {
+        //given
+        BalanceSlotService service = service(TransactionMode.LOCK);
+        given(accountRepository.findBalanceSlotsByAccountNumber("1000000012"))
+                .willReturn(Optional.empty());
+
+        //when
+        boolean first = service.isSharded("1000000012");
+        boolean second = service.isSharded("1000000012");
+
+        //then
+        assertFalse(first);
+        assertFalse(second);
+        verify(accountRepository, times(1)).findBalanceSlotsByAccountNumber("1000000012");
+    }
+
+    private static void completeTransaction() {
+        TransactionSynchronizationUtils.invokeAfterCompletion(
+                TransactionSynchronizationManager.getSynchronizations(), TransactionSynchronization.STATUS_COMMITTED);
+        TransactionSynchronizationManager.clearSynchronization();
+    }
+
+    private BalanceSlotService service(TransactionMode transactionMode) {
+        return new BalanceSlotService(accountRepository, accountBalanceSlotRepository, accountSummaryCache,
+                new SimpleMeterRegistry(), transactionMode, 64, 1000);
+    }
+
+    private Account account(Long balance, Integer balanceSlots) {
+        return Account.builder()
+                .id(10L)
+                .accountUser(AccountUser.builder().id(1L).name("messi").build())
+                .accountNumber("1000000012")
+                .accountStatus(AccountStatus.IN_USE)
+                .balance(balance)
+                .balanceSlots(balanceSlots)
+                .build();
+    }
+}
@@ -0,0 +1,252 @@
+package com.example.account_project.service;
+
+import com.example.account_project.dto.FailedTransaction;
+import com.example.account_project.type.TransactionType;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Captor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.util.unit.DataSize;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class FailedTransactionWriterTest {
+
+    @Mock
+    private TransactionService transactionService;
+
+    @Captor
+    private ArgumentCaptor<List<FailedTransaction>> failedTransactionsCaptor;
+
+    @TempDir
+    Path tempDir;
+
+    private FailedTransactionWriter writer;
+
+    @AfterEach
+    void tearDown() throws Exception {
+        if (writer != null) {
+            writer.stop();
+        }
+    }
+
+    @Test
+    @DisplayName("실패 거래는 백그라운드에서 저장되고 스필 파일은 비워짐")
+    void enqueue_writeBehind() throws Exception {
+        //given
+        Path spillFile = tempDir.resolve("failed.log");
+        writer = start(10, 10L, spillFile);
+
+        //when
+        writer.enqueue(TransactionType.USE, "1000000000", 1000L);
+        writer.enqueue(TransactionType.CANCEL, "1000000000", 2000L);
+
+        //then
+        verify(transactionService, timeout(5000).atLeastOnce()).saveFailedTransactions(failedTransactionsCaptor.capture());
+        awaitPending(0);
+        List<FailedTransaction> written = failedTransactionsCaptor.getAllValues().stream().flatMap(List::stream).toList();
+        assertEquals(2, written.size());
+        assertEquals(TransactionType.USE, written.get(0).getTransactionType());
+        assertEquals(2000L, written.get(1).getAmount());
+        assertEquals(0L, Files.size(spillFile));
+    }
+
+    @Test
+    @DisplayName("시작할 때 스필 파일에 남은 실패 거래를 저장")
+    void start_recoverSpillFile() throws Exception {
+        //given
+        Path spillFile = tempDir.resolve("failed.log");
+        FailedTransaction spilled = new FailedTransaction("transactionId", TransactionType.USE,
+                "1000000000", 1000L, LocalDateTime.of(2023, 8, 1, 9, 0));
+        Files.writeString(spillFile, spilled.toLine() + "\n", StandardCharsets.UTF_8);
+
+        //when
+        writer = start(10, 10L, spillFile);
+
+        //then
+        verify(transactionService).saveFailedTransactions(failedTransactionsCaptor.capture());
+        assertEquals("transactionId", failedTransactionsCaptor.getValue().get(0).getTransactionId());
+        assertEquals(LocalDateTime.of(2023, 8, 1, 9, 0), failedTransactionsCaptor.getValue().get(0).getTransactedAt());
+        assertEquals(0L, Files.size(spillFile));
+    }
+
+    @Test
+    @DisplayName("저장이 실패하면 스필 파일에 남겨둠")
+    void start_keepSpillFileIfWriteFails() throws Exception {
+        //given
+        Path spillFile = tempDir.resolve("failed.log");
+        FailedTransaction spilled = new FailedTransaction("transactionId", TransactionType.USE,
+                "1000000000", 1000L, LocalDateTime.of(2023, 8, 1, 9, 0));
+        Files.writeString(spillFile, spilled.toLine() + "\n", StandardCharsets.UTF_8);
+        given(transactionService.saveFailedTransactions(anyList()))
+                .willThrow(new IllegalStateException("DB down"));
+
+        //when
+        writer = start(10, 10L, spillFile);
+
+        //then
+        assertEquals(1L, writer.pending());
+        assertEquals(spilled.toLine(), Files.readAllLines(spillFile).get(0));
+    }
+
+    @Test
+    @DisplayName("큐가 가득 차면 요청 스레드에서 바로 저장")
+    void enqueue_backpressure() throws Exception {
+        //given
+        CountDownLatch writerBlocked = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        List<String> writingThreads = new ArrayList<>();
+        given(transactionService.saveFailedTransactions(anyList()))
+                .willAnswer(invocation -> {
+                    synchronized (writingThreads) {
+                        writingThreads.add(Thread.currentThread().getName());
+                    }
+                    if (Thread.currentThread().getName().equals("failed-transaction-writer")) {
+                        writerBlocked.countDown();
+                        release.await(5, TimeUnit.SECONDS);
+                    }
+                    return 1;
+                });
+        writer = start(1, 10L, tempDir.resolve("failed.log"));
+
+        //when
+        writer.enqueue(TransactionType.USE, "1000000000", 1000L);
+        assertTrue(writerBlocked.await(5, TimeUnit.SECONDS));
+        writer.enqueue(TransactionType.USE, "1000000000", 1000L);
+        writer.enqueue(TransactionType.USE, "1000000000", 1000L);
+
+        //then
+        assertEquals(1, writer.queueSize());
+        synchronized (writingThreads) {
+            assertTrue(writingThreads.contains(Thread.currentThread().getName()));
+        }
+        release.countDown();
+        awaitPending(0);
+    }
+
+    @Test
+    @DisplayName("종료할 때 큐에 남은 실패 거래를 모두 저장")
+    void stop_flushQueue() throws Exception {
+        //given
+        writer = start(100, 10L, tempDir.resolve("failed.log"));
+        for (int i = 0; i < 50; i++) {
+            writer.enqueue(TransactionType.USE, "1000000000", 1000L);
+        }
+
+        //when
+        writer.stop();
+
+        //then
+        assertEquals(0L, writer.pending());
+        writer = null;
+    }
+
+    @Test
+    @DisplayName("저장이 끝난 앞부분은 잘라내고 저장되지 않은 줄부터 남김")
+    void write_compactSpillFile() throws Exception {
+        //given
+        Path spillFile = tempDir.resolve("failed.log");
+        CountDownLatch firstBlocked = new CountDownLatch(1);
+        CountDownLatch releaseFirst = new CountDownLatch(1);
+        CountDownLatch releaseSecond = new CountDownLatch(1);
+        AtomicInteger writerCalls = new AtomicInteger();
+        given(transactionService.saveFailedTransactions(anyList()))
+                .willAnswer(invocation -> {
+                    if (Thread.currentThread().getName().equals("failed-transaction-writer")) {
+                        if (writerCalls.incrementAndGet() == 1) {
+                            firstBlocked.countDown();
+                            releaseFirst.await(5, TimeUnit.SECONDS);
+                        } else {
+                            releaseSecond.await(5, TimeUnit.SECONDS);
+                        }
+                    }
+                    return 1;
+                });
+        writer = start(1, 10L, spillFile, DataSize.ofBytes(1));
+        writer.enqueue(TransactionType.USE, "1000000000", 1000L);
+        assertTrue(firstBlocked.await(5, TimeUnit.SECONDS));
+        writer.enqueue(TransactionType.USE, "1000000000", 2000L);
+        writer.enqueue(TransactionType.USE, "1000000000", 3000L);
+        assertEquals(3, Files.readAllLines(spillFile).size());
+
+        //when
+        releaseFirst.countDown();
+
+        //then
+        awaitSpilledAmounts(spillFile, List.of(2000L, 3000L));
+        releaseSecond.countDown();
+        awaitPending(0);
+        awaitSpilledAmounts(spillFile, List.of());
+    }
+
+    @Test
+    @DisplayName("다른 인스턴스가 쓰고 있는 스필 파일이면 다음 번호의 파일을 씀")
+    void start_claimOwnSpillFile() throws Exception {
+        //given
+        Path spillFile = tempDir.resolve("failed.log");
+        writer = start(10, 10L, spillFile);
+
+        //when
+        FailedTransactionWriter other = start(10, 10L, spillFile);
+        other.stop();
+
+        //then
+        assertEquals(spillFile, writer.spillFile());
+        assertEquals(tempDir.resolve("failed.log.1"), other.spillFile());
+    }
+
+    private FailedTransactionWriter start(int queueCapacity, long enqueueTimeoutMillis, Path spillFile)
+            throws Exception {
+        return start(queueCapacity, enqueueTimeoutMillis, spillFile, DataSize.ofMegabytes(1));
+    }
+
+    private FailedTransactionWriter start(int queueCapacity, long enqueueTimeoutMillis, Path spillFile,
+                                          DataSize spillCompactSize) throws Exception {
+        FailedTransactionWriter failedTransactionWriter = new FailedTransactionWriter(
+                transactionService, new TransactionIdGenerator(1), queueCapacity, 10, enqueueTimeoutMillis,
+                spillFile.toString(), spillCompactSize);
+        failedTransactionWriter.start();
+        return failedTransactionWriter;
+    }
+
+    private void awaitSpilledAmounts(Path spillFile, List<Long> expected) throws Exception {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (!spilledAmounts(spillFile).equals(expected) && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(expected, spilledAmounts(spillFile));
+    }
+
+    private List<Long> spilledAmounts(Path spillFile) throws Exception {
+        return Files.readAllLines(spillFile).stream()
+                .map(line -> FailedTransaction.fromLine(line).getAmount())
+                .toList();
+    }
+
+    private void awaitPending(long expected) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (writer.pending() != expected && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(expected, writer.pending());
+    }
+}
@@ -0,0 +1,280 @@
+package com.example.account_project.service;
+
+import com.example.account_project.Exception.AccountException;
+import com.example.account_project.dto.UseBalance;
+import com.example.account_project.type.ErrorCode;
+import com.example.account_project.type.TransactionResultType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.redisson.api.RBucket;
+import org.redisson.api.RScript;
+import org.redisson.api.RedissonClient;
+import org.redisson.client.codec.Codec;
+import org.springframework.util.DigestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+class IdempotencyStoreTest {
+    private static final long LOCK_WAIT_MILLIS = 1000L;
+
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+
+    @Mock
+    private RedissonClient redissonClient;
+
+    @Mock
+    private RBucket<Object> bucket;
+
+    @Mock
+    private RScript script;
+
+    @Test
+    @DisplayName("같은 키로 동시에 들어온 요청은 한 번만 실행하고 같은 응답을 돌려줌")
+    void execute_coalesce() throws Exception {
+        //given
+        IdempotencyStore store = store(false);
+        UseBalance.Request request = new UseBalance.Request(1L, "1000000012", 1000L);
+        AtomicInteger executions = new AtomicInteger();
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executorService = Executors.newFixedThreadPool(8);
+
+        //when
+        List<Future<Object>> results = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            results.add(executorService.submit(() -> {
+                try {
+                    return store.execute("useBalance:key", request, UseBalance.Response.class, LOCK_WAIT_MILLIS, () -> {
+                        executions.incrementAndGet();
+                        started.countDown();
+                        release.await();
+                        return response("transactionId");
+                    });
+                } catch (Throwable e) {
+                    throw new IllegalStateException(e);
+                }
+            }));
+        }
+        started.await(5, TimeUnit.SECONDS);
+        Thread.sleep(100);
+        release.countDown();
+
+        //then
+        Object first = results.get(0).get(5, TimeUnit.SECONDS);
+        for (Future<Object> result : results) {
+            assertSame(first, result.get(5, TimeUnit.SECONDS));
+        }
+        assertEquals(1, executions.get());
+        executorService.shutdown();
+    }
+
+    @Test
+    @DisplayName("같은 노드에서 먼저 온 요청이 락 대기 + 트랜잭션 제한 시간 안에 끝나지 않으면 기다리던 요청은 처리 중으로 거절")
+    void execute_waitTimeout() throws Exception {
+        //given
+        IdempotencyStore store = new IdempotencyStore(redissonClient, objectMapper, false,
+                Duration.ofHours(24), Duration.ofSeconds(1), Duration.ofMillis(50), 1000);
+        UseBalance.Request request = new UseBalance.Request(1L, "1000000012", 1000L);
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executorService = Executors.newSingleThreadExecutor();
+        Future<Object> first = executorService.submit(() -> {
+            try {
+                return store.execute("useBalance:key", request, UseBalance.Response.class, 0L, () -> {
+                    started.countDown();
+                    release.await();
+                    return response("transactionId");
+                });
+            } catch (Throwable e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        started.await(5, TimeUnit.SECONDS);
+
+        //when
+        AccountException accountException = assertThrows(AccountException.class,
+                () -> store.execute("useBalance:key", request, UseBalance.Response.class, 50L, () -> {
+                    throw new IllegalStateException("must not execute");
+                }));
+
+        //then
+        assertEquals(ErrorCode.REQUEST_IN_PROGRESS, accountException.getErrorCode());
+        release.countDown();
+        assertEquals("transactionId", ((UseBalance.Response) first.get(5, TimeUnit.SECONDS)).getTransactionId());
+        executorService.shutdown();
+    }
+
+    @Test
+    @DisplayName("같은 키로 다른 요청을 보내면 실패")
+    void execute_keyReused() throws Throwable {
+        //given
+        IdempotencyStore store = store(false);
+        store.execute("useBalance:key", new UseBalance.Request(1L, "1000000012", 1000L),
+                UseBalance.Response.class, LOCK_WAIT_MILLIS, () -> response("transactionId"));
+
+        //when
+        AccountException accountException = assertThrows(AccountException.class,
+                () -> store.execute("useBalance:key", new UseBalance.Request(1L, "1000000012", 2000L),
+                        UseBalance.Response.class, LOCK_WAIT_MILLIS, () -> response("other")));
+
+        //then
+        assertEquals(ErrorCode.IDEMPOTENCY_KEY_REUSED, accountException.getErrorCode());
+    }
+
+    @Test
+    @DisplayName("실패한 요청은 저장하지 않고 재요청을 다시 실행")
+    void execute_failureNotStored() throws Throwable {
+        //given
+        IdempotencyStore store = store(false);
+        UseBalance.Request request = new UseBalance.Request(1L, "1000000012", 1000L);
+        assertThrows(AccountException.class, () -> store.execute("useBalance:key", request,
+                UseBalance.Response.class, LOCK_WAIT_MILLIS, () -> {
+                    throw new AccountException(ErrorCode.AMOUNT_EXCEED_BALANCE);
+                }));
+
+        //when
+        Object retried = store.execute("useBalance:key", request, UseBalance.Response.class, LOCK_WAIT_MILLIS,
+                () -> response("transactionId"));
+
+        //then
+        assertEquals("transactionId", ((UseBalance.Response) retried).getTransactionId());
+    }
+
+    @Test
+    @DisplayName("다른 노드가 저장한 응답은 실행하지 않고 Redis 에서 읽어서 돌려줌")
+    void execute_sharedResponse() throws Throwable {
+        //given
+        IdempotencyStore store = store(true);
+        UseBalance.Request request = new UseBalance.Request(1L, "1000000012", 1000L);
+        String fingerprint = DigestUtils.md5DigestAsHex(
+                objectMapper.writeValueAsString(request).getBytes(StandardCharsets.UTF_8));
+        given(redissonClient.getBucket(eq("IDEM:useBalance:key"), any()))
+                .willReturn(bucket);
+        given(bucket.trySet(anyString(), anyLong(), any()))
+                .willReturn(false);
+        given(bucket.get())
+                .willReturn("D|" + fingerprint + "|" + objectMapper.writeValueAsString(response("stored")));
+
+        //when
+        Object response = store.execute("useBalance:key", request, UseBalance.Response.class, LOCK_WAIT_MILLIS, () -> {
+            throw new IllegalStateException("must not execute");
+        });
+
+        //then
+        assertEquals("stored", ((UseBalance.Response) response).getTransactionId());
+    }
+
+    @Test
+    @DisplayName("처음 실행한 노드는 응답을 Redis 에 저장")
+    void execute_storeShared() throws Throwable {
+        //given
+        IdempotencyStore store = store(true);
+        given(redissonClient.getBucket(eq("IDEM:useBalance:key"), any()))
+                .willReturn(bucket);
+        given(bucket.trySet(startsWith("P|"), anyLong(), any()))
+                .willReturn(true);
+        given(redissonClient.getScript(any(Codec.class)))
+                .willReturn(script);
+        given(script.eval(eq(RScript.Mode.READ_WRITE), anyString(), eq(RScript.ReturnType.INTEGER),
+                eq(List.<Object>of("IDEM:useBalance:key")), startsWith("P|"), anyString(), anyString()))
+                .willReturn(1L);
+        ArgumentCaptor<String> inProgress = ArgumentCaptor.forClass(String.class);
+
+        //when
+        store.execute("useBalance:key", new UseBalance.Request(1L, "1000000012", 1000L),
+                UseBalance.Response.class, LOCK_WAIT_MILLIS, () -> response("transactionId"));
+
+        //then
+        verify(bucket).trySet(inProgress.capture(), eq(Duration.ofHours(24).toMillis()), eq(TimeUnit.MILLISECONDS));
+        verify(script).eval(eq(RScript.Mode.READ_WRITE), anyString(), eq(RScript.ReturnType.INTEGER),
+                eq(List.<Object>of("IDEM:useBalance:key")), eq(inProgress.getValue()),
+                contains("\"transactionId\":\"transactionId\""), eq(String.valueOf(Duration.ofHours(24).toMillis())));
+        verify(bucket, never()).set(any(), anyLong(), any());
+    }
+
+    @Test
+    @DisplayName("실행이 실패하면 내가 쓴 처리 중 표시일 때만 지움")
+    void execute_sharedFailureReleasesOwnMarker() throws Throwable {
+        //given
+        IdempotencyStore store = store(true);
+        given(redissonClient.getBucket(eq("IDEM:useBalance:key"), any()))
+                .willReturn(bucket);
+        given(bucket.trySet(startsWith("P|"), anyLong(), any()))
+                .willReturn(true);
+        given(redissonClient.getScript(any(Codec.class)))
+                .willReturn(script);
+        ArgumentCaptor<String> inProgress = ArgumentCaptor.forClass(String.class);
+
+        //when
+        AccountException accountException = assertThrows(AccountException.class,
+                () -> store.execute("useBalance:key", new UseBalance.Request(1L, "1000000012", 1000L),
+                        UseBalance.Response.class, LOCK_WAIT_MILLIS, () -> {
+                            throw new AccountException(ErrorCode.AMOUNT_EXCEED_BALANCE);
+                        }));
+
+        //then
+        assertEquals(ErrorCode.AMOUNT_EXCEED_BALANCE, accountException.getErrorCode());
+        verify(bucket).trySet(inProgress.capture(), anyLong(), any());
+        verify(script).eval(eq(RScript.Mode.READ_WRITE), contains("del"), eq(RScript.ReturnType.INTEGER),
+                eq(List.<Object>of("IDEM:useBalance:key")), eq(inProgress.getValue()));
+        verify(bucket, never()).delete();
+    }
+
+    @Test
+    @DisplayName("다른 노드가 처리 중인 키는 기다려도 끝나지 않으면 다시 실행하지 않고 REQUEST_IN_PROGRESS")
+    void execute_sharedInProgressNotReExecuted() throws Throwable {
+        //given
+        IdempotencyStore store = store(true);
+        UseBalance.Request request = new UseBalance.Request(1L, "1000000012", 1000L);
+        String fingerprint = DigestUtils.md5DigestAsHex(
+                objectMapper.writeValueAsString(request).getBytes(StandardCharsets.UTF_8));
+        given(redissonClient.getBucket(eq("IDEM:useBalance:key"), any()))
+                .willReturn(bucket);
+        given(bucket.trySet(anyString(), anyLong(), any()))
+                .willReturn(false);
+        given(bucket.get())
+                .willReturn("P|" + fingerprint + "|other-node");
+
+        //when
+        AccountException accountException = assertThrows(AccountException.class,
+                () -> store.execute("useBalance:key", request, UseBalance.Response.class, LOCK_WAIT_MILLIS, () -> {
+                    throw new IllegalStateException("must not execute");
+                }));
+
+        //then
+        assertEquals(ErrorCode.REQUEST_IN_PROGRESS, accountException.getErrorCode());
+    }
+
+    private IdempotencyStore store(boolean redisEnabled) {
+        return new IdempotencyStore(redissonClient, objectMapper, redisEnabled,
+                Duration.ofHours(24), Duration.ofSeconds(1), Duration.ofSeconds(10), 1000);
+    }
+
+    private UseBalance.Response response(String transactionId) {
+        return UseBalance.Response.builder()
+                .accountNumber("1000000012")
+                .transactionResultType(TransactionResultType.SUCCESS)
+                .transactionId(transactionId)
+                .amount(1000L)
+                .transactedAt(LocalDateTime.now())
+                .build();
+    }
+}
@@ -0,0 +1,98 @@
+package com.example.account_project.service;
+
+import com.example.account_project.domain.Account;
+import com.example.account_project.domain.Transaction;
+import com.example.account_project.dto.JournalEntry;
+import com.example.account_project.repository.AccountRepository;
+import com.example.account_project.repository.TransactionRepository;
+import com.example.account_project.type.TransactionResultType;
+import com.example.account_project.type.TransactionType;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Captor;
+import org.mockito.InOrder;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class JournalApplierTest {
+    @Mock
+    private AccountRepository accountRepository;
+    @Mock
+    private TransactionRepository transactionRepository;
+    @Captor
+    private ArgumentCaptor<List<Transaction>> transactionsCaptor;
+    @InjectMocks
+    private JournalApplier journalApplier;
+
+    @Test
+    @DisplayName("계좌별 변경분 합계로 한 번씩 UPDATE 하고, 이미 저장된 거래는 건너뜀")
+    void apply() {
+        //given
+        given(transactionRepository.findExistingTransactionIds(anyCollection()))
+                .willReturn(Set.of("applied"));
+        given(accountRepository.getReferenceById(anyLong()))
+                .willAnswer(invocation -> Account.builder().id(invocation.getArgument(0)).build());
+        List<JournalEntry> entries = List.of(
+                entry("applied", 1L, -500L, TransactionResultType.SUCCESS),
+                entry("use1", 1L, -100L, TransactionResultType.SUCCESS),
+                entry("use2", 1L, -200L, TransactionResultType.SUCCESS),
+                entry("fail", 2L, 0L, TransactionResultType.FAIL));
+        //when
+        int applied = journalApplier.apply(entries);
+
+        //then
+        verify(transactionRepository).saveAll(transactionsCaptor.capture());
+        assertEquals(3, applied);
+        assertEquals(List.of("use1", "use2", "fail"),
+                transactionsCaptor.getValue().stream().map(Transaction::getTransactionId).toList());
+        verify(accountRepository).adjustBalance(eq(1L), eq(-300L), any());
+        verify(accountRepository, never()).adjustBalance(eq(2L), anyLong(), any());
+    }
+
+    @Test
+    @DisplayName("SQL 을 모두 flush 한 뒤에 커밋 구간 콜백을 부름")
+    void apply_commitGuardAfterFlush() {
+        //given
+        given(transactionRepository.findExistingTransactionIds(anyCollection())).willReturn(Set.of());
+        given(accountRepository.getReferenceById(anyLong()))
+                .willAnswer(invocation -> Account.builder().id(invocation.getArgument(0)).build());
+        JournalApplier.CommitGuard commitGuard = mock(JournalApplier.CommitGuard.class);
+
+        //when
+        journalApplier.apply(List.of(entry("use1", 1L, -100L, TransactionResultType.SUCCESS)), commitGuard);
+
+        //then
+        InOrder inOrder = inOrder(accountRepository, transactionRepository, commitGuard);
+        inOrder.verify(accountRepository).adjustBalance(eq(1L), eq(-100L), any());
+        inOrder.verify(transactionRepository).flush();
+        inOrder.verify(commitGuard).enter();
+        inOrder.verify(commitGuard).exit(true);
+    }
+
+    private JournalEntry entry(String transactionId, Long accountId, Long delta, TransactionResultType resultType) {
+        return JournalEntry.builder()
+                .transactionId(transactionId)
+                .accountId(accountId)
+                .accountNumber("1000000012")
+                .transactionType(TransactionType.USE)
+                .transactionResultType(resultType)
+                .amount(Math.abs(delta))
+                .delta(delta)
+                .balanceSnapshot(1000L)
+                .transactedAt(LocalDateTime.now())
+                .build();
+    }
+}
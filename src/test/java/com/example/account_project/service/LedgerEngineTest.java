@@ -0,0 +1,216 @@
+package com.example.account_project.service;
+
+import com.example.account_project.Exception.AccountException;
+import com.example.account_project.dto.JournalEntry;
+import com.example.account_project.dto.LedgerAccount;
+import com.example.account_project.repository.AccountRepository;
+import com.example.account_project.type.AccountStatus;
+import com.example.account_project.type.ErrorCode;
+import com.example.account_project.type.TransactionMode;
+import com.example.account_project.type.TransactionResultType;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionSynchronizationUtils;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class LedgerEngineTest {
+
+    @Mock
+    private AccountRepository accountRepository;
+    @Mock
+    private BalanceJournal balanceJournal;
+
+    private LedgerEngine ledgerEngine;
+
+    @BeforeEach
+    void setUp() {
+        ledgerEngine = new LedgerEngine(accountRepository, balanceJournal,
+                new TransactionIdGenerator(1), TransactionMode.LEDGER, "local", 4, 1024);
+        ledgerEngine.start();
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        ledgerEngine.stop();
+    }
+
+    @Test
+    @DisplayName("동시에 차감해도 잔액을 넘지 않고, 계좌는 한 번만 읽음")
+    void use_concurrent() throws InterruptedException {
+        //given
+        given(accountRepository.findLedgerAccount("1000000012"))
+                .willReturn(Optional.of(new LedgerAccount(10L, 1L, AccountStatus.IN_USE, 10000L)));
+        AtomicInteger lsn = new AtomicInteger();
+        given(balanceJournal.record(any())).willAnswer(invocation -> (long) lsn.incrementAndGet());
+        ExecutorService executorService = Executors.newFixedThreadPool(16);
+        List<Callable<JournalEntry>> debits = Collections.nCopies(150,
+                () -> ledgerEngine.use(1L, "1000000012", 100L, false));
+
+        //when
+        List<Future<JournalEntry>> results = executorService.invokeAll(debits);
+        executorService.shutdown();
+
+        //then
+        int succeeded = 0;
+        int exceeded = 0;
+        for (Future<JournalEntry> result : results) {
+            try {
+                assertEquals(TransactionResultType.SUCCESS, result.get().getTransactionResultType());
+                succeeded++;
+            } catch (ExecutionException e) {
+                assertEquals(ErrorCode.AMOUNT_EXCEED_BALANCE, ((AccountException) e.getCause()).getErrorCode());
+                exceeded++;
+            }
+        }
+        assertEquals(100, succeeded);
+        assertEquals(50, exceeded);
+        verify(accountRepository, times(1)).findLedgerAccount("1000000012");
+        verify(balanceJournal, times(100)).record(any());
+        verify(balanceJournal, times(100)).awaitDurable(anyLong());
+    }
+
+    @Test
+    @DisplayName("검증 순서는 소유주, 상태, 잔액 - recordFailure 이면 실패 거래로 저널에 남김")
+    void use_validation() {
+        //given
+        given(accountRepository.findLedgerAccount("1000000012"))
+                .willReturn(Optional.of(new LedgerAccount(10L, 1L, AccountStatus.IN_USE, 100L)));
+        given(balanceJournal.record(any())).willReturn(1L);
+
+        //when
+        AccountException unMatch = assertThrows(AccountException.class,
+                () -> ledgerEngine.use(2L, "1000000012", 1000L, false));
+        JournalEntry failed = ledgerEngine.use(1L, "1000000012", 1000L, true);
+
+        //then
+        assertEquals(ErrorCode.USER_ACCOUNT_UN_MATCH, unMatch.getErrorCode());
+        assertEquals(TransactionResultType.FAIL, failed.getTransactionResultType());
+        assertEquals(0L, failed.getDelta());
+        assertEquals(100L, failed.getBalanceSnapshot());
+    }
+
+    @Test
+    @DisplayName("잔액이 남아있으면 해지 불가, 해지 후에는 사용 불가")
+    void unregister() {
+        //given
+        given(accountRepository.findLedgerAccount("1000000012"))
+                .willReturn(Optional.of(new LedgerAccount(10L, 1L, AccountStatus.IN_USE, 100L)));
+        given(balanceJournal.record(any())).willReturn(1L);
+
+        //when
+        AccountException notEmpty = assertThrows(AccountException.class,
+                () -> ledgerEngine.unregister("1000000012"));
+        ledgerEngine.use(1L, "1000000012", 100L, false);
+        ledgerEngine.unregister("1000000012");
+        AccountException unregistered = assertThrows(AccountException.class,
+                () -> ledgerEngine.use(1L, "1000000012", 0L, false));
+
+        //then
+        assertEquals(ErrorCode.BALANCE_NOT_EMPTY, notEmpty.getErrorCode());
+        assertEquals(ErrorCode.ACCOUNT_ALREADY_UNREGISTERED, unregistered.getErrorCode());
+    }
+
+    @Test
+    @DisplayName("해지 트랜잭션이 롤백되면 계좌를 계속 쓸 수 있고, 끝나기 전에는 사용 불가")
+    void unregister_rolledBack() {
+        //given
+        given(accountRepository.findLedgerAccount("1000000012"))
+                .willReturn(Optional.of(new LedgerAccount(10L, 1L, AccountStatus.IN_USE, 0L)));
+        given(balanceJournal.record(any())).willReturn(1L);
+        AccountException unregistering;
+
+        //when
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            ledgerEngine.unregister("1000000012");
+            unregistering = assertThrows(AccountException.class,
+                    () -> ledgerEngine.cancel("1000000012", 100L));
+            TransactionSynchronizationUtils.invokeAfterCompletion(
+                    TransactionSynchronizationManager.getSynchronizations(), TransactionSynchronization.STATUS_ROLLED_BACK);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        JournalEntry canceled = ledgerEngine.cancel("1000000012", 100L);
+
+        //then
+        assertEquals(ErrorCode.ACCOUNT_TRANSACTION_LOCK, unregistering.getErrorCode());
+        assertEquals(100L, canceled.getBalanceSnapshot());
+        assertEquals(100L, ledgerEngine.balanceOf("1000000012"));
+    }
+
+    @Test
+    @DisplayName("노드 하나로 띄우는 설정(local 락)이 아니면 LEDGER 모드로 시작하지 않음")
+    void create_requiresSingleNode() {
+        //when
+        //then
+        assertThrows(IllegalStateException.class, () -> new LedgerEngine(accountRepository, balanceJournal,
+                new TransactionIdGenerator(1), TransactionMode.LEDGER, "redis", 4, 1024));
+        assertDoesNotThrow(() -> new LedgerEngine(accountRepository, balanceJournal,
+                new TransactionIdGenerator(1), TransactionMode.LOCK, "redis", 4, 1024));
+    }
+
+    @Test
+    @DisplayName("종료와 동시에 들어온 명령도 모두 끝나고, 종료 후 명령은 거절")
+    void stop_whileSubmitting() throws Exception {
+        //given
+        given(accountRepository.findLedgerAccount(anyString()))
+                .willAnswer(invocation -> Optional.of(
+                        new LedgerAccount(10L, 1L, AccountStatus.IN_USE, 1_000_000L)));
+        given(balanceJournal.record(any())).willReturn(1L);
+        ExecutorService executorService = Executors.newFixedThreadPool(8);
+        List<Future<JournalEntry>> results = new ArrayList<>();
+        for (int i = 0; i < 2000; i++) {
+            String accountNumber = String.valueOf(1000000000L + i % 16);
+            results.add(executorService.submit(() -> ledgerEngine.use(1L, accountNumber, 10L, false)));
+        }
+        results.get(0).get(5, TimeUnit.SECONDS);
+
+        //when
+        ledgerEngine.stop();
+
+        //then
+        for (Future<JournalEntry> result : results) {
+            try {
+                assertNotNull(result.get(5, TimeUnit.SECONDS));
+            } catch (ExecutionException e) {
+                assertInstanceOf(IllegalStateException.class, e.getCause());
+            }
+        }
+        assertThrows(IllegalStateException.class, () -> ledgerEngine.use(1L, "1000000012", 10L, false));
+        executorService.shutdown();
+    }
+
+    @Test
+    @DisplayName("없는 계좌는 계좌 없음")
+    void use_accountNotFound() {
+        //given
+        given(accountRepository.findLedgerAccount("1000000012"))
+                .willReturn(Optional.empty());
+
+        //when
+        AccountException accountException = assertThrows(AccountException.class,
+                () -> ledgerEngine.use(1L, "1000000012", 100L, true));
+
+        //then
+        assertEquals(ErrorCode.ACCOUNT_NOT_FOUND, accountException.getErrorCode());
+        verify(balanceJournal, never()).record(any());
+    }
+}
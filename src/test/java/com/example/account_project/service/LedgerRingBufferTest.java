@@ -0,0 +1,76 @@
+package com.example.account_project.service;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LedgerRingBufferTest {
+
+    @Test
+    @DisplayName("가득 차면 넣지 못하고, 꺼낸 만큼 다시 넣을 수 있음")
+    void offerPoll_full() {
+        //given
+        LedgerRingBuffer<Integer> ring = new LedgerRingBuffer<>(4);
+
+        //when
+        for (int i = 0; i < 4; i++) {
+            assertTrue(ring.offer(i));
+        }
+        boolean overflow = ring.offer(4);
+        Integer first = ring.poll();
+
+        //then
+        assertFalse(overflow);
+        assertEquals(0, first);
+        assertTrue(ring.offer(4));
+        assertEquals(1, ring.poll());
+        assertEquals(2, ring.poll());
+        assertEquals(3, ring.poll());
+        assertEquals(4, ring.poll());
+        assertNull(ring.poll());
+    }
+
+    @Test
+    @DisplayName("여러 생산자가 동시에 넣어도 빠지거나 중복되는 값이 없음")
+    void offer_concurrentProducers() throws InterruptedException {
+        //given
+        LedgerRingBuffer<Integer> ring = new LedgerRingBuffer<>(64);
+        int producers = 8;
+        int perProducer = 10000;
+        ExecutorService executorService = Executors.newFixedThreadPool(producers);
+        CountDownLatch latch = new CountDownLatch(producers);
+
+        //when
+        for (int p = 0; p < producers; p++) {
+            int base = p * perProducer;
+            executorService.submit(() -> {
+                for (int i = 0; i < perProducer; i++) {
+                    while (!ring.offer(base + i)) {
+                        Thread.onSpinWait();
+                    }
+                }
+                latch.countDown();
+            });
+        }
+        Set<Integer> received = new HashSet<>();
+        while (received.size() < producers * perProducer) {
+            Integer value = ring.poll();
+            if (value != null) {
+                assertTrue(received.add(value));
+            }
+        }
+        latch.await();
+        executorService.shutdown();
+
+        //then
+        assertEquals(producers * perProducer, received.size());
+        assertNull(ring.poll());
+    }
+}
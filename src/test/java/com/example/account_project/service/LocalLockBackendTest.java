@@ -0,0 +1,138 @@
+package com.example.account_project.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LocalLockBackendTest {
+    private static final String KEY = "ACLK1234567890";
+
+    private final LocalLockBackend localLockBackend = new LocalLockBackend();
+    private final ExecutorService executorService = Executors.newSingleThreadExecutor();
+
+    @AfterEach
+    void tearDown() {
+        executorService.shutdownNow();
+    }
+
+    @Test
+    @DisplayName("Lock 취득 후 해제하면 락 객체가 정리됨")
+    void lockAndUnlock() throws InterruptedException {
+        //when
+        boolean isLock = localLockBackend.tryLock(KEY, 1, 15, TimeUnit.SECONDS);
+        localLockBackend.unlock(KEY);
+        //then
+        assertTrue(isLock);
+        assertEquals(0, localLockBackend.size());
+    }
+
+    @Test
+    @DisplayName("Lock 취득 실패 - 다른 스레드가 사용중")
+    void failGetLock_heldByOtherThread() throws Exception {
+        //given
+        localLockBackend.tryLock(KEY, 1, 15, TimeUnit.SECONDS);
+        //when
+        boolean isLock = executorService.submit(
+                () -> localLockBackend.tryLock(KEY, 50, 15_000, TimeUnit.MILLISECONDS)).get();
+        //then
+        assertFalse(isLock);
+        assertEquals(1, localLockBackend.size());
+        localLockBackend.unlock(KEY);
+        assertEquals(0, localLockBackend.size());
+    }
+
+    @Test
+    @DisplayName("Lock 취득 성공 - 기다리는 동안 해제됨")
+    void successGetLock_afterRelease() throws Exception {
+        //given
+        localLockBackend.tryLock(KEY, 1, 15, TimeUnit.SECONDS);
+        CountDownLatch waiting = new CountDownLatch(1);
+        Future<Boolean> waiter = executorService.submit(() -> {
+            waiting.countDown();
+            boolean isLock = localLockBackend.tryLock(KEY, 5, 15, TimeUnit.SECONDS);
+            localLockBackend.unlock(KEY);
+            return isLock;
+        });
+        //when
+        waiting.await();
+        Thread.sleep(50L);
+        localLockBackend.unlock(KEY);
+        //then
+        assertTrue(waiter.get(5, TimeUnit.SECONDS));
+        assertEquals(0, localLockBackend.size());
+    }
+
+    @Test
+    @DisplayName("Lock 취득 성공 - 임대 시간이 지난 락")
+    void successGetLock_afterLeaseExpired() throws Exception {
+        //given
+        localLockBackend.tryLock(KEY, 1, 50, TimeUnit.MILLISECONDS);
+        //when
+        boolean isLock = executorService.submit(
+                () -> localLockBackend.tryLock(KEY, 1, 15, TimeUnit.SECONDS)).get();
+        //then
+        assertTrue(isLock);
+        assertThrows(IllegalMonitorStateException.class, () -> localLockBackend.unlock(KEY));
+    }
+
+    @Test
+    @DisplayName("같은 스레드는 재진입 가능")
+    void reentrantLock() throws Exception {
+        //given
+        localLockBackend.tryLock(KEY, 1, 15, TimeUnit.SECONDS);
+        localLockBackend.tryLock(KEY, 1, 15, TimeUnit.SECONDS);
+        //when
+        localLockBackend.unlock(KEY);
+        boolean stillHeld = !executorService.submit(
+                () -> localLockBackend.tryLock(KEY, 10, 15_000, TimeUnit.MILLISECONDS)).get();
+        localLockBackend.unlock(KEY);
+        //then
+        assertTrue(stillHeld);
+        assertEquals(0, localLockBackend.size());
+    }
+
+    @Test
+    @DisplayName("해제할 락이 없으면 예외")
+    void unlockWithoutLock() {
+        assertThrows(IllegalMonitorStateException.class, () -> localLockBackend.unlock(KEY));
+    }
+
+    @Test
+    @DisplayName("공정 락 - 기다린 순서대로 가져감")
+    void fairLock_fifo() throws Exception {
+        //given
+        localLockBackend.tryLock(KEY, 1, 15, TimeUnit.SECONDS, true);
+        ExecutorService waiters = Executors.newFixedThreadPool(5);
+        ConcurrentLinkedQueue<Integer> acquiredOrder = new ConcurrentLinkedQueue<>();
+        List<Future<Boolean>> results = new ArrayList<>();
+        try {
+            for (int i = 0; i < 5; i++) {
+                int order = i;
+                results.add(waiters.submit(() -> {
+                    boolean isLock = localLockBackend.tryLock(KEY, 5, 15, TimeUnit.SECONDS, true);
+                    acquiredOrder.add(order);
+                    localLockBackend.unlock(KEY, true);
+                    return isLock;
+                }));
+                // 앞 스레드가 대기열에 들어간 뒤 다음 스레드를 시작한다
+                Thread.sleep(50L);
+            }
+            //when
+            localLockBackend.unlock(KEY, true);
+            //then
+            for (Future<Boolean> result : results) {
+                assertTrue(result.get(5, TimeUnit.SECONDS));
+            }
+            assertEquals(List.of(0, 1, 2, 3, 4), new ArrayList<>(acquiredOrder));
+            assertEquals(0, localLockBackend.size());
+        } finally {
+            waiters.shutdownNow();
+        }
+    }
+}
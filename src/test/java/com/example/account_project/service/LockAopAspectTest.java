@@ -1,8 +1,13 @@
 package com.example.account_project.service;
 
 import com.example.account_project.Exception.AccountException;
+import com.example.account_project.aop.AccountLock;
 import com.example.account_project.dto.UseBalance;
+import com.example.account_project.metrics.LockMetrics;
 import com.example.account_project.type.ErrorCode;
+import com.example.account_project.type.LockMode;
+import com.example.account_project.type.TransactionMode;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.aspectj.lang.ProceedingJoinPoint;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -11,19 +16,39 @@ import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.util.concurrent.*;
 
 import static com.example.account_project.type.ErrorCode.ACCOUNT_NOT_FOUND;
 import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 
 @ExtendWith(MockitoExtension.class)
 class LockAopAspectTest {
+    private static final AccountLock DEFAULT_LOCK = accountLock("defaultLock");
+    private static final AccountLock FAIL_FAST_LOCK = accountLock("failFastLock");
 
     @Mock
     private LockService lockService;
 
+    @Mock
+    private LatencyInjector latencyInjector;
+
+    @Mock
+    private OptimisticRetry optimisticRetry;
+
+    @Mock
+    private BalanceSlotService balanceSlotService;
+
     @Mock
     private ProceedingJoinPoint proceedingJoinPoint;
 
@@ -38,11 +63,11 @@ class LockAopAspectTest {
         UseBalance.Request request = new UseBalance.Request(123L, "1234567890", 1000L);
 
         //when
-        lockAopAspect.arrounMethod(proceedingJoinPoint, request);
+        lockAopAspect.arrounMethod(proceedingJoinPoint, DEFAULT_LOCK, request);
 
         //then
-        verify(lockService, times(1)).lock(lockArgumentCaptor.capture());
-        verify(lockService, times(1)).unlock(unlockArgumentCaptor.capture());
+        verify(lockService, times(1)).lock(lockArgumentCaptor.capture(), eq(LockMode.WAIT), eq(1000L), eq(15000L));
+        verify(lockService, times(1)).unlock(unlockArgumentCaptor.capture(), eq(LockMode.WAIT));
         assertEquals("1234567890", lockArgumentCaptor.getValue());
         assertEquals("1234567890", unlockArgumentCaptor.getValue());
     }
@@ -58,12 +83,184 @@ class LockAopAspectTest {
                 .willThrow(new AccountException(ACCOUNT_NOT_FOUND));
 
         //when
-        assertThrows(AccountException.class, ()-> lockAopAspect.arrounMethod(proceedingJoinPoint, request));
+        assertThrows(AccountException.class, ()-> lockAopAspect.arrounMethod(proceedingJoinPoint, DEFAULT_LOCK, request));
 
         //then
-        verify(lockService, times(1)).lock(lockArgumentCaptor.capture());
-        verify(lockService, times(1)).unlock(unlockArgumentCaptor.capture());
+        verify(lockService, times(1)).lock(lockArgumentCaptor.capture(), eq(LockMode.WAIT), eq(1000L), eq(15000L));
+        verify(lockService, times(1)).unlock(unlockArgumentCaptor.capture(), eq(LockMode.WAIT));
         assertEquals("1234567890", lockArgumentCaptor.getValue());
         assertEquals("1234567890", unlockArgumentCaptor.getValue());
     }
-}
\ No newline at end of file
+
+    @Test
+    @DisplayName("지연 주입기가 없으면 (운영) 락만 잡고 바로 실행")
+    void lockAndUnlock_withoutLatencyInjector() throws Throwable {
+        //given
+        LockAopAspect aspect = new LockAopAspect(lockService, null, optimisticRetry, balanceSlotService);
+        UseBalance.Request request = new UseBalance.Request(123L, "1234567890", 1000L);
+
+        //when
+        aspect.arrounMethod(proceedingJoinPoint, DEFAULT_LOCK, request);
+
+        //then
+        verify(lockService).lock("1234567890", LockMode.WAIT, 1000L, 15000L);
+        verify(proceedingJoinPoint, times(1)).proceed();
+        verify(lockService).unlock("1234567890", LockMode.WAIT);
+    }
+
+    @Test
+    @DisplayName("ATOMIC 모드는 락을 잡지 않음")
+    void skipLock_atomicMode() throws Throwable {
+        //given
+        ReflectionTestUtils.setField(lockAopAspect, "transactionMode", TransactionMode.ATOMIC);
+        UseBalance.Request request = new UseBalance.Request(123L, "1234567890", 1000L);
+
+        //when
+        lockAopAspect.arrounMethod(proceedingJoinPoint, DEFAULT_LOCK, request);
+
+        //then
+        verify(proceedingJoinPoint, times(1)).proceed();
+        verify(lockService, never()).lock(anyString(), any(), anyLong(), anyLong());
+        verify(lockService, never()).unlock(anyString(), any());
+    }
+
+    @Test
+    @DisplayName("잔액을 슬롯으로 나눈 계좌는 계좌 락을 잡지 않음")
+    void skipLock_shardedAccount() throws Throwable {
+        //given
+        UseBalance.Request request = new UseBalance.Request(123L, "1234567890", 1000L);
+        given(balanceSlotService.isSharded("1234567890"))
+                .willReturn(true);
+
+        //when
+        lockAopAspect.arrounMethod(proceedingJoinPoint, DEFAULT_LOCK, request);
+
+        //then
+        verify(proceedingJoinPoint, times(1)).proceed();
+        verify(lockService, never()).lock(anyString(), any(), anyLong(), anyLong());
+        verify(lockService, never()).unlock(anyString(), any());
+    }
+
+    @Test
+    @DisplayName("OPTIMISTIC 모드는 락 없이 재시도 실행기로 실행")
+    void retryWithoutLock_optimisticMode() throws Throwable {
+        //given
+        ReflectionTestUtils.setField(lockAopAspect, "transactionMode", TransactionMode.OPTIMISTIC);
+        UseBalance.Request request = new UseBalance.Request(123L, "1234567890", 1000L);
+        given(optimisticRetry.execute(eq("1234567890"), any()))
+                .willAnswer(invocation -> invocation.getArgument(1, OptimisticRetry.Attempt.class).run());
+        given(proceedingJoinPoint.proceed())
+                .willReturn("result");
+
+        //when
+        Object result = lockAopAspect.arrounMethod(proceedingJoinPoint, DEFAULT_LOCK, request);
+
+        //then
+        assertEquals("result", result);
+        verify(lockService, never()).lock(anyString(), any(), anyLong(), anyLong());
+        verify(lockService, never()).unlock(anyString(), any());
+    }
+
+    @Test
+    @DisplayName("락을 오래 잡고 있는 요청이 있으면 다른 요청은 Lock 취득 실패")
+    void failGetLock_whileSlowRequestHoldsLock() throws Throwable {
+        //given
+        LatencyInjector slowHolder = new LatencyInjector(0L);
+        LockAopAspect aspect = new LockAopAspect(
+                new LockService(new LocalLockBackend(), new LockMetrics(new SimpleMeterRegistry(), 5L, 100L)), slowHolder,
+                new OptimisticRetry(1, 0L, 0L), balanceSlotService);
+        UseBalance.Request request = new UseBalance.Request(123L, "1234567890", 1000L);
+        slowHolder.setLockHoldDelay(Duration.ofMillis(1500L));
+
+        ExecutorService executorService = Executors.newSingleThreadExecutor();
+        try {
+            Future<Object> holder = executorService.submit(() -> {
+                try {
+                    return aspect.arrounMethod(proceedingJoinPoint, DEFAULT_LOCK, request);
+                } catch (Throwable e) {
+                    throw new ExecutionException(e);
+                }
+            });
+            Thread.sleep(100L);
+            slowHolder.reset();
+
+            //when
+            AccountException accountException = assertThrows(AccountException.class,
+                    () -> aspect.arrounMethod(proceedingJoinPoint, DEFAULT_LOCK, request));
+
+            //then
+            assertEquals(ErrorCode.ACCOUNT_TRANSACTION_LOCK, accountException.getErrorCode());
+            holder.get(5, TimeUnit.SECONDS);
+        } finally {
+            executorService.shutdownNow();
+        }
+    }
+
+    @Test
+    @DisplayName("메소드에 지정한 대기/임대 시간과 방식으로 락을 잡고 같은 방식으로 해제")
+    void lockWithMethodSettings() throws Throwable {
+        //given
+        UseBalance.Request request = new UseBalance.Request(123L, "1234567890", 1000L);
+
+        //when
+        lockAopAspect.arrounMethod(proceedingJoinPoint, FAIL_FAST_LOCK, request);
+
+        //then
+        verify(lockService).lock("1234567890", LockMode.FAIL_FAST, 0L, 3000L);
+        verify(lockService).unlock("1234567890", LockMode.FAIL_FAST);
+    }
+
+    @Test
+    @DisplayName("FAIL_FAST 는 락이 잡혀 있으면 기다리지 않고 바로 실패")
+    void failFast_whileSlowRequestHoldsLock() throws Throwable {
+        //given
+        LatencyInjector slowHolder = new LatencyInjector(0L);
+        LockAopAspect aspect = new LockAopAspect(
+                new LockService(new LocalLockBackend(), new LockMetrics(new SimpleMeterRegistry(), 5L, 100L)), slowHolder,
+                new OptimisticRetry(1, 0L, 0L), balanceSlotService);
+        UseBalance.Request request = new UseBalance.Request(123L, "1234567890", 1000L);
+        slowHolder.setLockHoldDelay(Duration.ofMillis(1500L));
+
+        ExecutorService executorService = Executors.newSingleThreadExecutor();
+        try {
+            Future<Object> holder = executorService.submit(() -> {
+                try {
+                    return aspect.arrounMethod(proceedingJoinPoint, DEFAULT_LOCK, request);
+                } catch (Throwable e) {
+                    throw new ExecutionException(e);
+                }
+            });
+            Thread.sleep(100L);
+            slowHolder.reset();
+
+            //when
+            long startedAt = System.nanoTime();
+            AccountException accountException = assertThrows(AccountException.class,
+                    () -> aspect.arrounMethod(proceedingJoinPoint, FAIL_FAST_LOCK, request));
+            long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startedAt);
+
+            //then
+            assertEquals(ErrorCode.ACCOUNT_TRANSACTION_LOCK, accountException.getErrorCode());
+            assertTrue(elapsedMillis < 500L, "elapsed " + elapsedMillis + "ms");
+            holder.get(5, TimeUnit.SECONDS);
+        } finally {
+            executorService.shutdownNow();
+        }
+    }
+
+    @AccountLock
+    private void defaultLock() {
+    }
+
+    @AccountLock(tryLockTime = 0L, leaseTime = 3000L, mode = LockMode.FAIL_FAST)
+    private void failFastLock() {
+    }
+
+    private static AccountLock accountLock(String methodName) {
+        try {
+            return LockAopAspectTest.class.getDeclaredMethod(methodName).getAnnotation(AccountLock.class);
+        } catch (NoSuchMethodException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
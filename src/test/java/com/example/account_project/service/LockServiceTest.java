@@ -2,7 +2,9 @@ package com.example.account_project.service;
 
 import com.example.account_project.Exception.AccountException;
 import com.example.account_project.domain.Account;
+import com.example.account_project.metrics.LockMetrics;
 import com.example.account_project.type.ErrorCode;
+import com.example.account_project.type.LockMode;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -10,22 +12,22 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
-import org.redisson.api.RLock;
-import org.redisson.api.RedissonClient;
-
+import java.util.concurrent.TimeUnit;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.BDDMockito.given;
+import static org.mockito.BDDMockito.willThrow;
+import static org.mockito.Mockito.verify;
 
 @ExtendWith(MockitoExtension.class)
 class LockServiceTest {
 
     @Mock
-    private RedissonClient redissonClient;
+    private LockBackend lockBackend;
 
     @Mock
-    private RLock rLock;
+    private LockMetrics lockMetrics;
 
     @InjectMocks
     private LockService lockService;
@@ -34,23 +36,20 @@ class LockServiceTest {
     @DisplayName("Lock 취득 성공")
     void successGetLock() throws InterruptedException {
         //given
-        given(redissonClient.getLock(anyString()))
-                .willReturn(rLock);
-        given(rLock.tryLock(anyLong(),anyLong(),any()))
+        given(lockBackend.tryLock(anyString(),anyLong(),anyLong(),any(),anyBoolean()))
                 .willReturn(true);
 
         //when
         assertDoesNotThrow(()-> lockService.lock("123"));
         //then
+        verify(lockMetrics).recordAcquired(eq("123"), anyLong());
     }
 
     @Test
     @DisplayName("Lock 취득 실패")
     void failGetLock() throws InterruptedException {
         //given
-        given(redissonClient.getLock(anyString()))
-                .willReturn(rLock);
-        given(rLock.tryLock(anyLong(),anyLong(),any()))
+        given(lockBackend.tryLock(anyString(),anyLong(),anyLong(),any(),anyBoolean()))
                 .willReturn(false);
 
         //when
@@ -59,7 +58,54 @@ class LockServiceTest {
 
         //then
         assertEquals(ErrorCode.ACCOUNT_TRANSACTION_LOCK,exception.getErrorCode());
+        verify(lockMetrics).recordFailed(eq("123"), anyLong());
+
+    }
+
+    @Test
+    @DisplayName("Lock 해제 - 해제가 실패해도 보유 시간은 기록")
+    void unlock_recordReleasedEvenIfThrow() {
+        //given
+        willThrow(new IllegalMonitorStateException()).given(lockBackend).unlock(anyString(), anyBoolean());
+
+        //when
+        assertThrows(IllegalMonitorStateException.class, () -> lockService.unlock("123"));
+
+        //then
+        verify(lockMetrics).recordReleased("123");
+    }
+
+    @Test
+    @DisplayName("Lock 저장소 오류 - 락 없이 진행하지 않고 실패")
+    void failGetLock_backendError() throws InterruptedException {
+        //given
+        given(lockBackend.tryLock(anyString(),anyLong(),anyLong(),any(),anyBoolean()))
+                .willThrow(new IllegalStateException("redis down"));
 
+        //when
+        AccountException exception =
+                assertThrows(AccountException.class, () -> lockService.lock("123"));
+
+        //then
+        assertEquals(ErrorCode.ACCOUNT_TRANSACTION_LOCK,exception.getErrorCode());
+        verify(lockMetrics).recordFailed(eq("123"), anyLong());
     }
 
-}
\ No newline at end of file
+    @Test
+    @DisplayName("FAIL_FAST 는 기다리지 않고, FAIR 는 공정 락으로 잡고 해제")
+    void lockMode() throws InterruptedException {
+        //given
+        given(lockBackend.tryLock(anyString(),anyLong(),anyLong(),any(),anyBoolean()))
+                .willReturn(true);
+
+        //when
+        lockService.lock("123", LockMode.FAIL_FAST, 500L, 3000L);
+        lockService.lock("456", LockMode.FAIR, 500L, 3000L);
+        lockService.unlock("456", LockMode.FAIR);
+
+        //then
+        verify(lockBackend).tryLock("ACLK123", 0L, 3000L, TimeUnit.MILLISECONDS, false);
+        verify(lockBackend).tryLock("ACLK456", 500L, 3000L, TimeUnit.MILLISECONDS, true);
+        verify(lockBackend).unlock("ACLK456", true);
+    }
+}
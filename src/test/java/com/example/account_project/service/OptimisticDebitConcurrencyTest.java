@@ -0,0 +1,102 @@
+package com.example.account_project.service;
+
+import com.example.account_project.Exception.AccountException;
+import com.example.account_project.repository.AccountRepository;
+import com.example.account_project.type.ErrorCode;
+import com.example.account_project.type.TransactionResultType;
+import com.example.account_project.type.TransactionType;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@SpringBootTest(properties = {
+        "account.transaction.mode=OPTIMISTIC",
+        "account.optimistic.max-attempts=50",
+        "account.optimistic.backoff-ms=1",
+        "account.optimistic.max-backoff-ms=10",
+        "account.lock.backend=local",
+        "spring.redis.port=6392",
+        "spring.datasource.url=jdbc:h2:mem:optimistic-debit;LOCK_TIMEOUT=10000",
+        "account.failed-transaction.spill-file=build/failed-transactions/optimistic-debit.log",
+        "spring.jpa.properties.hibernate.show_sql=false"
+})
+class OptimisticDebitConcurrencyTest {
+    private static final int THREAD_COUNT = 16;
+    private static final int REQUEST_PER_THREAD = 5;
+    private static final long INITIAL_BALANCE = 100_000L;
+    private static final long AMOUNT = 100L;
+    private static final long USER_ID = 1L;
+
+    @Autowired
+    private AccountService accountService;
+    @Autowired
+    private TransactionService transactionService;
+    @Autowired
+    private OptimisticRetry optimisticRetry;
+    @Autowired
+    private AccountRepository accountRepository;
+    @Autowired
+    private EntityManager entityManager;
+
+    @Test
+    @DisplayName("OPTIMISTIC 모드 - 동시에 사용해도 버전 충돌을 재시도해서 잔액 변경이 유실되지 않음")
+    void useBalance_concurrentlyNoLostUpdate() throws Exception {
+        //given
+        String accountNumber = accountService.createAccount(USER_ID, INITIAL_BALANCE).getAccountNumber();
+        AtomicInteger successCount = new AtomicInteger();
+
+        //when
+        ExecutorService executorService = Executors.newFixedThreadPool(THREAD_COUNT);
+        CountDownLatch startLatch = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+        try {
+            for (int i = 0; i < THREAD_COUNT; i++) {
+                futures.add(executorService.submit(() -> {
+                    startLatch.await();
+                    for (int j = 0; j < REQUEST_PER_THREAD; j++) {
+                        try {
+                            optimisticRetry.execute(accountNumber,
+                                    () -> transactionService.useBalance(USER_ID, accountNumber, AMOUNT));
+                            successCount.incrementAndGet();
+                        } catch (AccountException e) {
+                            assertEquals(ErrorCode.ACCOUNT_TRANSACTION_LOCK, e.getErrorCode());
+                        }
+                    }
+                    return null;
+                }));
+            }
+            startLatch.countDown();
+            for (Future<?> future : futures) {
+                future.get(60, TimeUnit.SECONDS);
+            }
+        } finally {
+            executorService.shutdownNow();
+        }
+
+        //then
+        assertEquals(THREAD_COUNT * REQUEST_PER_THREAD, successCount.get());
+        assertEquals(INITIAL_BALANCE - successCount.get() * AMOUNT,
+                accountRepository.findByAccountNumber(accountNumber).orElseThrow().getBalance());
+        assertEquals(successCount.get(), successBalanceSnapshots(accountNumber).size());
+    }
+
+    private List<Long> successBalanceSnapshots(String accountNumber) {
+        return entityManager.createQuery("select t.balanceSnapshot from Transaction t " +
+                        "where t.account.accountNumber = :accountNumber " +
+                        "and t.transactionType = :transactionType " +
+                        "and t.transactionResultType = :transactionResultType", Long.class)
+                .setParameter("accountNumber", accountNumber)
+                .setParameter("transactionType", TransactionType.USE)
+                .setParameter("transactionResultType", TransactionResultType.SUCCESS)
+                .getResultList();
+    }
+}
@@ -0,0 +1,72 @@
+package com.example.account_project.service;
+
+import com.example.account_project.Exception.AccountException;
+import com.example.account_project.type.ErrorCode;
+import jakarta.persistence.OptimisticLockException;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class OptimisticRetryTest {
+    private final OptimisticRetry optimisticRetry = new OptimisticRetry(3, 1L, 2L);
+
+    @Test
+    @DisplayName("버전 충돌이 나면 다시 시도해서 성공")
+    void execute_retryUntilSuccess() throws Throwable {
+        //given
+        AtomicInteger attempts = new AtomicInteger();
+
+        //when
+        String result = optimisticRetry.execute("1000000000", () -> {
+            if (attempts.incrementAndGet() < 3) {
+                throw new ObjectOptimisticLockingFailureException("Account", 1L);
+            }
+            return "success";
+        });
+
+        //then
+        assertEquals("success", result);
+        assertEquals(3, attempts.get());
+    }
+
+    @Test
+    @DisplayName("최대 시도 횟수만큼 충돌하면 ACCOUNT_TRANSACTION_LOCK")
+    void execute_giveUpAfterMaxAttempts() {
+        //given
+        AtomicInteger attempts = new AtomicInteger();
+
+        //when
+        AccountException accountException = assertThrows(AccountException.class,
+                () -> optimisticRetry.execute("1000000000", () -> {
+                    attempts.incrementAndGet();
+                    throw new OptimisticLockException();
+                }));
+
+        //then
+        assertEquals(ErrorCode.ACCOUNT_TRANSACTION_LOCK, accountException.getErrorCode());
+        assertEquals(3, attempts.get());
+    }
+
+    @Test
+    @DisplayName("버전 충돌이 아닌 예외는 다시 시도하지 않음")
+    void execute_noRetryForOtherException() {
+        //given
+        AtomicInteger attempts = new AtomicInteger();
+
+        //when
+        AccountException accountException = assertThrows(AccountException.class,
+                () -> optimisticRetry.execute("1000000000", () -> {
+                    attempts.incrementAndGet();
+                    throw new AccountException(ErrorCode.AMOUNT_EXCEED_BALANCE);
+                }));
+
+        //then
+        assertEquals(ErrorCode.AMOUNT_EXCEED_BALANCE, accountException.getErrorCode());
+        assertEquals(1, attempts.get());
+    }
+}
@@ -0,0 +1,107 @@
+package com.example.account_project.service;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.redisson.api.RLock;
+import org.redisson.api.RedissonClient;
+import org.redisson.client.RedisTimeoutException;
+import org.redisson.misc.CompletableFutureWrapper;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class RedissonLockBackendTest {
+    @Mock
+    private RedissonClient redissonClient;
+
+    @Mock
+    private RLock rLock;
+
+    @Mock
+    private RLock otherLock;
+
+    @Test
+    @DisplayName("Redisson Lock 취득과 해제 - 락 객체는 한 번만 만듦")
+    void lockAndUnlock() throws InterruptedException {
+        //given
+        RedissonLockBackend redissonLockBackend = new RedissonLockBackend(redissonClient, 100, false);
+        given(redissonClient.getLock("ACLK123"))
+                .willReturn(rLock);
+        given(rLock.tryLock(1, 15, TimeUnit.SECONDS))
+                .willReturn(true);
+        //when
+        boolean isLock = redissonLockBackend.tryLock("ACLK123", 1, 15, TimeUnit.SECONDS);
+        redissonLockBackend.unlock("ACLK123");
+        //then
+        assertTrue(isLock);
+        verify(rLock).unlock();
+        verify(redissonClient, times(1)).getLock("ACLK123");
+    }
+
+    @Test
+    @DisplayName("비동기 해제 - 락을 잡은 스레드 id 로 해제하고 결과를 기다리지 않음")
+    void unlockAsync() {
+        //given
+        RedissonLockBackend redissonLockBackend = new RedissonLockBackend(redissonClient, 0, true);
+        given(redissonClient.getLock("ACLK123"))
+                .willReturn(rLock);
+        given(rLock.unlockAsync(Thread.currentThread().getId()))
+                .willReturn(new CompletableFutureWrapper<>((Void) null));
+        //when
+        redissonLockBackend.unlock("ACLK123");
+        //then
+        verify(rLock, never()).unlock();
+    }
+
+    @Test
+    @DisplayName("비동기 해제 실패 - 다시 보내고, 이미 풀린 락은 다시 보내지 않음")
+    void unlockAsync_retryOnFailure() {
+        //given
+        RedissonLockBackend redissonLockBackend = new RedissonLockBackend(redissonClient, 0, true);
+        long threadId = Thread.currentThread().getId();
+        given(redissonClient.getLock("ACLK123"))
+                .willReturn(rLock);
+        given(redissonClient.getLock("ACLK456"))
+                .willReturn(otherLock);
+        given(rLock.unlockAsync(threadId))
+                .willReturn(new CompletableFutureWrapper<Void>(new RedisTimeoutException("timeout")),
+                        new CompletableFutureWrapper<>((Void) null));
+        given(otherLock.unlockAsync(threadId))
+                .willReturn(new CompletableFutureWrapper<Void>(new IllegalMonitorStateException("not locked")));
+        //when
+        redissonLockBackend.unlock("ACLK123");
+        redissonLockBackend.unlock("ACLK456");
+        //then
+        verify(rLock, timeout(1000).times(2)).unlockAsync(threadId);
+        verify(otherLock, times(1)).unlockAsync(threadId);
+    }
+
+    @Test
+    @DisplayName("여러 락 해제 - 해제 명령을 모두 보낸 뒤 기다림")
+    void unlockAll() {
+        //given
+        RedissonLockBackend redissonLockBackend = new RedissonLockBackend(redissonClient, 100, false);
+        long threadId = Thread.currentThread().getId();
+        given(redissonClient.getLock("ACLK123"))
+                .willReturn(rLock);
+        given(redissonClient.getLock("ACLK456"))
+                .willReturn(otherLock);
+        given(rLock.unlockAsync(threadId))
+                .willReturn(new CompletableFutureWrapper<>((Void) null));
+        given(otherLock.unlockAsync(threadId))
+                .willReturn(new CompletableFutureWrapper<>((Void) null));
+        //when
+        redissonLockBackend.unlockAll(List.of("ACLK123", "ACLK456"), false);
+        //then
+        verify(rLock).unlockAsync(threadId);
+        verify(otherLock).unlockAsync(threadId);
+    }
+}
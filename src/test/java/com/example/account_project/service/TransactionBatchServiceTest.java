@@ -0,0 +1,159 @@
+package com.example.account_project.service;
+
+import com.example.account_project.Exception.AccountException;
+import com.example.account_project.dto.TransactionDto;
+import com.example.account_project.dto.UseBalance;
+import com.example.account_project.type.ErrorCode;
+import com.example.account_project.type.TransactionMode;
+import com.example.account_project.type.TransactionResultType;
+import jakarta.persistence.OptimisticLockException;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anySet;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.BDDMockito.willThrow;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class TransactionBatchServiceTest {
+    @Mock
+    private LockService lockService;
+    @Mock
+    private TransactionService transactionService;
+    @Mock
+    private OptimisticRetry optimisticRetry;
+    @Mock
+    private BalanceSlotService balanceSlotService;
+    @InjectMocks
+    private TransactionBatchService transactionBatchService;
+
+    private final List<UseBalance.Request> requests = Arrays.asList(
+            new UseBalance.Request(1L, "2000000000", 1000L),
+            new UseBalance.Request(1L, "1000000000", 1000L),
+            new UseBalance.Request(1L, "2000000000", 2000L));
+
+    @Test
+    @DisplayName("배치 잔액 사용 - 계좌번호 순서로 한 번씩만 락을 잡고 모두 해제")
+    void lockEachAccountOnceInOrder() {
+        //when
+        transactionBatchService.useBalanceBatch(requests);
+
+        //then
+        InOrder inOrder = inOrder(lockService, transactionService);
+        inOrder.verify(lockService).lock("1000000000");
+        inOrder.verify(lockService).lock("2000000000");
+        inOrder.verify(transactionService).useBalanceBatch(requests, Set.of("1000000000", "2000000000"));
+        verify(lockService, times(2)).lock(anyString());
+        verify(lockService).unlockAll(Set.of("1000000000", "2000000000"));
+    }
+
+    @Test
+    @DisplayName("배치 잔액 사용 - 락을 잡지 못한 계좌는 제외하고 처리")
+    void skipAccountFailedToLock() {
+        //given
+        willThrow(new AccountException(ErrorCode.ACCOUNT_TRANSACTION_LOCK))
+                .given(lockService).lock("1000000000");
+
+        //when
+        transactionBatchService.useBalanceBatch(requests);
+
+        //then
+        verify(transactionService).useBalanceBatch(requests, Set.of("2000000000"));
+        verify(lockService).unlockAll(Set.of("2000000000"));
+    }
+
+    @Test
+    @DisplayName("배치 잔액 사용 - 처리 중 예외가 나도 락 해제")
+    void unlockEvenIfThrow() {
+        //given
+        given(transactionService.useBalanceBatch(anyList(), anySet()))
+                .willThrow(new AccountException(ErrorCode.INTERNAL_SERVER_ERROR));
+
+        //when
+        assertThrows(AccountException.class, () -> transactionBatchService.useBalanceBatch(requests));
+
+        //then
+        verify(lockService).unlockAll(Set.of("1000000000", "2000000000"));
+    }
+
+    @Test
+    @DisplayName("배치 잔액 사용 - 나눈 계좌는 계좌 락 없이 슬롯으로 처리")
+    void skipLockForShardedAccount() {
+        //given
+        given(balanceSlotService.isSharded("2000000000"))
+                .willReturn(true);
+
+        //when
+        transactionBatchService.useBalanceBatch(requests);
+
+        //then
+        verify(lockService).lock("1000000000");
+        verify(lockService, never()).lock("2000000000");
+        verify(transactionService).useBalanceBatch(requests, Set.of("1000000000", "2000000000"));
+        verify(lockService).unlockAll(Set.of("1000000000"));
+    }
+
+    @Test
+    @DisplayName("배치 잔액 사용 - ATOMIC, LEDGER 모드는 락 없이 한 번에 처리")
+    void noLockInAtomicAndLedgerMode() {
+        for (TransactionMode mode : List.of(TransactionMode.ATOMIC, TransactionMode.LEDGER)) {
+            //given
+            ReflectionTestUtils.setField(transactionBatchService, "transactionMode", mode);
+
+            //when
+            transactionBatchService.useBalanceBatch(requests);
+        }
+
+        //then
+        verify(transactionService, times(2)).useBalanceBatch(requests, Set.of("1000000000", "2000000000"));
+        verifyNoInteractions(lockService, balanceSlotService);
+    }
+
+    @Test
+    @DisplayName("배치 잔액 사용 - OPTIMISTIC 모드는 요청마다 따로 실행하고, 버전 충돌이 계속되는 요청만 실패")
+    void retryEachRequestInOptimisticMode() {
+        //given
+        TransactionBatchService service = new TransactionBatchService(lockService, transactionService,
+                new OptimisticRetry(2, 0L, 0L), balanceSlotService);
+        ReflectionTestUtils.setField(service, "transactionMode", TransactionMode.OPTIMISTIC);
+        given(transactionService.useBalanceBatch(List.of(requests.get(0)), Set.of("2000000000")))
+                .willThrow(new OptimisticLockException())
+                .willReturn(List.of(success(requests.get(0))));
+        given(transactionService.useBalanceBatch(List.of(requests.get(1)), Set.of("1000000000")))
+                .willThrow(new OptimisticLockException());
+        given(transactionService.useBalanceBatch(List.of(requests.get(2)), Set.of("2000000000")))
+                .willReturn(List.of(success(requests.get(2))));
+
+        //when
+        List<TransactionDto> results = service.useBalanceBatch(requests);
+
+        //then
+        assertEquals(List.of(TransactionResultType.SUCCESS, TransactionResultType.FAIL, TransactionResultType.SUCCESS),
+                results.stream().map(TransactionDto::getTransactionResultType).toList());
+        assertEquals("1000000000", results.get(1).getAccountNumber());
+        verify(transactionService, times(2)).useBalanceBatch(List.of(requests.get(1)), Set.of("1000000000"));
+        verifyNoInteractions(lockService);
+    }
+
+    private TransactionDto success(UseBalance.Request request) {
+        return TransactionDto.builder()
+                .accountNumber(request.getAccountNumber())
+                .transactionResultType(TransactionResultType.SUCCESS)
+                .amount(request.getAmount())
+                .build();
+    }
+}
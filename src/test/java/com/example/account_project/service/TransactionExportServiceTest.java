@@ -0,0 +1,105 @@
+package com.example.account_project.service;
+
+import com.example.account_project.Exception.AccountException;
+import com.example.account_project.dto.TransactionDto;
+import com.example.account_project.repository.TransactionRepository;
+import com.example.account_project.type.ErrorCode;
+import com.example.account_project.type.ExportFormat;
+import com.example.account_project.type.TransactionResultType;
+import com.example.account_project.type.TransactionType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.BDDMockito.given;
+
+@ExtendWith(MockitoExtension.class)
+class TransactionExportServiceTest {
+    private static final LocalDateTime FROM = LocalDateTime.of(2023, 8, 1, 0, 0);
+    private static final LocalDateTime TO = LocalDateTime.of(2023, 8, 2, 0, 0);
+
+    @Mock
+    private TransactionRepository transactionRepository;
+
+    private TransactionExportService transactionExportService;
+
+    private final AtomicBoolean streamClosed = new AtomicBoolean();
+
+    @BeforeEach
+    void setUp() {
+        ObjectMapper objectMapper = new ObjectMapper()
+                .registerModule(new JavaTimeModule())
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+        transactionExportService = new TransactionExportService(transactionRepository, objectMapper);
+    }
+
+    @Test
+    @DisplayName("거래 내보내기 - NDJSON")
+    void exportNdjson() throws Exception {
+        //given
+        given(transactionRepository.streamForExport(any(), any()))
+                .willReturn(transactions());
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        //when
+        long count = transactionExportService.export(FROM, TO, ExportFormat.NDJSON, outputStream);
+        //then
+        String[] lines = outputStream.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(2, count);
+        assertEquals(2, lines.length);
+        assertTrue(lines[0].startsWith("{\"accountNumber\":\"1000000000\",\"transactionType\":\"USE\""));
+        assertTrue(lines[1].contains("\"transactionId\":\"transactionId2\""));
+        assertTrue(lines[1].contains("\"transactedAt\":\"2023-08-01T10:00:00\""));
+        assertTrue(streamClosed.get());
+    }
+
+    @Test
+    @DisplayName("거래 내보내기 - CSV")
+    void exportCsv() throws Exception {
+        //given
+        given(transactionRepository.streamForExport(any(), any()))
+                .willReturn(transactions());
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        //when
+        long count = transactionExportService.export(FROM, TO, ExportFormat.CSV, outputStream);
+        //then
+        String[] lines = outputStream.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(2, count);
+        assertEquals(3, lines.length);
+        assertEquals("1000000000,USE,SUCCESS,1000,9000,transactionId1,2023-08-01T09:00", lines[1]);
+        assertEquals("1000000000,CANCEL,SUCCESS,1000,10000,transactionId2,2023-08-01T10:00", lines[2]);
+        assertTrue(streamClosed.get());
+    }
+
+    @Test
+    @DisplayName("거래 내보내기 실패 - 잘못된 기간")
+    void exportFailed_invalidRange() {
+        //when
+        AccountException accountException = assertThrows(AccountException.class,
+                () -> transactionExportService.export(TO, FROM, ExportFormat.NDJSON, new ByteArrayOutputStream()));
+        //then
+        assertEquals(ErrorCode.INVALID_REQUEST, accountException.getErrorCode());
+    }
+
+    private Stream<TransactionDto> transactions() {
+        return Stream.of(
+                new TransactionDto("1000000000", TransactionType.USE, TransactionResultType.SUCCESS,
+                        1000L, 9000L, "transactionId1", LocalDateTime.of(2023, 8, 1, 9, 0)),
+                new TransactionDto("1000000000", TransactionType.CANCEL, TransactionResultType.SUCCESS,
+                        1000L, 10000L, "transactionId2", LocalDateTime.of(2023, 8, 1, 10, 0))
+        ).onClose(() -> streamClosed.set(true));
+    }
+}
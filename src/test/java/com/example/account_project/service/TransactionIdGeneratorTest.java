@@ -0,0 +1,113 @@
+package com.example.account_project.service;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.env.MockEnvironment;
+
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TransactionIdGeneratorTest {
+
+    @Test
+    @DisplayName("32자리 16진수, 앞 12자리는 밀리초 시각, 다음 4자리는 노드 id")
+    void nextId_format() {
+        //given
+        TransactionIdGenerator generator = new TransactionIdGenerator(0xABC);
+        long before = System.currentTimeMillis();
+
+        //when
+        String id = generator.nextId();
+
+        //then
+        long after = System.currentTimeMillis();
+        assertTrue(id.matches("[0-9a-f]{32}"));
+        long millis = Long.parseLong(id.substring(0, 12), 16);
+        assertTrue(before <= millis && millis <= after);
+        assertEquals("0abc", id.substring(12, 16));
+    }
+
+    @Test
+    @DisplayName("나중에 발급한 id 는 문자열로도 더 큼")
+    void nextId_timeOrdered() throws InterruptedException {
+        //given
+        TransactionIdGenerator generator = new TransactionIdGenerator(1);
+        String first = generator.nextId();
+
+        //when
+        Thread.sleep(2);
+        String second = generator.nextId();
+
+        //then
+        assertTrue(first.compareTo(second) < 0);
+    }
+
+    @Test
+    @DisplayName("여러 스레드에서 동시에 발급해도 중복 없음")
+    void nextId_concurrent() throws InterruptedException {
+        //given
+        TransactionIdGenerator generator = new TransactionIdGenerator(1);
+        Set<String> ids = ConcurrentHashMap.newKeySet();
+        int threads = 8;
+        int perThread = 10000;
+        ExecutorService executorService = Executors.newFixedThreadPool(threads);
+        CountDownLatch latch = new CountDownLatch(threads);
+
+        //when
+        for (int i = 0; i < threads; i++) {
+            executorService.submit(() -> {
+                for (int j = 0; j < perThread; j++) {
+                    ids.add(generator.nextId());
+                }
+                latch.countDown();
+            });
+        }
+        latch.await();
+        executorService.shutdown();
+
+        //then
+        assertEquals(threads * perThread, ids.size());
+    }
+
+    @Test
+    @DisplayName("스트라이프 번호가 카운터 앞에 들어가서 스레드마다 다른 카운터를 써도 겹치지 않음")
+    void nextId_stripe() throws Exception {
+        //given
+        TransactionIdGenerator generator = new TransactionIdGenerator(1);
+
+        //when
+        String id = generator.nextId();
+        String other = CompletableFuture.supplyAsync(generator::nextId).get();
+
+        //then
+        assertEquals(Thread.currentThread().getId() & 63, Long.parseLong(id.substring(16, 18), 16));
+        assertTrue(Long.parseLong(other.substring(16, 18), 16) < 64);
+        assertNotEquals(id, other);
+    }
+
+    @Test
+    @DisplayName("노드 id 가 없으면 local/test 프로파일에서만 임의로 정하고, 운영 프로파일에서는 시작하지 않음")
+    void nodeId_requiredOutsideLocal() {
+        //given
+        MockEnvironment local = new MockEnvironment();
+        local.setActiveProfiles("local");
+        MockEnvironment prod = new MockEnvironment();
+        prod.setActiveProfiles("prod");
+
+        //when
+        TransactionIdGenerator generator = new TransactionIdGenerator(-1, local);
+        IllegalStateException exception = assertThrows(IllegalStateException.class,
+                () -> new TransactionIdGenerator(-1, prod));
+
+        //then
+        assertTrue(generator.nextId().matches("[0-9a-f]{32}"));
+        assertTrue(exception.getMessage().contains("prod"));
+        assertEquals("0007", new TransactionIdGenerator(7, prod).nextId().substring(12, 16));
+    }
+}
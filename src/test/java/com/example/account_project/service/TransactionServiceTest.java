@@ -4,29 +4,43 @@ import com.example.account_project.Exception.AccountException;
 import com.example.account_project.domain.Account;
 import com.example.account_project.domain.AccountUser;
 import com.example.account_project.domain.Transaction;
+import com.example.account_project.dto.FailedTransaction;
+import com.example.account_project.dto.JournalEntry;
+import com.example.account_project.dto.TransactionCursor;
 import com.example.account_project.dto.TransactionDto;
+import com.example.account_project.dto.TransactionHistoryDto;
+import com.example.account_project.dto.UseBalance;
 import com.example.account_project.repository.AccountRepository;
-import com.example.account_project.repository.AccountUserRepository;
 import com.example.account_project.repository.TransactionRepository;
 import com.example.account_project.type.AccountStatus;
 import com.example.account_project.type.ErrorCode;
+import com.example.account_project.type.TransactionMode;
 import com.example.account_project.type.TransactionResultType;
 import com.example.account_project.type.TransactionType;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.ArgumentCaptor;
+import org.mockito.Captor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.util.ReflectionTestUtils;
 
 import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 
@@ -38,9 +52,23 @@ class TransactionServiceTest {
     @Mock
     private AccountRepository accountRepository;
     @Mock
-    private AccountUserRepository accountUserRepository;
+    private AccountUserCache accountUserCache;
     @Mock
     private TransactionRepository transactionRepository;
+    @Mock
+    private AccountNumberCache accountNumberCache;
+    @Mock
+    private AccountSummaryCache accountSummaryCache;
+    @Mock
+    private BalanceJournal balanceJournal;
+    @Mock
+    private LedgerEngine ledgerEngine;
+    @Mock
+    private BalanceSlotService balanceSlotService;
+    @Captor
+    private ArgumentCaptor<List<Transaction>> transactionsCaptor;
+    @Spy
+    private TransactionIdGenerator transactionIdGenerator = new TransactionIdGenerator(1);
     @InjectMocks
     private TransactionService transactionService;
 
@@ -55,9 +83,9 @@ class TransactionServiceTest {
                 .balance(10000L)
                 .accountNumber("1000000012")
                 .build();
-        given(accountUserRepository.findById(anyLong()))
+        given(accountUserCache.findById(anyLong()))
                 .willReturn(Optional.of(user));
-        given(accountRepository.findByAccountNumber(anyString()))
+        given(accountNumberCache.findByAccountNumber(anyString()))
                 .willReturn(Optional.of(account));
 
         //------------실제로 테스트할때 동작해서 잔액 부분 쓰이는곳------------------
@@ -88,11 +116,202 @@ class TransactionServiceTest {
         assertEquals(1000L, transactionDto.getAmount());
     }
 
+    @Test
+    @DisplayName("잔액 사용 성공 - ATOMIC 모드는 조건부 UPDATE 로 차감")
+    void successUseBalance_atomic() {
+        //given
+        ReflectionTestUtils.setField(transactionService, "transactionMode", TransactionMode.ATOMIC);
+        AccountUser user = AccountUser.builder().id(1L).name("messi").build();
+        Account account = Account.builder()
+                .id(10L)
+                .accountUser(user)
+                .accountStatus(AccountStatus.IN_USE)
+                .balance(10000L)
+                .accountNumber("1000000012")
+                .build();
+        given(accountUserCache.findById(anyLong()))
+                .willReturn(Optional.of(user));
+        given(accountNumberCache.findByAccountNumber(anyString()))
+                .willReturn(Optional.of(account));
+        given(accountRepository.debitIfSufficient(eq(10L), eq(1500L), eq(AccountStatus.IN_USE), any()))
+                .willReturn(1);
+        given(accountRepository.findBalanceById(10L))
+                .willReturn(8500L);
+        given(transactionRepository.save(any()))
+                .willAnswer(invocation -> invocation.getArgument(0));
+        ArgumentCaptor<Transaction> captor = ArgumentCaptor.forClass(Transaction.class);
+        //when
+        TransactionDto transactionDto =
+                transactionService.useBalance(1L, "1000000012", 1500L);
+
+        //then
+        verify(transactionRepository, times(1)).save(captor.capture());
+        assertEquals(8500L, captor.getValue().getBalanceSnapshot());
+        assertEquals(TransactionResultType.SUCCESS, transactionDto.getTransactionResultType());
+        assertEquals(10000L, account.getBalance());
+    }
+
+    @Test
+    @DisplayName("잔액 사용 실패 - ATOMIC 모드에서 UPDATE 된 행이 없으면 잔액 부족")
+    void useBalanceFailed_atomicAmountExceedBalance() {
+        //given
+        ReflectionTestUtils.setField(transactionService, "transactionMode", TransactionMode.ATOMIC);
+        AccountUser user = AccountUser.builder().id(1L).name("messi").build();
+        Account account = Account.builder()
+                .id(10L)
+                .accountUser(user)
+                .accountStatus(AccountStatus.IN_USE)
+                .balance(100L)
+                .accountNumber("1000000012")
+                .build();
+        given(accountUserCache.findById(anyLong()))
+                .willReturn(Optional.of(user));
+        given(accountNumberCache.findByAccountNumber(anyString()))
+                .willReturn(Optional.of(account));
+        given(accountRepository.debitIfSufficient(anyLong(), anyLong(), any(), any()))
+                .willReturn(0);
+        //when
+        AccountException accountException = assertThrows(AccountException.class,
+                () -> transactionService.useBalance(1L, "1000000012", 1500L));
+        //then
+        assertEquals(ErrorCode.AMOUNT_EXCEED_BALANCE, accountException.getErrorCode());
+        verify(transactionRepository, never()).save(any());
+    }
+
+    @Test
+    @DisplayName("잔액 사용 성공 - 잔액을 슬롯으로 나눈 계좌는 슬롯에서 차감하고 합계를 남김")
+    void successUseBalance_sharded() {
+        //given
+        AccountUser user = AccountUser.builder().id(1L).name("messi").build();
+        Account account = Account.builder()
+                .id(10L)
+                .accountUser(user)
+                .accountStatus(AccountStatus.IN_USE)
+                .balance(0L)
+                .balanceSlots(4)
+                .accountNumber("1000000012")
+                .build();
+        given(accountUserCache.findById(anyLong()))
+                .willReturn(Optional.of(user));
+        given(accountNumberCache.findByAccountNumber(anyString()))
+                .willReturn(Optional.of(account));
+        given(balanceSlotService.debit(account, 1500L))
+                .willReturn(8500L);
+        given(transactionRepository.save(any()))
+                .willAnswer(invocation -> invocation.getArgument(0));
+        ArgumentCaptor<Transaction> captor = ArgumentCaptor.forClass(Transaction.class);
+        //when
+        TransactionDto transactionDto =
+                transactionService.useBalance(1L, "1000000012", 1500L);
+
+        //then
+        verify(transactionRepository, times(1)).save(captor.capture());
+        assertEquals(8500L, captor.getValue().getBalanceSnapshot());
+        assertEquals(TransactionResultType.SUCCESS, transactionDto.getTransactionResultType());
+        assertEquals(0L, account.getBalance());
+        verify(accountSummaryCache).evictAfterCommit(1L);
+        verify(accountRepository, never()).debitIfSufficient(anyLong(), anyLong(), any(), any());
+    }
+
+    @Test
+    @DisplayName("잔액 사용 성공 - JOURNAL 모드는 저널에 쓰고 DB 에는 저장하지 않음")
+    void successUseBalance_journal() {
+        //given
+        ReflectionTestUtils.setField(transactionService, "transactionMode", TransactionMode.JOURNAL);
+        AccountUser user = AccountUser.builder().id(1L).name("messi").build();
+        Account account = Account.builder()
+                .id(10L)
+                .accountUser(user)
+                .accountStatus(AccountStatus.IN_USE)
+                .balance(10000L)
+                .accountNumber("1000000012")
+                .build();
+        given(accountUserCache.findById(anyLong()))
+                .willReturn(Optional.of(user));
+        given(accountNumberCache.findByAccountNumber(anyString()))
+                .willReturn(Optional.of(account));
+        given(balanceJournal.append(eq(10L), any()))
+                .willAnswer(invocation -> invocation.<BalanceJournal.Mutation>getArgument(1).apply(7000L));
+        //when
+        TransactionDto transactionDto =
+                transactionService.useBalance(1L, "1000000012", 1500L);
+
+        //then
+        assertEquals(5500L, transactionDto.getBalanceSnapshot());
+        assertEquals(TransactionResultType.SUCCESS, transactionDto.getTransactionResultType());
+        assertEquals("1000000012", transactionDto.getAccountNumber());
+        assertEquals(10000L, account.getBalance());
+        verify(transactionRepository, never()).save(any());
+    }
+
+    @Test
+    @DisplayName("잔액 사용 실패 - JOURNAL 모드는 반영 전 변경분을 포함한 잔액으로 검증")
+    void useBalanceFailed_journalAmountExceedBalance() {
+        //given
+        ReflectionTestUtils.setField(transactionService, "transactionMode", TransactionMode.JOURNAL);
+        AccountUser user = AccountUser.builder().id(1L).name("messi").build();
+        Account account = Account.builder()
+                .id(10L)
+                .accountUser(user)
+                .accountStatus(AccountStatus.IN_USE)
+                .balance(10000L)
+                .accountNumber("1000000012")
+                .build();
+        given(accountUserCache.findById(anyLong()))
+                .willReturn(Optional.of(user));
+        given(accountNumberCache.findByAccountNumber(anyString()))
+                .willReturn(Optional.of(account));
+        given(balanceJournal.append(eq(10L), any()))
+                .willAnswer(invocation -> invocation.<BalanceJournal.Mutation>getArgument(1).apply(1000L));
+        //when
+        AccountException accountException = assertThrows(AccountException.class,
+                () -> transactionService.useBalance(1L, "1000000012", 1500L));
+        //then
+        assertEquals(ErrorCode.AMOUNT_EXCEED_BALANCE, accountException.getErrorCode());
+        verify(transactionRepository, never()).save(any());
+    }
+
+    @Test
+    @DisplayName("잔액 사용 성공 - LEDGER 모드는 사용자/계좌를 DB 에서 읽지 않음")
+    void successUseBalance_ledger() {
+        //given
+        ReflectionTestUtils.setField(transactionService, "transactionMode", TransactionMode.LEDGER);
+        given(ledgerEngine.use(1L, "1000000012", 1500L, false))
+                .willReturn(JournalEntry.of("transactionId", TransactionType.USE, TransactionResultType.SUCCESS,
+                        10L, "1000000012", 1500L, -1500L, 8500L));
+        //when
+        TransactionDto transactionDto =
+                transactionService.useBalance(1L, "1000000012", 1500L);
+
+        //then
+        assertEquals(8500L, transactionDto.getBalanceSnapshot());
+        assertEquals(TransactionResultType.SUCCESS, transactionDto.getTransactionResultType());
+        verify(accountUserCache, never()).findById(anyLong());
+        verify(accountNumberCache, never()).findByAccountNumber(anyString());
+        verify(transactionRepository, never()).save(any());
+    }
+
+    @Test
+    @DisplayName("잔액 사용 실패 - LEDGER 모드에서 계좌 없음이어도 사용자가 없으면 사용자 없음")
+    void useBalanceFailed_ledgerUserNotFound() {
+        //given
+        ReflectionTestUtils.setField(transactionService, "transactionMode", TransactionMode.LEDGER);
+        given(ledgerEngine.use(1L, "1000000012", 1500L, false))
+                .willThrow(new AccountException(ErrorCode.ACCOUNT_NOT_FOUND));
+        given(accountUserCache.exists(1L))
+                .willReturn(false);
+        //when
+        AccountException accountException = assertThrows(AccountException.class,
+                () -> transactionService.useBalance(1L, "1000000012", 1500L));
+        //then
+        assertEquals(ErrorCode.USER_NOT_FOUND, accountException.getErrorCode());
+    }
+
     @Test
     @DisplayName("잔액 사용 실패 - 해당 사용자 없음")
     void useBalanceFailed_UserNotFound() {
         //given
-        given(accountUserRepository.findById(anyLong()))
+        given(accountUserCache.findById(anyLong()))
                 .willReturn(Optional.empty());
         //when
         AccountException accountException = assertThrows(AccountException.class,
@@ -106,9 +325,9 @@ class TransactionServiceTest {
     void useBalanceFailed_AccountNotFound() {
         //given
         AccountUser user = AccountUser.builder().id(1L).name("messi").build();
-        given(accountUserRepository.findById(anyLong()))
+        given(accountUserCache.findById(anyLong()))
                 .willReturn(Optional.of(user));
-        given(accountRepository.findByAccountNumber(anyString()))
+        given(accountNumberCache.findByAccountNumber(anyString()))
                 .willReturn(Optional.empty());
         //when
         AccountException accountException = assertThrows(AccountException.class,
@@ -124,10 +343,10 @@ class TransactionServiceTest {
         AccountUser messi = AccountUser.builder().id(1L).name("messi").build();
         AccountUser ronaldo = AccountUser.builder().id(2L).name("ronaldo").build();
 
-        given(accountUserRepository.findById(anyLong()))
+        given(accountUserCache.findById(anyLong()))
                 .willReturn(Optional.of(messi));
 
-        given(accountRepository.findByAccountNumber(anyString()))
+        given(accountNumberCache.findByAccountNumber(anyString()))
                 .willReturn(Optional.of(Account.builder()
                         .accountUser(ronaldo)
                         .balance(0L)
@@ -144,9 +363,9 @@ class TransactionServiceTest {
     void useBalanceFailed_alreadyUnregistered() {
         //given
         AccountUser user = AccountUser.builder().id(1L).name("messi").build();
-        given(accountUserRepository.findById(anyLong()))
+        given(accountUserCache.findById(anyLong()))
                 .willReturn(Optional.of(user));
-        given(accountRepository.findByAccountNumber(anyString()))
+        given(accountNumberCache.findByAccountNumber(anyString()))
                 .willReturn(Optional.of(Account.builder()
                         .accountUser(user)
                         .accountNumber("1234567890")
@@ -170,9 +389,9 @@ class TransactionServiceTest {
                 .balance(100L)
                 .accountNumber("1000000012")
                 .build();
-        given(accountUserRepository.findById(anyLong()))
+        given(accountUserCache.findById(anyLong()))
                 .willReturn(Optional.of(user));
-        given(accountRepository.findByAccountNumber(anyString()))
+        given(accountNumberCache.findByAccountNumber(anyString()))
                 .willReturn(Optional.of(account));
 
         //when
@@ -184,41 +403,67 @@ class TransactionServiceTest {
     }
 
     @Test
-    @DisplayName("잔액 사용 실패 - Transaction 저장 성공")
-    void saveFailedUseTransaction() {
+    @DisplayName("실패 거래 일괄 저장 - 이미 저장된 거래와 계좌가 없는 요청은 건너뜀")
+    void saveFailedTransactions() {
         //given
         AccountUser user = AccountUser.builder().id(1L).name("messi").build();
         Account account = Account.builder()
                 .accountUser(user)
                 .accountStatus(AccountStatus.IN_USE)
                 .balance(10000L)
-                .accountNumber("1000000012")
+                .accountNumber("1000000000")
                 .build();
-        given(accountRepository.findByAccountNumber(anyString()))
+        LocalDateTime failedAt = LocalDateTime.of(2023, 8, 1, 9, 0);
+        List<FailedTransaction> failedTransactions = List.of(
+                new FailedTransaction("written", TransactionType.USE, "1000000000", 1000L, failedAt),
+                new FailedTransaction("new", TransactionType.CANCEL, "1000000000", 2000L, failedAt),
+                new FailedTransaction("noAccount", TransactionType.USE, "9999999999", 3000L, failedAt));
+        given(transactionRepository.findExistingTransactionIds(anyCollection()))
+                .willReturn(Set.of("written"));
+        given(accountNumberCache.findByAccountNumber("1000000000"))
                 .willReturn(Optional.of(account));
+        given(accountNumberCache.findByAccountNumber("9999999999"))
+                .willReturn(Optional.empty());
 
-        //------------실제로 테스트할때 동작해서 잔액 부분 쓰이는곳------------------
-        given(transactionRepository.save(any()))
-                .willReturn(Transaction.builder()
-                        .account(account)
-                        .transactionType(TransactionType.USE)
-                        .transactionResultType(TransactionResultType.SUCCESS)
-                        .transactionId("transactionId")
-                        .transactedAt(LocalDateTime.now())
-                        .amount(1000L)
-                        .balanceSnapshot(9000L)
-                        .build());
-        //-----------------------------------------------------------------------
-        ArgumentCaptor<Transaction> captor = ArgumentCaptor.forClass(Transaction.class);
         //when
-        //이 값은 의미가 없음
-        transactionService.saveFailedUseTransaction("1000000000", 1500L);
+        int saved = transactionService.saveFailedTransactions(failedTransactions);
 
         //then
-        verify(transactionRepository, times(1)).save(captor.capture());
-        assertEquals(1500L, captor.getValue().getAmount());
-        assertEquals(10000L, captor.getValue().getBalanceSnapshot());
-        assertEquals(TransactionResultType.FAIL, captor.getValue().getTransactionResultType());
+        verify(transactionRepository).saveAll(transactionsCaptor.capture());
+        assertEquals(1, saved);
+        assertEquals(1, transactionsCaptor.getValue().size());
+        assertEquals("new", transactionsCaptor.getValue().get(0).getTransactionId());
+        assertEquals(TransactionType.CANCEL, transactionsCaptor.getValue().get(0).getTransactionType());
+        assertEquals(TransactionResultType.FAIL, transactionsCaptor.getValue().get(0).getTransactionResultType());
+        assertEquals(failedAt, transactionsCaptor.getValue().get(0).getTransactedAt());
+        assertEquals(10000L, transactionsCaptor.getValue().get(0).getBalanceSnapshot());
+    }
+
+    @Test
+    @DisplayName("실패 거래 일괄 저장 - LEDGER 모드는 메모리 원장 잔액을 남김")
+    void saveFailedTransactions_ledgerBalance() {
+        //given
+        ReflectionTestUtils.setField(transactionService, "transactionMode", TransactionMode.LEDGER);
+        Account account = Account.builder()
+                .accountUser(AccountUser.builder().id(1L).name("messi").build())
+                .accountStatus(AccountStatus.IN_USE)
+                .balance(10000L)
+                .accountNumber("1000000000")
+                .build();
+        given(transactionRepository.findExistingTransactionIds(anyCollection()))
+                .willReturn(Set.of());
+        given(accountNumberCache.findByAccountNumber("1000000000"))
+                .willReturn(Optional.of(account));
+        given(ledgerEngine.balanceOf("1000000000"))
+                .willReturn(7000L);
+
+        //when
+        transactionService.saveFailedTransactions(List.of(new FailedTransaction("failed", TransactionType.USE,
+                "1000000000", 9000L, LocalDateTime.of(2023, 8, 1, 9, 0))));
+
+        //then
+        verify(transactionRepository).saveAll(transactionsCaptor.capture());
+        assertEquals(7000L, transactionsCaptor.getValue().get(0).getBalanceSnapshot());
     }
 
     @Test
@@ -243,7 +488,7 @@ class TransactionServiceTest {
                 .build();
         given(transactionRepository.findByTransactionId(anyString()))
                 .willReturn(Optional.of(transaction));
-        given(accountRepository.findByAccountNumber(anyString()))
+        given(accountNumberCache.findByAccountNumber(anyString()))
                 .willReturn(Optional.of(account));
 
         //------------실제로 테스트할때 동작해서 잔액 부분 쓰이는곳------------------
@@ -274,6 +519,47 @@ class TransactionServiceTest {
         assertEquals(1000L, transactionDto.getAmount());
     }
 
+    @Test
+    @DisplayName("잔액 사용 취소 성공 - ATOMIC 모드는 UPDATE 로 더함")
+    void successCancelBalance_atomic() {
+        //given
+        ReflectionTestUtils.setField(transactionService, "transactionMode", TransactionMode.ATOMIC);
+        AccountUser user = AccountUser.builder().id(1L).name("messi").build();
+        Account account = Account.builder()
+                .id(10L)
+                .accountUser(user)
+                .accountStatus(AccountStatus.IN_USE)
+                .balance(10000L)
+                .accountNumber("1000000000")
+                .build();
+        Transaction transaction = Transaction.builder()
+                .account(account)
+                .transactionType(TransactionType.USE)
+                .transactionResultType(TransactionResultType.SUCCESS)
+                .transactionId("transactionId")
+                .transactedAt(LocalDateTime.now())
+                .amount(1000L)
+                .balanceSnapshot(9000L)
+                .build();
+        given(transactionRepository.findByTransactionId(anyString()))
+                .willReturn(Optional.of(transaction));
+        given(accountNumberCache.findByAccountNumber(anyString()))
+                .willReturn(Optional.of(account));
+        given(accountRepository.findBalanceById(10L))
+                .willReturn(11000L);
+        given(transactionRepository.save(any()))
+                .willAnswer(invocation -> invocation.getArgument(0));
+        //when
+        TransactionDto transactionDto =
+                transactionService.cancelBalance("transactionId", "1000000000", 1000L);
+
+        //then
+        verify(accountRepository, times(1)).credit(eq(10L), eq(1000L), any());
+        verify(accountRepository, never()).save(any());
+        assertEquals(11000L, transactionDto.getBalanceSnapshot());
+        assertEquals(TransactionType.CANCEL, transactionDto.getTransactionType());
+    }
+
     @Test
     @DisplayName("잔액 사용 취소 실패 - 해당 계좌 없음")
     void cancelTransactionFailed_AccountNotFound() {
@@ -288,7 +574,7 @@ class TransactionServiceTest {
                         .amount(CANCEL_AMOUNT)
                         .balanceSnapshot(9000L)
                         .build()));
-        given(accountRepository.findByAccountNumber(anyString()))
+        given(accountNumberCache.findByAccountNumber(anyString()))
                 .willReturn(Optional.empty());
         //when
         AccountException accountException = assertThrows(AccountException.class,
@@ -341,7 +627,7 @@ class TransactionServiceTest {
                         .transactedAt(LocalDateTime.now())
                         .balanceSnapshot(9000L)
                         .build()));
-        given(accountRepository.findByAccountNumber(anyString()))
+        given(accountNumberCache.findByAccountNumber(anyString()))
                 .willReturn(Optional.of(accountNotUse));
 
         //when
@@ -373,7 +659,7 @@ class TransactionServiceTest {
                         .transactedAt(LocalDateTime.now())
                         .balanceSnapshot(9000L)
                         .build()));
-        given(accountRepository.findByAccountNumber(anyString()))
+        given(accountNumberCache.findByAccountNumber(anyString()))
                 .willReturn(Optional.of(account));
 
         //when
@@ -396,7 +682,7 @@ class TransactionServiceTest {
                 .transactedAt(LocalDateTime.now().minusYears(1).minusDays(1)).build();
         given(transactionRepository.findByTransactionId(anyString()))
                 .willReturn(Optional.of(transaction));
-        given(accountRepository.findByAccountNumber(anyString()))
+        given(accountNumberCache.findByAccountNumber(anyString()))
                 .willReturn(Optional.of(account));
 
         //when
@@ -411,16 +697,14 @@ class TransactionServiceTest {
     @DisplayName("거래 조회 확인 성공")
     void successQueryTransaction() {
         //given
-        AccountUser user = AccountUser.builder().id(1L).name("messi").build();
-        Account account = Account.builder().build();
-        Transaction transaction = Transaction.builder()
-                .account(account)
+        TransactionDto transaction = TransactionDto.builder()
+                .accountNumber("1000000000")
                 .amount(CANCEL_AMOUNT)
                 .transactionType(TransactionType.USE)
                 .transactionResultType(TransactionResultType.SUCCESS)
                 .transactionId("transactionId")
                 .transactedAt(LocalDateTime.now()).build();
-        given(transactionRepository.findByTransactionId(anyString()))
+        given(transactionRepository.findDtoByTransactionId(anyString()))
                 .willReturn(Optional.of(transaction));
         //when
         TransactionDto transactionDto = transactionService.queryTransaction("trxId");
@@ -436,7 +720,7 @@ class TransactionServiceTest {
     @DisplayName("거래 조회 실패 - 원거래 없음")
         void queryTransaction_TransactionNotFound() {
         //given
-        given(transactionRepository.findByTransactionId(anyString()))
+        given(transactionRepository.findDtoByTransactionId(anyString()))
                 .willReturn(Optional.empty());
 
         //when
@@ -445,4 +729,138 @@ class TransactionServiceTest {
         //then
         assertEquals(ErrorCode.TRANSACTION_NOT_FOUND,accountException.getErrorCode());
     }
-}
\ No newline at end of file
+
+    @Test
+    @DisplayName("배치 잔액 사용 - 계좌별로 한 번만 조회하고 한 번에 저장")
+    void useBalanceBatch() {
+        //given
+        AccountUser user = AccountUser.builder().id(1L).name("messi").build();
+        Account account = Account.builder()
+                .accountUser(user)
+                .accountStatus(AccountStatus.IN_USE)
+                .balance(10000L)
+                .accountNumber("1000000012")
+                .build();
+        given(accountUserCache.findById(anyLong()))
+                .willReturn(Optional.of(user));
+        given(accountNumberCache.findByAccountNumber("1000000012"))
+                .willReturn(Optional.of(account));
+        List<UseBalance.Request> requests = Arrays.asList(
+                new UseBalance.Request(1L, "1000000012", 3000L),
+                new UseBalance.Request(1L, "1000000012", 8000L),
+                new UseBalance.Request(1L, "1000000012", 7000L),
+                new UseBalance.Request(1L, "1000000099", 1000L));
+
+        //when
+        List<TransactionDto> results = transactionService.useBalanceBatch(
+                requests, Set.of("1000000012", "1000000099"));
+
+        //then
+        verify(accountNumberCache, times(1)).findByAccountNumber("1000000012");
+        verify(accountUserCache, times(1)).findById(1L);
+        verify(transactionRepository, times(1)).saveAll(transactionsCaptor.capture());
+        assertEquals(3, transactionsCaptor.getValue().size());
+        assertEquals(0L, account.getBalance());
+        assertEquals(TransactionResultType.SUCCESS, results.get(0).getTransactionResultType());
+        assertEquals(7000L, results.get(0).getBalanceSnapshot());
+        assertEquals(TransactionResultType.FAIL, results.get(1).getTransactionResultType());
+        assertEquals(7000L, results.get(1).getBalanceSnapshot());
+        assertEquals(TransactionResultType.SUCCESS, results.get(2).getTransactionResultType());
+        assertEquals(0L, results.get(2).getBalanceSnapshot());
+        assertEquals(TransactionResultType.FAIL, results.get(3).getTransactionResultType());
+        assertNull(results.get(3).getTransactionId());
+    }
+
+    @Test
+    @DisplayName("배치 잔액 사용 - 락을 잡지 못한 계좌는 거래 기록 없이 실패")
+    void useBalanceBatch_notLocked() {
+        //given
+        List<UseBalance.Request> requests = Arrays.asList(
+                new UseBalance.Request(1L, "1000000012", 3000L));
+
+        //when
+        List<TransactionDto> results = transactionService.useBalanceBatch(requests, Set.of());
+
+        //then
+        verify(accountNumberCache, times(0)).findByAccountNumber(anyString());
+        verify(transactionRepository, times(1)).saveAll(transactionsCaptor.capture());
+        assertEquals(0, transactionsCaptor.getValue().size());
+        assertEquals(TransactionResultType.FAIL, results.get(0).getTransactionResultType());
+        assertEquals("1000000012", results.get(0).getAccountNumber());
+    }
+
+    @Test
+    @DisplayName("거래내역 조회 - 첫 페이지와 다음 페이지 커서")
+    void getTransactionHistory_firstPage() {
+        //given
+        Account account = Account.builder().id(1L).accountNumber("1000000000").build();
+        LocalDateTime now = LocalDateTime.now();
+        List<Transaction> transactions = Arrays.asList(
+                Transaction.builder().id(3L).account(account).transactedAt(now).build(),
+                Transaction.builder().id(2L).account(account).transactedAt(now.minusMinutes(1)).build(),
+                Transaction.builder().id(1L).account(account).transactedAt(now.minusMinutes(2)).build());
+        given(accountNumberCache.findByAccountNumber(anyString()))
+                .willReturn(Optional.of(account));
+        given(transactionRepository.findHistory(eq(1L), eq(TransactionType.USE), isNull(),
+                any(), any(), eq(Long.MAX_VALUE), eq(PageRequest.of(0, 3))))
+                .willReturn(transactions);
+
+        //when
+        TransactionHistoryDto history = transactionService.getTransactionHistory(
+                "1000000000", TransactionType.USE, null, null, null, null, 2);
+
+        //then
+        assertEquals(2, history.getTransactions().size());
+        TransactionCursor nextCursor = TransactionCursor.decode(history.getNextCursor());
+        assertEquals(2L, nextCursor.getId());
+        assertEquals(now.minusMinutes(1), nextCursor.getTransactedAt());
+    }
+
+    @Test
+    @DisplayName("거래내역 조회 - 커서 이후 마지막 페이지")
+    void getTransactionHistory_lastPage() {
+        //given
+        Account account = Account.builder().id(1L).accountNumber("1000000000").build();
+        LocalDateTime cursorTransactedAt = LocalDateTime.of(2023, 8, 1, 12, 0, 0, 123456000);
+        String cursor = new TransactionCursor(cursorTransactedAt, 2L).encode();
+        given(accountNumberCache.findByAccountNumber(anyString()))
+                .willReturn(Optional.of(account));
+        given(transactionRepository.findHistory(eq(1L), isNull(), isNull(),
+                any(), eq(cursorTransactedAt), eq(2L), any()))
+                .willReturn(List.of(Transaction.builder().id(1L).account(account)
+                        .transactedAt(cursorTransactedAt.minusMinutes(1)).build()));
+
+        //when
+        TransactionHistoryDto history = transactionService.getTransactionHistory(
+                "1000000000", null, null, null, null, cursor, 2);
+
+        //then
+        assertEquals(1, history.getTransactions().size());
+        assertNull(history.getNextCursor());
+    }
+
+    @Test
+    @DisplayName("거래내역 조회 실패 - 잘못된 커서")
+    void getTransactionHistory_invalidCursor() {
+        //given
+        given(accountNumberCache.findByAccountNumber(anyString()))
+                .willReturn(Optional.of(Account.builder().id(1L).build()));
+        //when
+        AccountException accountException = assertThrows(AccountException.class,
+                () -> transactionService.getTransactionHistory(
+                        "1000000000", null, null, null, null, "not-a-cursor", 20));
+        //then
+        assertEquals(ErrorCode.INVALID_REQUEST, accountException.getErrorCode());
+    }
+
+    @Test
+    @DisplayName("거래내역 조회 실패 - 페이지 크기 초과")
+    void getTransactionHistory_invalidSize() {
+        //when
+        AccountException accountException = assertThrows(AccountException.class,
+                () -> transactionService.getTransactionHistory(
+                        "1000000000", null, null, null, null, null, 101));
+        //then
+        assertEquals(ErrorCode.INVALID_REQUEST, accountException.getErrorCode());
+    }
+}